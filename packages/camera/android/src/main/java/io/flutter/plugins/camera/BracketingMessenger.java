@@ -0,0 +1,47 @@
+package io.flutter.plugins.camera;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.EventChannel;
+
+/** Sends the path of every bracketing picture as soon as it is written. */
+class BracketingMessenger {
+    @Nullable
+    private EventChannel.EventSink eventSink;
+
+    BracketingMessenger(BinaryMessenger messenger, long eventChannelId) {
+        new EventChannel(messenger, "flutter.io/cameraPlugin/bracketing" + eventChannelId)
+                .setStreamHandler(
+                        new EventChannel.StreamHandler() {
+                            @Override
+                            public void onListen(Object arguments, EventChannel.EventSink sink) {
+                                eventSink = sink;
+                            }
+
+                            @Override
+                            public void onCancel(Object arguments) {
+                                eventSink = null;
+                            }
+                        });
+    }
+
+    void sendPictureSaved(int index, int count, String path) {
+        if (eventSink == null) {
+            return;
+        }
+
+        Map<String, Object> event = new HashMap<>();
+        event.put("index", index);
+        event.put("count", count);
+        event.put("path", path);
+        CameraThreads.runOnMainThread(
+                () -> {
+                    if (eventSink != null) {
+                        eventSink.success(event);
+                    }
+                });
+    }
+}
@@ -0,0 +1,108 @@
+package io.flutter.plugins.camera;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.MethodChannel.Result;
+
+/**
+ * Bookkeeping of a continuous burst: names the frames, bounds the frames waiting to be written
+ * and measures the frame rate the camera achieved.
+ *
+ * <p>Frames arriving while {@code maxPendingFrames} frames are waiting to be written are dropped
+ * instead of queued. Blocking the image reader would hold back the camera, which also stalls the
+ * preview the burst requests target, and queueing them would grow the memory without bound.
+ */
+class BurstCapture {
+    private final String basePath;
+    private final int maxPendingFrames;
+    private final List<String> paths = new ArrayList<>();
+
+    private int pendingFrames;
+    private int capturedFrames;
+    private int droppedFrames;
+    private int failedFrames;
+    private long firstTimestamp;
+    private long lastTimestamp;
+    private boolean stopped;
+    @Nullable private Result stopResult;
+
+    BurstCapture(String basePath, int maxPendingFrames) {
+        this.basePath = basePath;
+        this.maxPendingFrames = maxPendingFrames;
+    }
+
+    /**
+     * Records a frame captured at {@code timestamp}, in nanoseconds.
+     *
+     * @return the path to write the frame to without extension, or null to drop it.
+     */
+    @Nullable
+    synchronized String onFrameAvailable(long timestamp) {
+        if (stopped) {
+            // Frames still in flight when the burst was stopped.
+            return null;
+        }
+        if (capturedFrames == 0) {
+            firstTimestamp = timestamp;
+        }
+        lastTimestamp = timestamp;
+        capturedFrames++;
+
+        if (pendingFrames >= maxPendingFrames) {
+            droppedFrames++;
+            return null;
+        }
+        pendingFrames++;
+        return basePath + "_" + capturedFrames;
+    }
+
+    /** Records a frame the camera failed to capture. */
+    synchronized void onCaptureFailed() {
+        droppedFrames++;
+    }
+
+    /** Called once a frame returned by {@link #onFrameAvailable} is written. */
+    synchronized void onFrameWritten(@Nullable String path) {
+        pendingFrames--;
+        if (path != null) {
+            paths.add(path);
+        } else {
+            failedFrames++;
+        }
+        replyIfDone();
+    }
+
+    /** Replies to {@code result} with {@link #getStats()} once the pending frames are written. */
+    synchronized void stop(Result result) {
+        stopped = true;
+        stopResult = result;
+        replyIfDone();
+    }
+
+    private void replyIfDone() {
+        if (stopResult != null && pendingFrames == 0) {
+            stopResult.success(getStats());
+            stopResult = null;
+        }
+    }
+
+    synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("paths", new ArrayList<>(paths));
+        stats.put("capturedFrames", capturedFrames);
+        stats.put("droppedFrames", droppedFrames + failedFrames);
+        stats.put("framesPerSecond", framesPerSecond(capturedFrames, firstTimestamp, lastTimestamp));
+        return stats;
+    }
+
+    static double framesPerSecond(int frames, long firstTimestamp, long lastTimestamp) {
+        if (frames < 2 || lastTimestamp <= firstTimestamp) {
+            return 0;
+        }
+        return (frames - 1) * 1e9 / (lastTimestamp - firstTimestamp);
+    }
+}
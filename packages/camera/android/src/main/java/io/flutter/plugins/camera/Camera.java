@@ -2,7 +2,6 @@ package io.flutter.plugins.camera;
 
 import android.annotation.SuppressLint;
 import android.app.Activity;
-import android.content.Context;
 import android.graphics.ImageFormat;
 import android.graphics.SurfaceTexture;
 import android.hardware.camera2.CameraAccessException;
@@ -14,14 +13,15 @@ import android.hardware.camera2.CameraMetadata;
 import android.hardware.camera2.CaptureFailure;
 import android.hardware.camera2.CaptureRequest;
 import android.hardware.camera2.CaptureResult;
-import android.hardware.camera2.DngCreator;
 import android.hardware.camera2.TotalCaptureResult;
+import android.hardware.camera2.params.RggbChannelVector;
 import android.hardware.camera2.params.StreamConfigurationMap;
 import android.media.CamcorderProfile;
 import android.media.Image;
 import android.media.ImageReader;
 import android.media.MediaRecorder;
 import android.os.Build;
+import android.os.SystemClock;
 import android.util.Log;
 import android.util.Range;
 import android.util.Size;
@@ -29,18 +29,19 @@ import android.view.OrientationEventListener;
 import android.view.Surface;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.MethodChannel.Result;
 import io.flutter.plugins.camera.MethodCallHandlerImpl.BracketingMode;
@@ -50,48 +51,88 @@ import static android.view.OrientationEventListener.ORIENTATION_UNKNOWN;
 import static io.flutter.plugins.camera.CameraUtils.computeBestPreviewSize;
 
 public class Camera {
+    private static final int IMAGE_WRITE_WORKERS = 2;
+    // Bounds the memory taken by burst images waiting to be written, full size JPEGs are a few MB.
+    private static final int IMAGE_WRITE_MAX_COPIED_IMAGES = 8;
+    // Every exposure fusion worker holds the pyramids of one tile of every input.
+    private static final int EXPOSURE_FUSION_MAX_WORKERS = 4;
+    // Fixed ISO bracketing takes one under and one over exposed picture by default.
+    private static final List<Double> DEFAULT_EXPOSURE_VALUES = Arrays.asList(-1.3, 0.0, 1.3);
+    // Two to three full resolution frames on most devices.
+    static final long ZSL_DEFAULT_MEMORY_BUDGET_BYTES = 64L * 1024 * 1024;
+    // Older zero shutter lag frames than this many preview frames aren't taken as the picture.
+    private static final int ZSL_MAX_FRAME_AGE_FRAMES = 4;
+    // Used until the preview reports its frame duration, 30 fps.
+    private static final long DEFAULT_PREVIEW_FRAME_DURATION_NANOS = 33_333_333L;
+    static final int DEFAULT_JPEG_MAX_IMAGES = 3;
+    static final int DEFAULT_RAW_MAX_IMAGES = 3;
+    static final int DEFAULT_IMAGE_STREAM_MAX_IMAGES = 2;
+    // Seconds between key frames of the VideoEncoder, like most camcorder profiles.
+    private static final int DEFAULT_KEY_FRAME_INTERVAL = 1;
+
     private final SurfaceTextureEntry flutterTexture;
     private final CameraManager cameraManager;
+    private final CameraCharacteristicsCache characteristicsCache;
     private final OrientationEventListener orientationEventListener;
     private final boolean isFrontFacing;
+    private final boolean hasRealtimeTimestamps;
     private final int sensorOrientation;
     private final String cameraName;
     private final Size captureSize;
     private final Size previewSize;
     private final boolean enableAudio;
     private final CameraPropertiesMessenger propertiesMessenger;
+    private final BracketingMessenger bracketingMessenger;
+
+    private final CameraThreads threads;
+    private final ImageWriteQueue imageWriteQueue;
+    private final ExposureFusion exposureFusion;
+    private final CameraMetrics metrics;
 
-    private CameraDevice cameraDevice;
+    private volatile CameraDevice cameraDevice;
     private CameraCharacteristics cameraCharacteristics;
-    private CameraCaptureSession cameraCaptureSession;
+    private volatile CameraCaptureSession cameraCaptureSession;
     private ImageReader pictureImageJpegReader;
     private ImageReader pictureImageRawReader;
     private ImageReader imageStreamReader;
+    private ImageReader zslReader;
+    // Replaced readers, closed once no session uses them anymore.
+    private final List<ImageReader> retiredReaders = new ArrayList<>();
+    @Nullable private Size rawCaptureSize;
+    private volatile ZslRingBuffer zslBuffer;
     private ImageReader currentReader;
+    private volatile PackedImageStream packedImageStream;
+    private volatile ImageStreamThrottle imageStreamThrottle;
+    // Crops, scales and converts streamed frames, null to stream them as they are.
+    @Nullable private volatile FrameProcessor frameProcessor;
     private DartMessenger dartMessenger;
-    private CaptureRequest.Builder captureRequestBuilder;
+    private Surface previewSurface;
+    // The session state is changed from the platform thread and read from session callbacks.
+    private volatile List<Surface> sessionOutputs;
+    // Guards pendingOnConfigured, which is chained on the platform thread while the session is
+    // configured and taken once it is.
+    private final Object pendingOnConfiguredLock = new Object();
+    private Runnable pendingOnConfigured;
+    private volatile int repeatingTemplateType = CameraDevice.TEMPLATE_PREVIEW;
+    private volatile Surface[] repeatingTargets = new Surface[0];
     private MediaRecorder mediaRecorder;
+    @Nullable private VideoEncoder videoEncoder;
+    // The MediaRecorder or VideoEncoder surface while recording.
+    @Nullable private Surface recordingSurface;
     private boolean recordingVideo;
     private CamcorderProfile recordingProfile;
     private int currentOrientation = ORIENTATION_UNKNOWN;
-    private Integer lastIso;
-    private Long lastExposureTime;
-    private boolean aeLock = false;
-    private CaptureResult lastCaptureResult;
+    private volatile Integer lastIso;
+    private volatile Long lastExposureTime;
+    private volatile boolean aeLock = false;
+    private volatile CaptureResult lastCaptureResult;
     private long minFrameDuration;
+    @Nullable private BurstCapture burst;
 
     public void aeLock(boolean enabled, Result result) throws CameraAccessException {
-        if (aeLock == enabled) {
-            return;
-        }
-
-        aeLock = enabled;
-        if (currentReader == pictureImageJpegReader) {
-            startJpegPreview();
-        } else if (currentReader == pictureImageRawReader) {
-            startRawPreview();
-        } else if (currentReader == imageStreamReader) {
-            throw new RuntimeException("Currently not supporting ae lock with video streams");
+        if (aeLock != enabled) {
+            aeLock = enabled;
+            updateRepeatingRequest();
         }
 
         result.success(aeLock);
@@ -112,6 +153,8 @@ public class Camera {
             final SurfaceTextureEntry flutterTexture,
             final DartMessenger dartMessenger,
             final CameraPropertiesMessenger propertiesMessenger,
+            final BracketingMessenger bracketingMessenger,
+            final CameraMetrics metrics,
             final String cameraName,
             final String resolutionPreset,
             final boolean enableAudio)
@@ -121,11 +164,15 @@ public class Camera {
         }
 
         this.propertiesMessenger = propertiesMessenger;
+        this.bracketingMessenger = bracketingMessenger;
+        this.metrics = metrics;
         this.cameraName = cameraName;
         this.enableAudio = enableAudio;
         this.flutterTexture = flutterTexture;
         this.dartMessenger = dartMessenger;
-        this.cameraManager = (CameraManager) activity.getSystemService(Context.CAMERA_SERVICE);
+        this.characteristicsCache = CameraCharacteristicsCache.getInstance(activity);
+        this.cameraManager = characteristicsCache.getCameraManager();
+        this.threads = new CameraThreads();
         orientationEventListener =
                 new OrientationEventListener(activity.getApplicationContext()) {
                     @Override
@@ -139,7 +186,7 @@ public class Camera {
                 };
         orientationEventListener.enable();
 
-        CameraCharacteristics characteristics = cameraManager.getCameraCharacteristics(cameraName);
+        CameraCharacteristics characteristics = characteristicsCache.getCharacteristics(cameraName);
         StreamConfigurationMap streamConfigurationMap =
                 characteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
         //noinspection ConstantConditions
@@ -147,11 +194,30 @@ public class Camera {
         //noinspection ConstantConditions
         isFrontFacing =
                 characteristics.get(CameraCharacteristics.LENS_FACING) == CameraMetadata.LENS_FACING_FRONT;
+        Integer timestampSource = characteristics.get(CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE);
+        hasRealtimeTimestamps =
+                timestampSource != null
+                        && timestampSource == CameraMetadata.SENSOR_INFO_TIMESTAMP_SOURCE_REALTIME;
         ResolutionPreset preset = ResolutionPreset.valueOf(resolutionPreset);
-        recordingProfile =
-                CameraUtils.getBestAvailableCamcorderProfileForResolutionPreset(cameraName, preset);
+        recordingProfile = characteristicsCache.getCamcorderProfile(cameraName, preset);
         captureSize = new Size(recordingProfile.videoFrameWidth, recordingProfile.videoFrameHeight);
-        previewSize = computeBestPreviewSize(cameraName, preset);
+        previewSize = computeBestPreviewSize(characteristicsCache, cameraName, preset);
+        imageWriteQueue =
+                new ImageWriteQueue(
+                        characteristics, IMAGE_WRITE_WORKERS, IMAGE_WRITE_MAX_COPIED_IMAGES, metrics);
+        exposureFusion =
+                new ExposureFusion(
+                        Math.min(
+                                EXPOSURE_FUSION_MAX_WORKERS, Runtime.getRuntime().availableProcessors()));
+        metrics.setGauges(
+                snapshot -> {
+                    ImageStreamThrottle throttle = imageStreamThrottle;
+                    snapshot.put("deliveredFrames", throttle != null ? throttle.getDeliveredFrames() : 0L);
+                    snapshot.put("droppedFrames", throttle != null ? throttle.getDroppedFrames() : 0L);
+                    snapshot.put("framesInFlight", throttle != null ? throttle.getFramesInFlight() : 0);
+                    snapshot.put("heldImages", imageWriteQueue.getHeldImages());
+                    snapshot.put("pendingImageCopies", imageWriteQueue.getPendingCopies());
+                });
     }
 
     private void prepareMediaRecorder(String outputFilePath) throws IOException {
@@ -179,11 +245,10 @@ public class Camera {
 
     @SuppressLint("MissingPermission")
     public void open(@NonNull final Result result) throws CameraAccessException {
-        pictureImageJpegReader =
-                ImageReader.newInstance(
-                        captureSize.getWidth(), captureSize.getHeight(), ImageFormat.JPEG, 3);
-
-        cameraCharacteristics = cameraManager.getCameraCharacteristics(cameraName);
+        metrics.onOpenStarted();
+        // Image readers reserve all of their buffers up front, so they're only created once their
+        // mode is used.
+        cameraCharacteristics = characteristicsCache.getCharacteristics(cameraName);
         StreamConfigurationMap configurationMap = cameraCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
         Size[] rawSize = null;
         if (configurationMap != null) {
@@ -191,18 +256,20 @@ public class Camera {
             if (rawSize != null && rawSize.length > 0) {
                 minFrameDuration = configurationMap.getOutputMinFrameDuration(ImageFormat.RAW_SENSOR, rawSize[0]);
                 Log.d("CAMERA", "OutputSize: " + rawSize[0] + ", minSpeed: " + minFrameDuration);
-
-                pictureImageRawReader =
-                        ImageReader.newInstance(
-                                rawSize[0].getWidth(), rawSize[0].getHeight(), ImageFormat.RAW_SENSOR, 3);
+                rawCaptureSize = rawSize[0];
             }
         }
 
-        // Used to steam image byte data to dart side.
-        imageStreamReader =
-                ImageReader.newInstance(
-                        previewSize.getWidth(), previewSize.getHeight(), ImageFormat.YUV_420_888, 2);
+        characteristicsCache.onCameraOpening(cameraName);
+        try {
+            openCamera(result);
+        } catch (CameraAccessException | RuntimeException e) {
+            characteristicsCache.onCameraClosed(cameraName);
+            throw e;
+        }
+    }
 
+    private void openCamera(@NonNull final Result result) throws CameraAccessException {
         cameraManager.openCamera(
                 cameraName,
                 new CameraDevice.StateCallback() {
@@ -225,18 +292,21 @@ public class Camera {
 
                     @Override
                     public void onClosed(@NonNull CameraDevice camera) {
+                        characteristicsCache.onCameraClosed(cameraName);
                         dartMessenger.sendCameraClosingEvent();
                         super.onClosed(camera);
                     }
 
                     @Override
                     public void onDisconnected(@NonNull CameraDevice cameraDevice) {
+                        characteristicsCache.onCameraDisconnected(cameraName);
                         close();
                         dartMessenger.send(DartMessenger.EventType.ERROR, "The camera was disconnected.");
                     }
 
                     @Override
                     public void onError(@NonNull CameraDevice cameraDevice, int errorCode) {
+                        characteristicsCache.onCameraClosed(cameraName);
                         close();
                         String errorDescription;
                         switch (errorCode) {
@@ -261,40 +331,37 @@ public class Camera {
                         dartMessenger.send(DartMessenger.EventType.ERROR, errorDescription);
                     }
                 },
-                null);
-    }
-
-    private String writeToFile(Image image, String basePath) throws IOException {
-        if (image.getFormat() == ImageFormat.RAW_SENSOR) {
-            File file = new File(basePath + ".dng");
-            DngCreator dngCreator = new DngCreator(cameraCharacteristics, lastCaptureResult);
-            try (FileOutputStream stream = new FileOutputStream(file)) {
-                dngCreator.writeImage(stream, image);
-                return file.getPath();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        } else if (image.getFormat() == ImageFormat.JPEG) {
-            File file = new File(basePath + ".jpg");
+                threads.session);
+    }
 
-            try (FileOutputStream outputStream = new FileOutputStream(file)) {
-                ByteBuffer buffer = image.getPlanes()[0].getBuffer();
-                while (0 < buffer.remaining()) {
-                    outputStream.getChannel().write(buffer);
-                }
-                return file.getPath();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
-        return null;
+    /**
+     * How many images of {@code reader} the write queue may keep open, leaving one buffer for the
+     * camera and one to acquire the next image with.
+     */
+    private static int maxHeldImages(ImageReader reader) {
+        return Math.max(0, reader.getMaxImages() - 2);
     }
 
     SurfaceTextureEntry getFlutterTexture() {
         return flutterTexture;
     }
 
+    /** How old a zero shutter lag frame may be to still be taken, a few preview frames. */
+    private long maxZslFrameAge() {
+        CaptureResult result = lastCaptureResult;
+        Long frameDuration = result != null ? result.get(CaptureResult.SENSOR_FRAME_DURATION) : null;
+        return ZSL_MAX_FRAME_AGE_FRAMES
+                * (frameDuration != null && frameDuration > 0
+                        ? frameDuration
+                        : DEFAULT_PREVIEW_FRAME_DURATION_NANOS);
+    }
+
     public void takePicture(String filePath, @NonNull final Result result) {
+        final long shutterNanos = System.nanoTime();
+        if (currentReader == null) {
+            result.error("noStillCaptureSession", "Start a JPEG or RAW session to take pictures.", null);
+            return;
+        }
         final File file = new File(filePath);
 
         if (file.exists()) {
@@ -303,16 +370,41 @@ public class Camera {
             return;
         }
 
-        currentReader.setOnImageAvailableListener(
-                reader -> {
-                    try (Image image = reader.acquireLatestImage()) {
-                        String path = writeToFile(image, filePath);
+        final ImageWriteQueue.Callback callback =
+                path -> {
+                    if (path != null) {
                         result.success(path);
-                    } catch (IOException e) {
+                    } else {
                         result.error("IOError", "Failed saving image", null);
                     }
+                };
+
+        ZslRingBuffer zsl = zslBuffer;
+        if (zsl != null && currentReader == pictureImageJpegReader) {
+            // Without realtime timestamps the tap can't be placed among the frames, the newest frame
+            // is the closest one then.
+            long now = SystemClock.elapsedRealtimeNanos();
+            long tapTimestamp = hasRealtimeTimestamps ? now : Long.MAX_VALUE;
+            ZslRingBuffer.Frame frame = zsl.take(tapTimestamp, now - maxZslFrameAge());
+            if (frame != null) {
+                metrics.recordSince(CameraMetrics.SHUTTER_LATENCY, shutterNanos);
+                imageWriteQueue.writeZslFrame(zsl, frame, getMediaOrientation(), filePath, callback);
+                return;
+            }
+            // Fall back to a regular capture while the buffer is still filling up, busy or only
+            // holds frames from before the preview last stopped.
+        }
+
+        currentReader.setOnImageAvailableListener(
+                reader -> {
+                    Image image = reader.acquireLatestImage();
+                    if (image == null) return;
+
+                    metrics.recordSince(CameraMetrics.SHUTTER_LATENCY, shutterNanos);
+                    imageWriteQueue.write(
+                            image, maxHeldImages(reader), filePath, lastCaptureResult, callback);
                 },
-                null);
+                threads.imageReader);
 
         try {
             final CaptureRequest.Builder captureBuilder =
@@ -350,20 +442,42 @@ public class Camera {
                             result.error("captureFailure", reason, null);
                         }
                     },
-                    null);
+                    threads.session);
         } catch (CameraAccessException e) {
             result.error("cameraAccess", e.getMessage(), null);
         }
     }
 
-    public void takeBracketingPictures(String basePath, BracketingMode bracketingMode, @NonNull final Result result) {
+    /**
+     * Takes a burst of pictures with different exposures.
+     *
+     * @param exposureValues the exposure of every picture in EV relative to the current exposure.
+     *     Defaults to three pictures.
+     * @param exposures explicit {@code iso} and {@code exposureTime} (in nanoseconds) of every
+     *     picture, only used with {@link BracketingMode#fixedIsoTimeCompensation}. Takes precedence
+     *     over {@code exposureValues}.
+     */
+    public void takeBracketingPictures(
+            String basePath,
+            BracketingMode bracketingMode,
+            @Nullable List<Double> exposureValues,
+            @Nullable List<Map<String, Number>> exposures,
+            @NonNull final Result result) {
+        final long startNanos = System.nanoTime();
+        if (currentReader == null) {
+            result.error("noStillCaptureSession", "Start a JPEG or RAW session to take pictures.", null);
+            return;
+        }
         try {
             List<CaptureRequest> captureList = null;
 
             if (bracketingMode == BracketingMode.autoExposureCompensation && !aeLock) {
-                captureList = createAeCompensationReaderSession(basePath, result);
+                captureList =
+                        createAeCompensationReaderSession(basePath, exposureValues, startNanos, result);
             } else if (bracketingMode == BracketingMode.fixedIsoTimeCompensation || aeLock) {
-                captureList = createFixedIsoBracketingReaderSession(basePath, result);
+                captureList =
+                        createFixedIsoBracketingReaderSession(
+                                basePath, exposureValues, exposures, startNanos, result);
             }
 
             if (captureList != null) {
@@ -390,7 +504,7 @@ public class Camera {
                                 result.error("captureFailure", reason, null);
                             }
                         },
-                        null);
+                        threads.session);
             }
         } catch (CameraAccessException e) {
             result.error("cameraAccess", e.getMessage(), null);
@@ -398,55 +512,220 @@ public class Camera {
 
     }
 
-    private List<CaptureRequest> createFixedIsoBracketingReaderSession(String basePath, @NonNull Result result) throws CameraAccessException {
+    /**
+     * Merges JPEG bracketing pictures into one JPEG at {@code outputPath}, see {@link
+     * ExposureFusion}.
+     *
+     * @param sampleSize fuses the pictures downscaled by this factor, 1 for full resolution.
+     */
+    public void fuseBracketingPictures(
+            List<String> paths, String outputPath, int sampleSize, @NonNull Result result) {
+        exposureFusion.fuse(paths, outputPath, Math.max(1, sampleSize), result);
+    }
+
+    /**
+     * Repeats still captures at the fastest rate the size and format of the current reader allow
+     * until {@link #stopBurst} is called.
+     *
+     * <p>Frames are written to {@code basePath} with a suffix counting up from 1. Calls that change
+     * the session are rejected until the burst is stopped, see {@link #isBurstRunning}.
+     *
+     * @param maxPendingFrames how many frames may wait to be written before further frames are
+     *     dropped. Capped so writing never blocks the image reader.
+     */
+    public void startBurst(
+            String basePath, @Nullable Integer maxPendingFrames, @NonNull final Result result) {
+        if (currentReader == null) {
+            result.error("noStillCaptureSession", "Start a JPEG or RAW session to take pictures.", null);
+            return;
+        }
+        if (burst != null) {
+            result.error("burstAlreadyStarted", "A burst is already being taken.", null);
+            return;
+        }
+
+        final ImageReader burstReader = currentReader;
+        final int maxHeldImages = maxHeldImages(burstReader);
+        final BurstCapture capture =
+                new BurstCapture(
+                        basePath,
+                        maxPendingFrames != null
+                                ? Math.max(1, Math.min(maxPendingFrames, IMAGE_WRITE_MAX_COPIED_IMAGES))
+                                : IMAGE_WRITE_MAX_COPIED_IMAGES);
+
+        burstReader.setOnImageAvailableListener(
+                reader -> {
+                    Image image = reader.acquireNextImage();
+                    if (image == null) return;
+
+                    String path = capture.onFrameAvailable(image.getTimestamp());
+                    if (path == null) {
+                        image.close();
+                        return;
+                    }
+                    imageWriteQueue.write(
+                            image, maxHeldImages, path, lastCaptureResult, capture::onFrameWritten);
+                },
+                threads.imageReader);
+
+        try {
+            setRepeatingBurst(capture, burstReader);
+        } catch (CameraAccessException e) {
+            burstReader.setOnImageAvailableListener(null, null);
+            result.error("cameraAccess", e.getMessage(), null);
+            return;
+        }
+        burst = capture;
+        result.success(null);
+    }
+
+    /** Repeats the still captures of {@code capture} into {@code reader} and the preview. */
+    private void setRepeatingBurst(final BurstCapture capture, ImageReader reader)
+            throws CameraAccessException {
+        final CaptureRequest.Builder captureBuilder =
+                cameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_STILL_CAPTURE);
+        // Keep the preview running along with the burst.
+        captureBuilder.addTarget(getPreviewSurface());
+        captureBuilder.addTarget(reader.getSurface());
+        captureBuilder.set(CaptureRequest.SENSOR_FRAME_DURATION, burstFrameDuration(reader));
+        captureBuilder.set(CaptureRequest.JPEG_ORIENTATION, getMediaOrientation());
+        captureBuilder.set(CaptureRequest.JPEG_QUALITY, (byte) 100);
+        if (aeLock && lastIso != null && lastExposureTime != null) {
+            captureBuilder.set(CaptureRequest.CONTROL_AE_MODE, CameraMetadata.CONTROL_AE_MODE_OFF);
+            captureBuilder.set(CaptureRequest.SENSOR_EXPOSURE_TIME, lastExposureTime);
+            captureBuilder.set(CaptureRequest.SENSOR_SENSITIVITY, lastIso);
+        } else {
+            captureBuilder.set(CaptureRequest.CONTROL_AE_MODE, CameraMetadata.CONTROL_AE_MODE_ON);
+        }
+
+        cameraCaptureSession.setRepeatingBurst(
+                Collections.singletonList(captureBuilder.build()),
+                new CameraCaptureSession.CaptureCallback() {
+                    @Override
+                    public void onCaptureCompleted(
+                            @NonNull CameraCaptureSession session,
+                            @NonNull CaptureRequest request,
+                            @NonNull TotalCaptureResult captureResult) {
+                        lastCaptureResult = captureResult;
+                    }
+
+                    @Override
+                    public void onCaptureFailed(
+                            @NonNull CameraCaptureSession session,
+                            @NonNull CaptureRequest request,
+                            @NonNull CaptureFailure failure) {
+                        capture.onCaptureFailed();
+                    }
+                },
+                threads.session);
+    }
+
+    /**
+     * Whether a burst is being taken. Starting another session would leave out the burst's reader,
+     * so the session is kept until the burst is stopped.
+     */
+    public boolean isBurstRunning() {
+        return burst != null;
+    }
+
+    /** The minimum frame duration of {@code reader}'s format and size, in nanoseconds. */
+    private long burstFrameDuration(ImageReader reader) {
+        StreamConfigurationMap configurationMap =
+                cameraCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+        if (configurationMap == null) {
+            return minFrameDuration;
+        }
+        return configurationMap.getOutputMinFrameDuration(
+                reader.getImageFormat(), new Size(reader.getWidth(), reader.getHeight()));
+    }
+
+    /**
+     * Stops the burst and replies with its paths, captured and dropped frames and achieved frame
+     * rate once the pending frames are written.
+     */
+    public void stopBurst(@NonNull final Result result) {
+        BurstCapture capture = burst;
+        if (capture == null) {
+            result.error("noBurst", "No burst is being taken.", null);
+            return;
+        }
+        burst = null;
+
+        try {
+            updateRepeatingRequest();
+        } catch (CameraAccessException e) {
+            result.error("cameraAccess", e.getMessage(), null);
+            return;
+        }
+        // Frames still in flight are closed by the burst's listener.
+        capture.stop(result);
+    }
+
+    private List<CaptureRequest> createFixedIsoBracketingReaderSession(
+            String basePath,
+            @Nullable List<Double> exposureValues,
+            @Nullable List<Map<String, Number>> exposures,
+            long startNanos,
+            @NonNull Result result)
+            throws CameraAccessException {
         Range<Long> exposureTimeRange = cameraCharacteristics.get(CameraCharacteristics.SENSOR_INFO_EXPOSURE_TIME_RANGE);
         List<CaptureRequest> captureList = new ArrayList<CaptureRequest>();
-        int numberOfBursts = 3;
-        long time = lastExposureTime;
-        int iso = lastIso;
-        for (int n = -1; n < numberOfBursts - 1; n++) {
-            long exposureTime = exposureTimeRange.clamp((long) (time * Math.pow(2, n * 1.3)));
-            Log.d("CAMERA", exposureTimeRange + " possible, selected " + exposureTime + " and iso: " + iso + ", current time + " + time);
-            CaptureRequest.Builder captureBuilder = createManualCompensationBuilder(iso, exposureTime);
-            captureList.add(captureBuilder.build());
+        if (exposures != null && !exposures.isEmpty()) {
+            Range<Integer> isoRange = cameraCharacteristics.get(CameraCharacteristics.SENSOR_INFO_SENSITIVITY_RANGE);
+            for (Map<String, Number> exposure : exposures) {
+                int iso = isoRange.clamp(exposure.get("iso").intValue());
+                long exposureTime = exposureTimeRange.clamp(exposure.get("exposureTime").longValue());
+                Log.d("CAMERA", exposureTimeRange + " possible, selected " + exposureTime + " and iso: " + iso);
+                captureList.add(createManualCompensationBuilder(iso, exposureTime).build());
+            }
+        } else {
+            long time = lastExposureTime;
+            int iso = lastIso;
+            for (double exposureValue : exposureValuesOrDefault(exposureValues)) {
+                long exposureTime = exposureTimeRange.clamp((long) (time * Math.pow(2, exposureValue)));
+                Log.d("CAMERA", exposureTimeRange + " possible, selected " + exposureTime + " and iso: " + iso + ", current time + " + time);
+                CaptureRequest.Builder captureBuilder = createManualCompensationBuilder(iso, exposureTime);
+                captureList.add(captureBuilder.build());
+            }
         }
 
         final AtomicInteger index = new AtomicInteger(0);
-        final AtomicLong firstShot = new AtomicLong(0);
-        final List<String> paths = new ArrayList<>();
+        final int count = captureList.size();
+        final ImageWriteQueue.Batch batch =
+                new ImageWriteQueue.Batch(count, result, bracketingMessenger::sendPictureSaved);
 
         currentReader.setOnImageAvailableListener(
                 reader -> {
-                    try (Image image = reader.acquireNextImage()) {
+                    Image image = reader.acquireNextImage();
 
-                        if (firstShot.get() == 0) {
-                            firstShot.set(System.currentTimeMillis());
-                        }
-
-                        int i = index.getAndIncrement();
-                        Log.d("CAMERA", System.currentTimeMillis() - firstShot.get() + "msec for " + i + " before writing");
-                        String path = writeToFile(image, basePath + "_" + (i + 1));
-                        Log.d("CAMERA", "Wrote to " + path);
-                        paths.add(path);
-
-                        Log.d("CAMERA", System.currentTimeMillis() - firstShot.get() + "msec for " + i + " after writing");
-                        if (i == captureList.size() - 1) {
-                            result.success(paths);
-                        }
-
-                    } catch (Exception e) {
-                        result.error("IOError", "Failed saving image", null);
+                    final int i = index.getAndIncrement();
+                    if (i == count - 1) {
+                        metrics.recordSince(CameraMetrics.BRACKETING_LATENCY, startNanos);
                     }
+                    imageWriteQueue.write(
+                            image,
+                            maxHeldImages(reader),
+                            basePath + "_" + (i + 1),
+                            lastCaptureResult,
+                            batch.callbackFor(i));
                 },
-                null);
+                threads.imageReader);
 
         return captureList;
     }
 
 
-    private List<CaptureRequest> createAeCompensationReaderSession(String basePath, @NonNull Result result) throws CameraAccessException {
+    private List<CaptureRequest> createAeCompensationReaderSession(
+            String basePath,
+            @Nullable List<Double> exposureValues,
+            long startNanos,
+            @NonNull Result result)
+            throws CameraAccessException {
         List<CaptureRequest> captureList = new ArrayList<CaptureRequest>();
-        List<Integer> aeCompensations = createAeCompensations();
+        List<Integer> aeCompensations =
+                exposureValues != null && !exposureValues.isEmpty()
+                        ? createAeCompensations(exposureValues)
+                        : createAeCompensations();
         // first frame will be discarded
         captureList.add(createAECompensationBuilder(0).build());
         for (int aeCompensation : aeCompensations) {
@@ -455,40 +734,34 @@ public class Camera {
         }
 
         final AtomicInteger index = new AtomicInteger(0);
-        final AtomicLong firstShot = new AtomicLong(0);
-        final List<String> paths = new ArrayList<>();
+        final int count = captureList.size();
+        // The first frame isn't written.
+        final ImageWriteQueue.Batch batch =
+                new ImageWriteQueue.Batch(count - 1, result, bracketingMessenger::sendPictureSaved);
 
         currentReader.setOnImageAvailableListener(
                 reader -> {
-                    try (Image image = reader.acquireNextImage()) {
-
-                        if (firstShot.get() == 0) {
-                            firstShot.set(System.currentTimeMillis());
-                        }
-
-                        int i = index.getAndIncrement();
-                        Log.d("CAMERA", System.currentTimeMillis() - firstShot.get() + "msec for " + i + " before writing");
-
-                        if (i == 0) {
-                            Log.d("CAMERA", "Discard the first frame to settle the AE compensation");
-                            return;
-                        }
-
-                        String path = writeToFile(image, basePath + "_" + i);
-                        Log.d("CAMERA", "Wrote to" + path);
-                        paths.add(path);
+                    Image image = reader.acquireNextImage();
 
-                        Log.d("CAMERA", System.currentTimeMillis() - firstShot.get() + "msec for " + i + " after writing");
-                        if (i == captureList.size() - 1) {
-                            result.success(paths);
-                        }
+                    final int i = index.getAndIncrement();
+                    if (i == count - 1) {
+                        metrics.recordSince(CameraMetrics.BRACKETING_LATENCY, startNanos);
+                    }
 
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                        result.error("IOError", "Failed saving image", null);
+                    if (i == 0) {
+                        Log.d("CAMERA", "Discard the first frame to settle the AE compensation");
+                        image.close();
+                        return;
                     }
+
+                    imageWriteQueue.write(
+                            image,
+                            maxHeldImages(reader),
+                            basePath + "_" + i,
+                            lastCaptureResult,
+                            batch.callbackFor(i - 1));
                 },
-                null);
+                threads.imageReader);
 
         return captureList;
     }
@@ -509,6 +782,25 @@ public class Camera {
         return aeCompensations;
     }
 
+    /** Converts EV offsets into AE compensation steps, clamped to the supported range. */
+    private List<Integer> createAeCompensations(List<Double> exposureValues) {
+        Range<Integer> range = cameraCharacteristics.get(CameraCharacteristics.CONTROL_AE_COMPENSATION_RANGE);
+        final double step = cameraCharacteristics.get(CameraCharacteristics.CONTROL_AE_COMPENSATION_STEP).doubleValue();
+
+        List<Integer> aeCompensations = new ArrayList<>();
+        for (double exposureValue : exposureValues) {
+            aeCompensations.add(range.clamp((int) Math.round(exposureValue / step)));
+        }
+        return aeCompensations;
+    }
+
+    private static List<Double> exposureValuesOrDefault(@Nullable List<Double> exposureValues) {
+        if (exposureValues != null && !exposureValues.isEmpty()) {
+            return exposureValues;
+        }
+        return DEFAULT_EXPOSURE_VALUES;
+    }
+
     private CaptureRequest.Builder createAECompensationBuilder(int aeCompensation) throws CameraAccessException {
         CaptureRequest.Builder captureBuilder =
                 cameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_STILL_CAPTURE);
@@ -536,40 +828,232 @@ public class Camera {
     }
 
 
-    private void createCaptureSession(int templateType, Surface... surfaces)
+    /**
+     * Starts the preview with {@code templateType}, also sending frames to {@code targets}.
+     *
+     * <p>The capture session is only recreated when it doesn't already have {@code outputs}.
+     * Otherwise just the repeating request is replaced, which takes effect with the next frame
+     * instead of stalling the preview while the session is reconfigured.
+     */
+    private void startSession(
+            int templateType,
+            @Nullable Runnable onStartedCallback,
+            List<Surface> outputs,
+            Surface... targets)
             throws CameraAccessException {
-        createCaptureSession(templateType, null, surfaces);
+        repeatingTemplateType = templateType;
+        repeatingTargets = targets;
+        ZslRingBuffer zsl = zslBuffer;
+        if (zsl != null && templateType != CameraDevice.TEMPLATE_PREVIEW) {
+            // The buffer isn't fed while recording or streaming, its frames would only get older.
+            zsl.clear();
+        }
+
+        if (outputs.equals(sessionOutputs)) {
+            synchronized (pendingOnConfiguredLock) {
+                if (cameraCaptureSession == null) {
+                    // The session is still being configured, it picks up the new request once
+                    // ready. The callbacks of earlier requests still run, before this one.
+                    pendingOnConfigured = chain(pendingOnConfigured, onStartedCallback);
+                    return;
+                }
+            }
+            updateRepeatingRequest();
+            closeRetiredReaders();
+            if (onStartedCallback != null) {
+                onStartedCallback.run();
+            }
+            return;
+        }
+
+        createCaptureSession(outputs, onStartedCallback);
     }
 
-    private void createCaptureSession(
-            int templateType, Runnable onSuccessCallback, Surface... surfaces)
+    /** The outputs of the session used for the preview, still captures and bracketing. */
+    private List<Surface> stillCaptureOutputs() {
+        List<Surface> outputs = new ArrayList<>();
+        outputs.add(getPreviewSurface());
+        if (pictureImageJpegReader != null) {
+            outputs.add(pictureImageJpegReader.getSurface());
+        }
+        if (pictureImageRawReader != null) {
+            outputs.add(pictureImageRawReader.getSurface());
+        }
+        if (zslReader != null) {
+            outputs.add(zslReader.getSurface());
+        }
+        return outputs;
+    }
+
+    /** The targets of the still capture preview besides the preview itself. */
+    private Surface[] stillCaptureTargets() {
+        return zslReader != null ? new Surface[] {zslReader.getSurface()} : new Surface[0];
+    }
+
+    /**
+     * Keeps the latest full resolution frames of the still capture preview so that {@link
+     * #takePicture} can encode the frame closest to the tap instead of issuing a new capture.
+     *
+     * <p>The frames come from the still capture session, so zero shutter lag can't be enabled
+     * while recording video or streaming images.
+     *
+     * @param memoryBudgetBytes bounds the memory taken by the buffered frames.
+     */
+    public void setZeroShutterLag(
+            boolean enabled, long memoryBudgetBytes, @NonNull final Result result)
             throws CameraAccessException {
-        // Close any existing capture session.
-        closeCaptureSession();
+        if (enabled && repeatingTemplateType != CameraDevice.TEMPLATE_PREVIEW) {
+            result.error(
+                    "zeroShutterLagUnavailable",
+                    "Zero shutter lag can't be enabled while recording video or streaming images.",
+                    null);
+            return;
+        }
 
-        // Create a new capture builder.
-        captureRequestBuilder = cameraDevice.createCaptureRequest(templateType);
+        retireReader(zslReader);
+        zslReader = null;
+        zslBuffer = null;
+
+        if (enabled) {
+            StreamConfigurationMap configurationMap =
+                    cameraCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+            Size size = CameraUtils.computeBestZslSize(configurationMap);
+            final ZslRingBuffer buffer =
+                    new ZslRingBuffer(
+                            size.getWidth(),
+                            size.getHeight(),
+                            ZslRingBuffer.depthFor(size.getWidth(), size.getHeight(), memoryBudgetBytes));
+            Log.d("CAMERA", "Zero shutter lag at " + size + ", keeping " + buffer.getDepth() + " frames");
+            // Frames are copied out right away, the reader doesn't need to hold more.
+            zslReader =
+                    ImageReader.newInstance(
+                            size.getWidth(), size.getHeight(), ImageFormat.YUV_420_888, 2);
+            zslReader.setOnImageAvailableListener(
+                    reader -> {
+                        Image image = reader.acquireLatestImage();
+                        if (image == null) return;
+
+                        buffer.add(image);
+                        image.close();
+                    },
+                    threads.imageReader);
+            zslBuffer = buffer;
+        }
 
-        // Build Flutter surface to render to
-        SurfaceTexture surfaceTexture = flutterTexture.surfaceTexture();
-        surfaceTexture.setDefaultBufferSize(previewSize.getWidth(), previewSize.getHeight());
-        Surface flutterSurface = new Surface(surfaceTexture);
-        if (aeLock && lastIso != null && lastExposureTime != null) {
-            captureRequestBuilder.set(CaptureRequest.CONTROL_AE_MODE, CameraMetadata.CONTROL_AE_MODE_OFF);
-            captureRequestBuilder.set(CaptureRequest.SENSOR_EXPOSURE_TIME, lastExposureTime);
-            captureRequestBuilder.set(CaptureRequest.SENSOR_SENSITIVITY, lastIso);
+        if (repeatingTemplateType == CameraDevice.TEMPLATE_PREVIEW && cameraDevice != null) {
+            startSession(
+                    CameraDevice.TEMPLATE_PREVIEW, null, stillCaptureOutputs(), stillCaptureTargets());
         } else {
-            captureRequestBuilder.set(CaptureRequest.CONTROL_AE_MODE, CameraMetadata.CONTROL_AE_MODE_ON);
+            closeRetiredReaders();
+        }
+        result.success(null);
+    }
+
+    /**
+     * Returns {@code reader} if it holds {@code maxImages}, otherwise retires it and returns a new
+     * reader.
+     */
+    private ImageReader reuseOrCreateReader(
+            @Nullable ImageReader reader, Size size, int format, int maxImages) {
+        if (reader != null && reader.getMaxImages() == maxImages) {
+            return reader;
+        }
+        retireReader(reader);
+        return ImageReader.newInstance(size.getWidth(), size.getHeight(), format, maxImages);
+    }
+
+    /** Stops delivering images of {@code reader} and closes it once the session stops using it. */
+    private void retireReader(@Nullable ImageReader reader) {
+        if (reader == null) {
+            return;
+        }
+        reader.setOnImageAvailableListener(null, null);
+        synchronized (retiredReaders) {
+            retiredReaders.add(reader);
         }
-        captureRequestBuilder.addTarget(flutterSurface);
+    }
 
-        List<Surface> remainingSurfaces = Arrays.asList(surfaces);
-        if (templateType != CameraDevice.TEMPLATE_PREVIEW) {
-            // If it is not preview mode, add all surfaces as targets.
-            for (Surface surface : remainingSurfaces) {
-                captureRequestBuilder.addTarget(surface);
+    /** Closes the retired readers, which must not be outputs of the current session. */
+    private void closeRetiredReaders() {
+        final List<ImageReader> readers;
+        synchronized (retiredReaders) {
+            if (retiredReaders.isEmpty()) {
+                return;
             }
+            readers = new ArrayList<>(retiredReaders);
+            retiredReaders.clear();
+        }
+        // Lets a listener that is still running finish with its image first.
+        threads.imageReader.post(
+                () -> {
+                    for (ImageReader reader : readers) {
+                        reader.close();
+                    }
+                });
+    }
+
+    /**
+     * Closes the readers the current mode doesn't use. They are created again once their mode is
+     * started.
+     *
+     * <p>Still capture modes otherwise keep both the JPEG and the RAW reader to switch between
+     * them without reconfiguring the session.
+     */
+    public void releaseIdleReaders() throws CameraAccessException {
+        boolean stillCapture = repeatingTemplateType == CameraDevice.TEMPLATE_PREVIEW;
+        if (pictureImageJpegReader != null
+                && !(stillCapture && currentReader == pictureImageJpegReader)) {
+            retireReader(pictureImageJpegReader);
+            pictureImageJpegReader = null;
+        }
+        if (pictureImageRawReader != null
+                && !(stillCapture && currentReader == pictureImageRawReader)) {
+            retireReader(pictureImageRawReader);
+            pictureImageRawReader = null;
+        }
+        if (!stillCapture) {
+            currentReader = null;
+            closeRetiredReaders();
+            return;
         }
+        startSession(
+                CameraDevice.TEMPLATE_PREVIEW, null, stillCaptureOutputs(), stillCaptureTargets());
+    }
+
+    private Surface getPreviewSurface() {
+        if (previewSurface == null) {
+            SurfaceTexture surfaceTexture = flutterTexture.surfaceTexture();
+            surfaceTexture.setDefaultBufferSize(previewSize.getWidth(), previewSize.getHeight());
+            previewSurface = new Surface(surfaceTexture);
+        }
+        return previewSurface;
+    }
+
+    /** Runs {@code first} and then {@code second}, either of which may be null. */
+    @Nullable
+    private static Runnable chain(@Nullable Runnable first, @Nullable Runnable second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        return () -> {
+            first.run();
+            second.run();
+        };
+    }
+
+    private void createCaptureSession(List<Surface> outputs, @Nullable Runnable onSuccessCallback)
+            throws CameraAccessException {
+        // Close any existing capture session.
+        closeCaptureSession();
+        sessionOutputs = outputs;
+        synchronized (pendingOnConfiguredLock) {
+            // A session that was still being configured is abandoned, and its callback with it.
+            pendingOnConfigured = onSuccessCallback;
+        }
+        final long configureStartNanos = System.nanoTime();
 
         // Prepare the callback
         CameraCaptureSession.StateCallback callback =
@@ -582,20 +1066,24 @@ public class Camera {
                                         DartMessenger.EventType.ERROR, "The camera was closed during configuration.");
                                 return;
                             }
+                            if (sessionOutputs != outputs) {
+                                // Another session was requested while this one was configured.
+                                session.close();
+                                return;
+                            }
                             cameraCaptureSession = session;
-                            captureRequestBuilder.set(
-                                    CaptureRequest.CONTROL_MODE, CameraMetadata.CONTROL_MODE_AUTO);
-                            cameraCaptureSession.setRepeatingRequest(captureRequestBuilder.build(), new CameraCaptureSession.CaptureCallback() {
-                                @Override
-                                public void onCaptureCompleted(@NonNull CameraCaptureSession session, @NonNull CaptureRequest request, @NonNull TotalCaptureResult result) {
-                                    lastCaptureResult = result;
-                                    lastExposureTime = result.get(CaptureResult.SENSOR_EXPOSURE_TIME);
-                                    lastIso = result.get(CaptureResult.SENSOR_SENSITIVITY);
-                                    updateProperties(result);
-                                }
-                            }, null);
-                            if (onSuccessCallback != null) {
-                                onSuccessCallback.run();
+                            metrics.recordSince(CameraMetrics.SESSION_CONFIGURATION, configureStartNanos);
+                            updateRepeatingRequest();
+                            // Creating this session closed the previous one, nothing uses the
+                            // retired readers anymore.
+                            closeRetiredReaders();
+                            Runnable onConfigured;
+                            synchronized (pendingOnConfiguredLock) {
+                                onConfigured = pendingOnConfigured;
+                                pendingOnConfigured = null;
+                            }
+                            if (onConfigured != null) {
+                                onConfigured.run();
                             }
                         } catch (CameraAccessException | IllegalStateException | IllegalArgumentException e) {
                             dartMessenger.send(DartMessenger.EventType.ERROR, e.getMessage());
@@ -609,36 +1097,126 @@ public class Camera {
                     }
                 };
 
-        // Collect all surfaces we want to render to.
-        List<Surface> surfaceList = new ArrayList<>();
-        surfaceList.add(flutterSurface);
-        surfaceList.addAll(remainingSurfaces);
         // Start the session
-        cameraDevice.createCaptureSession(surfaceList, callback, null);
+        cameraDevice.createCaptureSession(outputs, callback, threads.session);
     }
 
-    private void updateProperties(TotalCaptureResult result) {
-        if (!aeLock) {
-            lastExposureTime = result.get(CaptureResult.SENSOR_EXPOSURE_TIME);
-            lastIso = result.get(CaptureResult.SENSOR_SENSITIVITY);
-            if (lastExposureTime != null && lastIso != null) {
-                propertiesMessenger.send(lastIso, lastExposureTime);
+    /** Replaces the repeating request of the current session to reflect the current mode. */
+    private void updateRepeatingRequest() throws CameraAccessException {
+        CameraCaptureSession session = cameraCaptureSession;
+        if (session == null) {
+            return;
+        }
+        BurstCapture capture = burst;
+        if (capture != null) {
+            // A repeating request would stop the burst. The session isn't changed during a burst, so
+            // its reader is still the current one.
+            setRepeatingBurst(capture, currentReader);
+            return;
+        }
+
+        CaptureRequest.Builder captureRequestBuilder =
+                cameraDevice.createCaptureRequest(repeatingTemplateType);
+        if (aeLock && lastIso != null && lastExposureTime != null) {
+            captureRequestBuilder.set(CaptureRequest.CONTROL_AE_MODE, CameraMetadata.CONTROL_AE_MODE_OFF);
+            captureRequestBuilder.set(CaptureRequest.SENSOR_EXPOSURE_TIME, lastExposureTime);
+            captureRequestBuilder.set(CaptureRequest.SENSOR_SENSITIVITY, lastIso);
+        } else {
+            captureRequestBuilder.set(CaptureRequest.CONTROL_AE_MODE, CameraMetadata.CONTROL_AE_MODE_ON);
+        }
+        captureRequestBuilder.set(CaptureRequest.CONTROL_MODE, CameraMetadata.CONTROL_MODE_AUTO);
+        captureRequestBuilder.addTarget(getPreviewSurface());
+        for (Surface target : repeatingTargets) {
+            captureRequestBuilder.addTarget(target);
+        }
+
+        session.setRepeatingRequest(captureRequestBuilder.build(), new CameraCaptureSession.CaptureCallback() {
+            @Override
+            public void onCaptureCompleted(@NonNull CameraCaptureSession session, @NonNull CaptureRequest request, @NonNull TotalCaptureResult result) {
+                lastCaptureResult = result;
+                metrics.onPreviewFrame();
+                ZslRingBuffer zsl = zslBuffer;
+                Long timestamp = result.get(CaptureResult.SENSOR_TIMESTAMP);
+                if (zsl != null && timestamp != null) {
+                    zsl.onCaptureCompleted(timestamp);
+                }
+                lastExposureTime = result.get(CaptureResult.SENSOR_EXPOSURE_TIME);
+                lastIso = result.get(CaptureResult.SENSOR_SENSITIVITY);
+                updateProperties(result);
             }
+        }, threads.session);
+    }
+
+    private void updateProperties(TotalCaptureResult result) {
+        Long timestamp = result.get(CaptureResult.SENSOR_TIMESTAMP);
+        Integer iso = result.get(CaptureResult.SENSOR_SENSITIVITY);
+        Long exposureTime = result.get(CaptureResult.SENSOR_EXPOSURE_TIME);
+        if (timestamp == null || iso == null || exposureTime == null) {
+            return;
         }
+
+        Float focusDistance = result.get(CaptureResult.LENS_FOCUS_DISTANCE);
+        RggbChannelVector gains = result.get(CaptureResult.COLOR_CORRECTION_GAINS);
+        propertiesMessenger.send(
+                timestamp,
+                iso,
+                exposureTime,
+                focusDistance != null ? focusDistance : Float.NaN,
+                gains != null ? gains.getRed() : Float.NaN,
+                gains != null ? gains.getGreenEven() : Float.NaN,
+                gains != null ? gains.getGreenOdd() : Float.NaN,
+                gains != null ? gains.getBlue() : Float.NaN);
     }
 
-    public void startVideoRecording(String filePath, Result result) {
+    /**
+     * Starts recording to {@code filePath}, next to the image stream if it is running.
+     *
+     * <p>Recording uses MediaRecorder with the settings of the resolution preset, unless {@code
+     * videoBitRate} or {@code keyFrameInterval} are given, in which case it uses a {@link
+     * VideoEncoder} configured with them.
+     *
+     * @param keyFrameInterval seconds between key frames.
+     */
+    public void startVideoRecording(
+            String filePath,
+            @Nullable Integer videoBitRate,
+            @Nullable Integer keyFrameInterval,
+            Result result) {
         if (new File(filePath).exists()) {
             result.error("fileExists", "File at path '" + filePath + "' already exists.", null);
             return;
         }
         try {
-            prepareMediaRecorder(filePath);
+            Runnable onStarted;
+            if (videoBitRate == null && keyFrameInterval == null) {
+                prepareMediaRecorder(filePath);
+                recordingSurface = mediaRecorder.getSurface();
+                onStarted = () -> mediaRecorder.start();
+            } else {
+                videoEncoder =
+                        new VideoEncoder(
+                                filePath,
+                                recordingProfile,
+                                videoBitRate != null ? videoBitRate : recordingProfile.videoBitRate,
+                                keyFrameInterval != null ? keyFrameInterval : DEFAULT_KEY_FRAME_INTERVAL,
+                                enableAudio,
+                                getMediaOrientation(),
+                                hasRealtimeTimestamps);
+                recordingSurface = videoEncoder.getInputSurface();
+                // The encoder has to run before the camera renders to its surface.
+                videoEncoder.start();
+                onStarted = null;
+            }
             recordingVideo = true;
-            createCaptureSession(
-                    CameraDevice.TEMPLATE_RECORD, () -> mediaRecorder.start(), mediaRecorder.getSurface());
+            startRecordingSession(onStarted);
             result.success(null);
-        } catch (CameraAccessException | IOException e) {
+        } catch (CameraAccessException | IOException | IllegalStateException e) {
+            recordingVideo = false;
+            recordingSurface = null;
+            if (videoEncoder != null) {
+                videoEncoder.stop(null);
+                videoEncoder = null;
+            }
             result.error("videoRecordingFailed", e.getMessage(), null);
         }
     }
@@ -651,9 +1229,29 @@ public class Camera {
 
         try {
             recordingVideo = false;
+            recordingSurface = null;
+            // Keep the image stream running if it was.
+            if (imageStreamReader != null) {
+                startRecordingSession(null);
+            } else {
+                startJpegPreview();
+            }
+
+            if (videoEncoder != null) {
+                VideoEncoder encoder = videoEncoder;
+                videoEncoder = null;
+                encoder.stop(
+                        error -> {
+                            if (error == null) {
+                                result.success(null);
+                            } else {
+                                result.error("videoRecordingFailed", error, null);
+                            }
+                        });
+                return;
+            }
             mediaRecorder.stop();
             mediaRecorder.reset();
-            startJpegPreview();
             result.success(null);
         } catch (CameraAccessException | IllegalStateException e) {
             result.error("videoRecordingFailed", e.getMessage(), null);
@@ -667,7 +1265,9 @@ public class Camera {
         }
 
         try {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            if (videoEncoder != null) {
+                videoEncoder.pause();
+            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
                 mediaRecorder.pause();
             } else {
                 result.error("videoRecordingFailed", "pauseVideoRecording requires Android API +24.", null);
@@ -688,7 +1288,9 @@ public class Camera {
         }
 
         try {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            if (videoEncoder != null) {
+                videoEncoder.resume();
+            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
                 mediaRecorder.resume();
             } else {
                 result.error(
@@ -703,68 +1305,308 @@ public class Camera {
         result.success(null);
     }
 
-    public void startRawPreview() throws CameraAccessException {
+    /**
+     * Starts a session rendering to the recording surface and the image stream, whichever of the
+     * two is active, so that both can run at once.
+     */
+    private void startRecordingSession(@Nullable Runnable onStartedCallback)
+            throws CameraAccessException {
+        List<Surface> outputs = new ArrayList<>();
+        outputs.add(getPreviewSurface());
+        List<Surface> targets = new ArrayList<>();
+        if (recordingSurface != null) {
+            targets.add(recordingSurface);
+        }
+        if (imageStreamReader != null) {
+            targets.add(imageStreamReader.getSurface());
+        }
+        outputs.addAll(targets);
+        startSession(
+                CameraDevice.TEMPLATE_RECORD,
+                onStartedCallback,
+                outputs,
+                targets.toArray(new Surface[0]));
+    }
+
+    /** @param maxImages RAW images that may be captured before the first is written. */
+    public void startRawPreview(int maxImages) throws CameraAccessException {
+        if (rawCaptureSize == null) {
+            throw new CameraAccessException(
+                    CameraAccessException.CAMERA_ERROR, "This camera doesn't support RAW capture.");
+        }
+        pictureImageRawReader =
+                reuseOrCreateReader(
+                        pictureImageRawReader, rawCaptureSize, ImageFormat.RAW_SENSOR, maxImages);
         currentReader = pictureImageRawReader;
-        createCaptureSession(CameraDevice.TEMPLATE_PREVIEW, pictureImageRawReader.getSurface());
+        startSession(
+                CameraDevice.TEMPLATE_PREVIEW, null, stillCaptureOutputs(), stillCaptureTargets());
     }
 
     public void startJpegPreview() throws CameraAccessException {
+        startJpegPreview(
+                pictureImageJpegReader != null
+                        ? pictureImageJpegReader.getMaxImages()
+                        : DEFAULT_JPEG_MAX_IMAGES);
+    }
+
+    /** @param maxImages JPEG images that may be captured before the first is written. */
+    public void startJpegPreview(int maxImages) throws CameraAccessException {
+        pictureImageJpegReader =
+                reuseOrCreateReader(pictureImageJpegReader, captureSize, ImageFormat.JPEG, maxImages);
         currentReader = pictureImageJpegReader;
-        createCaptureSession(CameraDevice.TEMPLATE_PREVIEW, pictureImageJpegReader.getSurface());
+        startSession(
+                CameraDevice.TEMPLATE_PREVIEW, null, stillCaptureOutputs(), stillCaptureTargets());
     }
 
-    public void startPreviewWithImageStream(EventChannel imageStreamChannel)
+    /** @param processing how frames are processed before they're sent, see {@link FrameProcessor}. */
+    public void startPreviewWithImageStream(
+            EventChannel imageStreamChannel,
+            double targetFrameRate,
+            int maxImages,
+            @Nullable Map<String, Object> processing)
             throws CameraAccessException {
-        createCaptureSession(CameraDevice.TEMPLATE_RECORD, imageStreamReader.getSurface());
-
+        final ImageReader streamReader = createImageStreamReader(maxImages);
+        frameProcessor = FrameProcessor.fromArguments(previewSize, processing);
+        startRecordingSession(null);
+
+        // Dart doesn't acknowledge frames sent over the event channel, so only the frame rate can
+        // be limited here.
+        imageStreamThrottle =
+                new ImageStreamThrottle(0, ImageStreamThrottle.Policy.dropNewest, targetFrameRate);
         imageStreamChannel.setStreamHandler(
                 new EventChannel.StreamHandler() {
                     @Override
                     public void onListen(Object o, EventChannel.EventSink imageStreamSink) {
-                        setImageStreamImageAvailableListener(imageStreamSink);
+                        setImageStreamImageAvailableListener(streamReader, imageStreamSink);
                     }
 
                     @Override
                     public void onCancel(Object o) {
-                        imageStreamReader.setOnImageAvailableListener(null, null);
+                        streamReader.setOnImageAvailableListener(null, null);
                     }
                 });
     }
 
-    private void setImageStreamImageAvailableListener(final EventChannel.EventSink imageStreamSink) {
-        imageStreamReader.setOnImageAvailableListener(
+    /** Returns the reader for the image stream, recreated if it doesn't hold {@code maxImages}. */
+    private ImageReader createImageStreamReader(int maxImages) {
+        imageStreamReader =
+                reuseOrCreateReader(imageStreamReader, previewSize, ImageFormat.YUV_420_888, maxImages);
+        return imageStreamReader;
+    }
+
+    private void setImageStreamImageAvailableListener(
+            ImageReader streamReader, final EventChannel.EventSink imageStreamSink) {
+        streamReader.setOnImageAvailableListener(
                 reader -> {
                     Image img = reader.acquireLatestImage();
                     if (img == null) return;
 
-                    List<Map<String, Object>> planes = new ArrayList<>();
-                    for (Image.Plane plane : img.getPlanes()) {
-                        ByteBuffer buffer = plane.getBuffer();
+                    if (imageStreamThrottle.onFrameAvailable(img.getTimestamp())
+                            == ImageStreamThrottle.Decision.drop) {
+                        img.close();
+                        return;
+                    }
 
-                        byte[] bytes = new byte[buffer.remaining()];
-                        buffer.get(bytes, 0, bytes.length);
+                    Map<String, Object> imageBuffer;
+                    FrameProcessor processor = frameProcessor;
+                    if (processor != null) {
+                        processor.process(img);
+                        imageBuffer =
+                                imageBuffer(
+                                        processor.getWidth(),
+                                        processor.getHeight(),
+                                        processor.getImageFormat(),
+                                        processor.getPlaneCount(),
+                                        processor.getPlanes(),
+                                        processor.getRowStrides(),
+                                        processor.getPixelStrides());
+                    } else {
+                        Image.Plane[] imagePlanes = img.getPlanes();
+                        ByteBuffer[] planes = new ByteBuffer[imagePlanes.length];
+                        int[] rowStrides = new int[imagePlanes.length];
+                        int[] pixelStrides = new int[imagePlanes.length];
+                        for (int i = 0; i < imagePlanes.length; i++) {
+                            planes[i] = imagePlanes[i].getBuffer();
+                            rowStrides[i] = imagePlanes[i].getRowStride();
+                            pixelStrides[i] = imagePlanes[i].getPixelStride();
+                        }
+                        imageBuffer =
+                                imageBuffer(
+                                        img.getWidth(),
+                                        img.getHeight(),
+                                        img.getFormat(),
+                                        imagePlanes.length,
+                                        planes,
+                                        rowStrides,
+                                        pixelStrides);
+                    }
 
-                        Map<String, Object> planeBuffer = new HashMap<>();
-                        planeBuffer.put("bytesPerRow", plane.getRowStride());
-                        planeBuffer.put("bytesPerPixel", plane.getPixelStride());
-                        planeBuffer.put("bytes", bytes);
+                    CameraThreads.runOnMainThread(() -> imageStreamSink.success(imageBuffer));
+                    img.close();
+                },
+                threads.imageReader);
+    }
 
-                        planes.add(planeBuffer);
-                    }
+    /**
+     * Builds the message the event channel image stream sends for a frame.
+     *
+     * <p>The plane bytes are copied, the image or the output of a {@link FrameProcessor} may be
+     * overwritten before the message is sent.
+     */
+    static Map<String, Object> imageBuffer(
+            int width,
+            int height,
+            int format,
+            int planeCount,
+            ByteBuffer[] planes,
+            int[] rowStrides,
+            int[] pixelStrides) {
+        List<Map<String, Object>> planeBuffers = new ArrayList<>();
+        for (int i = 0; i < planeCount; i++) {
+            ByteBuffer buffer = planes[i].duplicate();
+
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes, 0, bytes.length);
+
+            Map<String, Object> planeBuffer = new HashMap<>();
+            planeBuffer.put("bytesPerRow", rowStrides[i]);
+            planeBuffer.put("bytesPerPixel", pixelStrides[i]);
+            planeBuffer.put("bytes", bytes);
+
+            planeBuffers.add(planeBuffer);
+        }
+
+        Map<String, Object> imageBuffer = new HashMap<>();
+        imageBuffer.put("width", width);
+        imageBuffer.put("height", height);
+        imageBuffer.put("format", format);
+        imageBuffer.put("planes", planeBuffers);
+        return imageBuffer;
+    }
+
+    /**
+     * Streams frames as packed binary messages, see {@link PackedImageStream}.
+     *
+     * <p>Dart replies to every frame once it is processed, which lets at most {@code
+     * maxFramesInFlight} frames be outstanding. Frames arriving while that many are in flight are
+     * handled according to {@code policy}.
+     */
+    public void startPreviewWithPackedImageStream(
+            BinaryMessenger messenger,
+            int maxFramesInFlight,
+            ImageStreamThrottle.Policy policy,
+            double targetFrameRate,
+            int maxImages,
+            @Nullable Map<String, Object> processing)
+            throws CameraAccessException {
+        ImageReader streamReader = createImageStreamReader(maxImages);
+        frameProcessor = FrameProcessor.fromArguments(previewSize, processing);
+        startRecordingSession(null);
+
+        imageStreamThrottle = new ImageStreamThrottle(maxFramesInFlight, policy, targetFrameRate);
+        // Replies arrive on the platform thread, hand them to the image reader thread which owns
+        // the stream state.
+        packedImageStream =
+                new PackedImageStream(
+                        messenger,
+                        previewSize,
+                        PackedImageStream.poolSizeFor(maxFramesInFlight),
+                        () -> threads.imageReader.post(onPackedFrameProcessed));
+        streamReader.setOnImageAvailableListener(
+                reader -> {
+                    Image img = reader.acquireLatestImage();
+                    if (img == null) return;
 
-                    Map<String, Object> imageBuffer = new HashMap<>();
-                    imageBuffer.put("width", img.getWidth());
-                    imageBuffer.put("height", img.getHeight());
-                    imageBuffer.put("format", img.getFormat());
-                    imageBuffer.put("planes", planes);
+                    PackedImageStream stream = packedImageStream;
+                    if (stream == null) {
+                        img.close();
+                        return;
+                    }
 
-                    imageStreamSink.success(imageBuffer);
+                    switch (imageStreamThrottle.onFrameAvailable(img.getTimestamp())) {
+                        case deliver:
+                            sendFrame(stream, img);
+                            break;
+                        case hold:
+                            packFrame(stream, stream.getHeldSlot(), img);
+                            break;
+                        case drop:
+                            break;
+                    }
                     img.close();
                 },
-                null);
+                threads.imageReader);
+    }
+
+    private void sendFrame(PackedImageStream stream, Image img) {
+        int slot = stream.claimSlot();
+        if (slot == PackedImageStream.NO_SLOT) {
+            imageStreamThrottle.onFrameNotSent();
+            return;
+        }
+        packFrame(stream, slot, img);
+        stream.sendFrame(slot);
+    }
+
+    private void packFrame(PackedImageStream stream, int slot, Image img) {
+        FrameProcessor processor = frameProcessor;
+        if (processor == null) {
+            stream.packFrame(slot, img);
+            return;
+        }
+        processor.process(img);
+        stream.packFrame(
+                slot,
+                processor.getWidth(),
+                processor.getHeight(),
+                processor.getImageFormat(),
+                img.getTimestamp(),
+                processor.getPlaneCount(),
+                processor.getPlanes(),
+                processor.getRowStrides(),
+                processor.getPixelStrides());
+    }
+
+    private final Runnable onPackedFrameProcessed =
+            () -> {
+                PackedImageStream stream = packedImageStream;
+                if (stream == null) {
+                    return;
+                }
+                if (imageStreamThrottle.onFrameProcessed() && !stream.sendHeldFrame()) {
+                    imageStreamThrottle.onFrameNotSent();
+                }
+            };
+
+    public void stopImageStream() throws CameraAccessException {
+        // The stream reader is only an output while streaming, release its buffers right away.
+        retireReader(imageStreamReader);
+        imageStreamReader = null;
+        packedImageStream = null;
+        frameProcessor = null;
+        if (recordingVideo) {
+            startRecordingSession(null);
+        } else {
+            startJpegPreview();
+        }
+    }
+
+    /** A snapshot of the latency histograms and queue depths, see {@link CameraMetrics}. */
+    public Map<String, Object> getMetrics() {
+        return metrics.snapshot();
+    }
+
+    public Map<String, Object> getImageStreamStats() {
+        ImageStreamThrottle throttle =
+                imageStreamThrottle != null ? imageStreamThrottle : ImageStreamThrottle.unlimited();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("deliveredFrames", throttle.getDeliveredFrames());
+        stats.put("droppedFrames", throttle.getDroppedFrames());
+        return stats;
     }
 
     private void closeCaptureSession() {
+        sessionOutputs = null;
         if (cameraCaptureSession != null) {
             cameraCaptureSession.close();
             cameraCaptureSession = null;
@@ -778,27 +1620,43 @@ public class Camera {
             cameraDevice.close();
             cameraDevice = null;
         }
-        if (pictureImageJpegReader != null) {
-            pictureImageJpegReader.close();
-            pictureImageJpegReader = null;
-        }
-        if (pictureImageRawReader != null) {
-            pictureImageRawReader.close();
-            pictureImageRawReader = null;
-        }
-        if (imageStreamReader != null) {
-            imageStreamReader.close();
-            imageStreamReader = null;
-        }
+        // The listeners may still be packing or copying an image on the image reader thread, so
+        // the readers are closed there once they are done.
+        retireReader(pictureImageJpegReader);
+        pictureImageJpegReader = null;
+        retireReader(pictureImageRawReader);
+        pictureImageRawReader = null;
+        retireReader(imageStreamReader);
+        imageStreamReader = null;
+        burst = null;
+        zslBuffer = null;
+        retireReader(zslReader);
+        zslReader = null;
+        // Images kept open to be written still hold buffers of their readers.
+        threads.imageReader.post(imageWriteQueue::shutdown);
+        closeRetiredReaders();
         if (mediaRecorder != null) {
             mediaRecorder.reset();
             mediaRecorder.release();
             mediaRecorder = null;
         }
+        if (videoEncoder != null) {
+            videoEncoder.stop(null);
+            videoEncoder = null;
+        }
+        recordingSurface = null;
+        recordingVideo = false;
+        threads.quit();
+        exposureFusion.shutdown();
+        metrics.close();
     }
 
     public void dispose() {
         close();
+        if (previewSurface != null) {
+            previewSurface.release();
+            previewSurface = null;
+        }
         flutterTexture.release();
         orientationEventListener.disable();
     }
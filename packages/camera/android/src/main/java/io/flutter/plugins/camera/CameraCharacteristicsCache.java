@@ -0,0 +1,135 @@
+package io.flutter.plugins.camera;
+
+import android.content.Context;
+import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.CameraManager;
+import android.hardware.camera2.CameraMetadata;
+import android.media.CamcorderProfile;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.flutter.plugins.camera.Camera.ResolutionPreset;
+
+/**
+ * Process wide cache of the camera list, camera characteristics and camcorder profiles.
+ *
+ * <p>Each of these is a binder call that takes tens of milliseconds on devices with many cameras,
+ * and they were fetched again for every camera listing and on every camera start. The values of
+ * built-in cameras never change, so they're kept for the lifetime of the process. A camera that
+ * isn't in the cached list becoming available means one was connected, and an external camera
+ * becoming unavailable may mean it was disconnected; either drops the affected entries. Cameras
+ * also become unavailable while they're open, so cameras the plugin itself opened are skipped.
+ */
+final class CameraCharacteristicsCache {
+    private static CameraCharacteristicsCache instance;
+
+    private final CameraManager cameraManager;
+    private final Map<String, CameraCharacteristics> characteristics = new ConcurrentHashMap<>();
+    private final Map<String, CamcorderProfile> camcorderProfiles = new ConcurrentHashMap<>();
+    private final Set<String> openCameras = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    @Nullable private volatile String[] cameraIds;
+
+    private final CameraManager.AvailabilityCallback availabilityCallback =
+            new CameraManager.AvailabilityCallback() {
+                @Override
+                public void onCameraAvailable(@NonNull String cameraId) {
+                    String[] ids = cameraIds;
+                    if (ids != null && !Arrays.asList(ids).contains(cameraId)) {
+                        // A reconnected camera may reuse the id of another one.
+                        invalidate(cameraId);
+                    }
+                }
+
+                @Override
+                public void onCameraUnavailable(@NonNull String cameraId) {
+                    // Built-in cameras become unavailable whenever they're opened.
+                    CameraCharacteristics cached = characteristics.get(cameraId);
+                    if (cached != null
+                            && !openCameras.contains(cameraId)
+                            && Integer.valueOf(CameraMetadata.LENS_FACING_EXTERNAL)
+                                    .equals(cached.get(CameraCharacteristics.LENS_FACING))) {
+                        invalidate(cameraId);
+                    }
+                }
+            };
+
+    private CameraCharacteristicsCache(CameraManager cameraManager) {
+        this.cameraManager = cameraManager;
+        cameraManager.registerAvailabilityCallback(
+                availabilityCallback, new Handler(Looper.getMainLooper()));
+    }
+
+    static synchronized CameraCharacteristicsCache getInstance(Context context) {
+        if (instance == null) {
+            Context applicationContext = context.getApplicationContext();
+            instance =
+                    new CameraCharacteristicsCache(
+                            (CameraManager) applicationContext.getSystemService(Context.CAMERA_SERVICE));
+        }
+        return instance;
+    }
+
+    CameraManager getCameraManager() {
+        return cameraManager;
+    }
+
+    String[] getCameraIdList() throws CameraAccessException {
+        String[] ids = cameraIds;
+        if (ids == null) {
+            ids = cameraManager.getCameraIdList();
+            cameraIds = ids;
+        }
+        return ids;
+    }
+
+    CameraCharacteristics getCharacteristics(String cameraName) throws CameraAccessException {
+        CameraCharacteristics cached = characteristics.get(cameraName);
+        if (cached == null) {
+            cached = cameraManager.getCameraCharacteristics(cameraName);
+            characteristics.put(cameraName, cached);
+        }
+        return cached;
+    }
+
+    /** Called before the plugin opens {@code cameraName}, until {@link #onCameraClosed}. */
+    void onCameraOpening(String cameraName) {
+        openCameras.add(cameraName);
+    }
+
+    void onCameraClosed(String cameraName) {
+        openCameras.remove(cameraName);
+    }
+
+    /** Called when a camera the plugin opened was disconnected, its entries are dropped. */
+    void onCameraDisconnected(String cameraName) {
+        openCameras.remove(cameraName);
+        invalidate(cameraName);
+    }
+
+    CamcorderProfile getCamcorderProfile(String cameraName, ResolutionPreset preset) {
+        String key = cameraName + "/" + preset;
+        CamcorderProfile cached = camcorderProfiles.get(key);
+        if (cached == null) {
+            cached = CameraUtils.getBestAvailableCamcorderProfileForResolutionPreset(cameraName, preset);
+            camcorderProfiles.put(key, cached);
+        }
+        return cached;
+    }
+
+    private void invalidate(String cameraName) {
+        cameraIds = null;
+        characteristics.remove(cameraName);
+        for (ResolutionPreset preset : ResolutionPreset.values()) {
+            camcorderProfiles.remove(cameraName + "/" + preset);
+        }
+    }
+}
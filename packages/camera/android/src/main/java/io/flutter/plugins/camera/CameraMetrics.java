@@ -0,0 +1,189 @@
+package io.flutter.plugins.camera;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.EventChannel;
+
+/**
+ * Latency histograms and queue depths of a camera, for monitoring its performance.
+ *
+ * <p>Recording a latency only takes a lock and a few increments, so it's cheap enough for every
+ * capture and write. Dart reads a snapshot on demand, or listens to the metrics event channel to
+ * get one at the interval it listens with.
+ */
+class CameraMetrics {
+    // Mirrors camera.dart
+    static final String OPEN_TO_FIRST_FRAME = "openToFirstFrame";
+    static final String SESSION_CONFIGURATION = "sessionConfiguration";
+    static final String SHUTTER_LATENCY = "shutterLatency";
+    static final String BRACKETING_LATENCY = "bracketingLatency";
+    static final String IMAGE_WRITE = "imageWrite";
+
+    private static final String[] HISTOGRAMS = {
+        OPEN_TO_FIRST_FRAME, SESSION_CONFIGURATION, SHUTTER_LATENCY, BRACKETING_LATENCY, IMAGE_WRITE,
+    };
+    private static final long DEFAULT_INTERVAL_MILLIS = 1000;
+
+    /** Adds values that are sampled rather than recorded, like queue depths, to a snapshot. */
+    interface Gauges {
+        void addTo(Map<String, Object> snapshot);
+    }
+
+    /** Counts latencies in buckets with upper bounds from 1ms to 5s, and one for anything slower. */
+    static class LatencyHistogram {
+        static final double[] BUCKET_BOUNDS_MILLIS = {
+            1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, Double.POSITIVE_INFINITY,
+        };
+
+        private final long[] bucketCounts = new long[BUCKET_BOUNDS_MILLIS.length];
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        synchronized void record(long nanos) {
+            double millis = nanos / 1e6;
+            int bucket = 0;
+            while (millis > BUCKET_BOUNDS_MILLIS[bucket]) {
+                bucket++;
+            }
+            bucketCounts[bucket]++;
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        synchronized Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("count", count);
+            map.put("totalMillis", totalNanos / 1e6);
+            map.put("maxMillis", maxNanos / 1e6);
+            map.put("bucketCounts", bucketCounts.clone());
+            return map;
+        }
+    }
+
+    private final Map<String, LatencyHistogram> histograms = new HashMap<>();
+    @Nullable private volatile Gauges gauges;
+
+    // Written on the platform thread only.
+    @Nullable private EventChannel.EventSink eventSink;
+    @Nullable private Handler mainHandler;
+    private long intervalMillis = DEFAULT_INTERVAL_MILLIS;
+
+    private volatile long openStartNanos;
+    private volatile boolean awaitingFirstFrame;
+
+    private final Runnable sendSnapshot =
+            new Runnable() {
+                @Override
+                public void run() {
+                    if (eventSink == null) {
+                        return;
+                    }
+                    eventSink.success(snapshot());
+                    mainHandler.postDelayed(this, intervalMillis);
+                }
+            };
+
+    CameraMetrics() {
+        for (String name : HISTOGRAMS) {
+            histograms.put(name, new LatencyHistogram());
+        }
+    }
+
+    CameraMetrics(BinaryMessenger messenger, long eventChannelId) {
+        this();
+        new EventChannel(messenger, "flutter.io/cameraPlugin/metrics" + eventChannelId)
+                .setStreamHandler(
+                        new EventChannel.StreamHandler() {
+                            @Override
+                            public void onListen(Object arguments, EventChannel.EventSink sink) {
+                                intervalMillis = intervalMillisOf(arguments);
+                                if (mainHandler == null) {
+                                    mainHandler = new Handler(Looper.getMainLooper());
+                                }
+                                eventSink = sink;
+                                mainHandler.removeCallbacks(sendSnapshot);
+                                mainHandler.post(sendSnapshot);
+                            }
+
+                            @Override
+                            public void onCancel(Object arguments) {
+                                eventSink = null;
+                                if (mainHandler != null) {
+                                    mainHandler.removeCallbacks(sendSnapshot);
+                                }
+                            }
+                        });
+    }
+
+    private static long intervalMillisOf(Object arguments) {
+        if (arguments instanceof Map) {
+            Object intervalMillis = ((Map<?, ?>) arguments).get("intervalMillis");
+            if (intervalMillis instanceof Number && ((Number) intervalMillis).longValue() > 0) {
+                return ((Number) intervalMillis).longValue();
+            }
+        }
+        return DEFAULT_INTERVAL_MILLIS;
+    }
+
+    void setGauges(@Nullable Gauges gauges) {
+        this.gauges = gauges;
+    }
+
+    /** Records that {@code name} took from {@code startNanos}, a {@link System#nanoTime()}, until now. */
+    void recordSince(String name, long startNanos) {
+        record(name, System.nanoTime() - startNanos);
+    }
+
+    void record(String name, long nanos) {
+        histograms.get(name).record(nanos);
+    }
+
+    /** Starts timing the time from opening the camera to the first preview frame. */
+    void onOpenStarted() {
+        openStartNanos = System.nanoTime();
+        awaitingFirstFrame = true;
+    }
+
+    /** Called for every completed preview frame, only the first after opening is recorded. */
+    void onPreviewFrame() {
+        if (awaitingFirstFrame) {
+            awaitingFirstFrame = false;
+            recordSince(OPEN_TO_FIRST_FRAME, openStartNanos);
+        }
+    }
+
+    Map<String, Object> snapshot() {
+        Map<String, Object> histogramMaps = new HashMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            histogramMaps.put(entry.getKey(), entry.getValue().toMap());
+        }
+
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("histograms", histogramMaps);
+        snapshot.put("bucketBoundsMillis", LatencyHistogram.BUCKET_BOUNDS_MILLIS.clone());
+        Gauges currentGauges = gauges;
+        if (currentGauges != null) {
+            currentGauges.addTo(snapshot);
+        }
+        return snapshot;
+    }
+
+    /** Stops sending snapshots. */
+    void close() {
+        CameraThreads.runOnMainThread(
+                () -> {
+                    eventSink = null;
+                    if (mainHandler != null) {
+                        mainHandler.removeCallbacks(sendSnapshot);
+                    }
+                });
+    }
+}
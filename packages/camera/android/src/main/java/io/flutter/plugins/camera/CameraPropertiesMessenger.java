@@ -1,15 +1,47 @@
 package io.flutter.plugins.camera;
 
-import java.util.HashMap;
 import java.util.Map;
 
 import androidx.annotation.Nullable;
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.EventChannel;
 
+/**
+ * Sends the exposure, focus and white balance of the preview to dart whenever they change.
+ *
+ * <p>Capture results arrive with every frame but these values rarely change, so an event is only
+ * sent once one of them does, and no more often than the minimum interval dart listens with.
+ * Events are a double array, see the {@code INDEX_} constants, which the codec writes in one go.
+ */
 class CameraPropertiesMessenger {
+    // Mirrors camera.dart
+    static final int INDEX_ISO = 0;
+    static final int INDEX_EXPOSURE_TIME = 1;
+    static final int INDEX_FOCUS_DISTANCE = 2;
+    static final int INDEX_AWB_RED_GAIN = 3;
+    static final int INDEX_AWB_GREEN_EVEN_GAIN = 4;
+    static final int INDEX_AWB_GREEN_ODD_GAIN = 5;
+    static final int INDEX_AWB_BLUE_GAIN = 6;
+    static final int PROPERTY_COUNT = 7;
+
+    // Focus distance is in diopters, smaller changes aren't visible.
+    private static final float FOCUS_DISTANCE_TOLERANCE = 0.01f;
+    // White balance gains drift continuously in auto mode, only report relative changes above 1%.
+    private static final float AWB_GAIN_TOLERANCE = 0.01f;
+
     @Nullable
-    private EventChannel.EventSink eventSink;
+    private volatile EventChannel.EventSink eventSink;
+    private volatile long minIntervalNanos;
+    private volatile boolean sentProperties;
+
+    private long lastSentTimestamp;
+    private int iso;
+    private long exposureTime;
+    private float focusDistance;
+    private float redGain;
+    private float greenEvenGain;
+    private float greenOddGain;
+    private float blueGain;
 
     CameraPropertiesMessenger(BinaryMessenger messenger, long eventChannelId) {
         new EventChannel(messenger, "flutter.io/cameraPlugin/cameraProperties" + eventChannelId)
@@ -17,6 +49,9 @@ class CameraPropertiesMessenger {
                         new EventChannel.StreamHandler() {
                             @Override
                             public void onListen(Object arguments, EventChannel.EventSink sink) {
+                                setMinIntervalMillis(minIntervalMillisOf(arguments));
+                                // A new listener gets the current properties right away.
+                                sentProperties = false;
                                 eventSink = sink;
                             }
 
@@ -27,14 +62,111 @@ class CameraPropertiesMessenger {
                         });
     }
 
-    void send(int currentIso, long currentExposureTime) {
-        if (eventSink == null) {
+    private static long minIntervalMillisOf(Object arguments) {
+        if (arguments instanceof Map) {
+            Object minIntervalMillis = ((Map<?, ?>) arguments).get("minIntervalMillis");
+            if (minIntervalMillis instanceof Number) {
+                return ((Number) minIntervalMillis).longValue();
+            }
+        }
+        return 0;
+    }
+
+    void setMinIntervalMillis(long minIntervalMillis) {
+        minIntervalNanos = minIntervalMillis * 1_000_000L;
+    }
+
+    /**
+     * Sends the properties of a capture result if anyone listens and they changed.
+     *
+     * @param timestamp the sensor timestamp of the capture result, which the minimum interval is
+     *     measured with.
+     * @param focusDistance NaN if the camera doesn't report it, like the gains.
+     */
+    void send(
+            long timestamp,
+            int iso,
+            long exposureTime,
+            float focusDistance,
+            float redGain,
+            float greenEvenGain,
+            float greenOddGain,
+            float blueGain) {
+        if (eventSink == null
+                || !update(
+                        timestamp,
+                        iso,
+                        exposureTime,
+                        focusDistance,
+                        redGain,
+                        greenEvenGain,
+                        greenOddGain,
+                        blueGain)) {
             return;
         }
 
-        Map<String, String> event = new HashMap<>();
-        event.put("iso", String.valueOf(currentIso));
-        event.put("exposureTime", String.valueOf(currentExposureTime));
-        eventSink.success(event);
+        final double[] event = new double[PROPERTY_COUNT];
+        event[INDEX_ISO] = iso;
+        event[INDEX_EXPOSURE_TIME] = exposureTime;
+        event[INDEX_FOCUS_DISTANCE] = focusDistance;
+        event[INDEX_AWB_RED_GAIN] = redGain;
+        event[INDEX_AWB_GREEN_EVEN_GAIN] = greenEvenGain;
+        event[INDEX_AWB_GREEN_ODD_GAIN] = greenOddGain;
+        event[INDEX_AWB_BLUE_GAIN] = blueGain;
+        CameraThreads.runOnMainThread(
+                () -> {
+                    EventChannel.EventSink sink = eventSink;
+                    if (sink != null) {
+                        sink.success(event);
+                    }
+                });
+    }
+
+    /** Records the properties and returns whether they should be sent. */
+    boolean update(
+            long timestamp,
+            int iso,
+            long exposureTime,
+            float focusDistance,
+            float redGain,
+            float greenEvenGain,
+            float greenOddGain,
+            float blueGain) {
+        if (sentProperties) {
+            if (timestamp - lastSentTimestamp < minIntervalNanos) {
+                return false;
+            }
+            if (iso == this.iso
+                    && exposureTime == this.exposureTime
+                    && !changed(this.focusDistance, focusDistance, FOCUS_DISTANCE_TOLERANCE)
+                    && !changedRelative(this.redGain, redGain)
+                    && !changedRelative(this.greenEvenGain, greenEvenGain)
+                    && !changedRelative(this.greenOddGain, greenOddGain)
+                    && !changedRelative(this.blueGain, blueGain)) {
+                return false;
+            }
+        }
+
+        sentProperties = true;
+        lastSentTimestamp = timestamp;
+        this.iso = iso;
+        this.exposureTime = exposureTime;
+        this.focusDistance = focusDistance;
+        this.redGain = redGain;
+        this.greenEvenGain = greenEvenGain;
+        this.greenOddGain = greenOddGain;
+        this.blueGain = blueGain;
+        return true;
+    }
+
+    private static boolean changed(float previous, float current, float tolerance) {
+        if (Float.isNaN(previous) || Float.isNaN(current)) {
+            return Float.isNaN(previous) != Float.isNaN(current);
+        }
+        return Math.abs(current - previous) > tolerance;
+    }
+
+    private static boolean changedRelative(float previous, float current) {
+        return changed(previous, current, Math.abs(previous) * AWB_GAIN_TOLERANCE);
     }
 }
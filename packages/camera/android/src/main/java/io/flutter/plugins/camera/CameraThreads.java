@@ -0,0 +1,57 @@
+package io.flutter.plugins.camera;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+
+/**
+ * The background threads a {@link Camera} runs its work on.
+ *
+ * <p>camera2 device and session callbacks run on the session thread and image reader callbacks on
+ * the image reader thread, so none of them block the platform thread. Replies to dart have to be
+ * made from the platform thread, see {@link #runOnMainThread(Runnable)}.
+ */
+class CameraThreads {
+    private static Handler mainHandler;
+
+    private final HandlerThread sessionThread;
+    private final HandlerThread imageReaderThread;
+
+    final Handler session;
+    final Handler imageReader;
+
+    CameraThreads() {
+        sessionThread = start("CameraSession", Process.THREAD_PRIORITY_DEFAULT);
+        imageReaderThread = start("CameraImageReader", Process.THREAD_PRIORITY_DEFAULT);
+        session = new Handler(sessionThread.getLooper());
+        imageReader = new Handler(imageReaderThread.getLooper());
+    }
+
+    private static HandlerThread start(String name, int priority) {
+        HandlerThread thread = new HandlerThread(name, priority);
+        thread.start();
+        return thread;
+    }
+
+    /** Stops the threads once the work already posted to them is done. */
+    void quit() {
+        sessionThread.quitSafely();
+        imageReaderThread.quitSafely();
+    }
+
+    /** Runs {@code runnable} on the platform thread, right away if already on it. */
+    static void runOnMainThread(Runnable runnable) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            runnable.run();
+            return;
+        }
+
+        synchronized (CameraThreads.class) {
+            if (mainHandler == null) {
+                mainHandler = new Handler(Looper.getMainLooper());
+            }
+        }
+        mainHandler.post(runnable);
+    }
+}
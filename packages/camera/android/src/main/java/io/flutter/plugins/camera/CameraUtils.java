@@ -1,11 +1,9 @@
 package io.flutter.plugins.camera;
 
 import android.app.Activity;
-import android.content.Context;
 import android.graphics.ImageFormat;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCharacteristics;
-import android.hardware.camera2.CameraManager;
 import android.hardware.camera2.CameraMetadata;
 import android.hardware.camera2.params.StreamConfigurationMap;
 import android.media.CamcorderProfile;
@@ -24,13 +22,13 @@ public final class CameraUtils {
 
   private CameraUtils() {}
 
-  static Size computeBestPreviewSize(String cameraName, ResolutionPreset preset) {
+  static Size computeBestPreviewSize(
+      CameraCharacteristicsCache cache, String cameraName, ResolutionPreset preset) {
     if (preset.ordinal() > ResolutionPreset.high.ordinal()) {
       preset = ResolutionPreset.high;
     }
 
-    CamcorderProfile profile =
-        getBestAvailableCamcorderProfileForResolutionPreset(cameraName, preset);
+    CamcorderProfile profile = cache.getCamcorderProfile(cameraName, preset);
     return new Size(profile.videoFrameWidth, profile.videoFrameHeight);
   }
 
@@ -41,14 +39,21 @@ public final class CameraUtils {
         new CompareSizesByArea());
   }
 
+  static Size computeBestZslSize(StreamConfigurationMap streamConfigurationMap) {
+    // Zero shutter lag pictures are taken from YUV frames, use the largest ones.
+    return Collections.max(
+        Arrays.asList(streamConfigurationMap.getOutputSizes(ImageFormat.YUV_420_888)),
+        new CompareSizesByArea());
+  }
+
   public static List<Map<String, Object>> getAvailableCameras(Activity activity)
       throws CameraAccessException {
-    CameraManager cameraManager = (CameraManager) activity.getSystemService(Context.CAMERA_SERVICE);
-    String[] cameraNames = cameraManager.getCameraIdList();
+    CameraCharacteristicsCache cache = CameraCharacteristicsCache.getInstance(activity);
+    String[] cameraNames = cache.getCameraIdList();
     List<Map<String, Object>> cameras = new ArrayList<>();
     for (String cameraName : cameraNames) {
       HashMap<String, Object> details = new HashMap<>();
-      CameraCharacteristics characteristics = cameraManager.getCameraCharacteristics(cameraName);
+      CameraCharacteristics characteristics = cache.getCharacteristics(cameraName);
       details.put("name", cameraName);
       int sensorOrientation = characteristics.get(CameraCharacteristics.SENSOR_ORIENTATION);
       details.put("sensorOrientation", sensorOrientation);
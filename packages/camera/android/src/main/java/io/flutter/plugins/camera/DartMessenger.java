@@ -46,6 +46,12 @@ class DartMessenger {
     if (eventType == EventType.ERROR && !TextUtils.isEmpty(description)) {
       event.put("errorDescription", description);
     }
-    eventSink.success(event);
+    // Camera callbacks run on background threads, events have to be sent from the platform thread.
+    CameraThreads.runOnMainThread(
+        () -> {
+          if (eventSink != null) {
+            eventSink.success(event);
+          }
+        });
   }
 }
@@ -0,0 +1,744 @@
+package io.flutter.plugins.camera;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.ImageFormat;
+import android.graphics.Rect;
+import android.graphics.YuvImage;
+import android.media.ExifInterface;
+import android.util.Log;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.flutter.plugin.common.MethodChannel.Result;
+
+/**
+ * Merges bracketed JPEGs into one picture with Mertens exposure fusion.
+ *
+ * <p>Every pixel of every input is weighted by its contrast, saturation and well-exposedness, and
+ * the inputs are blended with these weights over a Laplacian pyramid so the transitions between
+ * them don't show. The picture is processed in tiles which are decoded with {@link
+ * BitmapRegionDecoder} and written into an NV21 buffer, which takes 1.5 bytes per pixel where a
+ * bitmap takes 4. Apart from that buffer the memory taken doesn't depend on the picture size, as
+ * every worker reuses its tile buffers. Tiles overlap by {@link #TILE_MARGIN}, which covers
+ * everything the pyramid reads around a pixel, so the tiles come out as if the whole picture had
+ * been blended at once. They are spread over one worker per core.
+ */
+class ExposureFusion {
+    private static final String TAG = "ExposureFusion";
+
+    static final int TILE_SIZE = 256;
+    // Fewer levels blend the inputs over a shorter distance, which shows as halos around edges.
+    static final int LEVELS = 5;
+    static final int TILE_MARGIN = tileMargin(LEVELS);
+
+    // Matches the JPEG_QUALITY of still captures.
+    private static final int JPEG_QUALITY = 100;
+    // Mertens et al. weigh well-exposedness with a gaussian around 0.5 with a sigma of 0.2.
+    private static final float WELL_EXPOSED_SIGMA = 0.2f;
+    // Keeps the weights of flat, fully clipped regions from all being 0.
+    private static final float MIN_WEIGHT = 1e-12f;
+
+    private final ExecutorService workers;
+    private final int workerCount;
+
+    ExposureFusion(int workerCount) {
+        this.workerCount = workerCount;
+        this.workers = Executors.newFixedThreadPool(workerCount);
+    }
+
+    /**
+     * Returns how far away from a pixel the inputs and weights blended into it are.
+     *
+     * <p>Reducing level {@code l} reads 2 of its pixels to each side, expanding into it 1 pixel of
+     * level {@code l + 1}, both are {@code 2^(l + 1)} pixels of the picture. The coarsest level is
+     * reduced {@code levels - 1} times and expanded as often to collapse the pyramid, and the
+     * contrast weight reads one more pixel.
+     */
+    static int pyramidSupport(int levels) {
+        return 2 * ((1 << levels) - 2) + 1;
+    }
+
+    /**
+     * The margin around tiles, the pyramid support rounded up to whole pixels of the coarsest
+     * level. Tiles start at multiples of {@link #TILE_SIZE}, so the pyramid of every padded tile
+     * then samples the picture at the same pixels as the pyramid of the whole picture would.
+     */
+    static int tileMargin(int levels) {
+        int coarsestPixel = 1 << (levels - 1);
+        return (pyramidSupport(levels) + coarsestPixel - 1) / coarsestPixel * coarsestPixel;
+    }
+
+    /** Lets a running fusion finish and stops the workers. */
+    void shutdown() {
+        workers.shutdown();
+    }
+
+    /**
+     * Fuses the JPEGs at {@code paths} into a JPEG at {@code outputPath}.
+     *
+     * <p>Replies with the output path and the time taken by every stage in milliseconds. The
+     * decode, weight and blend times are summed over the workers, the total is wall time.
+     *
+     * @param sampleSize fuses the inputs downscaled by this factor, 1 for full resolution.
+     */
+    void fuse(List<String> paths, String outputPath, int sampleSize, Result result) {
+        if (paths.isEmpty()) {
+            result.error("noPictures", "No pictures to fuse.", null);
+            return;
+        }
+        final long start = System.nanoTime();
+        // Reading the size and allocating the output take a while for large pictures, so they're
+        // done on a worker as well. The tiles are queued behind this task.
+        workers.execute(
+                () -> {
+                    int sourceWidth;
+                    int sourceHeight;
+                    int width;
+                    int height;
+                    byte[] output;
+                    try {
+                        BitmapRegionDecoder bounds =
+                                BitmapRegionDecoder.newInstance(paths.get(0), false);
+                        sourceWidth = bounds.getWidth();
+                        sourceHeight = bounds.getHeight();
+                        bounds.recycle();
+                        // NV21 can only be encoded with even sizes, an odd last row or column is
+                        // left out. A sample size larger than the picture still leaves 2 pixels.
+                        width = Math.max(2, sourceWidth / sampleSize & ~1);
+                        height = Math.max(2, sourceHeight / sampleSize & ~1);
+                        output = new byte[width * height * 3 / 2];
+                    } catch (IOException | RuntimeException | OutOfMemoryError e) {
+                        Log.e(TAG, "Failed reading " + paths.get(0), e);
+                        result.error(
+                                "IOError", "Failed reading " + paths.get(0) + ": " + e.getMessage(), null);
+                        return;
+                    }
+                    fuseTiles(
+                            paths,
+                            outputPath,
+                            sampleSize,
+                            sourceWidth,
+                            sourceHeight,
+                            width,
+                            height,
+                            output,
+                            start,
+                            result);
+                });
+    }
+
+    /**
+     * Fuses the tiles of a {@code width} by {@code height} picture into {@code output}, which
+     * holds it as NV21.
+     */
+    private void fuseTiles(
+            List<String> paths,
+            String outputPath,
+            int sampleSize,
+            int sourceWidth,
+            int sourceHeight,
+            int width,
+            int height,
+            byte[] output,
+            long start,
+            Result result) {
+        final int tileColumns = (width + TILE_SIZE - 1) / TILE_SIZE;
+        final int tileCount = tileColumns * ((height + TILE_SIZE - 1) / TILE_SIZE);
+
+        final AtomicInteger nextTile = new AtomicInteger();
+        final AtomicInteger activeWorkers = new AtomicInteger(workerCount);
+        final AtomicBoolean failed = new AtomicBoolean();
+        final AtomicLong decodeNanos = new AtomicLong();
+        final AtomicLong weightNanos = new AtomicLong();
+        final AtomicLong blendNanos = new AtomicLong();
+
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(
+                    () -> {
+                        // Decoders aren't shared, decoding a region locks its decoder.
+                        BitmapRegionDecoder[] decoders = new BitmapRegionDecoder[paths.size()];
+                        TileFuser fuser = null;
+                        try {
+                            for (int k = 0; k < decoders.length; k++) {
+                                decoders[k] = BitmapRegionDecoder.newInstance(paths.get(k), false);
+                                if (decoders[k].getWidth() != sourceWidth
+                                        || decoders[k].getHeight() != sourceHeight) {
+                                    throw new IOException(paths.get(k) + " has a different size");
+                                }
+                            }
+                            fuser = new TileFuser(decoders, sampleSize);
+                            int tile;
+                            while (!failed.get() && (tile = nextTile.getAndIncrement()) < tileCount) {
+                                int left = (tile % tileColumns) * TILE_SIZE;
+                                int top = (tile / tileColumns) * TILE_SIZE;
+                                fuser.fuseTile(
+                                        output,
+                                        width,
+                                        height,
+                                        left,
+                                        top,
+                                        Math.min(TILE_SIZE, width - left),
+                                        Math.min(TILE_SIZE, height - top),
+                                        decodeNanos,
+                                        weightNanos,
+                                        blendNanos);
+                            }
+                        } catch (IOException | RuntimeException | OutOfMemoryError e) {
+                            Log.e(TAG, "Failed fusing exposures", e);
+                            if (failed.compareAndSet(false, true)) {
+                                result.error("IOError", "Failed fusing exposures: " + e.getMessage(), null);
+                            }
+                        } finally {
+                            if (fuser != null) {
+                                fuser.recycle();
+                            }
+                            for (BitmapRegionDecoder decoder : decoders) {
+                                if (decoder != null) {
+                                    decoder.recycle();
+                                }
+                            }
+                        }
+
+                        // The last worker to finish writes the output.
+                        if (activeWorkers.decrementAndGet() != 0 || failed.get()) {
+                            return;
+                        }
+                        long encodeStart = System.nanoTime();
+                        if (!writeJpeg(output, width, height, paths.get(0), outputPath)) {
+                            result.error("IOError", "Failed saving " + outputPath, null);
+                            return;
+                        }
+                        long end = System.nanoTime();
+
+                        Map<String, Object> reply = new HashMap<>();
+                        reply.put("path", outputPath);
+                        reply.put("decodeMillis", toMillis(decodeNanos.get()));
+                        reply.put("weightMillis", toMillis(weightNanos.get()));
+                        reply.put("blendMillis", toMillis(blendNanos.get()));
+                        reply.put("encodeMillis", toMillis(end - encodeStart));
+                        reply.put("totalMillis", toMillis(end - start));
+                        result.success(reply);
+                    });
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static boolean writeJpeg(
+            byte[] nv21, int width, int height, String exifSourcePath, String path) {
+        YuvImage image = new YuvImage(nv21, ImageFormat.NV21, width, height, null);
+        try (FileOutputStream outputStream = new FileOutputStream(path)) {
+            if (!image.compressToJpeg(new Rect(0, 0, width, height), JPEG_QUALITY, outputStream)) {
+                return false;
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Failed writing " + path, e);
+            return false;
+        }
+
+        // The decoders ignore the orientation, keep the one of the inputs.
+        try {
+            String orientation =
+                    new ExifInterface(exifSourcePath).getAttribute(ExifInterface.TAG_ORIENTATION);
+            if (orientation != null) {
+                ExifInterface exif = new ExifInterface(path);
+                exif.setAttribute(ExifInterface.TAG_ORIENTATION, orientation);
+                exif.saveAttributes();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Failed writing orientation of " + path, e);
+        }
+        return true;
+    }
+
+    /** Decodes and fuses tiles, reusing its buffers from tile to tile. One per worker. */
+    private static class TileFuser {
+        private final BitmapRegionDecoder[] decoders;
+        private final int sampleSize;
+        private final BitmapFactory.Options options = new BitmapFactory.Options();
+        private final int[] pixels;
+        private final float[][][] inputs;
+        private final float[][] weights;
+        private final float[][] fused;
+        private final BlendBuffers buffers;
+
+        TileFuser(BitmapRegionDecoder[] decoders, int sampleSize) {
+            this.decoders = decoders;
+            this.sampleSize = sampleSize;
+            int maxPaddedSize = TILE_SIZE + 2 * TILE_MARGIN;
+            int maxTilePixels = maxPaddedSize * maxPaddedSize;
+            options.inSampleSize = sampleSize;
+            options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+            // Regions are decoded into the top left corner of this bitmap, which keeps its size.
+            options.inMutable = true;
+            options.inBitmap =
+                    Bitmap.createBitmap(maxPaddedSize, maxPaddedSize, Bitmap.Config.ARGB_8888);
+            pixels = new int[maxTilePixels];
+            inputs = new float[decoders.length][3][maxTilePixels];
+            weights = new float[decoders.length][maxTilePixels];
+            fused = new float[3][maxTilePixels];
+            buffers = new BlendBuffers(maxPaddedSize, maxPaddedSize, LEVELS);
+        }
+
+        void recycle() {
+            options.inBitmap.recycle();
+        }
+
+        /** Fuses a tile of the {@code outputWidth} by {@code outputHeight} NV21 {@code output}. */
+        void fuseTile(
+                byte[] output,
+                int outputWidth,
+                int outputHeight,
+                int left,
+                int top,
+                int width,
+                int height,
+                AtomicLong decodeNanos,
+                AtomicLong weightNanos,
+                AtomicLong blendNanos) {
+            int paddedLeft = Math.max(0, left - TILE_MARGIN);
+            int paddedTop = Math.max(0, top - TILE_MARGIN);
+            int paddedWidth = Math.min(outputWidth, left + width + TILE_MARGIN) - paddedLeft;
+            int paddedHeight = Math.min(outputHeight, top + height + TILE_MARGIN) - paddedTop;
+
+            long decodeStart = System.nanoTime();
+            for (int k = 0; k < decoders.length; k++) {
+                decodeRegion(decoders[k], paddedLeft, paddedTop, paddedWidth, paddedHeight);
+                toPlanes(pixels, paddedWidth * paddedHeight, inputs[k]);
+            }
+            long weightStart = System.nanoTime();
+            computeWeights(inputs, paddedWidth, paddedHeight, weights, buffers.gray);
+            long blendStart = System.nanoTime();
+            blend(inputs, weights, paddedWidth, paddedHeight, LEVELS, fused, buffers);
+            long blendEnd = System.nanoTime();
+            decodeNanos.addAndGet(weightStart - decodeStart);
+            weightNanos.addAndGet(blendStart - weightStart);
+            blendNanos.addAndGet(blendEnd - blendStart);
+
+            // Only the inner part of the tile is kept, its margin only served the pyramid.
+            toNv21(
+                    fused,
+                    paddedWidth,
+                    left - paddedLeft,
+                    top - paddedTop,
+                    width,
+                    height,
+                    output,
+                    outputWidth,
+                    outputHeight,
+                    left,
+                    top);
+        }
+
+        /** Decodes a region given in output pixels into {@code pixels}. */
+        private void decodeRegion(
+                BitmapRegionDecoder decoder, int left, int top, int width, int height) {
+            Rect region =
+                    new Rect(
+                            left * sampleSize,
+                            top * sampleSize,
+                            Math.min(decoder.getWidth(), (left + width) * sampleSize),
+                            Math.min(decoder.getHeight(), (top + height) * sampleSize));
+            Bitmap bitmap = decoder.decodeRegion(region, options);
+            // Downscaled regions may be a pixel short, repeat the last row and column then.
+            int decodedWidth =
+                    Math.max(
+                            1,
+                            Math.min(
+                                    Math.min(width, bitmap.getWidth()),
+                                    region.width() / sampleSize));
+            int decodedHeight =
+                    Math.max(
+                            1,
+                            Math.min(
+                                    Math.min(height, bitmap.getHeight()),
+                                    region.height() / sampleSize));
+            bitmap.getPixels(pixels, 0, width, 0, 0, decodedWidth, decodedHeight);
+            if (bitmap != options.inBitmap) {
+                bitmap.recycle();
+            }
+            for (int y = 0; y < height; y++) {
+                int sourceRow = Math.min(y, decodedHeight - 1) * width;
+                for (int x = y < decodedHeight ? decodedWidth : 0; x < width; x++) {
+                    pixels[y * width + x] = pixels[sourceRow + Math.min(x, decodedWidth - 1)];
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a {@code width} by {@code height} region of the planes at {@code planesLeft}, {@code
+     * planesTop} to the NV21 {@code nv21} at {@code left}, {@code top}.
+     *
+     * <p>The region's position and size have to be even, so that it owns its chroma samples. They
+     * are the average of the 2x2 pixels they cover, converted like JFIF does.
+     */
+    static void toNv21(
+            float[][] planes,
+            int planesWidth,
+            int planesLeft,
+            int planesTop,
+            int width,
+            int height,
+            byte[] nv21,
+            int nv21Width,
+            int nv21Height,
+            int left,
+            int top) {
+        float[] r = planes[0];
+        float[] g = planes[1];
+        float[] b = planes[2];
+        for (int y = 0; y < height; y++) {
+            int source = (planesTop + y) * planesWidth + planesLeft;
+            int target = (top + y) * nv21Width + left;
+            for (int x = 0; x < width; x++) {
+                int i = source + x;
+                nv21[target + x] = (byte) toByte(0.299f * r[i] + 0.587f * g[i] + 0.114f * b[i]);
+            }
+        }
+        int chromaStart = nv21Width * nv21Height;
+        for (int y = 0; y < height; y += 2) {
+            int source = (planesTop + y) * planesWidth + planesLeft;
+            int target = chromaStart + (top + y) / 2 * nv21Width + left;
+            for (int x = 0; x < width; x += 2) {
+                int i = source + x;
+                int below = i + planesWidth;
+                float red = (r[i] + r[i + 1] + r[below] + r[below + 1]) / 4;
+                float green = (g[i] + g[i + 1] + g[below] + g[below + 1]) / 4;
+                float blue = (b[i] + b[i + 1] + b[below] + b[below + 1]) / 4;
+                nv21[target + x] =
+                        (byte) toByte(0.5f + 0.5f * red - 0.418688f * green - 0.081312f * blue);
+                nv21[target + x + 1] =
+                        (byte) toByte(0.5f - 0.168736f * red - 0.331264f * green + 0.5f * blue);
+            }
+        }
+    }
+
+    static void toPlanes(int[] argb, int count, float[][] planes) {
+        for (int i = 0; i < count; i++) {
+            int pixel = argb[i];
+            planes[0][i] = ((pixel >> 16) & 0xff) / 255f;
+            planes[1][i] = ((pixel >> 8) & 0xff) / 255f;
+            planes[2][i] = (pixel & 0xff) / 255f;
+        }
+    }
+
+    static int toArgb(float r, float g, float b) {
+        return 0xff000000 | (toByte(r) << 16) | (toByte(g) << 8) | toByte(b);
+    }
+
+    private static int toByte(float value) {
+        return Math.max(0, Math.min(255, Math.round(value * 255)));
+    }
+
+    /**
+     * Weighs every pixel of every input by its contrast, saturation and well-exposedness.
+     *
+     * @param inputs the red, green and blue planes of every input, with values from 0 to 1.
+     * @return the weights of every input, normalized to add up to 1 for every pixel.
+     */
+    static float[][] computeWeights(float[][][] inputs, int width, int height) {
+        int count = width * height;
+        float[][] weights = new float[inputs.length][count];
+        computeWeights(inputs, width, height, weights, new float[count]);
+        return weights;
+    }
+
+    /**
+     * Like {@link #computeWeights(float[][][], int, int)}, into {@code weights}.
+     *
+     * @param gray scratch space for a {@code width} by {@code height} plane.
+     */
+    static void computeWeights(
+            float[][][] inputs, int width, int height, float[][] weights, float[] gray) {
+        int count = width * height;
+        float wellExposedScale = 1 / (2 * WELL_EXPOSED_SIGMA * WELL_EXPOSED_SIGMA);
+
+        for (int k = 0; k < inputs.length; k++) {
+            float[] r = inputs[k][0];
+            float[] g = inputs[k][1];
+            float[] b = inputs[k][2];
+            for (int i = 0; i < count; i++) {
+                gray[i] = 0.299f * r[i] + 0.587f * g[i] + 0.114f * b[i];
+            }
+            for (int y = 0; y < height; y++) {
+                int row = y * width;
+                int up = Math.max(0, y - 1) * width;
+                int down = Math.min(height - 1, y + 1) * width;
+                for (int x = 0; x < width; x++) {
+                    int i = row + x;
+                    float contrast =
+                            Math.abs(
+                                    4 * gray[i]
+                                            - gray[row + Math.max(0, x - 1)]
+                                            - gray[row + Math.min(width - 1, x + 1)]
+                                            - gray[up + x]
+                                            - gray[down + x]);
+                    float mean = (r[i] + g[i] + b[i]) / 3;
+                    float saturation =
+                            (float)
+                                    Math.sqrt(
+                                            ((r[i] - mean) * (r[i] - mean)
+                                                            + (g[i] - mean) * (g[i] - mean)
+                                                            + (b[i] - mean) * (b[i] - mean))
+                                                    / 3);
+                    float distance =
+                            (r[i] - 0.5f) * (r[i] - 0.5f)
+                                    + (g[i] - 0.5f) * (g[i] - 0.5f)
+                                    + (b[i] - 0.5f) * (b[i] - 0.5f);
+                    float wellExposedness = (float) Math.exp(-distance * wellExposedScale);
+                    weights[k][i] = contrast * saturation * wellExposedness + MIN_WEIGHT;
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            float sum = 0;
+            for (int k = 0; k < inputs.length; k++) {
+                sum += weights[k][i];
+            }
+            for (int k = 0; k < inputs.length; k++) {
+                weights[k][i] /= sum;
+            }
+        }
+    }
+
+    /**
+     * The pyramids {@link #blend} builds, allocated once for the largest tile and reused for every
+     * tile.
+     */
+    static class BlendBuffers {
+        final float[] gray;
+        // The gaussian pyramids of a weight and an input channel, without their first level which
+        // is the weight or channel itself.
+        private final float[][] weightPyramid;
+        private final float[][] inputPyramid;
+        // The blended Laplacian pyramid of every channel, accumulated one input at a time.
+        private final float[][][] blended;
+        private final float[] expanded;
+        private final float[] rows;
+        private final int[] widths;
+        private final int[] heights;
+
+        BlendBuffers(int maxWidth, int maxHeight, int levels) {
+            gray = new float[maxWidth * maxHeight];
+            weightPyramid = new float[levels][];
+            inputPyramid = new float[levels][];
+            blended = new float[3][levels][];
+            int width = maxWidth;
+            int height = maxHeight;
+            for (int l = 0; l < levels; l++) {
+                if (l > 0) {
+                    weightPyramid[l] = new float[width * height];
+                    inputPyramid[l] = new float[width * height];
+                }
+                for (int c = 0; c < 3; c++) {
+                    blended[c][l] = new float[width * height];
+                }
+                width = (width + 1) / 2;
+                height = (height + 1) / 2;
+            }
+            expanded = new float[maxWidth * maxHeight];
+            rows = new float[(maxWidth + 1) / 2 * maxHeight];
+            widths = new int[levels];
+            heights = new int[levels];
+        }
+    }
+
+    /**
+     * Blends the inputs with their weights over a Laplacian pyramid of {@code levels} levels.
+     *
+     * @param out receives the red, green and blue planes of the result.
+     */
+    static void blend(
+            float[][][] inputs,
+            float[][] weights,
+            int width,
+            int height,
+            int levels,
+            float[][] out) {
+        blend(inputs, weights, width, height, levels, out, new BlendBuffers(width, height, levels));
+    }
+
+    /**
+     * Like {@link #blend(float[][][], float[][], int, int, int, float[][])}, in {@code buffers}.
+     */
+    static void blend(
+            float[][][] inputs,
+            float[][] weights,
+            int width,
+            int height,
+            int levels,
+            float[][] out,
+            BlendBuffers buffers) {
+        int[] widths = buffers.widths;
+        int[] heights = buffers.heights;
+        widths[0] = width;
+        heights[0] = height;
+        for (int l = 1; l < levels; l++) {
+            widths[l] = (widths[l - 1] + 1) / 2;
+            heights[l] = (heights[l - 1] + 1) / 2;
+        }
+        float[][][] blended = buffers.blended;
+        for (int c = 0; c < 3; c++) {
+            for (int l = 0; l < levels; l++) {
+                Arrays.fill(blended[c][l], 0, widths[l] * heights[l], 0);
+            }
+        }
+
+        float[][] weightPyramid = buffers.weightPyramid;
+        float[][] inputPyramid = buffers.inputPyramid;
+        float[] expanded = buffers.expanded;
+        for (int k = 0; k < inputs.length; k++) {
+            weightPyramid[0] = weights[k];
+            gaussianPyramid(weightPyramid, widths, heights, levels, buffers.rows);
+            for (int c = 0; c < 3; c++) {
+                inputPyramid[0] = inputs[k][c];
+                gaussianPyramid(inputPyramid, widths, heights, levels, buffers.rows);
+                for (int l = 0; l < levels; l++) {
+                    float[] target = blended[c][l];
+                    float[] weight = weightPyramid[l];
+                    float[] level = inputPyramid[l];
+                    int count = widths[l] * heights[l];
+                    if (l == levels - 1) {
+                        for (int i = 0; i < count; i++) {
+                            target[i] += weight[i] * level[i];
+                        }
+                        continue;
+                    }
+                    // The Laplacian level is the detail lost by reducing this level.
+                    expand(
+                            inputPyramid[l + 1],
+                            widths[l + 1],
+                            heights[l + 1],
+                            widths[l],
+                            heights[l],
+                            expanded);
+                    for (int i = 0; i < count; i++) {
+                        target[i] += weight[i] * (level[i] - expanded[i]);
+                    }
+                }
+            }
+        }
+        weightPyramid[0] = null;
+        inputPyramid[0] = null;
+
+        for (int c = 0; c < 3; c++) {
+            for (int l = levels - 2; l >= 0; l--) {
+                expand(
+                        blended[c][l + 1],
+                        widths[l + 1],
+                        heights[l + 1],
+                        widths[l],
+                        heights[l],
+                        expanded);
+                float[] detail = blended[c][l];
+                int count = widths[l] * heights[l];
+                for (int i = 0; i < count; i++) {
+                    detail[i] += expanded[i];
+                }
+            }
+            System.arraycopy(blended[c][0], 0, out[c], 0, width * height);
+        }
+    }
+
+    /** Reduces the first level of {@code pyramid} into its other levels. */
+    private static void gaussianPyramid(
+            float[][] pyramid, int[] widths, int[] heights, int levels, float[] rows) {
+        for (int l = 1; l < levels; l++) {
+            reduce(pyramid[l - 1], widths[l - 1], heights[l - 1], pyramid[l], rows);
+        }
+    }
+
+    /** Blurs with a 5 tap binomial filter and keeps every other pixel. */
+    static float[] reduce(float[] image, int width, int height) {
+        int reducedWidth = (width + 1) / 2;
+        float[] reduced = new float[reducedWidth * ((height + 1) / 2)];
+        reduce(image, width, height, reduced, new float[reducedWidth * height]);
+        return reduced;
+    }
+
+    /**
+     * Like {@link #reduce(float[], int, int)}, into {@code reduced}.
+     *
+     * @param rows scratch space for {@code (width + 1) / 2} by {@code height} pixels.
+     */
+    static void reduce(float[] image, int width, int height, float[] reduced, float[] rows) {
+        int reducedWidth = (width + 1) / 2;
+        int reducedHeight = (height + 1) / 2;
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            for (int x = 0; x < reducedWidth; x++) {
+                int center = 2 * x;
+                rows[y * reducedWidth + x] =
+                        (image[row + Math.max(0, center - 2)]
+                                        + 4 * image[row + Math.max(0, center - 1)]
+                                        + 6 * image[row + center]
+                                        + 4 * image[row + Math.min(width - 1, center + 1)]
+                                        + image[row + Math.min(width - 1, center + 2)])
+                                / 16;
+            }
+        }
+        for (int y = 0; y < reducedHeight; y++) {
+            int center = 2 * y;
+            int up2 = Math.max(0, center - 2) * reducedWidth;
+            int up1 = Math.max(0, center - 1) * reducedWidth;
+            int mid = center * reducedWidth;
+            int down1 = Math.min(height - 1, center + 1) * reducedWidth;
+            int down2 = Math.min(height - 1, center + 2) * reducedWidth;
+            for (int x = 0; x < reducedWidth; x++) {
+                reduced[y * reducedWidth + x] =
+                        (rows[up2 + x]
+                                        + 4 * rows[up1 + x]
+                                        + 6 * rows[mid + x]
+                                        + 4 * rows[down1 + x]
+                                        + rows[down2 + x])
+                                / 16;
+            }
+        }
+    }
+
+    /** Upsamples bilinearly to {@code expandedWidth} by {@code expandedHeight}. */
+    static float[] expand(float[] image, int width, int height, int expandedWidth, int expandedHeight) {
+        float[] expanded = new float[expandedWidth * expandedHeight];
+        expand(image, width, height, expandedWidth, expandedHeight, expanded);
+        return expanded;
+    }
+
+    /** Like {@link #expand(float[], int, int, int, int)}, into {@code expanded}. */
+    static void expand(
+            float[] image,
+            int width,
+            int height,
+            int expandedWidth,
+            int expandedHeight,
+            float[] expanded) {
+        for (int y = 0; y < expandedHeight; y++) {
+            int y0 = Math.min(height - 1, y / 2);
+            int y1 = Math.min(height - 1, y0 + 1);
+            float fy = (y & 1) * 0.5f;
+            for (int x = 0; x < expandedWidth; x++) {
+                int x0 = Math.min(width - 1, x / 2);
+                int x1 = Math.min(width - 1, x0 + 1);
+                float fx = (x & 1) * 0.5f;
+                float top = image[y0 * width + x0] * (1 - fx) + image[y0 * width + x1] * fx;
+                float bottom = image[y1 * width + x0] * (1 - fx) + image[y1 * width + x1] * fx;
+                expanded[y * expandedWidth + x] = top * (1 - fy) + bottom * fy;
+            }
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package io.flutter.plugins.camera;
+
+import android.graphics.ImageFormat;
+import android.media.Image;
+import android.util.Size;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Crops, scales and converts image stream frames before they're sent to dart.
+ *
+ * <p>Consumers often only need a small region of the frame at a low resolution, so this cuts the
+ * bytes crossing the channel by an order of magnitude. Pixels are sampled nearest neighbour from
+ * lookup tables computed once, and the output is written to a buffer which is reused for every
+ * frame. All planes of the output are tightly packed.
+ */
+class FrameProcessor {
+    // Mirrors camera.dart
+    enum Format {
+        yuv420,
+        nv21,
+        rgba8888,
+        luminance,
+    }
+
+    // android.graphics.PixelFormat.RGBA_8888
+    static final int FORMAT_RGBA_8888 = 1;
+    // android.graphics.ImageFormat.Y8, only defined from API 29.
+    static final int FORMAT_Y8 = 0x20203859;
+
+    private final Format format;
+    private final int outputWidth;
+    private final int outputHeight;
+    private final byte[] output;
+    private final ByteBuffer[] planes;
+    private final int[] rowStrides;
+    private final int[] pixelStrides;
+
+    // Source row and column of every output row and column, and of every chroma sample.
+    private final int[] sourceX;
+    private final int[] sourceY;
+    private final int[] chromaX;
+    private final int[] chromaY;
+
+    /**
+     * @param cropWidth width of the region to keep, 0 for the whole frame. The region is clamped
+     *     to the frame.
+     * @param outputWidth width to scale the region to, 0 to keep its size. Rounded down to an even
+     *     number for formats with subsampled chroma.
+     */
+    FrameProcessor(
+            int frameWidth,
+            int frameHeight,
+            int cropLeft,
+            int cropTop,
+            int cropWidth,
+            int cropHeight,
+            int outputWidth,
+            int outputHeight,
+            Format format) {
+        this.format = format;
+        cropLeft = clamp(cropLeft, 0, frameWidth - 1);
+        cropTop = clamp(cropTop, 0, frameHeight - 1);
+        cropWidth = clamp(cropWidth > 0 ? cropWidth : frameWidth, 1, frameWidth - cropLeft);
+        cropHeight = clamp(cropHeight > 0 ? cropHeight : frameHeight, 1, frameHeight - cropTop);
+        outputWidth = outputWidth > 0 ? outputWidth : cropWidth;
+        outputHeight = outputHeight > 0 ? outputHeight : cropHeight;
+        if (format != Format.luminance && format != Format.rgba8888) {
+            outputWidth = Math.max(2, outputWidth & ~1);
+            outputHeight = Math.max(2, outputHeight & ~1);
+        }
+        this.outputWidth = outputWidth;
+        this.outputHeight = outputHeight;
+
+        sourceX = samplePositions(cropLeft, cropWidth, outputWidth);
+        sourceY = samplePositions(cropTop, cropHeight, outputHeight);
+        chromaX = new int[(outputWidth + 1) / 2];
+        chromaY = new int[(outputHeight + 1) / 2];
+        for (int i = 0; i < chromaX.length; i++) {
+            chromaX[i] = sourceX[i * 2] / 2;
+        }
+        for (int i = 0; i < chromaY.length; i++) {
+            chromaY[i] = sourceY[i * 2] / 2;
+        }
+
+        int lumaSize = outputWidth * outputHeight;
+        int chromaSize = chromaX.length * chromaY.length;
+        switch (format) {
+            case luminance:
+                output = new byte[lumaSize];
+                planes = new ByteBuffer[] {plane(0, lumaSize)};
+                rowStrides = new int[] {outputWidth};
+                pixelStrides = new int[] {1};
+                break;
+            case rgba8888:
+                output = new byte[lumaSize * 4];
+                planes = new ByteBuffer[] {plane(0, lumaSize * 4)};
+                rowStrides = new int[] {outputWidth * 4};
+                pixelStrides = new int[] {4};
+                break;
+            case nv21:
+                output = new byte[lumaSize + chromaSize * 2];
+                planes = new ByteBuffer[] {plane(0, output.length)};
+                rowStrides = new int[] {outputWidth};
+                pixelStrides = new int[] {1};
+                break;
+            default:
+                output = new byte[lumaSize + chromaSize * 2];
+                planes =
+                        new ByteBuffer[] {
+                            plane(0, lumaSize), plane(lumaSize, chromaSize), plane(lumaSize + chromaSize, chromaSize)
+                        };
+                rowStrides = new int[] {outputWidth, chromaX.length, chromaX.length};
+                pixelStrides = new int[] {1, 1, 1};
+                break;
+        }
+    }
+
+    /**
+     * Creates a processor from the {@code processing} argument of startImageStream.
+     *
+     * @return null if no processing was requested.
+     */
+    @Nullable
+    static FrameProcessor fromArguments(Size frameSize, @Nullable Map<String, Object> arguments) {
+        if (arguments == null) {
+            return null;
+        }
+        String format = (String) arguments.get("format");
+        return new FrameProcessor(
+                frameSize.getWidth(),
+                frameSize.getHeight(),
+                intArgument(arguments, "cropLeft"),
+                intArgument(arguments, "cropTop"),
+                intArgument(arguments, "cropWidth"),
+                intArgument(arguments, "cropHeight"),
+                intArgument(arguments, "outputWidth"),
+                intArgument(arguments, "outputHeight"),
+                format != null ? Format.valueOf(format) : Format.yuv420);
+    }
+
+    private static int intArgument(Map<String, Object> arguments, String key) {
+        Object value = arguments.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static int[] samplePositions(int start, int sourceLength, int outputLength) {
+        int[] positions = new int[outputLength];
+        for (int i = 0; i < outputLength; i++) {
+            // Sample at the center of each output pixel.
+            positions[i] = start + (int) (((2L * i + 1) * sourceLength) / (2L * outputLength));
+        }
+        return positions;
+    }
+
+    private ByteBuffer plane(int offset, int length) {
+        return ByteBuffer.wrap(output, offset, length).slice();
+    }
+
+    int getWidth() {
+        return outputWidth;
+    }
+
+    int getHeight() {
+        return outputHeight;
+    }
+
+    /** The {@code android.graphics} format constant of the output. */
+    int getImageFormat() {
+        switch (format) {
+            case luminance:
+                return FORMAT_Y8;
+            case rgba8888:
+                return FORMAT_RGBA_8888;
+            case nv21:
+                return ImageFormat.NV21;
+            default:
+                return ImageFormat.YUV_420_888;
+        }
+    }
+
+    int getPlaneCount() {
+        return planes.length;
+    }
+
+    /** Views of the output planes, valid until the next frame is processed. */
+    ByteBuffer[] getPlanes() {
+        return planes;
+    }
+
+    int[] getRowStrides() {
+        return rowStrides;
+    }
+
+    int[] getPixelStrides() {
+        return pixelStrides;
+    }
+
+    void process(Image image) {
+        Image.Plane[] imagePlanes = image.getPlanes();
+        process(
+                imagePlanes[0].getBuffer(),
+                imagePlanes[1].getBuffer(),
+                imagePlanes[2].getBuffer(),
+                imagePlanes[0].getRowStride(),
+                imagePlanes[1].getRowStride(),
+                imagePlanes[1].getPixelStride());
+    }
+
+    /** Processes a YUV_420_888 frame into the output planes. */
+    void process(
+            ByteBuffer y, ByteBuffer u, ByteBuffer v, int yRowStride, int uvRowStride, int uvPixelStride) {
+        int yBase = y.position();
+        int uBase = u.position();
+        int vBase = v.position();
+
+        if (format == Format.rgba8888) {
+            int offset = 0;
+            for (int row = 0; row < outputHeight; row++) {
+                int yRow = yBase + sourceY[row] * yRowStride;
+                int uvRow = (sourceY[row] / 2) * uvRowStride;
+                for (int col = 0; col < outputWidth; col++) {
+                    int luma = y.get(yRow + sourceX[col]) & 0xff;
+                    int uvIndex = uvRow + (sourceX[col] / 2) * uvPixelStride;
+                    int cb = (u.get(uBase + uvIndex) & 0xff) - 128;
+                    int cr = (v.get(vBase + uvIndex) & 0xff) - 128;
+                    // Full range BT.601 in 16.16 fixed point.
+                    output[offset++] = (byte) clamp(luma + ((91881 * cr) >> 16), 0, 255);
+                    output[offset++] = (byte) clamp(luma - ((22554 * cb + 46802 * cr) >> 16), 0, 255);
+                    output[offset++] = (byte) clamp(luma + ((116130 * cb) >> 16), 0, 255);
+                    output[offset++] = (byte) 0xff;
+                }
+            }
+            return;
+        }
+
+        int offset = 0;
+        for (int row = 0; row < outputHeight; row++) {
+            int yRow = yBase + sourceY[row] * yRowStride;
+            for (int col = 0; col < outputWidth; col++) {
+                output[offset++] = y.get(yRow + sourceX[col]);
+            }
+        }
+        if (format == Format.luminance) {
+            return;
+        }
+
+        int chromaSize = chromaX.length * chromaY.length;
+        int vOffset = offset + chromaSize;
+        for (int row = 0; row < chromaY.length; row++) {
+            int uvRow = chromaY[row] * uvRowStride;
+            for (int col = 0; col < chromaX.length; col++) {
+                int uvIndex = uvRow + chromaX[col] * uvPixelStride;
+                if (format == Format.nv21) {
+                    output[offset++] = v.get(vBase + uvIndex);
+                    output[offset++] = u.get(uBase + uvIndex);
+                } else {
+                    output[offset++] = u.get(uBase + uvIndex);
+                    output[vOffset++] = v.get(vBase + uvIndex);
+                }
+            }
+        }
+    }
+}
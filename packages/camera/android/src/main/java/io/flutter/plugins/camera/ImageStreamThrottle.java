@@ -0,0 +1,121 @@
+package io.flutter.plugins.camera;
+
+/**
+ * Decides which image stream frames are forwarded to dart.
+ *
+ * <p>Frames are first limited to the target frame rate, then to the number of frames dart is
+ * still processing. When that limit is reached the {@link Policy} decides whether the new frame
+ * is dropped or held back until dart finishes a frame, replacing any frame held before.
+ */
+class ImageStreamThrottle {
+    // Mirrors camera.dart
+    enum Policy {
+        dropNewest,
+        keepLatest,
+    }
+
+    enum Decision {
+        deliver,
+        hold,
+        drop,
+    }
+
+    private final int maxFramesInFlight;
+    private final Policy policy;
+    private final long minFrameIntervalNanos;
+
+    private int framesInFlight;
+    private boolean holdingFrame;
+    private long lastAcceptedTimestamp = Long.MIN_VALUE;
+    private long deliveredFrames;
+    private long droppedFrames;
+
+    /**
+     * @param maxFramesInFlight frames dart may be processing at once, 0 for no limit.
+     * @param targetFrameRate maximum frames per second to forward, 0 for no limit.
+     */
+    ImageStreamThrottle(int maxFramesInFlight, Policy policy, double targetFrameRate) {
+        this.maxFramesInFlight = maxFramesInFlight;
+        this.policy = policy;
+        // Allow some slack so that sensor timestamp jitter doesn't halve the delivered rate when the
+        // target is an exact divisor of the camera frame rate.
+        this.minFrameIntervalNanos =
+                targetFrameRate > 0 ? (long) (0.9 * 1_000_000_000L / targetFrameRate) : 0;
+    }
+
+    static ImageStreamThrottle unlimited() {
+        return new ImageStreamThrottle(0, Policy.dropNewest, 0);
+    }
+
+    synchronized Decision onFrameAvailable(long timestampNanos) {
+        if (minFrameIntervalNanos > 0
+                && lastAcceptedTimestamp != Long.MIN_VALUE
+                && timestampNanos - lastAcceptedTimestamp < minFrameIntervalNanos) {
+            droppedFrames++;
+            return Decision.drop;
+        }
+
+        if (maxFramesInFlight <= 0 || framesInFlight < maxFramesInFlight) {
+            lastAcceptedTimestamp = timestampNanos;
+            framesInFlight++;
+            deliveredFrames++;
+            return Decision.deliver;
+        }
+
+        if (policy == Policy.keepLatest) {
+            if (holdingFrame) {
+                // The previously held frame is replaced without ever being delivered.
+                droppedFrames++;
+            }
+            lastAcceptedTimestamp = timestampNanos;
+            holdingFrame = true;
+            return Decision.hold;
+        }
+
+        droppedFrames++;
+        return Decision.drop;
+    }
+
+    /**
+     * Called when dart has finished processing a frame.
+     *
+     * @return whether the held frame should be delivered now.
+     */
+    synchronized boolean onFrameProcessed() {
+        if (framesInFlight > 0) {
+            framesInFlight--;
+        }
+        if (!holdingFrame) {
+            return false;
+        }
+
+        holdingFrame = false;
+        framesInFlight++;
+        deliveredFrames++;
+        return true;
+    }
+
+    /**
+     * Called when a frame this throttle decided to deliver could not be sent after all, e.g.
+     * because every stream buffer was still busy. It is counted as dropped instead.
+     */
+    synchronized void onFrameNotSent() {
+        if (framesInFlight > 0) {
+            framesInFlight--;
+        }
+        deliveredFrames--;
+        droppedFrames++;
+    }
+
+    synchronized long getDeliveredFrames() {
+        return deliveredFrames;
+    }
+
+    synchronized long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    synchronized int getFramesInFlight() {
+        return framesInFlight;
+    }
+}
@@ -0,0 +1,405 @@
+package io.flutter.plugins.camera;
+
+import android.graphics.ImageFormat;
+import android.graphics.Rect;
+import android.graphics.YuvImage;
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.CaptureResult;
+import android.hardware.camera2.DngCreator;
+import android.media.ExifInterface;
+import android.media.Image;
+import android.util.Log;
+import android.util.Size;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.MethodChannel.Result;
+
+/**
+ * Writes captured JPEG and DNG images to disk on a pool of worker threads.
+ *
+ * <p>Image readers only have a few buffers, so images are handed back to their reader as early as
+ * possible: while fewer than {@code maxHeldImages} images are waiting to be written they are kept
+ * and written directly, any further image is copied out and closed right away. At most {@code
+ * maxCopiedImages} copies are pending at once, which bounds the memory a long burst can take.
+ * Beyond that images are dropped and reported as not written rather than blocking the image
+ * reader thread.
+ *
+ * <p>Every image is reported to its {@link Callback} exactly once, also when writing it fails
+ * unexpectedly, so that the pending dart call always gets a reply.
+ */
+class ImageWriteQueue {
+    interface Callback {
+        /**
+         * Called on a worker thread, or on the calling thread if the image was dropped, with a null
+         * path if the image couldn't be written.
+         */
+        void onImageWritten(@Nullable String path);
+    }
+
+    private static final String TAG = "ImageWriteQueue";
+    // Matches the JPEG_QUALITY of still captures.
+    private static final int JPEG_QUALITY = 100;
+
+    private final CameraCharacteristics characteristics;
+    private final ExecutorService workers;
+    private final Semaphore copyPermits;
+    private final int maxCopiedImages;
+    private final AtomicInteger heldImages = new AtomicInteger();
+    // Notified when a held image was written.
+    private final Object heldImagesLock = new Object();
+    private final CameraMetrics metrics;
+
+    /** @param metrics records how long every image takes to write. */
+    ImageWriteQueue(
+            CameraCharacteristics characteristics,
+            int workerCount,
+            int maxCopiedImages,
+            CameraMetrics metrics) {
+        this.characteristics = characteristics;
+        this.workers = Executors.newFixedThreadPool(workerCount);
+        this.copyPermits = new Semaphore(maxCopiedImages);
+        this.maxCopiedImages = maxCopiedImages;
+        this.metrics = metrics;
+    }
+
+    /** Images kept open while waiting to be written. */
+    int getHeldImages() {
+        return Math.max(0, heldImages.get());
+    }
+
+    /** Images copied and closed that are waiting to be written. */
+    int getPendingCopies() {
+        return maxCopiedImages - copyPermits.availablePermits();
+    }
+
+    /**
+     * Writes {@code image} to {@code basePath} with a .jpg or .dng extension and closes it.
+     *
+     * @param maxHeldImages how many images of the image's reader may be kept open while waiting.
+     * @param captureResult the capture result DNG metadata is taken from.
+     */
+    void write(
+            Image image,
+            int maxHeldImages,
+            String basePath,
+            @Nullable CaptureResult captureResult,
+            Callback callback) {
+        if (heldImages.incrementAndGet() <= maxHeldImages) {
+            workers.execute(
+                    () -> {
+                        String path = null;
+                        try {
+                            long start = System.nanoTime();
+                            path = writeImage(image, basePath, captureResult);
+                            metrics.recordSince(CameraMetrics.IMAGE_WRITE, start);
+                        } catch (RuntimeException e) {
+                            Log.e(TAG, "Failed writing " + basePath, e);
+                        } finally {
+                            image.close();
+                            releaseHeldImage();
+                        }
+                        callback.onImageWritten(path);
+                    });
+            return;
+        }
+        releaseHeldImage();
+
+        if (!copyPermits.tryAcquire()) {
+            Log.w(TAG, "Dropped " + basePath + ", too many images are waiting to be written");
+            image.close();
+            callback.onImageWritten(null);
+            return;
+        }
+        final ImageCopy copy;
+        try {
+            copy = new ImageCopy(image);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed copying " + basePath, e);
+            copyPermits.release();
+            callback.onImageWritten(null);
+            return;
+        } finally {
+            image.close();
+        }
+        queueCopy(copy, basePath, captureResult, callback);
+    }
+
+    /**
+     * Writes {@code copy} like {@link #write(Image, int, String, CaptureResult, Callback)} writes
+     * an image that had to be copied, dropping it if {@code maxCopiedImages} copies are pending.
+     */
+    void write(
+            ImageCopy copy, String basePath, @Nullable CaptureResult captureResult, Callback callback) {
+        if (!copyPermits.tryAcquire()) {
+            Log.w(TAG, "Dropped " + basePath + ", too many images are waiting to be written");
+            callback.onImageWritten(null);
+            return;
+        }
+        queueCopy(copy, basePath, captureResult, callback);
+    }
+
+    /** Writes {@code copy} on a worker, which then returns the copy permit it holds. */
+    private void queueCopy(
+            ImageCopy copy, String basePath, @Nullable CaptureResult captureResult, Callback callback) {
+        workers.execute(
+                () -> {
+                    String path = null;
+                    try {
+                        long start = System.nanoTime();
+                        path = writeCopy(copy, basePath, captureResult);
+                        metrics.recordSince(CameraMetrics.IMAGE_WRITE, start);
+                    } catch (RuntimeException e) {
+                        Log.e(TAG, "Failed writing " + basePath, e);
+                    } finally {
+                        copyPermits.release();
+                    }
+                    callback.onImageWritten(path);
+                });
+    }
+
+    /**
+     * Encodes a zero shutter lag frame to {@code basePath} with a .jpg extension and releases it
+     * back to {@code buffer}.
+     *
+     * @param orientation clockwise rotation of the frame in degrees, stored as EXIF orientation.
+     */
+    void writeZslFrame(
+            ZslRingBuffer buffer,
+            ZslRingBuffer.Frame frame,
+            int orientation,
+            String basePath,
+            Callback callback) {
+        workers.execute(
+                () -> {
+                    String path = null;
+                    try {
+                        long start = System.nanoTime();
+                        path = writeNv21Jpeg(frame, orientation, basePath);
+                        metrics.recordSince(CameraMetrics.IMAGE_WRITE, start);
+                    } catch (RuntimeException e) {
+                        Log.e(TAG, "Failed writing " + basePath, e);
+                    } finally {
+                        buffer.release(frame);
+                    }
+                    callback.onImageWritten(path);
+                });
+    }
+
+    /**
+     * Lets the pending writes finish and stops the workers.
+     *
+     * <p>Blocks until the held images are written and closed, after which their readers can be
+     * closed.
+     */
+    void shutdown() {
+        workers.shutdown();
+        boolean interrupted = false;
+        synchronized (heldImagesLock) {
+            while (heldImages.get() > 0) {
+                try {
+                    heldImagesLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void releaseHeldImage() {
+        heldImages.decrementAndGet();
+        synchronized (heldImagesLock) {
+            heldImagesLock.notifyAll();
+        }
+    }
+
+    @Nullable
+    private String writeImage(Image image, String basePath, @Nullable CaptureResult captureResult) {
+        if (image.getFormat() == ImageFormat.RAW_SENSOR) {
+            File file = new File(basePath + ".dng");
+            DngCreator dngCreator = new DngCreator(characteristics, captureResult);
+            try (FileOutputStream stream = new FileOutputStream(file)) {
+                dngCreator.writeImage(stream, image);
+                return file.getPath();
+            } catch (IOException e) {
+                Log.e(TAG, "Failed writing " + file, e);
+            } finally {
+                dngCreator.close();
+            }
+        } else if (image.getFormat() == ImageFormat.JPEG) {
+            return writeJpeg(image.getPlanes()[0].getBuffer(), basePath);
+        }
+        return null;
+    }
+
+    @Nullable
+    private String writeCopy(ImageCopy copy, String basePath, @Nullable CaptureResult captureResult) {
+        if (copy.format == ImageFormat.RAW_SENSOR) {
+            File file = new File(basePath + ".dng");
+            DngCreator dngCreator = new DngCreator(characteristics, captureResult);
+            try (FileOutputStream stream = new FileOutputStream(file)) {
+                dngCreator.writeByteBuffer(stream, new Size(copy.width, copy.height), copy.data, 0);
+                return file.getPath();
+            } catch (IOException e) {
+                Log.e(TAG, "Failed writing " + file, e);
+            } finally {
+                dngCreator.close();
+            }
+        } else if (copy.format == ImageFormat.JPEG) {
+            return writeJpeg(copy.data, basePath);
+        }
+        return null;
+    }
+
+    @Nullable
+    private static String writeJpeg(ByteBuffer buffer, String basePath) {
+        File file = new File(basePath + ".jpg");
+        try (FileOutputStream outputStream = new FileOutputStream(file)) {
+            while (0 < buffer.remaining()) {
+                outputStream.getChannel().write(buffer);
+            }
+            return file.getPath();
+        } catch (IOException e) {
+            Log.e(TAG, "Failed writing " + file, e);
+        }
+        return null;
+    }
+
+    @Nullable
+    private static String writeNv21Jpeg(ZslRingBuffer.Frame frame, int orientation, String basePath) {
+        File file = new File(basePath + ".jpg");
+        YuvImage image = new YuvImage(frame.nv21, ImageFormat.NV21, frame.width, frame.height, null);
+        try (FileOutputStream outputStream = new FileOutputStream(file)) {
+            if (!image.compressToJpeg(
+                    new Rect(0, 0, frame.width, frame.height), JPEG_QUALITY, outputStream)) {
+                Log.e(TAG, "Failed encoding " + file);
+                return null;
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Failed writing " + file, e);
+            return null;
+        }
+
+        // Unlike the camera's JPEG encoder YuvImage can't rotate, leave that to the viewer.
+        try {
+            ExifInterface exif = new ExifInterface(file.getPath());
+            exif.setAttribute(
+                    ExifInterface.TAG_ORIENTATION, String.valueOf(exifOrientation(orientation)));
+            exif.saveAttributes();
+        } catch (IOException e) {
+            Log.e(TAG, "Failed writing orientation of " + file, e);
+        }
+        return file.getPath();
+    }
+
+    private static int exifOrientation(int degrees) {
+        switch (degrees) {
+            case 90:
+                return ExifInterface.ORIENTATION_ROTATE_90;
+            case 180:
+                return ExifInterface.ORIENTATION_ROTATE_180;
+            case 270:
+                return ExifInterface.ORIENTATION_ROTATE_270;
+            default:
+                return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    /** The pixel data of an image, copied so that the image can be closed before writing. */
+    static class ImageCopy {
+        final int format;
+        final int width;
+        final int height;
+        final ByteBuffer data;
+
+        /** @param data tightly packed pixel data, read from its position to its limit. */
+        ImageCopy(int format, int width, int height, ByteBuffer data) {
+            this.format = format;
+            this.width = width;
+            this.height = height;
+            this.data = data;
+        }
+
+        ImageCopy(Image image) {
+            format = image.getFormat();
+            width = image.getWidth();
+            height = image.getHeight();
+            Image.Plane plane = image.getPlanes()[0];
+            ByteBuffer source = plane.getBuffer();
+            if (format == ImageFormat.RAW_SENSOR) {
+                // DngCreator expects tightly packed rows, drop any row padding.
+                int rowLength = width * plane.getPixelStride();
+                data = ByteBuffer.allocateDirect(rowLength * height);
+                for (int row = 0; row < height; row++) {
+                    source.limit(row * plane.getRowStride() + rowLength);
+                    source.position(row * plane.getRowStride());
+                    data.put(source);
+                }
+            } else {
+                data = ByteBuffer.allocateDirect(source.remaining());
+                data.put(source);
+            }
+            data.flip();
+        }
+    }
+
+    /**
+     * Collects the paths of a burst of images and replies with them, in capture order, once all of
+     * them are written.
+     */
+    static class Batch {
+        interface Listener {
+            /** Called on a worker thread as soon as the image at {@code index} is written. */
+            void onImageWritten(int index, int count, String path);
+        }
+
+        private final String[] paths;
+        private final AtomicInteger remaining;
+        private final AtomicBoolean failed = new AtomicBoolean();
+        private final Result result;
+        @Nullable private final Listener listener;
+
+        Batch(int count, Result result) {
+            this(count, result, null);
+        }
+
+        Batch(int count, Result result, @Nullable Listener listener) {
+            this.paths = new String[count];
+            this.remaining = new AtomicInteger(count);
+            this.result = result;
+            this.listener = listener;
+        }
+
+        Callback callbackFor(int index) {
+            return path -> {
+                if (path == null) {
+                    if (failed.compareAndSet(false, true)) {
+                        result.error("IOError", "Failed saving image", null);
+                    }
+                    return;
+                }
+
+                paths[index] = path;
+                if (listener != null) {
+                    listener.onImageWritten(index, paths.length, path);
+                }
+                if (remaining.decrementAndGet() == 0 && !failed.get()) {
+                    result.success(Arrays.asList(paths));
+                }
+            };
+        }
+    }
+}
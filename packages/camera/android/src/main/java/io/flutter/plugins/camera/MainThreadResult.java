@@ -0,0 +1,31 @@
+package io.flutter.plugins.camera;
+
+import io.flutter.plugin.common.MethodChannel;
+
+/**
+ * A {@link MethodChannel.Result} that can be completed from any thread.
+ *
+ * <p>Replies are forwarded to the wrapped result on the platform thread.
+ */
+class MainThreadResult implements MethodChannel.Result {
+    private final MethodChannel.Result result;
+
+    MainThreadResult(MethodChannel.Result result) {
+        this.result = result;
+    }
+
+    @Override
+    public void success(final Object value) {
+        CameraThreads.runOnMainThread(() -> result.success(value));
+    }
+
+    @Override
+    public void error(final String errorCode, final String errorMessage, final Object errorDetails) {
+        CameraThreads.runOnMainThread(() -> result.error(errorCode, errorMessage, errorDetails));
+    }
+
+    @Override
+    public void notImplemented() {
+        CameraThreads.runOnMainThread(result::notImplemented);
+    }
+}
@@ -47,7 +47,13 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
   }
 
   @Override
-  public void onMethodCall(@NonNull MethodCall call, @NonNull final Result result) {
+  public void onMethodCall(@NonNull MethodCall call, @NonNull final Result rawResult) {
+    // The camera replies from its background threads.
+    final Result result = new MainThreadResult(rawResult);
+    if (camera != null && camera.isBurstRunning() && changesSession(call.method)) {
+      result.error("burstRunning", "Stop the burst before changing the session.", null);
+      return;
+    }
     switch (call.method) {
       case "availableCameras":
         try {
@@ -102,9 +108,51 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
         }
       case "takeBracketingPictures":
       {
-        camera.takeBracketingPictures(call.argument("path"), Objects.equals(call.argument("fixedIso"), true) ? BracketingMode.fixedIsoTimeCompensation : BracketingMode.autoExposureCompensation, result);
+        camera.takeBracketingPictures(
+            call.argument("path"),
+            Objects.equals(call.argument("fixedIso"), true)
+                ? BracketingMode.fixedIsoTimeCompensation
+                : BracketingMode.autoExposureCompensation,
+            call.argument("exposureValues"),
+            call.argument("exposures"),
+            result);
         break;
       }
+      case "fuseBracketingPictures":
+        {
+          Integer sampleSize = call.argument("sampleSize");
+          camera.fuseBracketingPictures(
+              call.argument("paths"),
+              call.argument("outputPath"),
+              sampleSize != null ? sampleSize : 1,
+              result);
+          break;
+        }
+      case "startBurst":
+        {
+          camera.startBurst(call.argument("path"), call.argument("maxPendingFrames"), result);
+          break;
+        }
+      case "stopBurst":
+        {
+          camera.stopBurst(result);
+          break;
+        }
+      case "setZeroShutterLag":
+        {
+          try {
+            Number memoryBudgetBytes = call.argument("memoryBudgetBytes");
+            camera.setZeroShutterLag(
+                Objects.equals(call.argument("enabled"), true),
+                memoryBudgetBytes != null
+                    ? memoryBudgetBytes.longValue()
+                    : Camera.ZSL_DEFAULT_MEMORY_BUDGET_BYTES,
+                result);
+          } catch (Exception e) {
+            handleException(e, result);
+          }
+          break;
+        }
       case "prepareForVideoRecording":
         {
           // This optimization is not required for Android.
@@ -113,7 +161,11 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
         }
       case "startVideoRecording":
         {
-          camera.startVideoRecording(call.argument("filePath"), result);
+          camera.startVideoRecording(
+              call.argument("filePath"),
+              call.argument("videoBitRate"),
+              call.argument("keyFrameInterval"),
+              result);
           break;
         }
       case "stopVideoRecording":
@@ -133,7 +185,9 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
         }
       case "startJpegSession" : {
         try {
-          camera.startJpegPreview();
+          Integer maxImages = call.argument("maxImages");
+          camera.startJpegPreview(
+              maxImages != null ? maxImages : Camera.DEFAULT_JPEG_MAX_IMAGES);
           result.success(null);
         } catch (Exception e) {
           handleException(e, result);
@@ -142,7 +196,8 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
       }
       case "startRawSession" : {
         try {
-          camera.startRawPreview();
+          Integer maxImages = call.argument("maxImages");
+          camera.startRawPreview(maxImages != null ? maxImages : Camera.DEFAULT_RAW_MAX_IMAGES);
           result.success(null);
         } catch (Exception e) {
           handleException(e, result);
@@ -152,7 +207,30 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
       case "startImageStream":
         {
           try {
-            camera.startPreviewWithImageStream(imageStreamChannel);
+            Double targetFrameRate = call.argument("targetFrameRate");
+            Integer maxImages = call.argument("maxImages");
+            if (maxImages == null) {
+              maxImages = Camera.DEFAULT_IMAGE_STREAM_MAX_IMAGES;
+            }
+            if (Objects.equals(call.argument("packed"), true)) {
+              Integer maxFramesInFlight = call.argument("maxFramesInFlight");
+              String backpressure = call.argument("backpressure");
+              camera.startPreviewWithPackedImageStream(
+                  messenger,
+                  maxFramesInFlight != null ? maxFramesInFlight : 0,
+                  backpressure != null
+                      ? ImageStreamThrottle.Policy.valueOf(backpressure)
+                      : ImageStreamThrottle.Policy.dropNewest,
+                  targetFrameRate != null ? targetFrameRate : 0,
+                  maxImages,
+                  call.argument("processing"));
+            } else {
+              camera.startPreviewWithImageStream(
+                  imageStreamChannel,
+                  targetFrameRate != null ? targetFrameRate : 0,
+                  maxImages,
+                  call.argument("processing"));
+            }
             result.success(null);
           } catch (Exception e) {
             handleException(e, result);
@@ -162,13 +240,33 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
       case "stopImageStream":
         {
           try {
-            camera.startJpegPreview();
+            camera.stopImageStream();
+            result.success(null);
+          } catch (Exception e) {
+            handleException(e, result);
+          }
+          break;
+        }
+      case "releaseIdleReaders":
+        {
+          try {
+            camera.releaseIdleReaders();
             result.success(null);
           } catch (Exception e) {
             handleException(e, result);
           }
           break;
         }
+      case "getCameraMetrics":
+        {
+          result.success(camera.getMetrics());
+          break;
+        }
+      case "getImageStreamStats":
+        {
+          result.success(camera.getImageStreamStats());
+          break;
+        }
       case "dispose":
         {
           if (camera != null) {
@@ -195,12 +293,17 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
         textureRegistry.createSurfaceTexture();
     DartMessenger dartMessenger = new DartMessenger(messenger, flutterSurfaceTexture.id());
     CameraPropertiesMessenger propertiesMessenger = new CameraPropertiesMessenger(messenger, flutterSurfaceTexture.id());
+    BracketingMessenger bracketingMessenger =
+        new BracketingMessenger(messenger, flutterSurfaceTexture.id());
+    CameraMetrics metrics = new CameraMetrics(messenger, flutterSurfaceTexture.id());
     camera =
         new Camera(
             activity,
             flutterSurfaceTexture,
             dartMessenger,
             propertiesMessenger,
+            bracketingMessenger,
+            metrics,
             cameraName,
             resolutionPreset,
             enableAudio);
@@ -208,6 +311,22 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
     camera.open(result);
   }
 
+  /** Whether {@code method} starts another capture session or replaces its repeating request. */
+  private static boolean changesSession(String method) {
+    switch (method) {
+      case "setZeroShutterLag":
+      case "startVideoRecording":
+      case "startJpegSession":
+      case "startRawSession":
+      case "startImageStream":
+      case "stopImageStream":
+      case "releaseIdleReaders":
+        return true;
+      default:
+        return false;
+    }
+  }
+
   // We move catching CameraAccessException out of onMethodCall because it causes a crash
   // on plugin registration for sdks incompatible with Camera2 (< 21). We want this plugin to
   // to be able to compile with <21 sdks for apps that want the camera and support earlier version.
@@ -215,6 +334,7 @@ final class MethodCallHandlerImpl implements MethodChannel.MethodCallHandler {
   private void handleException(Exception exception, Result result) {
     if (exception instanceof CameraAccessException) {
       result.error("CameraAccess", exception.getMessage(), null);
+      return;
     }
 
     throw (RuntimeException) exception;
@@ -0,0 +1,289 @@
+package io.flutter.plugins.camera;
+
+import android.media.Image;
+import android.util.Size;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.BinaryMessenger;
+
+/**
+ * Streams camera frames to dart as single packed binary messages.
+ *
+ * <p>Every frame is copied into one of a small pool of direct buffers which are sized once from
+ * the preview size and reused for the lifetime of the stream, so steady-state streaming does not
+ * allocate per frame. Each message starts with a fixed little-endian header:
+ *
+ * <pre>
+ *   int32 width
+ *   int32 height
+ *   int32 format
+ *   int32 planeCount
+ *   int64 timestamp (nanoseconds, {@link Image#getTimestamp()})
+ *   planeCount x { int32 offset, int32 length, int32 bytesPerRow, int32 bytesPerPixel }
+ * </pre>
+ *
+ * followed by the plane bytes. Plane offsets are relative to the start of the message.
+ *
+ * <p>A pooled buffer is busy from the moment it is claimed for a frame until {@link
+ * BinaryMessenger#send} has returned, and frames are only packed into free buffers. One more
+ * buffer, outside the rotation, holds a frame back until dart has processed a frame in flight.
+ */
+class PackedImageStream {
+    static final String CHANNEL = "plugins.flutter.io/camera/packedImageStream";
+
+    static final int FRAME_HEADER_SIZE = 24;
+    static final int PLANE_HEADER_SIZE = 16;
+    static final int MAX_PLANES = 3;
+
+    /** Returned instead of a pool slot when every pooled buffer is still busy. */
+    static final int NO_SLOT = -1;
+
+    private static final int DEFAULT_POOL_SIZE = 3;
+
+    private final BinaryMessenger messenger;
+    private final ByteBuffer[] pool;
+    private final Runnable[] sendTasks;
+    // The last buffer of the pool, never claimed for sending.
+    private final int heldSlot;
+    // Guarded by this, slots are claimed on the image reader thread and freed on the platform
+    // thread.
+    private final boolean[] busy;
+    private int nextBuffer;
+    @Nullable private final BinaryMessenger.BinaryReply reply;
+
+    // Reused for every frame so extracting the planes of an Image doesn't allocate.
+    private final ByteBuffer[] planeBuffers = new ByteBuffer[MAX_PLANES];
+    private final int[] rowStrides = new int[MAX_PLANES];
+    private final int[] pixelStrides = new int[MAX_PLANES];
+
+    PackedImageStream(BinaryMessenger messenger, Size previewSize) {
+        this(messenger, previewSize, DEFAULT_POOL_SIZE, null);
+    }
+
+    /**
+     * @param onFrameProcessed called once dart has replied to a frame, i.e. has finished
+     *     processing it.
+     */
+    PackedImageStream(
+            BinaryMessenger messenger,
+            Size previewSize,
+            int poolSize,
+            @Nullable Runnable onFrameProcessed) {
+        this.messenger = messenger;
+        this.pool = new ByteBuffer[poolSize + 1];
+        this.busy = new boolean[poolSize];
+        this.heldSlot = poolSize;
+        this.reply = onFrameProcessed == null ? null : message -> onFrameProcessed.run();
+        // YUV_420_888 chroma planes may be interleaved and padded, so reserve two bytes per pixel
+        // rather than 1.5 to avoid growing the buffers on the first frames.
+        int capacity =
+                frameHeaderSize(MAX_PLANES) + previewSize.getWidth() * previewSize.getHeight() * 2;
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = allocate(capacity);
+        }
+        // Frames are packed off the platform thread, so sending them needs a task per pooled
+        // buffer. They're created once to keep sending allocation free.
+        this.sendTasks = new Runnable[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            final int slot = i;
+            sendTasks[i] =
+                    () -> {
+                        try {
+                            messenger.send(CHANNEL, pool[slot], reply);
+                        } finally {
+                            // The engine has copied the message by the time send returns.
+                            releaseFrame(slot);
+                        }
+                    };
+        }
+    }
+
+    /** Pool size for sending {@code maxFramesInFlight} frames with a buffer to spare. */
+    static int poolSizeFor(int maxFramesInFlight) {
+        return Math.max(DEFAULT_POOL_SIZE, maxFramesInFlight + 1);
+    }
+
+    static int frameHeaderSize(int planeCount) {
+        return FRAME_HEADER_SIZE + planeCount * PLANE_HEADER_SIZE;
+    }
+
+    /**
+     * Packs {@code image} into the next free pooled buffer and sends it to dart.
+     *
+     * @return whether the frame was sent, false if it was dropped because no buffer was free.
+     */
+    boolean send(Image image) {
+        int slot = claimSlot();
+        if (slot == NO_SLOT) {
+            return false;
+        }
+        packFrame(slot, image);
+        sendFrame(slot);
+        return true;
+    }
+
+    /**
+     * Claims the next free pooled buffer for a frame.
+     *
+     * @return the claimed slot, to be packed and then passed to {@link #sendFrame(int)} or {@link
+     *     #releaseFrame(int)}, or {@link #NO_SLOT} if no buffer is free.
+     */
+    synchronized int claimSlot() {
+        for (int i = 0; i < busy.length; i++) {
+            int slot = (nextBuffer + i) % busy.length;
+            if (!busy[slot]) {
+                busy[slot] = true;
+                nextBuffer = (slot + 1) % busy.length;
+                return slot;
+            }
+        }
+        return NO_SLOT;
+    }
+
+    /**
+     * The slot of the buffer outside the rotation that holds a frame back, see {@link
+     * #sendHeldFrame()}. Packing into it replaces the frame held before.
+     */
+    int getHeldSlot() {
+        return heldSlot;
+    }
+
+    /** Packs {@code image} into {@code slot} without sending it. */
+    void packFrame(int slot, Image image) {
+        Image.Plane[] planes = image.getPlanes();
+        int planeCount = Math.min(planes.length, MAX_PLANES);
+        for (int i = 0; i < planeCount; i++) {
+            planeBuffers[i] = planes[i].getBuffer();
+            rowStrides[i] = planes[i].getRowStride();
+            pixelStrides[i] = planes[i].getPixelStride();
+        }
+
+        packFrame(
+                slot,
+                image.getWidth(),
+                image.getHeight(),
+                image.getFormat(),
+                image.getTimestamp(),
+                planeCount,
+                planeBuffers,
+                rowStrides,
+                pixelStrides);
+
+        for (int i = 0; i < planeCount; i++) {
+            planeBuffers[i] = null;
+        }
+    }
+
+    void packFrame(
+            int slot,
+            int width,
+            int height,
+            int format,
+            long timestamp,
+            int planeCount,
+            ByteBuffer[] planes,
+            int[] rowStrides,
+            int[] pixelStrides) {
+        // Keep the buffer if it had to grow so the next frames reuse it.
+        pool[slot] =
+                pack(
+                        pool[slot],
+                        width,
+                        height,
+                        format,
+                        timestamp,
+                        planeCount,
+                        planes,
+                        rowStrides,
+                        pixelStrides);
+    }
+
+    /** Sends a packed frame to dart, on the platform thread, and then frees its slot. */
+    void sendFrame(int slot) {
+        CameraThreads.runOnMainThread(sendTasks[slot]);
+    }
+
+    /** Frees the slot of a packed frame that won't be sent. */
+    synchronized void releaseFrame(int slot) {
+        busy[slot] = false;
+    }
+
+    /**
+     * Sends the frame packed into {@link #getHeldSlot()}.
+     *
+     * <p>The held buffer is swapped with a free pooled buffer rather than copied, which then holds
+     * the next frame held back.
+     *
+     * @return whether the frame was sent, false if it was dropped because no buffer was free.
+     */
+    boolean sendHeldFrame() {
+        int slot = claimSlot();
+        if (slot == NO_SLOT) {
+            return false;
+        }
+        ByteBuffer held = pool[heldSlot];
+        pool[heldSlot] = pool[slot];
+        pool[slot] = held;
+        sendFrame(slot);
+        return true;
+    }
+
+    /**
+     * Writes the header and plane bytes into {@code target}.
+     *
+     * <p>Returns {@code target}, or a larger replacement if the frame did not fit. The returned
+     * buffer's position marks the end of the message, which is what {@link BinaryMessenger#send}
+     * expects.
+     */
+    static ByteBuffer pack(
+            ByteBuffer target,
+            int width,
+            int height,
+            int format,
+            long timestamp,
+            int planeCount,
+            ByteBuffer[] planes,
+            int[] rowStrides,
+            int[] pixelStrides) {
+        int headerSize = frameHeaderSize(planeCount);
+        int size = headerSize;
+        for (int i = 0; i < planeCount; i++) {
+            size += planes[i].remaining();
+        }
+        if (target.capacity() < size) {
+            target = allocate(size);
+        }
+
+        target.clear();
+        target.putInt(width);
+        target.putInt(height);
+        target.putInt(format);
+        target.putInt(planeCount);
+        target.putLong(timestamp);
+
+        int offset = headerSize;
+        for (int i = 0; i < planeCount; i++) {
+            int length = planes[i].remaining();
+            target.putInt(offset);
+            target.putInt(length);
+            target.putInt(rowStrides[i]);
+            target.putInt(pixelStrides[i]);
+            offset += length;
+        }
+
+        for (int i = 0; i < planeCount; i++) {
+            // Restore the position of the source buffer afterwards, it belongs to the Image.
+            int position = planes[i].position();
+            target.put(planes[i]);
+            planes[i].position(position);
+        }
+        return target;
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
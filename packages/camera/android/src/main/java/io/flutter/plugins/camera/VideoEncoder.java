@@ -0,0 +1,367 @@
+package io.flutter.plugins.camera;
+
+import android.media.AudioFormat;
+import android.media.AudioRecord;
+import android.media.CamcorderProfile;
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.media.MediaRecorder;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Surface;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Records the camera to an MP4 file with MediaCodec and MediaMuxer.
+ *
+ * <p>Unlike MediaRecorder the encoder is configured directly, so the bit rate and key frame
+ * interval can be chosen freely, and its input surface is just another output of the capture
+ * session which can run next to the image stream. Video and audio are drained on their own
+ * threads. Samples are only written once the muxer knows all tracks, and the video always starts
+ * with a key frame, also after resuming.
+ */
+class VideoEncoder {
+    interface OnStoppedListener {
+        /** Called on an encoder thread once the file is complete, with an error if it's not usable. */
+        void onStopped(@Nullable String error);
+    }
+
+    private static final String TAG = "VideoEncoder";
+    private static final long DEQUEUE_TIMEOUT_US = 10_000;
+    private static final int MIN_AUDIO_BUFFER_SIZE = 4096;
+
+    // Results of drainOnce.
+    private static final int NO_OUTPUT = 0;
+    private static final int DRAINED = 1;
+    private static final int END_OF_STREAM = 2;
+
+    private final MediaCodec videoCodec;
+    private final Surface inputSurface;
+    @Nullable private final MediaCodec audioCodec;
+    @Nullable private final AudioRecord audioRecord;
+    private final int audioBytesPerSecond;
+    private final MediaMuxer muxer;
+    private final boolean realtimeTimestamps;
+    private final int trackCount;
+    private final AtomicInteger activeTracks = new AtomicInteger();
+
+    // Guarded by muxerLock.
+    private final Object muxerLock = new Object();
+    private int addedTracks;
+    private int videoTrack;
+    private int audioTrack;
+    private boolean muxerStarted;
+    private boolean wroteSamples;
+    private boolean waitingForKeyFrame = true;
+    private long lastVideoTimeUs = -1;
+    private long lastAudioTimeUs = -1;
+    private boolean paused;
+    private long pausedAtUs;
+    private long pausedDurationUs;
+
+    private volatile boolean stopping;
+    @Nullable private volatile String error;
+    @Nullable private volatile OnStoppedListener onStoppedListener;
+
+    /**
+     * @param profile the size, frame rate and audio settings to record with.
+     * @param keyFrameInterval seconds between key frames.
+     * @param realtimeTimestamps whether camera timestamps are {@link
+     *     SystemClock#elapsedRealtimeNanos()} rather than {@link System#nanoTime()}, audio is
+     *     timestamped with the same clock to stay in sync.
+     */
+    VideoEncoder(
+            String outputFilePath,
+            CamcorderProfile profile,
+            int videoBitRate,
+            int keyFrameInterval,
+            boolean enableAudio,
+            int orientationHint,
+            boolean realtimeTimestamps)
+            throws IOException {
+        this.realtimeTimestamps = realtimeTimestamps;
+        this.trackCount = enableAudio ? 2 : 1;
+        // 16 bit samples.
+        this.audioBytesPerSecond = profile.audioSampleRate * 2 * (profile.audioChannels == 2 ? 2 : 1);
+
+        MediaFormat videoFormat =
+                MediaFormat.createVideoFormat(
+                        MediaFormat.MIMETYPE_VIDEO_AVC, profile.videoFrameWidth, profile.videoFrameHeight);
+        videoFormat.setInteger(
+                MediaFormat.KEY_COLOR_FORMAT, MediaCodecInfo.CodecCapabilities.COLOR_FormatSurface);
+        videoFormat.setInteger(MediaFormat.KEY_BIT_RATE, videoBitRate);
+        videoFormat.setInteger(MediaFormat.KEY_FRAME_RATE, profile.videoFrameRate);
+        videoFormat.setInteger(MediaFormat.KEY_I_FRAME_INTERVAL, keyFrameInterval);
+        videoCodec = MediaCodec.createEncoderByType(MediaFormat.MIMETYPE_VIDEO_AVC);
+        videoCodec.configure(videoFormat, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+        inputSurface = videoCodec.createInputSurface();
+
+        MediaCodec audioCodec = null;
+        AudioRecord audioRecord = null;
+        try {
+            if (enableAudio) {
+                int channelCount = profile.audioChannels == 2 ? 2 : 1;
+                int channelMask =
+                        channelCount == 2 ? AudioFormat.CHANNEL_IN_STEREO : AudioFormat.CHANNEL_IN_MONO;
+                int bufferSize =
+                        Math.max(
+                                MIN_AUDIO_BUFFER_SIZE,
+                                AudioRecord.getMinBufferSize(
+                                        profile.audioSampleRate, channelMask, AudioFormat.ENCODING_PCM_16BIT));
+                audioRecord =
+                        new AudioRecord(
+                                MediaRecorder.AudioSource.MIC,
+                                profile.audioSampleRate,
+                                channelMask,
+                                AudioFormat.ENCODING_PCM_16BIT,
+                                bufferSize * 2);
+                if (audioRecord.getState() != AudioRecord.STATE_INITIALIZED) {
+                    throw new IOException("The microphone couldn't be opened.");
+                }
+
+                MediaFormat audioFormat =
+                        MediaFormat.createAudioFormat(
+                                MediaFormat.MIMETYPE_AUDIO_AAC, profile.audioSampleRate, channelCount);
+                audioFormat.setInteger(
+                        MediaFormat.KEY_AAC_PROFILE, MediaCodecInfo.CodecProfileLevel.AACObjectLC);
+                audioFormat.setInteger(MediaFormat.KEY_BIT_RATE, profile.audioBitRate);
+                audioFormat.setInteger(MediaFormat.KEY_MAX_INPUT_SIZE, bufferSize);
+                audioCodec = MediaCodec.createEncoderByType(MediaFormat.MIMETYPE_AUDIO_AAC);
+                audioCodec.configure(audioFormat, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+            }
+            muxer = new MediaMuxer(outputFilePath, MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+            muxer.setOrientationHint(orientationHint);
+        } catch (IOException | RuntimeException e) {
+            if (audioRecord != null) {
+                audioRecord.release();
+            }
+            if (audioCodec != null) {
+                audioCodec.release();
+            }
+            inputSurface.release();
+            videoCodec.release();
+            throw e;
+        }
+        this.audioCodec = audioCodec;
+        this.audioRecord = audioRecord;
+    }
+
+    /** The surface the camera renders the frames to record to. */
+    Surface getInputSurface() {
+        return inputSurface;
+    }
+
+    void start() {
+        activeTracks.set(trackCount);
+        videoCodec.start();
+        new Thread(this::drainVideo, "CameraVideoEncoder").start();
+        if (audioCodec != null && audioRecord != null) {
+            audioCodec.start();
+            audioRecord.startRecording();
+            new Thread(this::encodeAudio, "CameraAudioEncoder").start();
+        }
+    }
+
+    void pause() {
+        synchronized (muxerLock) {
+            if (paused) {
+                return;
+            }
+            paused = true;
+            pausedAtUs = nowUs();
+        }
+    }
+
+    void resume() {
+        synchronized (muxerLock) {
+            if (!paused) {
+                return;
+            }
+            paused = false;
+            pausedDurationUs += nowUs() - pausedAtUs;
+            waitingForKeyFrame = true;
+        }
+        requestKeyFrame();
+    }
+
+    /** Finishes the file, {@code listener} is called once it's written. */
+    void stop(@Nullable OnStoppedListener listener) {
+        onStoppedListener = listener;
+        stopping = true;
+        videoCodec.signalEndOfInputStream();
+    }
+
+    private long nowUs() {
+        return (realtimeTimestamps ? SystemClock.elapsedRealtimeNanos() : System.nanoTime()) / 1000;
+    }
+
+    private void drainVideo() {
+        MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+        try {
+            while (drainOnce(videoCodec, info, true, DEQUEUE_TIMEOUT_US) != END_OF_STREAM) {
+                // Keep draining until the end of stream signalled by stop().
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed encoding video", e);
+            error = e.getMessage();
+        }
+        onTrackFinished();
+    }
+
+    private void encodeAudio() {
+        MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+        try {
+            boolean inputDone = false;
+            while (true) {
+                if (!inputDone) {
+                    inputDone = queueAudio();
+                }
+                int status;
+                do {
+                    // Once all input is queued just wait for the encoder to finish.
+                    status = drainOnce(audioCodec, info, false, inputDone ? DEQUEUE_TIMEOUT_US : 0);
+                } while (status == DRAINED);
+                if (status == END_OF_STREAM) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed encoding audio", e);
+            error = e.getMessage();
+        }
+        onTrackFinished();
+    }
+
+    /** Reads the microphone into the next input buffer, returns whether it was the last one. */
+    private boolean queueAudio() {
+        int index = audioCodec.dequeueInputBuffer(DEQUEUE_TIMEOUT_US);
+        if (index < 0) {
+            return false;
+        }
+        ByteBuffer buffer = audioCodec.getInputBuffer(index);
+        buffer.clear();
+        int length = Math.max(0, audioRecord.read(buffer, buffer.remaining()));
+        // The samples were recorded over the time it took to fill the buffer.
+        long timeUs = nowUs() - length * 1_000_000L / audioBytesPerSecond;
+        boolean last = stopping;
+        audioCodec.queueInputBuffer(
+                index, 0, length, timeUs, last ? MediaCodec.BUFFER_FLAG_END_OF_STREAM : 0);
+        return last;
+    }
+
+    private int drainOnce(MediaCodec codec, MediaCodec.BufferInfo info, boolean video, long timeoutUs) {
+        int index = codec.dequeueOutputBuffer(info, timeoutUs);
+        if (index == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+            addTrack(codec.getOutputFormat(), video);
+            return DRAINED;
+        }
+        if (index < 0) {
+            return NO_OUTPUT;
+        }
+
+        if ((info.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) == 0 && info.size > 0) {
+            writeSample(codec.getOutputBuffer(index), info, video);
+        }
+        codec.releaseOutputBuffer(index, false);
+        return (info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0 ? END_OF_STREAM : DRAINED;
+    }
+
+    private void addTrack(MediaFormat format, boolean video) {
+        synchronized (muxerLock) {
+            int track = muxer.addTrack(format);
+            if (video) {
+                videoTrack = track;
+            } else {
+                audioTrack = track;
+            }
+            if (++addedTracks < trackCount) {
+                return;
+            }
+            muxer.start();
+            muxerStarted = true;
+        }
+        // Video encoded while waiting for the other track was dropped.
+        requestKeyFrame();
+    }
+
+    private void writeSample(ByteBuffer data, MediaCodec.BufferInfo info, boolean video) {
+        synchronized (muxerLock) {
+            if (!muxerStarted || paused) {
+                return;
+            }
+            if (video && waitingForKeyFrame) {
+                if ((info.flags & MediaCodec.BUFFER_FLAG_KEY_FRAME) == 0) {
+                    return;
+                }
+                waitingForKeyFrame = false;
+            }
+
+            long timeUs = info.presentationTimeUs - pausedDurationUs;
+            if (timeUs <= (video ? lastVideoTimeUs : lastAudioTimeUs)) {
+                // The muxer needs increasing timestamps, which samples from before a pause may not have.
+                return;
+            }
+            info.presentationTimeUs = timeUs;
+            data.position(info.offset);
+            data.limit(info.offset + info.size);
+            muxer.writeSampleData(video ? videoTrack : audioTrack, data, info);
+            wroteSamples = true;
+            if (video) {
+                lastVideoTimeUs = timeUs;
+            } else {
+                lastAudioTimeUs = timeUs;
+            }
+        }
+    }
+
+    private void requestKeyFrame() {
+        Bundle parameters = new Bundle();
+        parameters.putInt(MediaCodec.PARAMETER_KEY_REQUEST_SYNC_FRAME, 0);
+        videoCodec.setParameters(parameters);
+    }
+
+    private void onTrackFinished() {
+        if (activeTracks.decrementAndGet() > 0) {
+            return;
+        }
+
+        String error = this.error;
+        synchronized (muxerLock) {
+            if (muxerStarted && wroteSamples) {
+                try {
+                    muxer.stop();
+                } catch (IllegalStateException e) {
+                    Log.e(TAG, "Failed finishing recording", e);
+                    error = e.getMessage();
+                }
+            } else if (error == null) {
+                error = "No frames were recorded.";
+            }
+            muxer.release();
+        }
+
+        videoCodec.stop();
+        videoCodec.release();
+        // The codec doesn't own the surface it created, it has to be released separately.
+        inputSurface.release();
+        if (audioCodec != null && audioRecord != null) {
+            audioRecord.stop();
+            audioRecord.release();
+            audioCodec.stop();
+            audioCodec.release();
+        }
+
+        OnStoppedListener listener = onStoppedListener;
+        if (listener != null) {
+            listener.onStopped(error);
+        }
+    }
+}
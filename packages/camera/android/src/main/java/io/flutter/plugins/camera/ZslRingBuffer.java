@@ -0,0 +1,295 @@
+package io.flutter.plugins.camera;
+
+import android.media.Image;
+import android.os.SystemClock;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Keeps the most recent full resolution preview frames for zero shutter lag captures.
+ *
+ * <p>Frames are copied as NV21 into slots which are allocated once, so the number of slots is
+ * what bounds the memory taken. A frame can only be taken once its capture result has been seen,
+ * i.e. once the camera has finished with it. Taking a frame swaps its slot with a spare buffer
+ * instead of copying it, the buffer has to be handed back with {@link #release(Frame)} once it
+ * is encoded.
+ *
+ * <p>Frames are copied without holding the lock {@link #take(long, long)} needs, so taking a picture
+ * doesn't wait for a frame copy.
+ */
+class ZslRingBuffer {
+    // More frames than this don't make taking a picture any faster.
+    private static final int MAX_DEPTH = 8;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    /** How the chroma planes of a reader's images are laid out in memory. */
+    enum ChromaLayout {
+        /** Not known yet, uniform chroma looks the same in either layout. */
+        unknown,
+        /** The V plane holds the interleaved VU bytes and can be copied at once. */
+        nv21,
+        /** Anything else, chroma is interleaved byte by byte. */
+        planar,
+    }
+
+    static class Frame {
+        final int width;
+        final int height;
+        final long timestamp;
+        final byte[] nv21;
+
+        Frame(int width, int height, long timestamp, byte[] nv21) {
+            this.width = width;
+            this.height = height;
+            this.timestamp = timestamp;
+            this.nv21 = nv21;
+        }
+    }
+
+    private final int width;
+    private final int height;
+    private final byte[][] slots;
+    private final long[] timestamps;
+    // When each frame was added, in SystemClock.elapsedRealtimeNanos().
+    private final long[] addedAt;
+    private final long[] resultTimestamps;
+    private int nextSlot;
+    private int nextResult;
+    @Nullable private byte[] spare;
+    // Only used by add, which runs on the image reader thread. A buffer serves one reader, whose
+    // layout doesn't change, so it is only detected once.
+    private ChromaLayout chromaLayout = ChromaLayout.unknown;
+
+    ZslRingBuffer(int width, int height, int depth) {
+        this.width = width;
+        this.height = height;
+        int frameSize = frameSize(width, height);
+        this.slots = new byte[depth][frameSize];
+        this.timestamps = new long[depth];
+        this.addedAt = new long[depth];
+        // Results may arrive before or after their frame, keep a few more than there are frames.
+        this.resultTimestamps = new long[depth * 2 + 2];
+        this.spare = new byte[frameSize];
+        Arrays.fill(timestamps, NO_TIMESTAMP);
+        Arrays.fill(resultTimestamps, NO_TIMESTAMP);
+    }
+
+    static int frameSize(int width, int height) {
+        return width * height * 3 / 2;
+    }
+
+    /** How many frames fit in {@code memoryBudgetBytes}, counting the spare buffer. */
+    static int depthFor(int width, int height, long memoryBudgetBytes) {
+        long frames = memoryBudgetBytes / frameSize(width, height) - 1;
+        return (int) Math.max(1, Math.min(MAX_DEPTH, frames));
+    }
+
+    int getDepth() {
+        return slots.length;
+    }
+
+    /** Copies {@code image} into the oldest slot. The image isn't closed. */
+    void add(Image image) {
+        Image.Plane[] planes = image.getPlanes();
+        add(
+                image.getTimestamp(),
+                SystemClock.elapsedRealtimeNanos(),
+                planes[0].getBuffer(),
+                planes[1].getBuffer(),
+                planes[2].getBuffer(),
+                planes[0].getRowStride(),
+                planes[1].getRowStride(),
+                planes[1].getPixelStride());
+    }
+
+    /**
+     * Copies a frame into the oldest slot. Frames must be added from a single thread.
+     *
+     * @param addedAt the current {@link SystemClock#elapsedRealtimeNanos()}.
+     */
+    void add(
+            long timestamp,
+            long addedAt,
+            ByteBuffer y,
+            ByteBuffer u,
+            ByteBuffer v,
+            int yRowStride,
+            int uvRowStride,
+            int uvPixelStride) {
+        if (chromaLayout == ChromaLayout.unknown) {
+            chromaLayout = detectChromaLayout(u, v, uvRowStride, uvPixelStride, width, height);
+        }
+
+        // Without a timestamp take skips the slot, so it can be written outside the lock.
+        int slot;
+        byte[] target;
+        synchronized (this) {
+            slot = nextSlot;
+            nextSlot = (nextSlot + 1) % slots.length;
+            timestamps[slot] = NO_TIMESTAMP;
+            target = slots[slot];
+        }
+        copyToNv21(
+                y,
+                u,
+                v,
+                yRowStride,
+                uvRowStride,
+                uvPixelStride,
+                width,
+                height,
+                chromaLayout == ChromaLayout.nv21,
+                target);
+        synchronized (this) {
+            timestamps[slot] = timestamp;
+            this.addedAt[slot] = addedAt;
+        }
+    }
+
+    /** Drops the buffered frames, e.g. once the preview stops feeding the buffer. */
+    synchronized void clear() {
+        Arrays.fill(timestamps, NO_TIMESTAMP);
+    }
+
+    /** Marks the frame with {@code sensorTimestamp} as complete. */
+    synchronized void onCaptureCompleted(long sensorTimestamp) {
+        resultTimestamps[nextResult] = sensorTimestamp;
+        nextResult = (nextResult + 1) % resultTimestamps.length;
+    }
+
+    /**
+     * Removes the completed frame closest to {@code timestamp}.
+     *
+     * @param notAddedBefore frames added before this {@link SystemClock#elapsedRealtimeNanos()}
+     *     are too old to be taken.
+     * @return null if there is no recent completed frame or the previous frame hasn't been released
+     *     yet.
+     */
+    @Nullable
+    synchronized Frame take(long timestamp, long notAddedBefore) {
+        if (spare == null) {
+            return null;
+        }
+
+        int closest = -1;
+        for (int i = 0; i < slots.length; i++) {
+            if (timestamps[i] == NO_TIMESTAMP
+                    || addedAt[i] < notAddedBefore
+                    || !hasResult(timestamps[i])) {
+                continue;
+            }
+            if (closest == -1
+                    || Math.abs(timestamps[i] - timestamp) < Math.abs(timestamps[closest] - timestamp)) {
+                closest = i;
+            }
+        }
+        if (closest == -1) {
+            return null;
+        }
+
+        Frame frame = new Frame(width, height, timestamps[closest], slots[closest]);
+        slots[closest] = spare;
+        timestamps[closest] = NO_TIMESTAMP;
+        spare = null;
+        return frame;
+    }
+
+    /** Hands the buffer of a taken frame back once it's no longer needed. */
+    synchronized void release(Frame frame) {
+        spare = frame.nv21;
+    }
+
+    private boolean hasResult(long timestamp) {
+        for (long resultTimestamp : resultTimestamps) {
+            if (resultTimestamp == timestamp) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Detects the chroma layout from the plane strides and the plane contents.
+     *
+     * <p>The planes are NV21 when the V plane shifted by one byte is the U plane. Buffer addresses
+     * aren't available from Java, so this compares the bytes, and can only tell once the U and V
+     * bytes differ somewhere.
+     */
+    static ChromaLayout detectChromaLayout(
+            ByteBuffer u, ByteBuffer v, int uvRowStride, int uvPixelStride, int width, int height) {
+        if (uvPixelStride != 2 || uvRowStride != width) {
+            return ChromaLayout.planar;
+        }
+        if (!areUvPlanesNv21(u, v, (width / 2) * (height / 2))) {
+            return ChromaLayout.planar;
+        }
+        return u.compareTo(v) == 0 ? ChromaLayout.unknown : ChromaLayout.nv21;
+    }
+
+    /**
+     * Copies the planes of a YUV_420_888 image into {@code out} as NV21.
+     *
+     * @param nv21Chroma whether the chroma planes are NV21, see {@link #detectChromaLayout}.
+     */
+    static void copyToNv21(
+            ByteBuffer y,
+            ByteBuffer u,
+            ByteBuffer v,
+            int yRowStride,
+            int uvRowStride,
+            int uvPixelStride,
+            int width,
+            int height,
+            boolean nv21Chroma,
+            byte[] out) {
+        int ySize = width * height;
+        int yPosition = y.position();
+        if (yRowStride == width) {
+            y.get(out, 0, ySize);
+        } else {
+            for (int row = 0; row < height; row++) {
+                y.position(yPosition + row * yRowStride);
+                y.get(out, row * width, width);
+            }
+        }
+        y.position(yPosition);
+
+        int chromaWidth = width / 2;
+        int chromaHeight = height / 2;
+        if (nv21Chroma) {
+            // The V plane already holds the interleaved VU bytes, only the last U byte is missing.
+            int vPosition = v.position();
+            int chromaSize = chromaWidth * chromaHeight * 2;
+            v.get(out, ySize, chromaSize - 1);
+            v.position(vPosition);
+            out[ySize + chromaSize - 1] = u.get(u.position() + chromaSize - 2);
+            return;
+        }
+
+        int uPosition = u.position();
+        int vPosition = v.position();
+        int offset = ySize;
+        for (int row = 0; row < chromaHeight; row++) {
+            for (int col = 0; col < chromaWidth; col++) {
+                int index = row * uvRowStride + col * uvPixelStride;
+                out[offset++] = v.get(vPosition + index);
+                out[offset++] = u.get(uPosition + index);
+            }
+        }
+    }
+
+    /** Whether the U and V planes are views of one interleaved VU buffer. */
+    private static boolean areUvPlanesNv21(ByteBuffer u, ByteBuffer v, int chromaPixels) {
+        int vPosition = v.position();
+        int uLimit = u.limit();
+        v.position(vPosition + 1);
+        u.limit(uLimit - 1);
+        boolean nv21 = v.remaining() == 2 * chromaPixels - 2 && v.compareTo(u) == 0;
+        v.position(vPosition);
+        u.limit(uLimit);
+        return nv21;
+    }
+}
@@ -0,0 +1,104 @@
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import io.flutter.plugin.common.MethodChannel;
+import java.util.Arrays;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BurstCaptureTest {
+  private static class FakeResult implements MethodChannel.Result {
+    int replies;
+    Object value;
+
+    @Override
+    public void success(Object result) {
+      replies++;
+      value = result;
+    }
+
+    @Override
+    public void error(String errorCode, String errorMessage, Object errorDetails) {
+      replies++;
+    }
+
+    @Override
+    public void notImplemented() {
+      replies++;
+    }
+  }
+
+  private static final long FRAME = 100_000_000L;
+
+  private BurstCapture burst;
+  private FakeResult result;
+
+  @Before
+  public void setUp() {
+    burst = new BurstCapture("/burst", 2);
+    result = new FakeResult();
+  }
+
+  @Test
+  public void onFrameAvailable_namesFramesInCaptureOrder() {
+    assertEquals("/burst_1", burst.onFrameAvailable(0));
+    assertEquals("/burst_2", burst.onFrameAvailable(FRAME));
+  }
+
+  @Test
+  public void onFrameAvailable_dropsFramesWhileTooManyArePending() {
+    assertNotNull(burst.onFrameAvailable(0));
+    assertNotNull(burst.onFrameAvailable(FRAME));
+    assertNull(burst.onFrameAvailable(2 * FRAME));
+
+    burst.onFrameWritten("/burst_1.jpg");
+
+    assertEquals("/burst_4", burst.onFrameAvailable(3 * FRAME));
+    assertEquals(1, burst.getStats().get("droppedFrames"));
+  }
+
+  @Test
+  public void stop_repliesOncePendingFramesAreWritten() {
+    burst.onFrameAvailable(0);
+    burst.onFrameAvailable(FRAME);
+    burst.onFrameWritten("/burst_1.jpg");
+
+    burst.stop(result);
+    assertEquals(0, result.replies);
+
+    burst.onFrameWritten("/burst_2.jpg");
+    assertEquals(1, result.replies);
+    Map<?, ?> stats = (Map<?, ?>) result.value;
+    assertEquals(Arrays.asList("/burst_1.jpg", "/burst_2.jpg"), stats.get("paths"));
+    assertEquals(2, stats.get("capturedFrames"));
+    assertEquals(10.0, (double) stats.get("framesPerSecond"), 1e-9);
+  }
+
+  @Test
+  public void stop_ignoresFramesArrivingAfterwards() {
+    burst.stop(result);
+
+    assertNull(burst.onFrameAvailable(0));
+    assertEquals(0, burst.getStats().get("capturedFrames"));
+    assertEquals(1, result.replies);
+  }
+
+  @Test
+  public void getStats_countsFailedWritesAsDropped() {
+    burst.onFrameAvailable(0);
+    burst.onFrameWritten(null);
+    burst.onCaptureFailed();
+
+    assertEquals(2, burst.getStats().get("droppedFrames"));
+  }
+
+  @Test
+  public void framesPerSecond_needsTwoFrames() {
+    assertEquals(0, BurstCapture.framesPerSecond(1, 0, 0), 0);
+    assertEquals(30, BurstCapture.framesPerSecond(31, 0, 1_000_000_000L), 1e-9);
+  }
+}
@@ -0,0 +1,52 @@
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CameraMetricsTest {
+  private CameraMetrics metrics;
+
+  @Before
+  public void setUp() {
+    metrics = new CameraMetrics();
+  }
+
+  @Test
+  public void record_countsLatenciesInBuckets() {
+    metrics.record(CameraMetrics.IMAGE_WRITE, 500_000L);
+    metrics.record(CameraMetrics.IMAGE_WRITE, 1_000_000L);
+    metrics.record(CameraMetrics.IMAGE_WRITE, 30_000_000L);
+    metrics.record(CameraMetrics.IMAGE_WRITE, 60_000_000_000L);
+
+    Map<?, ?> histogram = histogram(CameraMetrics.IMAGE_WRITE);
+    assertArrayEquals(
+        new long[] {2, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 1}, (long[]) histogram.get("bucketCounts"));
+    assertEquals(4L, histogram.get("count"));
+    assertEquals(60_000.0, (double) histogram.get("maxMillis"), 1e-9);
+  }
+
+  @Test
+  public void onPreviewFrame_onlyRecordsFirstFrameAfterOpening() {
+    metrics.onPreviewFrame();
+    metrics.onOpenStarted();
+    metrics.onPreviewFrame();
+    metrics.onPreviewFrame();
+
+    assertEquals(1L, histogram(CameraMetrics.OPEN_TO_FIRST_FRAME).get("count"));
+  }
+
+  @Test
+  public void snapshot_addsGauges() {
+    metrics.setGauges(snapshot -> snapshot.put("heldImages", 2));
+
+    assertEquals(2, metrics.snapshot().get("heldImages"));
+  }
+
+  private Map<?, ?> histogram(String name) {
+    return (Map<?, ?>) ((Map<?, ?>) metrics.snapshot().get("histograms")).get(name);
+  }
+}
@@ -0,0 +1,67 @@
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import io.flutter.plugin.common.BinaryMessenger;
+import java.nio.ByteBuffer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CameraPropertiesMessengerTest {
+  /** A {@link BinaryMessenger} implementation that does nothing. */
+  private static class FakeBinaryMessenger implements BinaryMessenger {
+    @Override
+    public void send(String channel, ByteBuffer message) {}
+
+    @Override
+    public void send(String channel, ByteBuffer message, BinaryReply callback) {}
+
+    @Override
+    public void setMessageHandler(String channel, BinaryMessageHandler handler) {}
+  }
+
+  private static final long FRAME = 33_333_333L;
+
+  private CameraPropertiesMessenger messenger;
+
+  @Before
+  public void setUp() {
+    messenger = new CameraPropertiesMessenger(new FakeBinaryMessenger(), 0);
+  }
+
+  @Test
+  public void update_sendsFirstPropertiesAndThenOnlyChanges() {
+    assertTrue(messenger.update(0, 100, 10_000_000L, 1f, 2f, 1f, 1f, 1.5f));
+    assertFalse(messenger.update(FRAME, 100, 10_000_000L, 1f, 2f, 1f, 1f, 1.5f));
+    assertTrue(messenger.update(2 * FRAME, 200, 10_000_000L, 1f, 2f, 1f, 1f, 1.5f));
+    assertTrue(messenger.update(3 * FRAME, 200, 20_000_000L, 1f, 2f, 1f, 1f, 1.5f));
+  }
+
+  @Test
+  public void update_ignoresSmallFocusAndWhiteBalanceDrift() {
+    messenger.update(0, 100, 10_000_000L, 1f, 2f, 1f, 1f, 1.5f);
+
+    assertFalse(messenger.update(FRAME, 100, 10_000_000L, 1.005f, 2.01f, 1f, 1f, 1.5f));
+    assertTrue(messenger.update(2 * FRAME, 100, 10_000_000L, 1.5f, 2f, 1f, 1f, 1.5f));
+    assertTrue(messenger.update(3 * FRAME, 100, 10_000_000L, 1.5f, 2.5f, 1f, 1f, 1.5f));
+  }
+
+  @Test
+  public void update_treatsMissingValuesAsUnchanged() {
+    messenger.update(0, 100, 10_000_000L, Float.NaN, Float.NaN, Float.NaN, Float.NaN, Float.NaN);
+
+    assertFalse(
+        messenger.update(
+            FRAME, 100, 10_000_000L, Float.NaN, Float.NaN, Float.NaN, Float.NaN, Float.NaN));
+  }
+
+  @Test
+  public void update_waitsForMinInterval() {
+    messenger.setMinIntervalMillis(100);
+    messenger.update(0, 100, 10_000_000L, 1f, 2f, 1f, 1f, 1.5f);
+
+    assertFalse(messenger.update(FRAME, 200, 10_000_000L, 1f, 2f, 1f, 1f, 1.5f));
+    assertTrue(messenger.update(3 * FRAME + 1, 200, 10_000_000L, 1f, 2f, 1f, 1f, 1.5f));
+  }
+}
@@ -0,0 +1,211 @@
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+public class ExposureFusionTest {
+  private static final int WIDTH = 37;
+  private static final int HEIGHT = 23;
+
+  @Test
+  public void reduce_halvesSizeRoundingUp() {
+    float[] image = new float[WIDTH * HEIGHT];
+    Arrays.fill(image, 0.25f);
+
+    float[] reduced = ExposureFusion.reduce(image, WIDTH, HEIGHT);
+
+    assertEquals(19 * 12, reduced.length);
+    for (float value : reduced) {
+      assertEquals(0.25f, value, 1e-6f);
+    }
+  }
+
+  @Test
+  public void expand_keepsCoarsePixels() {
+    float[] image = {0, 1, 2, 3};
+
+    float[] expanded = ExposureFusion.expand(image, 2, 2, 3, 3);
+
+    assertArrayEquals(new float[] {0, 0.5f, 1, 1, 1.5f, 2, 2, 2.5f, 3}, expanded, 1e-6f);
+  }
+
+  @Test
+  public void blend_reconstructsIdenticalInputs() {
+    float[][] image = randomImage(new Random(1));
+    float[][][] inputs = {image, image};
+    float[][] weights = ExposureFusion.computeWeights(inputs, WIDTH, HEIGHT);
+    float[][] out = new float[3][WIDTH * HEIGHT];
+
+    ExposureFusion.blend(inputs, weights, WIDTH, HEIGHT, ExposureFusion.LEVELS, out);
+
+    for (int c = 0; c < 3; c++) {
+      assertArrayEquals(image[c], out[c], 1e-4f);
+    }
+  }
+
+  @Test
+  public void blend_paddedTileMatchesWholePicture() {
+    int width = ExposureFusion.TILE_SIZE * 2 + 88;
+    int height = ExposureFusion.TILE_SIZE + 44;
+    Random random = new Random(4);
+    float[][][] inputs = {
+      randomImage(random, width, height), randomImage(random, width, height)
+    };
+    float[][] whole = new float[3][width * height];
+    ExposureFusion.blend(
+        inputs,
+        ExposureFusion.computeWeights(inputs, width, height),
+        width,
+        height,
+        ExposureFusion.LEVELS,
+        whole);
+
+    // The second tile of the first row, padded like the workers pad it.
+    int left = ExposureFusion.TILE_SIZE;
+    int size = ExposureFusion.TILE_SIZE;
+    int paddedLeft = left - ExposureFusion.TILE_MARGIN;
+    int paddedWidth = size + 2 * ExposureFusion.TILE_MARGIN;
+    int paddedHeight = Math.min(height, size + ExposureFusion.TILE_MARGIN);
+    float[][][] tileInputs = new float[2][3][paddedWidth * paddedHeight];
+    for (int k = 0; k < 2; k++) {
+      for (int c = 0; c < 3; c++) {
+        for (int y = 0; y < paddedHeight; y++) {
+          System.arraycopy(
+              inputs[k][c], y * width + paddedLeft, tileInputs[k][c], y * paddedWidth, paddedWidth);
+        }
+      }
+    }
+    float[][] tile = new float[3][paddedWidth * paddedHeight];
+    ExposureFusion.blend(
+        tileInputs,
+        ExposureFusion.computeWeights(tileInputs, paddedWidth, paddedHeight),
+        paddedWidth,
+        paddedHeight,
+        ExposureFusion.LEVELS,
+        tile);
+
+    for (int c = 0; c < 3; c++) {
+      for (int y = 0; y < size; y++) {
+        for (int x = 0; x < size; x++) {
+          assertEquals(
+              whole[c][y * width + left + x],
+              tile[c][y * paddedWidth + ExposureFusion.TILE_MARGIN + x],
+              1e-5f);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void blend_reusedBuffersMatchFreshBuffers() {
+    Random random = new Random(5);
+    ExposureFusion.BlendBuffers buffers =
+        new ExposureFusion.BlendBuffers(WIDTH, HEIGHT, ExposureFusion.LEVELS);
+    // A full size tile leaves data behind for the smaller edge tile after it.
+    int[][] sizes = {{WIDTH, HEIGHT}, {WIDTH - 12, HEIGHT - 7}};
+    for (int[] size : sizes) {
+      float[][][] inputs = {
+        randomImage(random, size[0], size[1]), randomImage(random, size[0], size[1])
+      };
+      float[][] weights = ExposureFusion.computeWeights(inputs, size[0], size[1]);
+      float[][] fresh = new float[3][size[0] * size[1]];
+      float[][] reused = new float[3][size[0] * size[1]];
+
+      ExposureFusion.blend(inputs, weights, size[0], size[1], ExposureFusion.LEVELS, fresh);
+      ExposureFusion.blend(
+          inputs, weights, size[0], size[1], ExposureFusion.LEVELS, reused, buffers);
+
+      for (int c = 0; c < 3; c++) {
+        assertArrayEquals(fresh[c], reused[c], 0);
+      }
+    }
+  }
+
+  @Test
+  public void toNv21_writesLumaAndInterleavedChroma() {
+    // A 2 by 2 gray tile at the top right of a 4 by 2 picture.
+    float[][] planes = new float[3][4];
+    for (float[] plane : planes) {
+      Arrays.fill(plane, 0.5f);
+    }
+    byte[] nv21 = new byte[4 * 2 * 3 / 2];
+
+    ExposureFusion.toNv21(planes, 2, 0, 0, 2, 2, nv21, 4, 2, 2, 0);
+
+    // Only the right half of both luma rows and of the one chroma row is written.
+    int[] written = {0, 0, 128, 128, 0, 0, 128, 128, 0, 0, 128, 128};
+    for (int i = 0; i < nv21.length; i++) {
+      assertEquals(written[i], nv21[i] & 0xff, 1);
+    }
+  }
+
+  @Test
+  public void tileMargin_coversPyramidSupportInCoarsestPixels() {
+    int coarsestPixel = 1 << (ExposureFusion.LEVELS - 1);
+
+    assertTrue(ExposureFusion.TILE_MARGIN >= ExposureFusion.pyramidSupport(ExposureFusion.LEVELS));
+    assertEquals(0, ExposureFusion.TILE_MARGIN % coarsestPixel);
+  }
+
+  @Test
+  public void computeWeights_normalizesWeights() {
+    Random random = new Random(2);
+    float[][][] inputs = {randomImage(random), randomImage(random), randomImage(random)};
+
+    float[][] weights = ExposureFusion.computeWeights(inputs, WIDTH, HEIGHT);
+
+    for (int i = 0; i < WIDTH * HEIGHT; i++) {
+      assertEquals(1, weights[0][i] + weights[1][i] + weights[2][i], 1e-5f);
+    }
+  }
+
+  @Test
+  public void computeWeights_prefersWellExposedInput() {
+    float[][] wellExposed = randomImage(new Random(3));
+    float[][] overExposed = new float[3][WIDTH * HEIGHT];
+    for (int c = 0; c < 3; c++) {
+      for (int i = 0; i < WIDTH * HEIGHT; i++) {
+        overExposed[c][i] = Math.min(1, wellExposed[c][i] + 0.5f);
+      }
+    }
+
+    float[][] weights =
+        ExposureFusion.computeWeights(new float[][][] {wellExposed, overExposed}, WIDTH, HEIGHT);
+
+    float wellExposedWeight = 0;
+    for (float weight : weights[0]) {
+      wellExposedWeight += weight;
+    }
+    assertTrue(wellExposedWeight > 0.75f * WIDTH * HEIGHT);
+  }
+
+  @Test
+  public void toPlanes_roundTripsThroughArgb() {
+    int[] argb = {0xff123456};
+    float[][] planes = new float[3][1];
+
+    ExposureFusion.toPlanes(argb, 1, planes);
+
+    assertEquals(0xff123456, ExposureFusion.toArgb(planes[0][0], planes[1][0], planes[2][0]));
+  }
+
+  /** Mid-tone noise, which has contrast and saturation everywhere. */
+  private static float[][] randomImage(Random random) {
+    return randomImage(random, WIDTH, HEIGHT);
+  }
+
+  private static float[][] randomImage(Random random, int width, int height) {
+    float[][] image = new float[3][width * height];
+    for (float[] plane : image) {
+      for (int i = 0; i < plane.length; i++) {
+        plane[i] = 0.25f + 0.5f * random.nextFloat();
+      }
+    }
+    return image;
+  }
+}
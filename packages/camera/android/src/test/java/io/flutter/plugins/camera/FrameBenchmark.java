@@ -0,0 +1,152 @@
+package io.flutter.plugins.camera;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.rules.TestWatcher;
+import org.junit.runner.Description;
+
+/**
+ * Measures the time and the heap allocation per frame of a camera hot path, and produces the
+ * synthetic frames to drive it with.
+ *
+ * <p>Allocation is read from the JVM's per thread allocation counter, which is precise enough to
+ * tell an allocation free path from one that allocates per frame. Times are only reported through
+ * a {@link Report}, they vary too much between machines to assert on.
+ */
+final class FrameBenchmark {
+  private static final int WARMUP_FRAMES = 200;
+
+  /** Bytes allocated per frame, or -1 if the JVM can't count allocations. */
+  final long bytesPerFrame;
+
+  final double nanosPerFrame;
+
+  private FrameBenchmark(long bytesPerFrame, double nanosPerFrame) {
+    this.bytesPerFrame = bytesPerFrame;
+    this.nanosPerFrame = nanosPerFrame;
+  }
+
+  /** Runs {@code frame} {@code frames} times after a warmup. */
+  static FrameBenchmark run(int frames, Runnable frame) {
+    for (int i = 0; i < WARMUP_FRAMES; i++) {
+      frame.run();
+    }
+
+    // Reading the counter allocates too, which is taken off the measured allocation.
+    long counterOverhead = -allocatedBytes() + allocatedBytes();
+
+    long allocatedBefore = allocatedBytes();
+    long start = System.nanoTime();
+    for (int i = 0; i < frames; i++) {
+      frame.run();
+    }
+    long elapsed = System.nanoTime() - start;
+    long allocatedAfter = allocatedBytes();
+
+    return new FrameBenchmark(
+        allocatedBefore < 0
+            ? -1
+            : Math.max(0, allocatedAfter - allocatedBefore - counterOverhead) / frames,
+        (double) elapsed / frames);
+  }
+
+  private static long allocatedBytes() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+      return -1;
+    }
+    com.sun.management.ThreadMXBean allocationCounter = (com.sun.management.ThreadMXBean) threads;
+    if (!allocationCounter.isThreadAllocatedMemorySupported()
+        || !allocationCounter.isThreadAllocatedMemoryEnabled()) {
+      return -1;
+    }
+    return allocationCounter.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * Collects the results of a test's benchmarks and writes them to {@code
+   * build/reports/benchmarks}, one file per test, once the test has finished.
+   */
+  static final class Report extends TestWatcher {
+    private static final File DIRECTORY = new File("build/reports/benchmarks");
+
+    private final List<String> lines = new ArrayList<>();
+
+    /** Runs a benchmark like {@link FrameBenchmark#run} and adds its result to the report. */
+    FrameBenchmark run(String name, int frames, Runnable frame) {
+      FrameBenchmark result = FrameBenchmark.run(frames, frame);
+      add(
+          String.format(
+              "%s: %.1f us/frame, %d bytes/frame",
+              name, result.nanosPerFrame / 1000, result.bytesPerFrame));
+      return result;
+    }
+
+    void add(String line) {
+      lines.add(line);
+    }
+
+    @Override
+    protected void finished(Description description) {
+      if (lines.isEmpty() || !(DIRECTORY.isDirectory() || DIRECTORY.mkdirs())) {
+        return;
+      }
+      String name = description.getClassName() + "." + description.getMethodName();
+      File file = new File(DIRECTORY, name + ".txt");
+      try (Writer writer = new FileWriter(file)) {
+        for (String line : lines) {
+          writer.write(line);
+          writer.write('\n');
+        }
+      } catch (IOException e) {
+        // The report is informational, failing to write it doesn't fail the test.
+      }
+    }
+  }
+
+  /**
+   * The planes of a YUV_420_888 frame as most devices deliver it: padded luma rows and
+   * interleaved chroma, with the U and V planes being views of one VU buffer.
+   */
+  static final class SyntheticFrame {
+    // Devices commonly align rows to 64 bytes.
+    private static final int ROW_ALIGNMENT = 64;
+
+    final int width;
+    final int height;
+    final int yRowStride;
+    final int uvRowStride;
+    final int uvPixelStride = 2;
+    final ByteBuffer y;
+    final ByteBuffer u;
+    final ByteBuffer v;
+
+    SyntheticFrame(int width, int height) {
+      this.width = width;
+      this.height = height;
+      yRowStride = (width + ROW_ALIGNMENT - 1) / ROW_ALIGNMENT * ROW_ALIGNMENT;
+      uvRowStride = yRowStride;
+
+      y = ByteBuffer.allocateDirect(yRowStride * height);
+      for (int i = 0; i < y.capacity(); i++) {
+        y.put(i, (byte) (i * 31));
+      }
+      int chromaSize = uvRowStride * (height / 2);
+      ByteBuffer vu = ByteBuffer.allocateDirect(chromaSize);
+      for (int i = 0; i < chromaSize; i++) {
+        vu.put(i, (byte) (128 + (i % 64) - 32));
+      }
+      vu.limit(chromaSize - 1);
+      v = vu.slice();
+      vu.limit(chromaSize).position(1);
+      u = vu.slice();
+    }
+  }
+}
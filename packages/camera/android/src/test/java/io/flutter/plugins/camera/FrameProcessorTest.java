@@ -0,0 +1,118 @@
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+public class FrameProcessorTest {
+  // 4x4 luma counting up from 0, with a row stride of 4.
+  private static final byte[] LUMA = {
+    0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15,
+  };
+
+  @Test
+  public void process_cropsRegion() {
+    FrameProcessor processor =
+        new FrameProcessor(4, 4, 2, 1, 2, 2, 0, 0, FrameProcessor.Format.luminance);
+
+    process(processor, LUMA, 4);
+
+    assertEquals(2, processor.getWidth());
+    assertEquals(2, processor.getHeight());
+    assertArrayEquals(new byte[] {6, 7, 10, 11}, bytesOf(processor, 0));
+  }
+
+  @Test
+  public void process_downscalesFromPixelCenters() {
+    FrameProcessor processor =
+        new FrameProcessor(4, 4, 0, 0, 0, 0, 2, 2, FrameProcessor.Format.luminance);
+
+    process(processor, LUMA, 4);
+
+    assertArrayEquals(new byte[] {5, 7, 13, 15}, bytesOf(processor, 0));
+  }
+
+  @Test
+  public void process_clampsCropToFrame() {
+    FrameProcessor processor =
+        new FrameProcessor(4, 4, 3, 3, 10, 10, 0, 0, FrameProcessor.Format.luminance);
+
+    process(processor, LUMA, 4);
+
+    assertEquals(1, processor.getWidth());
+    assertEquals(1, processor.getHeight());
+    assertArrayEquals(new byte[] {15}, bytesOf(processor, 0));
+  }
+
+  @Test
+  public void process_interleavesChromaForNv21() {
+    FrameProcessor processor =
+        new FrameProcessor(2, 2, 0, 0, 0, 0, 0, 0, FrameProcessor.Format.nv21);
+
+    process(processor, new byte[] {1, 2, 3, 4}, 2);
+
+    assertEquals(1, processor.getPlaneCount());
+    assertArrayEquals(new byte[] {1, 2, 3, 4, 6, 5}, bytesOf(processor, 0));
+  }
+
+  @Test
+  public void process_packsPlanesForYuv420() {
+    FrameProcessor processor =
+        new FrameProcessor(2, 2, 0, 0, 0, 0, 0, 0, FrameProcessor.Format.yuv420);
+
+    process(processor, new byte[] {1, 2, 3, 4}, 2);
+
+    assertEquals(3, processor.getPlaneCount());
+    assertArrayEquals(new byte[] {1, 2, 3, 4}, bytesOf(processor, 0));
+    assertArrayEquals(new byte[] {5}, bytesOf(processor, 1));
+    assertArrayEquals(new byte[] {6}, bytesOf(processor, 2));
+    assertArrayEquals(new int[] {2, 1, 1}, processor.getRowStrides());
+  }
+
+  @Test
+  public void process_convertsToRgba() {
+    FrameProcessor processor =
+        new FrameProcessor(2, 2, 0, 0, 0, 0, 1, 1, FrameProcessor.Format.rgba8888);
+    ByteBuffer y = ByteBuffer.wrap(new byte[] {100, 100, 100, 100});
+    ByteBuffer neutral = ByteBuffer.wrap(new byte[] {(byte) 128});
+
+    processor.process(y, neutral, neutral.duplicate(), 2, 1, 1);
+
+    assertArrayEquals(new byte[] {100, 100, 100, (byte) 255}, bytesOf(processor, 0));
+  }
+
+  @Test
+  public void process_clampsConvertedColors() {
+    assertArrayEquals(new byte[] {(byte) 255, 116, (byte) 255, (byte) 255}, rgbaOf(250, 255, 255));
+    assertArrayEquals(new byte[] {0, (byte) 136, 0, (byte) 255}, rgbaOf(0, 0, 0));
+  }
+
+  private static byte[] rgbaOf(int luma, int cb, int cr) {
+    FrameProcessor processor =
+        new FrameProcessor(2, 2, 0, 0, 0, 0, 1, 1, FrameProcessor.Format.rgba8888);
+    byte[] y = {(byte) luma, (byte) luma, (byte) luma, (byte) luma};
+    processor.process(
+        ByteBuffer.wrap(y),
+        ByteBuffer.wrap(new byte[] {(byte) cb}),
+        ByteBuffer.wrap(new byte[] {(byte) cr}),
+        2,
+        1,
+        1);
+    return bytesOf(processor, 0);
+  }
+
+  private static void process(FrameProcessor processor, byte[] luma, int rowStride) {
+    ByteBuffer u = ByteBuffer.wrap(new byte[] {5, 5, 5, 5});
+    ByteBuffer v = ByteBuffer.wrap(new byte[] {6, 6, 6, 6});
+    processor.process(ByteBuffer.wrap(luma), u, v, rowStride, rowStride / 2, 1);
+  }
+
+  private static byte[] bytesOf(FrameProcessor processor, int plane) {
+    ByteBuffer buffer = processor.getPlanes()[plane].duplicate();
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+}
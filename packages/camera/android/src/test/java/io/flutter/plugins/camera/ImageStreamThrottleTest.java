@@ -0,0 +1,77 @@
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import io.flutter.plugins.camera.ImageStreamThrottle.Decision;
+import io.flutter.plugins.camera.ImageStreamThrottle.Policy;
+import org.junit.Test;
+
+public class ImageStreamThrottleTest {
+  private static final long FRAME_30_FPS = 33_333_333L;
+
+  @Test
+  public void unlimited_deliversEveryFrame() {
+    ImageStreamThrottle throttle = ImageStreamThrottle.unlimited();
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals(Decision.deliver, throttle.onFrameAvailable(i * FRAME_30_FPS));
+    }
+
+    assertEquals(10, throttle.getDeliveredFrames());
+    assertEquals(0, throttle.getDroppedFrames());
+  }
+
+  @Test
+  public void targetFrameRate_dropsFramesArrivingTooEarly() {
+    ImageStreamThrottle throttle = new ImageStreamThrottle(0, Policy.dropNewest, 15);
+
+    for (int i = 0; i < 30; i++) {
+      throttle.onFrameAvailable(i * FRAME_30_FPS);
+    }
+
+    assertEquals(15, throttle.getDeliveredFrames());
+    assertEquals(15, throttle.getDroppedFrames());
+  }
+
+  @Test
+  public void dropNewest_dropsFramesWhileDartIsBusy() {
+    ImageStreamThrottle throttle = new ImageStreamThrottle(1, Policy.dropNewest, 0);
+
+    assertEquals(Decision.deliver, throttle.onFrameAvailable(0));
+    assertEquals(Decision.drop, throttle.onFrameAvailable(FRAME_30_FPS));
+    assertFalse(throttle.onFrameProcessed());
+    assertEquals(Decision.deliver, throttle.onFrameAvailable(2 * FRAME_30_FPS));
+
+    assertEquals(2, throttle.getDeliveredFrames());
+    assertEquals(1, throttle.getDroppedFrames());
+  }
+
+  @Test
+  public void keepLatest_holdsNewestFrameUntilDartIsDone() {
+    ImageStreamThrottle throttle = new ImageStreamThrottle(1, Policy.keepLatest, 0);
+
+    assertEquals(Decision.deliver, throttle.onFrameAvailable(0));
+    assertEquals(Decision.hold, throttle.onFrameAvailable(FRAME_30_FPS));
+    assertEquals(Decision.hold, throttle.onFrameAvailable(2 * FRAME_30_FPS));
+    assertTrue(throttle.onFrameProcessed());
+    assertEquals(Decision.hold, throttle.onFrameAvailable(3 * FRAME_30_FPS));
+
+    assertEquals(2, throttle.getDeliveredFrames());
+    assertEquals(1, throttle.getDroppedFrames());
+  }
+
+  @Test
+  public void onFrameNotSent_countsDeliveredFrameAsDropped() {
+    ImageStreamThrottle throttle = new ImageStreamThrottle(1, Policy.dropNewest, 0);
+
+    assertEquals(Decision.deliver, throttle.onFrameAvailable(0));
+    throttle.onFrameNotSent();
+
+    assertEquals(0, throttle.getFramesInFlight());
+    assertEquals(0, throttle.getDeliveredFrames());
+    assertEquals(1, throttle.getDroppedFrames());
+    assertEquals(Decision.deliver, throttle.onFrameAvailable(FRAME_30_FPS));
+  }
+}
@@ -0,0 +1,86 @@
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ImageWriteQueueTest {
+  /** A {@link MethodChannel.Result} that records how it was completed. */
+  private static class FakeResult implements MethodChannel.Result {
+    int replies;
+    Object value;
+    String errorCode;
+
+    @Override
+    public void success(Object result) {
+      replies++;
+      value = result;
+    }
+
+    @Override
+    public void error(String errorCode, String errorMessage, Object errorDetails) {
+      replies++;
+      this.errorCode = errorCode;
+    }
+
+    @Override
+    public void notImplemented() {
+      replies++;
+    }
+  }
+
+  private FakeResult result;
+
+  @Before
+  public void setUp() {
+    result = new FakeResult();
+  }
+
+  @Test
+  public void batch_repliesWithPathsInCaptureOrderOnceAllAreWritten() {
+    ImageWriteQueue.Batch batch = new ImageWriteQueue.Batch(3, result);
+
+    batch.callbackFor(2).onImageWritten("c.jpg");
+    batch.callbackFor(0).onImageWritten("a.jpg");
+    assertEquals(0, result.replies);
+    batch.callbackFor(1).onImageWritten("b.jpg");
+
+    assertEquals(1, result.replies);
+    assertEquals(Arrays.asList("a.jpg", "b.jpg", "c.jpg"), result.value);
+  }
+
+  @Test
+  public void batch_repliesWithASingleErrorWhenWritesFail() {
+    ImageWriteQueue.Batch batch = new ImageWriteQueue.Batch(3, result);
+
+    batch.callbackFor(0).onImageWritten(null);
+    batch.callbackFor(1).onImageWritten("b.jpg");
+    batch.callbackFor(2).onImageWritten(null);
+
+    assertEquals(1, result.replies);
+    assertEquals("IOError", result.errorCode);
+    assertNull(result.value);
+  }
+
+  @Test
+  public void batch_notifiesListenerOfEveryWrittenImage() {
+    List<String> written = new ArrayList<>();
+    ImageWriteQueue.Batch batch =
+        new ImageWriteQueue.Batch(
+            2, result, (index, count, path) -> written.add(index + "/" + count + ":" + path));
+
+    batch.callbackFor(1).onImageWritten("b.jpg");
+    assertEquals(Arrays.asList("1/2:b.jpg"), written);
+    assertEquals(0, result.replies);
+    batch.callbackFor(0).onImageWritten("a.jpg");
+
+    assertEquals(Arrays.asList("1/2:b.jpg", "0/2:a.jpg"), written);
+    assertEquals(1, result.replies);
+  }
+}
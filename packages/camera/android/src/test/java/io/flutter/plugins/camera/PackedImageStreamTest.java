@@ -0,0 +1,145 @@
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.util.Size;
+import io.flutter.plugin.common.BinaryMessenger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PackedImageStreamTest {
+  /** A {@link BinaryMessenger} implementation that does nothing but save its messages. */
+  private static class FakeBinaryMessenger implements BinaryMessenger {
+    private final List<ByteBuffer> sentMessages = new ArrayList<>();
+
+    @Override
+    public void send(String channel, ByteBuffer message) {
+      sentMessages.add(message);
+    }
+
+    @Override
+    public void send(String channel, ByteBuffer message, BinaryReply callback) {
+      send(channel, message);
+    }
+
+    @Override
+    public void setMessageHandler(String channel, BinaryMessageHandler handler) {}
+
+    List<ByteBuffer> getMessages() {
+      return new ArrayList<>(sentMessages);
+    }
+  }
+
+  private final ByteBuffer[] planes = new ByteBuffer[3];
+  private final int[] rowStrides = {4, 4, 4};
+  private final int[] pixelStrides = {1, 2, 2};
+
+  @Before
+  public void setUp() {
+    planes[0] = ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+    planes[1] = ByteBuffer.wrap(new byte[] {9, 10, 11});
+    planes[2] = ByteBuffer.wrap(new byte[] {12, 13, 14});
+  }
+
+  @Test
+  public void pack_writesHeaderAndPlanes() {
+    ByteBuffer target = ByteBuffer.allocateDirect(128).order(ByteOrder.LITTLE_ENDIAN);
+
+    ByteBuffer message =
+        PackedImageStream.pack(target, 4, 2, 35, 1234L, 3, planes, rowStrides, pixelStrides);
+
+    int headerSize = PackedImageStream.frameHeaderSize(3);
+    assertSame(target, message);
+    assertEquals(headerSize + 14, message.position());
+    assertEquals(4, message.getInt(0));
+    assertEquals(2, message.getInt(4));
+    assertEquals(35, message.getInt(8));
+    assertEquals(3, message.getInt(12));
+    assertEquals(1234L, message.getLong(16));
+
+    int plane = PackedImageStream.FRAME_HEADER_SIZE + PackedImageStream.PLANE_HEADER_SIZE;
+    assertEquals(headerSize + 8, message.getInt(plane));
+    assertEquals(3, message.getInt(plane + 4));
+    assertEquals(4, message.getInt(plane + 8));
+    assertEquals(2, message.getInt(plane + 12));
+    assertEquals(9, message.get(headerSize + 8));
+    assertEquals(14, message.get(headerSize + 13));
+  }
+
+  @Test
+  public void pack_leavesSourcePlanesUntouched() {
+    ByteBuffer target = ByteBuffer.allocateDirect(128).order(ByteOrder.LITTLE_ENDIAN);
+
+    PackedImageStream.pack(target, 4, 2, 35, 0L, 3, planes, rowStrides, pixelStrides);
+
+    assertEquals(0, planes[0].position());
+    assertEquals(8, planes[0].remaining());
+  }
+
+  @Test
+  public void pack_growsTargetWhenFrameDoesNotFit() {
+    ByteBuffer target = ByteBuffer.allocateDirect(8).order(ByteOrder.LITTLE_ENDIAN);
+
+    ByteBuffer message =
+        PackedImageStream.pack(target, 4, 2, 35, 0L, 3, planes, rowStrides, pixelStrides);
+
+    assertEquals(PackedImageStream.frameHeaderSize(3) + 14, message.position());
+    assertEquals(ByteOrder.LITTLE_ENDIAN, message.order());
+  }
+
+  @Test
+  public void send_reusesPooledBuffers() {
+    FakeBinaryMessenger messenger = new FakeBinaryMessenger();
+    PackedImageStream stream = new PackedImageStream(messenger, new Size(4, 2), 2, null);
+
+    for (int i = 0; i < 4; i++) {
+      int slot = stream.claimSlot();
+      stream.packFrame(slot, 4, 2, 35, i, 3, planes, rowStrides, pixelStrides);
+      stream.sendFrame(slot);
+    }
+
+    List<ByteBuffer> messages = messenger.getMessages();
+    assertEquals(4, messages.size());
+    assertSame(messages.get(0), messages.get(2));
+    assertSame(messages.get(1), messages.get(3));
+  }
+
+  @Test
+  public void claimSlot_onlyClaimsFreeBuffers() {
+    FakeBinaryMessenger messenger = new FakeBinaryMessenger();
+    PackedImageStream stream = new PackedImageStream(messenger, new Size(4, 2), 2, null);
+
+    int first = stream.claimSlot();
+    int second = stream.claimSlot();
+    assertEquals(PackedImageStream.NO_SLOT, stream.claimSlot());
+
+    stream.sendFrame(second);
+    assertEquals(second, stream.claimSlot());
+    stream.releaseFrame(first);
+    assertEquals(first, stream.claimSlot());
+  }
+
+  @Test
+  public void sendHeldFrame_sendsFrameHeldOutsideThePool() {
+    FakeBinaryMessenger messenger = new FakeBinaryMessenger();
+    PackedImageStream stream = new PackedImageStream(messenger, new Size(4, 2), 2, null);
+    int first = stream.claimSlot();
+    int second = stream.claimSlot();
+
+    stream.packFrame(stream.getHeldSlot(), 4, 2, 35, 7L, 3, planes, rowStrides, pixelStrides);
+    assertFalse(stream.sendHeldFrame());
+    assertTrue(messenger.getMessages().isEmpty());
+
+    stream.releaseFrame(first);
+    assertTrue(stream.sendHeldFrame());
+    assertEquals(7L, messenger.getMessages().get(0).getLong(16));
+    stream.releaseFrame(second);
+  }
+}
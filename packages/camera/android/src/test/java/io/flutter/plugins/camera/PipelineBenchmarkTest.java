@@ -0,0 +1,239 @@
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.ImageFormat;
+import io.flutter.plugin.common.StandardMethodCodec;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Benchmarks of the per frame paths of the plugin, driven with synthetic preview frames.
+ *
+ * <p>The paths that are meant to be allocation free per frame fail when they start allocating.
+ * Times are written to the {@link FrameBenchmark.Report} for comparing runs.
+ */
+public class PipelineBenchmarkTest {
+  private static final int WIDTH = 640;
+  private static final int HEIGHT = 480;
+  private static final int FRAMES = 1000;
+  // Roughly a 12MP JPEG.
+  private static final int JPEG_SIZE = 4 * 1024 * 1024;
+
+  @Rule public final FrameBenchmark.Report report = new FrameBenchmark.Report();
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  private FrameBenchmark.SyntheticFrame frame;
+  private ByteBuffer[] planes;
+  private int[] rowStrides;
+  private int[] pixelStrides;
+  private ByteBuffer packed;
+
+  @Before
+  public void setUp() {
+    frame = new FrameBenchmark.SyntheticFrame(WIDTH, HEIGHT);
+    planes = new ByteBuffer[] {frame.y, frame.u, frame.v};
+    rowStrides = new int[] {frame.yRowStride, frame.uvRowStride, frame.uvRowStride};
+    pixelStrides = new int[] {1, frame.uvPixelStride, frame.uvPixelStride};
+    packed =
+        ByteBuffer.allocateDirect(
+                PackedImageStream.frameHeaderSize(3) + frame.y.capacity() + 2 * frame.u.capacity())
+            .order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  @Test
+  public void packedImageStream_packsFramesWithoutAllocating() {
+    FrameBenchmark result =
+        report.run(
+            "PackedImageStream.pack",
+            FRAMES,
+            () ->
+                packed =
+                    PackedImageStream.pack(
+                        packed,
+                        WIDTH,
+                        HEIGHT,
+                        ImageFormat.YUV_420_888,
+                        0,
+                        3,
+                        planes,
+                        rowStrides,
+                        pixelStrides));
+
+    assertAllocationFree(result);
+  }
+
+  @Test
+  public void eventChannelStream_serializesFrames() {
+    // For comparison with the packed stream, the event sink encodes the message like this.
+    FrameBenchmark result =
+        report.run(
+            "event channel frame",
+            FRAMES,
+            () ->
+                StandardMethodCodec.INSTANCE.encodeSuccessEnvelope(
+                    Camera.imageBuffer(
+                        WIDTH,
+                        HEIGHT,
+                        ImageFormat.YUV_420_888,
+                        3,
+                        planes,
+                        rowStrides,
+                        pixelStrides)));
+
+    assertAllocatesFrames(result);
+  }
+
+  @Test
+  public void frameProcessor_processesFramesWithoutAllocating() {
+    for (FrameProcessor.Format format : FrameProcessor.Format.values()) {
+      // A center crop downscaled to a typical model input.
+      FrameProcessor processor =
+          new FrameProcessor(WIDTH, HEIGHT, 80, 0, 480, 480, 224, 224, format);
+
+      FrameBenchmark result =
+          report.run(
+              "FrameProcessor " + format,
+              FRAMES,
+              () ->
+                  processor.process(
+                      frame.y,
+                      frame.u,
+                      frame.v,
+                      frame.yRowStride,
+                      frame.uvRowStride,
+                      frame.uvPixelStride));
+
+      assertAllocationFree(result);
+    }
+  }
+
+  @Test
+  public void zslRingBuffer_addsFramesWithoutAllocating() {
+    ZslRingBuffer buffer = new ZslRingBuffer(WIDTH, HEIGHT, 4);
+    long[] timestamp = {0};
+
+    FrameBenchmark result =
+        report.run(
+            "ZslRingBuffer.add",
+            FRAMES,
+            () ->
+                buffer.add(
+                    timestamp[0],
+                    timestamp[0]++,
+                    frame.y,
+                    frame.u,
+                    frame.v,
+                    frame.yRowStride,
+                    frame.uvRowStride,
+                    frame.uvPixelStride));
+
+    assertAllocationFree(result);
+  }
+
+  @Test
+  public void imageStreamThrottle_decidesWithoutAllocating() {
+    ImageStreamThrottle throttle =
+        new ImageStreamThrottle(2, ImageStreamThrottle.Policy.keepLatest, 15);
+    long[] timestamp = {0};
+
+    FrameBenchmark result =
+        report.run(
+            "ImageStreamThrottle",
+            FRAMES,
+            () -> {
+              timestamp[0] += 33_333_333L;
+              if (throttle.onFrameAvailable(timestamp[0]) != ImageStreamThrottle.Decision.drop) {
+                throttle.onFrameProcessed();
+              }
+            });
+
+    assertAllocationFree(result);
+    assertEquals(FRAMES + 200, throttle.getDeliveredFrames() + throttle.getDroppedFrames());
+  }
+
+  @Test
+  public void exposureFusion_blendsTiles() {
+    int size = ExposureFusion.TILE_SIZE + 2 * ExposureFusion.TILE_MARGIN;
+    Random random = new Random(0);
+    float[][][] inputs = new float[3][3][size * size];
+    for (float[][] input : inputs) {
+      for (float[] plane : input) {
+        for (int i = 0; i < plane.length; i++) {
+          plane[i] = random.nextFloat();
+        }
+      }
+    }
+    float[][] out = new float[3][size * size];
+
+    // A 12MP bracket of three pictures is about 200 tiles.
+    FrameBenchmark result =
+        report.run(
+            "ExposureFusion tile of 3 exposures",
+            20,
+            () -> {
+              float[][] weights = ExposureFusion.computeWeights(inputs, size, size);
+              ExposureFusion.blend(inputs, weights, size, size, ExposureFusion.LEVELS, out);
+            });
+
+    assertTrue(result.nanosPerFrame > 0);
+  }
+
+  @Test
+  public void imageWriteQueue_writesCopiedBracketingPictures() throws Exception {
+    // Bracketing holds the images of one reader at most, the others are copied before writing.
+    int pictures = 9;
+    ImageWriteQueue queue = new ImageWriteQueue(null, 2, pictures, new CameraMetrics());
+    ByteBuffer jpeg = ByteBuffer.allocateDirect(JPEG_SIZE);
+    CountDownLatch written = new CountDownLatch(pictures);
+    AtomicInteger failed = new AtomicInteger();
+
+    long start = System.nanoTime();
+    for (int i = 0; i < pictures; i++) {
+      queue.write(
+          new ImageWriteQueue.ImageCopy(ImageFormat.JPEG, 4000, 3000, jpeg.duplicate()),
+          new File(folder.getRoot(), "bracket" + i).getPath(),
+          null,
+          path -> {
+            if (path == null) {
+              failed.incrementAndGet();
+            }
+            written.countDown();
+          });
+    }
+    assertTrue(written.await(30, TimeUnit.SECONDS));
+    long elapsed = System.nanoTime() - start;
+    queue.shutdown();
+
+    assertEquals(0, failed.get());
+    assertEquals(JPEG_SIZE, new File(folder.getRoot(), "bracket0.jpg").length());
+    report.add(
+        String.format(
+            "ImageWriteQueue copied pictures: %.1f pictures/s", pictures / (elapsed / 1e9)));
+  }
+
+  private static void assertAllocatesFrames(FrameBenchmark result) {
+    if (result.bytesPerFrame < 0) {
+      return;
+    }
+    assertTrue(result.bytesPerFrame > 0);
+  }
+
+  private static void assertAllocationFree(FrameBenchmark result) {
+    if (result.bytesPerFrame < 0) {
+      // The JVM can't count allocations, only the time is measured.
+      return;
+    }
+    assertEquals(0, result.bytesPerFrame);
+  }
+}
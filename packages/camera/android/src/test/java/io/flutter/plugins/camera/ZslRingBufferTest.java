@@ -0,0 +1,151 @@
+package io.flutter.plugins.camera;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+public class ZslRingBufferTest {
+  @Test
+  public void depthFor_boundsFramesByMemoryBudget() {
+    int frameSize = ZslRingBuffer.frameSize(4000, 3000);
+
+    assertEquals(1, ZslRingBuffer.depthFor(4000, 3000, frameSize));
+    assertEquals(3, ZslRingBuffer.depthFor(4000, 3000, 4L * frameSize));
+    assertEquals(8, ZslRingBuffer.depthFor(4000, 3000, 100L * frameSize));
+  }
+
+  @Test
+  public void copyToNv21_interleavesPlanarChroma() {
+    ByteBuffer y = ByteBuffer.wrap(new byte[] {1, 2, 0, 0, 3, 4, 0, 0});
+    ByteBuffer u = ByteBuffer.wrap(new byte[] {5});
+    ByteBuffer v = ByteBuffer.wrap(new byte[] {6});
+    byte[] out = new byte[ZslRingBuffer.frameSize(2, 2)];
+
+    ZslRingBuffer.copyToNv21(y, u, v, 4, 1, 1, 2, 2, false, out);
+
+    assertArrayEquals(new byte[] {1, 2, 3, 4, 6, 5}, out);
+    assertEquals(0, y.position());
+  }
+
+  @Test
+  public void copyToNv21_copiesInterleavedChromaAtOnce() {
+    ByteBuffer y = ByteBuffer.wrap(new byte[16]);
+    // One VU buffer with the U plane starting one byte after the V plane.
+    byte[] vu = {10, 20, 11, 21, 12, 22, 13, 23};
+    ByteBuffer v = ByteBuffer.wrap(vu, 0, 7).slice();
+    ByteBuffer u = ByteBuffer.wrap(vu, 1, 7).slice();
+    byte[] out = new byte[ZslRingBuffer.frameSize(4, 4)];
+
+    ZslRingBuffer.copyToNv21(y, u, v, 4, 4, 2, 4, 4, true, out);
+
+    byte[] chroma = new byte[8];
+    System.arraycopy(out, 16, chroma, 0, 8);
+    assertArrayEquals(vu, chroma);
+  }
+
+  @Test
+  public void detectChromaLayout_detectsInterleavedVuPlanes() {
+    byte[] vu = {10, 20, 11, 21, 12, 22, 13, 23};
+    ByteBuffer v = ByteBuffer.wrap(vu, 0, 7).slice();
+    ByteBuffer u = ByteBuffer.wrap(vu, 1, 7).slice();
+
+    assertEquals(
+        ZslRingBuffer.ChromaLayout.nv21, ZslRingBuffer.detectChromaLayout(u, v, 4, 2, 4, 4));
+    assertEquals(
+        ZslRingBuffer.ChromaLayout.planar, ZslRingBuffer.detectChromaLayout(u, v, 8, 2, 4, 4));
+    assertEquals(0, v.position());
+    assertEquals(7, u.limit());
+  }
+
+  @Test
+  public void detectChromaLayout_waitsForNonUniformChroma() {
+    byte[] vu = {1, 1, 1, 1, 1, 1, 1, 1};
+    ByteBuffer v = ByteBuffer.wrap(vu, 0, 7).slice();
+    ByteBuffer u = ByteBuffer.wrap(vu, 1, 7).slice();
+
+    assertEquals(
+        ZslRingBuffer.ChromaLayout.unknown, ZslRingBuffer.detectChromaLayout(u, v, 4, 2, 4, 4));
+  }
+
+  @Test
+  public void take_returnsCompletedFrameClosestToTimestamp() {
+    ZslRingBuffer buffer = newBufferWithFrames(100, 200, 300);
+    buffer.onCaptureCompleted(100);
+    buffer.onCaptureCompleted(200);
+
+    ZslRingBuffer.Frame frame = buffer.take(290, 0);
+
+    assertNotNull(frame);
+    assertEquals(200, frame.timestamp);
+  }
+
+  @Test
+  public void take_returnsNullUntilPreviousFrameIsReleased() {
+    ZslRingBuffer buffer = newBufferWithFrames(100, 200);
+    buffer.onCaptureCompleted(100);
+    buffer.onCaptureCompleted(200);
+
+    ZslRingBuffer.Frame first = buffer.take(Long.MAX_VALUE, 0);
+    assertNull(buffer.take(Long.MAX_VALUE, 0));
+    buffer.release(first);
+    ZslRingBuffer.Frame second = buffer.take(Long.MAX_VALUE, 0);
+
+    assertEquals(200, first.timestamp);
+    assertNotNull(second);
+    assertEquals(100, second.timestamp);
+  }
+
+  @Test
+  public void take_returnsNullWithoutCompletedFrames() {
+    ZslRingBuffer buffer = newBufferWithFrames(100);
+
+    assertNull(buffer.take(100, 0));
+  }
+
+  @Test
+  public void take_skipsFramesAddedTooLongAgo() {
+    ZslRingBuffer buffer = newBufferWithFrames(100, 200);
+    buffer.onCaptureCompleted(100);
+    buffer.onCaptureCompleted(200);
+
+    assertNull(buffer.take(Long.MAX_VALUE, 201));
+    ZslRingBuffer.Frame frame = buffer.take(100, 150);
+
+    assertNotNull(frame);
+    assertEquals(200, frame.timestamp);
+  }
+
+  @Test
+  public void clear_dropsBufferedFrames() {
+    ZslRingBuffer buffer = newBufferWithFrames(100, 200);
+    buffer.onCaptureCompleted(100);
+    buffer.onCaptureCompleted(200);
+
+    buffer.clear();
+
+    assertNull(buffer.take(Long.MAX_VALUE, 0));
+    addFrame(buffer, 300);
+    buffer.onCaptureCompleted(300);
+    assertEquals(300, buffer.take(Long.MAX_VALUE, 0).timestamp);
+  }
+
+  private static ZslRingBuffer newBufferWithFrames(long... timestamps) {
+    ZslRingBuffer buffer = new ZslRingBuffer(2, 2, 3);
+    for (long timestamp : timestamps) {
+      addFrame(buffer, timestamp);
+    }
+    return buffer;
+  }
+
+  private static void addFrame(ZslRingBuffer buffer, long timestamp) {
+    ByteBuffer y = ByteBuffer.wrap(new byte[] {1, 2, 3, 4});
+    ByteBuffer u = ByteBuffer.wrap(new byte[] {5});
+    ByteBuffer v = ByteBuffer.wrap(new byte[] {6});
+    // Frames are added at their sensor timestamp.
+    buffer.add(timestamp, timestamp, y, u, v, 2, 1, 1);
+  }
+}
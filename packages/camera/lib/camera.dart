@@ -13,6 +13,9 @@ part 'camera_image.dart';
 
 final MethodChannel _channel = const MethodChannel('plugins.flutter.io/camera');
 
+const String _packedImageStreamChannel =
+    'plugins.flutter.io/camera/packedImageStream';
+
 enum CameraLensDirection { front, back, external }
 
 /// Affect the quality of video recording and image capture:
@@ -38,6 +41,189 @@ enum ResolutionPreset {
   max,
 }
 
+/// What the image stream does with a new frame while the `maxFramesInFlight`
+/// frames passed to [CameraController.startImageStream] are still processing.
+enum ImageStreamBackpressure {
+  /// The new frame is dropped.
+  dropNewest,
+
+  /// The new frame is held back and delivered as soon as a frame finishes
+  /// processing. Only the most recent frame is held.
+  keepLatest,
+}
+
+/// Frame counters of the running image stream.
+class ImageStreamStats {
+  ImageStreamStats._fromPlatformData(Map<dynamic, dynamic> data)
+      : deliveredFrames = data['deliveredFrames'],
+        droppedFrames = data['droppedFrames'];
+
+  /// Number of frames sent to dart.
+  final int deliveredFrames;
+
+  /// Number of frames dropped because of the target frame rate or the frames
+  /// in flight limit.
+  final int droppedFrames;
+
+  @override
+  String toString() => '$runtimeType('
+      'deliveredFrames: $deliveredFrames, droppedFrames: $droppedFrames)';
+}
+
+/// Pixel format of frames processed with [ImageStreamProcessing].
+enum ImageStreamFormat {
+  /// Planar YUV 420 with three tightly packed planes, see
+  /// [ImageFormatGroup.yuv420].
+  yuv420,
+
+  /// A single plane holding Y followed by interleaved VU, see
+  /// [ImageFormatGroup.nv21].
+  nv21,
+
+  /// A single plane of 8-bit RGBA pixels, see [ImageFormatGroup.rgba8888].
+  rgba8888,
+
+  /// Only the Y plane, see [ImageFormatGroup.luminance].
+  luminance,
+}
+
+/// Crops, scales and converts image stream frames on the platform side.
+///
+/// Only the processed frame crosses the platform channel, so streaming a
+/// small region at a low resolution costs a fraction of a full frame. Pixels
+/// are sampled nearest neighbour. Only supported on Android.
+class ImageStreamProcessing {
+  const ImageStreamProcessing({
+    this.crop,
+    this.outputSize,
+    this.format = ImageStreamFormat.yuv420,
+  });
+
+  /// Region of the frame to keep, in pixels of the unrotated preview.
+  ///
+  /// The whole frame is kept when null. The region is clamped to the frame.
+  final Rect crop;
+
+  /// Size to scale the region to, the size of the region when null.
+  ///
+  /// Rounded down to even dimensions for [ImageStreamFormat.yuv420] and
+  /// [ImageStreamFormat.nv21].
+  final Size outputSize;
+
+  /// Pixel format of the processed frames.
+  final ImageStreamFormat format;
+
+  Map<String, dynamic> _toPlatformData() => <String, dynamic>{
+        'cropLeft': crop?.left?.round(),
+        'cropTop': crop?.top?.round(),
+        'cropWidth': crop?.width?.round(),
+        'cropHeight': crop?.height?.round(),
+        'outputWidth': outputSize?.width?.round(),
+        'outputHeight': outputSize?.height?.round(),
+        'format': describeEnum(format),
+      };
+}
+
+/// Distribution of one kind of latency, see [CameraMetrics].
+class LatencyHistogram {
+  LatencyHistogram._fromPlatformData(
+      Map<dynamic, dynamic> data, List<double> bucketBoundsMillis)
+      : count = data['count'],
+        total = _millis(data['totalMillis']),
+        max = _millis(data['maxMillis']),
+        bucketCounts = List<int>.from(data['bucketCounts']),
+        bucketBounds = bucketBoundsMillis
+            .map((double millis) => millis.isFinite ? _millis(millis) : null)
+            .toList();
+
+  static Duration _millis(double millis) =>
+      Duration(microseconds: (millis * 1000).round());
+
+  /// Number of recorded latencies.
+  final int count;
+
+  /// Sum of all recorded latencies.
+  final Duration total;
+
+  /// Longest recorded latency.
+  final Duration max;
+
+  /// Mean of the recorded latencies, null if nothing was recorded.
+  Duration get mean => count > 0 ? total ~/ count : null;
+
+  /// Number of latencies in every bucket.
+  final List<int> bucketCounts;
+
+  /// Inclusive upper bound of every bucket, null for the last bucket which
+  /// has no bound.
+  final List<Duration> bucketBounds;
+
+  @override
+  String toString() => '$runtimeType(count: $count, mean: $mean, max: $max)';
+}
+
+/// Latencies and queue depths of a camera, for monitoring its performance.
+///
+/// The latencies are recorded since the camera was created.
+class CameraMetrics {
+  CameraMetrics._fromPlatformData(Map<dynamic, dynamic> data)
+      : histograms = _histograms(data),
+        deliveredFrames = data['deliveredFrames'],
+        droppedFrames = data['droppedFrames'],
+        framesInFlight = data['framesInFlight'],
+        heldImages = data['heldImages'],
+        pendingImageCopies = data['pendingImageCopies'];
+
+  static Map<String, LatencyHistogram> _histograms(Map<dynamic, dynamic> data) {
+    final List<double> bounds = List<double>.from(data['bucketBoundsMillis']);
+    final Map<dynamic, dynamic> histograms = data['histograms'];
+    return histograms.map<String, LatencyHistogram>(
+        (dynamic name, dynamic histogram) => MapEntry<String, LatencyHistogram>(
+            name, LatencyHistogram._fromPlatformData(histogram, bounds)));
+  }
+
+  /// All histograms by name, including the ones with a getter below.
+  final Map<String, LatencyHistogram> histograms;
+
+  /// Time from opening the camera until the first preview frame.
+  LatencyHistogram get openToFirstFrame => histograms['openToFirstFrame'];
+
+  /// Time taken configuring a capture session.
+  LatencyHistogram get sessionConfiguration =>
+      histograms['sessionConfiguration'];
+
+  /// Time from [CameraController.takePicture] until the picture is captured.
+  LatencyHistogram get shutterLatency => histograms['shutterLatency'];
+
+  /// Time from [CameraController.takeBracketingPictures] until the last
+  /// picture is captured.
+  LatencyHistogram get bracketingLatency => histograms['bracketingLatency'];
+
+  /// Time taken writing a picture to a file.
+  LatencyHistogram get imageWrite => histograms['imageWrite'];
+
+  /// Frames of the current image stream sent to dart.
+  final int deliveredFrames;
+
+  /// Frames of the current image stream that were dropped.
+  final int droppedFrames;
+
+  /// Frames of the current packed image stream dart is processing.
+  final int framesInFlight;
+
+  /// Captured images kept open while they wait to be written.
+  final int heldImages;
+
+  /// Captured images copied out of their reader that wait to be written.
+  final int pendingImageCopies;
+
+  @override
+  String toString() => '$runtimeType(histograms: $histograms, '
+      'deliveredFrames: $deliveredFrames, droppedFrames: $droppedFrames, '
+      'framesInFlight: $framesInFlight, heldImages: $heldImages, '
+      'pendingImageCopies: $pendingImageCopies)';
+}
+
 // ignore: inference_failure_on_function_return_type
 typedef onLatestImageAvailable = Function(CameraImage image);
 
@@ -153,10 +339,137 @@ class CameraProperties {
   final int currentIso;
   final int currentExposureTime;
 
+  /// Focus distance in diopters, null if the camera doesn't report it.
+  final double focusDistance;
+
+  /// White balance gains of the red, green and blue color channels, null if
+  /// the camera doesn't report them.
+  final double awbRedGain;
+  final double awbGreenEvenGain;
+  final double awbGreenOddGain;
+  final double awbBlueGain;
+
   int get humanRedableExposureTime =>
      currentExposureTime == 0 ? 0 : (1000000000 / currentExposureTime).round();
 
-  CameraProperties(this.currentIso, this.currentExposureTime);
+  CameraProperties(this.currentIso, this.currentExposureTime,
+      {this.focusDistance,
+      this.awbRedGain,
+      this.awbGreenEvenGain,
+      this.awbGreenOddGain,
+      this.awbBlueGain});
+
+  // Mirrors the indices of CameraPropertiesMessenger.java
+  factory CameraProperties._fromPlatformData(Float64List data) {
+    double orNull(double value) => value.isNaN ? null : value;
+    return CameraProperties(
+      data[0].toInt(),
+      data[1].toInt(),
+      focusDistance: orNull(data[2]),
+      awbRedGain: orNull(data[3]),
+      awbGreenEvenGain: orNull(data[4]),
+      awbGreenOddGain: orNull(data[5]),
+      awbBlueGain: orNull(data[6]),
+    );
+  }
+}
+
+/// Explicit exposure of one fixed ISO bracketing picture.
+class BracketingExposure {
+  const BracketingExposure(this.iso, this.exposureTime);
+
+  final int iso;
+
+  /// Exposure time in nanoseconds.
+  final int exposureTime;
+
+  Map<String, int> _toPlatformData() =>
+      <String, int>{'iso': iso, 'exposureTime': exposureTime};
+}
+
+/// A bracketing picture that has been written to disk.
+///
+/// Sent by [CameraController.bracketingPictures] as soon as the picture is
+/// saved, before [CameraController.takeBracketingPictures] completes.
+class BracketingPicture {
+  BracketingPicture._fromPlatformData(Map<dynamic, dynamic> data)
+      : index = data['index'],
+        count = data['count'],
+        path = data['path'];
+
+  /// Position of the picture in the bracketing sequence.
+  final int index;
+
+  /// Number of pictures in the bracketing sequence.
+  final int count;
+
+  final String path;
+}
+
+/// A picture fused from bracketing pictures, see
+/// [CameraController.fuseBracketingPictures].
+///
+/// The decode, weight and blend times are summed over the threads the fusion
+/// runs on, so together they can exceed [totalTime].
+class FusedPicture {
+  FusedPicture._fromPlatformData(Map<dynamic, dynamic> data)
+      : path = data['path'],
+        decodeTime = _millis(data['decodeMillis']),
+        weightTime = _millis(data['weightMillis']),
+        blendTime = _millis(data['blendMillis']),
+        encodeTime = _millis(data['encodeMillis']),
+        totalTime = _millis(data['totalMillis']);
+
+  static Duration _millis(double millis) =>
+      Duration(microseconds: (millis * 1000).round());
+
+  final String path;
+
+  /// Time taken decoding the tiles of the input pictures.
+  final Duration decodeTime;
+
+  /// Time taken weighing the pixels of every input picture.
+  final Duration weightTime;
+
+  /// Time taken blending the input pictures.
+  final Duration blendTime;
+
+  /// Time taken encoding and saving the fused picture.
+  final Duration encodeTime;
+
+  final Duration totalTime;
+
+  @override
+  String toString() => '$runtimeType(path: $path, decodeTime: $decodeTime, '
+      'weightTime: $weightTime, blendTime: $blendTime, '
+      'encodeTime: $encodeTime, totalTime: $totalTime)';
+}
+
+/// Outcome of a burst, see [CameraController.stopBurst].
+class BurstResult {
+  BurstResult._fromPlatformData(Map<dynamic, dynamic> data)
+      : paths = List<String>.from(data['paths']),
+        capturedFrames = data['capturedFrames'],
+        droppedFrames = data['droppedFrames'],
+        framesPerSecond = data['framesPerSecond'];
+
+  /// Paths of the saved frames, in the order they are written.
+  final List<String> paths;
+
+  /// Number of frames the camera delivered.
+  final int capturedFrames;
+
+  /// Number of frames that failed or were dropped because too many frames
+  /// were waiting to be written.
+  final int droppedFrames;
+
+  /// Frame rate the camera achieved, measured from the frame timestamps.
+  final double framesPerSecond;
+
+  @override
+  String toString() => '$runtimeType(paths: ${paths.length}, '
+      'capturedFrames: $capturedFrames, droppedFrames: $droppedFrames, '
+      'framesPerSecond: $framesPerSecond)';
 }
 
 /// The state of a [CameraController].
@@ -267,6 +580,7 @@ class CameraController extends ValueNotifier<CameraValue> {
   bool _isDisposed = false;
   StreamSubscription<dynamic> _eventSubscription;
   StreamSubscription<dynamic> _imageStreamSubscription;
+  bool _isPackedImageStream = false;
   Completer<void> _creatingCompleter;
 
   /// Initializes the camera on the device.
@@ -306,15 +620,50 @@ class CameraController extends ValueNotifier<CameraValue> {
     return _creatingCompleter.future;
   }
 
-  Stream<CameraProperties> cameraProperties() {
+  /// Exposure, focus and white balance of the preview.
+  ///
+  /// An event is only sent when one of the properties changes, and no more
+  /// often than every [minInterval].
+  Stream<CameraProperties> cameraProperties({Duration minInterval}) {
     if (!value.isInitialized) {
       return null;
     }
 
     return EventChannel('flutter.io/cameraPlugin/cameraProperties$_textureId')
+        .receiveBroadcastStream(<String, dynamic>{
+          'minIntervalMillis': minInterval?.inMilliseconds,
+        })
+        .map<CameraProperties>(
+            (dynamic data) => CameraProperties._fromPlatformData(data));
+  }
+
+  /// Snapshots of the camera's [CameraMetrics], one every [interval].
+  ///
+  /// The interval defaults to one second. This feature is only available on
+  /// Android.
+  Stream<CameraMetrics> cameraMetrics({Duration interval}) {
+    if (!value.isInitialized) {
+      return null;
+    }
+
+    return EventChannel('flutter.io/cameraPlugin/metrics$_textureId')
+        .receiveBroadcastStream(<String, dynamic>{
+          'intervalMillis': interval?.inMilliseconds,
+        })
+        .map<CameraMetrics>(
+            (dynamic data) => CameraMetrics._fromPlatformData(data));
+  }
+
+  /// Pictures saved by [takeBracketingPictures], in the order they are written.
+  Stream<BracketingPicture> bracketingPictures() {
+    if (!value.isInitialized) {
+      return null;
+    }
+
+    return EventChannel('flutter.io/cameraPlugin/bracketing$_textureId')
         .receiveBroadcastStream()
-        .map<CameraProperties>((value) => CameraProperties(
-            int.tryParse(value["iso"]), int.tryParse(value["exposureTime"])));
+        .map<BracketingPicture>(
+            (data) => BracketingPicture._fromPlatformData(data));
   }
 
   /// Prepare the capture session for video recording.
@@ -387,8 +736,18 @@ class CameraController extends ValueNotifier<CameraValue> {
     }
   }
 
-  Future<List<dynamic>> takeBracketingPictures(
-      String path, bool fixedIso) async {
+  /// Takes a sequence of pictures with different exposures.
+  ///
+  /// [exposureValues] sets the exposure of every picture in EV relative to the
+  /// current exposure, three pictures are taken if it is omitted. With
+  /// [fixedIso], [exposures] can instead set the ISO and exposure time of every
+  /// picture. Values are clamped to what the camera supports.
+  ///
+  /// Completes with the paths of all pictures, listen to [bracketingPictures]
+  /// to get each picture as soon as it is saved.
+  Future<List<dynamic>> takeBracketingPictures(String path, bool fixedIso,
+      {List<double> exposureValues,
+      List<BracketingExposure> exposures}) async {
     if (!value.isInitialized || _isDisposed) {
       throw CameraException(
         'Uninitialized CameraController.',
@@ -408,7 +767,11 @@ class CameraController extends ValueNotifier<CameraValue> {
         <String, dynamic>{
           'textureId': _textureId,
           'path': path,
-          'fixedIso': fixedIso
+          'fixedIso': fixedIso,
+          'exposureValues': exposureValues,
+          'exposures': exposures
+              ?.map((BracketingExposure exposure) => exposure._toPlatformData())
+              ?.toList(),
         },
       );
       value = value.copyWith(isTakingPicture: false);
@@ -419,6 +782,139 @@ class CameraController extends ValueNotifier<CameraValue> {
     }
   }
 
+  /// Merges JPEG pictures taken with [takeBracketingPictures] into one JPEG
+  /// saved to [outputPath], using exposure fusion.
+  ///
+  /// The fusion runs on the device, tile by tile and on several threads.
+  /// [sampleSize] fuses the pictures downscaled by that factor, which is much
+  /// faster than fusing them at full resolution.
+  ///
+  /// This feature is only available on Android.
+  Future<FusedPicture> fuseBracketingPictures(
+      List<String> paths, String outputPath,
+      {int sampleSize = 1}) async {
+    if (!value.isInitialized || _isDisposed) {
+      throw CameraException(
+        'Uninitialized CameraController.',
+        'fuseBracketingPictures was called on uninitialized CameraController',
+      );
+    }
+    try {
+      final Map<dynamic, dynamic> result =
+          await _channel.invokeMapMethod<dynamic, dynamic>(
+        'fuseBracketingPictures',
+        <String, dynamic>{
+          'textureId': _textureId,
+          'paths': paths,
+          'outputPath': outputPath,
+          'sampleSize': sampleSize,
+        },
+      );
+      return FusedPicture._fromPlatformData(result);
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Starts taking pictures continuously, as fast as the camera can, until
+  /// [stopBurst] is called.
+  ///
+  /// Pictures are saved to [path] with a suffix counting up from 1. At most
+  /// [maxPendingFrames] pictures wait to be written at once, further pictures
+  /// are dropped rather than stalling the preview.
+  ///
+  /// Until the burst is stopped, calls that change the capture session, such
+  /// as starting a video recording, an image stream or another session, fail
+  /// with a `burstRunning` [CameraException].
+  ///
+  /// This feature is only available on Android.
+  Future<void> startBurst(String path, {int maxPendingFrames}) async {
+    if (!value.isInitialized || _isDisposed) {
+      throw CameraException(
+        'Uninitialized CameraController.',
+        'startBurst was called on uninitialized CameraController',
+      );
+    }
+    if (value.isTakingPicture) {
+      throw CameraException(
+        'Previous capture has not returned yet.',
+        'startBurst was called before the previous capture returned.',
+      );
+    }
+    try {
+      await _channel.invokeMethod<void>(
+        'startBurst',
+        <String, dynamic>{
+          'textureId': _textureId,
+          'path': path,
+          'maxPendingFrames': maxPendingFrames,
+        },
+      );
+      value = value.copyWith(isTakingPicture: true);
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Stops the burst started with [startBurst].
+  ///
+  /// Completes once all pending pictures are written.
+  Future<BurstResult> stopBurst() async {
+    if (!value.isInitialized || _isDisposed) {
+      throw CameraException(
+        'Uninitialized CameraController.',
+        'stopBurst was called on uninitialized CameraController',
+      );
+    }
+    try {
+      final Map<dynamic, dynamic> result =
+          await _channel.invokeMapMethod<dynamic, dynamic>(
+        'stopBurst',
+        <String, dynamic>{'textureId': _textureId},
+      );
+      value = value.copyWith(isTakingPicture: false);
+      return BurstResult._fromPlatformData(result);
+    } on PlatformException catch (e) {
+      value = value.copyWith(isTakingPicture: false);
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Enables zero shutter lag pictures.
+  ///
+  /// While enabled the latest full resolution frames of the preview are kept
+  /// and [takePicture] saves the one closest to the call instead of starting a
+  /// new capture. [memoryBudgetBytes] bounds the memory taken by these frames.
+  /// Pictures taken with a RAW session are not affected.
+  ///
+  /// Keeping the frames costs memory and power, and not every device can
+  /// stream full resolution frames next to the picture outputs.
+  ///
+  /// Throws a [CameraException] when enabled while recording video or
+  /// streaming images.
+  ///
+  /// This feature is only available on Android.
+  Future<void> setZeroShutterLag(bool enabled, {int memoryBudgetBytes}) async {
+    if (!value.isInitialized || _isDisposed) {
+      throw CameraException(
+        'Uninitialized CameraController',
+        'setZeroShutterLag was called on uninitialized CameraController.',
+      );
+    }
+    try {
+      await _channel.invokeMethod<void>(
+        'setZeroShutterLag',
+        <String, dynamic>{
+          'textureId': _textureId,
+          'enabled': enabled,
+          'memoryBudgetBytes': memoryBudgetBytes,
+        },
+      );
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
   Future<bool> setAeLock(bool enabled) async {
     if (!value.isInitialized || _isDisposed) {
       throw CameraException(
@@ -441,7 +937,11 @@ class CameraController extends ValueNotifier<CameraValue> {
     }
   }
 
-  Future<void> startJpegSession() async {
+  /// Starts the preview used to take JPEG pictures.
+  ///
+  /// [maxImages] is how many pictures may be captured before the first one
+  /// is written, e.g. during bracketing. Every image takes a full size buffer.
+  Future<void> startJpegSession({int maxImages}) async {
     if (!value.isInitialized || _isDisposed) {
       throw CameraException(
         'Uninitialized CameraController',
@@ -456,14 +956,21 @@ class CameraController extends ValueNotifier<CameraValue> {
     }
 
     try {
-      await _channel.invokeMethod<void>('startJpegSession');
+      await _channel.invokeMethod<void>(
+        'startJpegSession',
+        <String, dynamic>{'maxImages': maxImages},
+      );
       value = value.copyWith(isStreamingImages: true);
     } on PlatformException catch (e) {
       throw CameraException(e.code, e.message);
     }
   }
 
-  Future<void> startRawSession() async {
+  /// Starts the preview used to take RAW pictures.
+  ///
+  /// [maxImages] is how many pictures may be captured before the first one
+  /// is written, e.g. during bracketing. Every image takes a full size buffer.
+  Future<void> startRawSession({int maxImages}) async {
     if (!value.isInitialized || _isDisposed) {
       throw CameraException(
         'Uninitialized CameraController',
@@ -478,13 +985,36 @@ class CameraController extends ValueNotifier<CameraValue> {
     }
 
     try {
-      await _channel.invokeMethod<void>('startRawSession');
+      await _channel.invokeMethod<void>(
+        'startRawSession',
+        <String, dynamic>{'maxImages': maxImages},
+      );
       value = value.copyWith(isStreamingImages: true);
     } on PlatformException catch (e) {
       throw CameraException(e.code, e.message);
     }
   }
 
+  /// Releases the image buffers of the modes that are not in use.
+  ///
+  /// The buffers are allocated again when their mode is started, which takes
+  /// longer than switching between modes normally does.
+  ///
+  /// This feature is only available on Android.
+  Future<void> releaseIdleReaders() async {
+    if (!value.isInitialized || _isDisposed) {
+      throw CameraException(
+        'Uninitialized CameraController',
+        'releaseIdleReaders was called on uninitialized CameraController.',
+      );
+    }
+    try {
+      await _channel.invokeMethod<void>('releaseIdleReaders');
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
   /// Start streaming images from platform camera.
   ///
   /// Settings for capturing images on iOS and Android is set to always use the
@@ -495,17 +1025,46 @@ class CameraController extends ValueNotifier<CameraValue> {
   /// have significant frame rate drops for [CameraPreview] on lower end
   /// devices.
   ///
+  /// When [packed] is true the frames are sent as a single binary message
+  /// copied into buffers that are reused by the platform side, and the planes
+  /// of the resulting [CameraImage] are views into that message. This avoids
+  /// allocating per frame on Android and is ignored on iOS.
+  ///
+  /// [targetFrameRate] limits how many frames per second are delivered.
+  ///
+  /// With a packed stream, [maxFramesInFlight] limits how many frames may be
+  /// processed at once. A frame counts as processed when [onAvailable]
+  /// returns, or when the [Future] it returns completes. Frames arriving while
+  /// the limit is reached are handled according to [backpressure]. Use
+  /// [getImageStreamStats] to see how many frames were dropped.
+  ///
+  /// [maxImages] is how many frames the platform side buffers, raise it if
+  /// frames are dropped while the camera keeps up.
+  ///
+  /// [processing] crops, scales and converts the frames before they are sent,
+  /// which is ignored on iOS.
+  ///
   /// Throws a [CameraException] if image streaming or video recording has
   /// already started.
   // TODO(bmparr): Add settings for resolution and fps.
-  Future<void> startImageStream(onLatestImageAvailable onAvailable) async {
+  Future<void> startImageStream(
+    onLatestImageAvailable onAvailable, {
+    bool packed = false,
+    int maxFramesInFlight,
+    ImageStreamBackpressure backpressure = ImageStreamBackpressure.dropNewest,
+    double targetFrameRate,
+    int maxImages,
+    ImageStreamProcessing processing,
+  }) async {
     if (!value.isInitialized || _isDisposed) {
       throw CameraException(
         'Uninitialized CameraController',
         'startImageStream was called on uninitialized CameraController.',
       );
     }
-    if (value.isRecordingVideo) {
+    // Android can record and stream images at the same time.
+    if (value.isRecordingVideo &&
+        defaultTargetPlatform != TargetPlatform.android) {
       throw CameraException(
         'A video recording is already started.',
         'startImageStream was called while a video is being recorded.',
@@ -518,12 +1077,40 @@ class CameraController extends ValueNotifier<CameraValue> {
       );
     }
 
+    final bool usePackedStream =
+        packed && defaultTargetPlatform == TargetPlatform.android;
     try {
-      await _channel.invokeMethod<void>('startImageStream');
+      await _channel.invokeMethod<void>(
+        'startImageStream',
+        <String, dynamic>{
+          'packed': usePackedStream,
+          'maxFramesInFlight': maxFramesInFlight,
+          'backpressure': describeEnum(backpressure),
+          'targetFrameRate': targetFrameRate,
+          'maxImages': maxImages,
+          'processing': processing?._toPlatformData(),
+        },
+      );
       value = value.copyWith(isStreamingImages: true);
     } on PlatformException catch (e) {
       throw CameraException(e.code, e.message);
     }
+    if (usePackedStream) {
+      _isPackedImageStream = true;
+      ServicesBinding.instance.defaultBinaryMessenger.setMessageHandler(
+        _packedImageStreamChannel,
+        (ByteData message) async {
+          // Replying tells the platform side that the frame has been processed.
+          final dynamic processing =
+              onAvailable(CameraImage._fromPackedData(message));
+          if (processing is Future) {
+            await processing;
+          }
+          return null;
+        },
+      );
+      return;
+    }
     const EventChannel cameraEventChannel =
         EventChannel('plugins.flutter.io/camera/imageStream');
     _imageStreamSubscription =
@@ -534,6 +1121,44 @@ class CameraController extends ValueNotifier<CameraValue> {
     );
   }
 
+  /// Returns the delivered and dropped frame counters of the image stream.
+  Future<ImageStreamStats> getImageStreamStats() async {
+    if (!value.isInitialized || _isDisposed) {
+      throw CameraException(
+        'Uninitialized CameraController',
+        'getImageStreamStats was called on uninitialized CameraController.',
+      );
+    }
+
+    try {
+      final Map<dynamic, dynamic> stats = await _channel
+          .invokeMapMethod<dynamic, dynamic>('getImageStreamStats');
+      return ImageStreamStats._fromPlatformData(stats);
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
+  /// Returns the current [CameraMetrics] of the camera.
+  ///
+  /// This feature is only available on Android.
+  Future<CameraMetrics> getCameraMetrics() async {
+    if (!value.isInitialized || _isDisposed) {
+      throw CameraException(
+        'Uninitialized CameraController',
+        'getCameraMetrics was called on uninitialized CameraController.',
+      );
+    }
+
+    try {
+      final Map<dynamic, dynamic> metrics = await _channel
+          .invokeMapMethod<dynamic, dynamic>('getCameraMetrics');
+      return CameraMetrics._fromPlatformData(metrics);
+    } on PlatformException catch (e) {
+      throw CameraException(e.code, e.message);
+    }
+  }
+
   /// Stop streaming images from platform camera.
   ///
   /// Throws a [CameraException] if image streaming was not started or video
@@ -565,6 +1190,12 @@ class CameraController extends ValueNotifier<CameraValue> {
       throw CameraException(e.code, e.message);
     }
 
+    if (_isPackedImageStream) {
+      _isPackedImageStream = false;
+      ServicesBinding.instance.defaultBinaryMessenger
+          .setMessageHandler(_packedImageStreamChannel, null);
+      return;
+    }
     await _imageStreamSubscription.cancel();
     _imageStreamSubscription = null;
   }
@@ -578,8 +1209,14 @@ class CameraController extends ValueNotifier<CameraValue> {
   /// If a file already exists at the provided path an error will be thrown.
   /// The file can be read as soon as [stopVideoRecording] returns.
   ///
+  /// On Android the image stream can keep running while recording.
+  /// [videoBitRate] in bits per second and [keyFrameInterval] in seconds
+  /// override the encoder settings of the resolution preset. They are only
+  /// supported on Android.
+  ///
   /// Throws a [CameraException] if the capture fails.
-  Future<void> startVideoRecording(String filePath) async {
+  Future<void> startVideoRecording(String filePath,
+      {int videoBitRate, int keyFrameInterval}) async {
     if (!value.isInitialized || _isDisposed) {
       throw CameraException(
         'Uninitialized CameraController',
@@ -592,7 +1229,8 @@ class CameraController extends ValueNotifier<CameraValue> {
         'startVideoRecording was called when a recording is already started.',
       );
     }
-    if (value.isStreamingImages) {
+    if (value.isStreamingImages &&
+        defaultTargetPlatform != TargetPlatform.android) {
       throw CameraException(
         'A camera has started streaming images.',
         'startVideoRecording was called while a camera was streaming images.',
@@ -602,7 +1240,12 @@ class CameraController extends ValueNotifier<CameraValue> {
     try {
       await _channel.invokeMethod<void>(
         'startVideoRecording',
-        <String, dynamic>{'textureId': _textureId, 'filePath': filePath},
+        <String, dynamic>{
+          'textureId': _textureId,
+          'filePath': filePath,
+          'videoBitRate': videoBitRate,
+          'keyFrameInterval': keyFrameInterval,
+        },
       );
       value = value.copyWith(isRecordingVideo: true, isRecordingPaused: false);
     } on PlatformException catch (e) {
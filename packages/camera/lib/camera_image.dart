@@ -16,6 +16,10 @@ class Plane {
         height = data['height'],
         width = data['width'];
 
+  Plane._fromPackedData(this.bytes, this.bytesPerRow, this.bytesPerPixel)
+      : height = null,
+        width = null;
+
   /// Bytes representing this plane.
   final Uint8List bytes;
 
@@ -62,6 +66,24 @@ enum ImageFormatGroup {
   /// On iOS, this is `kCVPixelFormatType_32BGRA`. See
   /// https://developer.apple.com/documentation/corevideo/1563591-pixel_format_identifiers/kcvpixelformattype_32bgra?language=objc
   bgra8888,
+
+  /// YUV 420 with a full resolution Y plane followed by interleaved VU.
+  ///
+  /// On Android, this is `android.graphics.ImageFormat.NV21`, sent for
+  /// [ImageStreamFormat.nv21].
+  nv21,
+
+  /// 32-bit RGBA.
+  ///
+  /// On Android, this is `android.graphics.PixelFormat.RGBA_8888`, sent for
+  /// [ImageStreamFormat.rgba8888].
+  rgba8888,
+
+  /// 8-bit luminance only.
+  ///
+  /// On Android, this is `android.graphics.ImageFormat.Y8`, sent for
+  /// [ImageStreamFormat.luminance].
+  luminance,
 }
 
 /// Describes how pixels are represented in an image.
@@ -83,9 +105,19 @@ class ImageFormat {
 
 ImageFormatGroup _asImageFormatGroup(dynamic rawFormat) {
   if (defaultTargetPlatform == TargetPlatform.android) {
-    // android.graphics.ImageFormat.YUV_420_888
-    if (rawFormat == 35) {
-      return ImageFormatGroup.yuv420;
+    switch (rawFormat) {
+      // android.graphics.ImageFormat.YUV_420_888
+      case 35:
+        return ImageFormatGroup.yuv420;
+      // android.graphics.ImageFormat.NV21
+      case 17:
+        return ImageFormatGroup.nv21;
+      // android.graphics.PixelFormat.RGBA_8888
+      case 1:
+        return ImageFormatGroup.rgba8888;
+      // android.graphics.ImageFormat.Y8
+      case 0x20203859:
+        return ImageFormatGroup.luminance;
     }
   }
 
@@ -120,6 +152,41 @@ class CameraImage {
         planes = List<Plane>.unmodifiable(data['planes']
             .map((dynamic planeData) => Plane._fromPlatformData(planeData)));
 
+  /// Decodes a frame sent by the packed image stream.
+  ///
+  /// The message starts with a little-endian header of width, height, format,
+  /// plane count (all int32) and the frame timestamp (int64), followed by an
+  /// offset, length, bytesPerRow and bytesPerPixel (all int32) for every
+  /// plane. The plane bytes are views into [data] and are not copied.
+  factory CameraImage._fromPackedData(ByteData data) {
+    final int width = data.getInt32(0, Endian.little);
+    final int height = data.getInt32(4, Endian.little);
+    final int format = data.getInt32(8, Endian.little);
+    final int planeCount = data.getInt32(12, Endian.little);
+    final List<Plane> planes = <Plane>[];
+    for (int i = 0; i < planeCount; i++) {
+      final int header = _packedFrameHeaderSize + i * _packedPlaneHeaderSize;
+      final int offset = data.getInt32(header, Endian.little);
+      final int length = data.getInt32(header + 4, Endian.little);
+      planes.add(Plane._fromPackedData(
+        data.buffer.asUint8List(data.offsetInBytes + offset, length),
+        data.getInt32(header + 8, Endian.little),
+        data.getInt32(header + 12, Endian.little),
+      ));
+    }
+    return CameraImage._(
+      ImageFormat._fromPlatformData(format),
+      height,
+      width,
+      List<Plane>.unmodifiable(planes),
+    );
+  }
+
+  CameraImage._(this.format, this.height, this.width, this.planes);
+
+  static const int _packedFrameHeaderSize = 24;
+  static const int _packedPlaneHeaderSize = 16;
+
   /// Format of the image provided.
   ///
   /// Determines the number of planes needed to represent the image, and
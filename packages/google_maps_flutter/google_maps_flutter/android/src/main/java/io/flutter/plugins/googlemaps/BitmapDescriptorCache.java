@@ -0,0 +1,99 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the {@link BitmapDescriptor}s of marker icons, so that icons shared by many markers are
+ * decoded once.
+ *
+ * <p>Descriptors are keyed by their asset lookup key, or by the content of their image bytes, and
+ * the least recently used ones are evicted once the cache holds more than its maximum number of
+ * bytes. Descriptors registered with an id are kept until they are unregistered.
+ *
+ * <p>A single cache is shared by all the maps of the app, and is only used from the platform
+ * thread.
+ */
+class BitmapDescriptorCache {
+  private static final long DEFAULT_MAX_BYTES = 8 * 1024 * 1024;
+  // Asset descriptors are loaded by the Maps SDK, so their size is unknown.
+  static final long ASSET_BYTES = 1024;
+
+  private static final BitmapDescriptorCache shared = new BitmapDescriptorCache(DEFAULT_MAX_BYTES);
+
+  private static final class Entry {
+    final BitmapDescriptor descriptor;
+    final long bytes;
+
+    Entry(BitmapDescriptor descriptor, long bytes) {
+      this.descriptor = descriptor;
+      this.bytes = bytes;
+    }
+  }
+
+  private final long maxBytes;
+  private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, BitmapDescriptor> registered = new HashMap<>();
+  private long totalBytes;
+
+  BitmapDescriptorCache(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  static BitmapDescriptorCache getShared() {
+    return shared;
+  }
+
+  /** Returns the descriptor cached for {@code key}, or null if there is none. */
+  BitmapDescriptor get(Object key) {
+    final Entry entry = entries.get(key);
+    return entry == null ? null : entry.descriptor;
+  }
+
+  /**
+   * Caches {@code descriptor} for {@code key}, where {@code bytes} is the memory held by the
+   * descriptor and its key.
+   *
+   * <p>Descriptors larger than the whole cache are not cached.
+   */
+  void put(Object key, BitmapDescriptor descriptor, long bytes) {
+    final Entry previous = entries.remove(key);
+    if (previous != null) {
+      totalBytes -= previous.bytes;
+    }
+    if (bytes > maxBytes) {
+      return;
+    }
+    entries.put(key, new Entry(descriptor, bytes));
+    totalBytes += bytes;
+    final Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+    while (totalBytes > maxBytes) {
+      totalBytes -= leastRecentlyUsed.next().bytes;
+      leastRecentlyUsed.remove();
+    }
+  }
+
+  long getTotalBytes() {
+    return totalBytes;
+  }
+
+  void register(String id, BitmapDescriptor descriptor) {
+    registered.put(id, descriptor);
+  }
+
+  void unregister(String id) {
+    registered.remove(id);
+  }
+
+  /** Returns the descriptor registered with {@code id}, or null if there is none. */
+  BitmapDescriptor getRegistered(String id) {
+    return registered.get(id);
+  }
+}
@@ -0,0 +1,158 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.google.android.gms.maps.model.CameraPosition;
+
+/**
+ * Limits how often camera moves are reported, and how small they can be.
+ *
+ * <p>Moves that come before the next report is due are held back, and only the latest of them is
+ * reported once it is due. The latest move is always reported when the camera becomes idle, so
+ * that the final position is never missed.
+ */
+class CameraMoveThrottle {
+
+  interface Listener {
+    void onCameraMove(CameraPosition position);
+  }
+
+  private final long minIntervalMillis;
+  private final double minZoomDelta;
+  private final double minTargetDelta;
+  private final double minBearingDelta;
+  private final double minTiltDelta;
+  private final Handler handler;
+  private final Runnable flush =
+      new Runnable() {
+        @Override
+        public void run() {
+          flushScheduled = false;
+          if (pending != null && moved(lastSent, pending)) {
+            send(pending, flushTime);
+          }
+        }
+      };
+  private Listener listener;
+  private CameraPosition lastSent;
+  private long lastSentTime;
+  // The latest move that hasn't been reported, or null.
+  private CameraPosition pending;
+  private boolean flushScheduled;
+  private long flushTime;
+
+  CameraMoveThrottle(
+      int maxUpdatesPerSecond,
+      double minZoomDelta,
+      double minTargetDelta,
+      double minBearingDelta,
+      double minTiltDelta) {
+    this(
+        maxUpdatesPerSecond,
+        minZoomDelta,
+        minTargetDelta,
+        minBearingDelta,
+        minTiltDelta,
+        new Handler(Looper.getMainLooper()));
+  }
+
+  CameraMoveThrottle(
+      int maxUpdatesPerSecond,
+      double minZoomDelta,
+      double minTargetDelta,
+      double minBearingDelta,
+      double minTiltDelta,
+      Handler handler) {
+    this.minIntervalMillis = maxUpdatesPerSecond > 0 ? 1000 / maxUpdatesPerSecond : 0;
+    this.minZoomDelta = minZoomDelta;
+    this.minTargetDelta = minTargetDelta;
+    this.minBearingDelta = minBearingDelta;
+    this.minTiltDelta = minTiltDelta;
+    this.handler = handler;
+  }
+
+  /** Returns whether every move is reported as it happens. */
+  boolean isUnlimited() {
+    return minIntervalMillis == 0
+        && minZoomDelta <= 0
+        && minTargetDelta <= 0
+        && minBearingDelta <= 0
+        && minTiltDelta <= 0;
+  }
+
+  void setListener(Listener listener) {
+    this.listener = listener;
+  }
+
+  /** Reports {@code position} now, later, or once the camera is idle. */
+  void onCameraMove(CameraPosition position, long uptimeMillis) {
+    pending = position;
+    if (lastSent != null && !moved(lastSent, position)) {
+      return;
+    }
+    if (lastSent == null || uptimeMillis - lastSentTime >= minIntervalMillis) {
+      if (flushScheduled) {
+        handler.removeCallbacks(flush);
+        flushScheduled = false;
+      }
+      send(position, uptimeMillis);
+      return;
+    }
+    if (!flushScheduled) {
+      flushScheduled = true;
+      flushTime = lastSentTime + minIntervalMillis;
+      handler.postDelayed(flush, flushTime - uptimeMillis);
+    }
+  }
+
+  /** Reports the latest move if it wasn't reported yet. */
+  void onCameraIdle() {
+    if (flushScheduled) {
+      handler.removeCallbacks(flush);
+      flushScheduled = false;
+    }
+    if (pending != null && (lastSent == null || differs(lastSent, pending))) {
+      send(pending, lastSentTime);
+    }
+    pending = null;
+  }
+
+  private void send(CameraPosition position, long time) {
+    lastSent = position;
+    lastSentTime = time;
+    pending = null;
+    if (listener != null) {
+      listener.onCameraMove(position);
+    }
+  }
+
+  private boolean moved(CameraPosition from, CameraPosition to) {
+    return exceeds(Math.abs(to.zoom - from.zoom), minZoomDelta)
+        || exceeds(Math.abs(to.target.latitude - from.target.latitude), minTargetDelta)
+        || exceeds(angleBetween(to.target.longitude, from.target.longitude), minTargetDelta)
+        || exceeds(angleBetween(to.bearing, from.bearing), minBearingDelta)
+        || exceeds(Math.abs(to.tilt - from.tilt), minTiltDelta);
+  }
+
+  private static boolean differs(CameraPosition from, CameraPosition to) {
+    return to.zoom != from.zoom
+        || to.bearing != from.bearing
+        || to.tilt != from.tilt
+        || to.target.latitude != from.target.latitude
+        || to.target.longitude != from.target.longitude;
+  }
+
+  private static boolean exceeds(double delta, double min) {
+    return delta > 0 && delta >= min;
+  }
+
+  /** Returns the smaller angle between two angles in degrees, such as two longitudes. */
+  private static double angleBetween(double a, double b) {
+    final double delta = Math.abs(a - b) % 360;
+    return delta > 180 ? 360 - delta : delta;
+  }
+}
@@ -0,0 +1,196 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A spatial index of points that groups the points in a region into clusters for a zoom level.
+ *
+ * <p>Points are kept in Web Mercator coordinates, where the world is the unit square, bucketed
+ * into a fixed grid so that only the buckets overlapping a region are scanned. Clusters are the
+ * points falling into the same cell of a grid whose cells have a fixed size on screen at the
+ * zoom level.
+ */
+class ClusterIndex {
+  // The index has BUCKETS x BUCKETS buckets over the world.
+  private static final int BUCKETS = 256;
+  // The size of the world in dp at zoom level 0.
+  private static final double WORLD_SIZE = 256;
+
+  /** A group of points, or a single point that isn't clustered. */
+  static final class Cluster {
+    /** Identifies the grid cell or the point of the cluster for its zoom level. */
+    final long key;
+
+    final double latitude;
+    final double longitude;
+    /** The indices of the points in the cluster. */
+    final int[] points;
+
+    Cluster(long key, double latitude, double longitude, int[] points) {
+      this.key = key;
+      this.latitude = latitude;
+      this.longitude = longitude;
+      this.points = points;
+    }
+
+    boolean isLeaf() {
+      return points.length == 1;
+    }
+  }
+
+  private final double[] xs;
+  private final double[] ys;
+  // The points sorted by bucket, bucket b's points are at bucketStarts[b] until
+  // bucketStarts[b + 1].
+  private final int[] bucketPoints;
+  private final int[] bucketStarts;
+
+  /** Creates an index of the points packed as latitude and longitude pairs in {@code latLngs}. */
+  ClusterIndex(double[] latLngs) {
+    final int size = latLngs.length / 2;
+    xs = new double[size];
+    ys = new double[size];
+    final int[] buckets = new int[size];
+    bucketStarts = new int[BUCKETS * BUCKETS + 1];
+    for (int i = 0; i < size; i++) {
+      xs[i] = toX(latLngs[2 * i + 1]);
+      ys[i] = toY(latLngs[2 * i]);
+      buckets[i] = bucketOf(xs[i]) * BUCKETS + bucketOf(ys[i]);
+      bucketStarts[buckets[i] + 1]++;
+    }
+    for (int b = 0; b < BUCKETS * BUCKETS; b++) {
+      bucketStarts[b + 1] += bucketStarts[b];
+    }
+    bucketPoints = new int[size];
+    final int[] next = bucketStarts.clone();
+    for (int i = 0; i < size; i++) {
+      bucketPoints[next[buckets[i]]++] = i;
+    }
+  }
+
+  int size() {
+    return xs.length;
+  }
+
+  /** The Web Mercator x of {@code point}, from 0 at 180 degrees west to 1 at 180 degrees east. */
+  double getX(int point) {
+    return xs[point];
+  }
+
+  /** The Web Mercator y of {@code point}, from 0 at the north edge of the map to 1 at the south. */
+  double getY(int point) {
+    return ys[point];
+  }
+
+  /**
+   * Clusters the points inside the region from {@code west} to {@code east} and from {@code south}
+   * to {@code north}, in degrees, at {@code zoom}.
+   *
+   * <p>Points within the same {@code gridSize} dp square at {@code zoom} make a cluster when there
+   * are at least {@code minClusterSize} of them, otherwise each of them is a leaf. A region with
+   * {@code west} greater than {@code east} crosses the antimeridian.
+   */
+  List<Cluster> cluster(
+      double west,
+      double south,
+      double east,
+      double north,
+      int zoom,
+      double gridSize,
+      int minClusterSize) {
+    final double cellSize = gridSize / (WORLD_SIZE * Math.pow(2, zoom));
+    final Map<Long, List<Integer>> cells = new HashMap<>();
+    if (west <= east) {
+      collect(toX(west), toX(east), toY(north), toY(south), cellSize, cells);
+    } else {
+      collect(toX(west), 1, toY(north), toY(south), cellSize, cells);
+      collect(0, toX(east), toY(north), toY(south), cellSize, cells);
+    }
+
+    final List<Cluster> clusters = new ArrayList<>(cells.size());
+    for (Map.Entry<Long, List<Integer>> cell : cells.entrySet()) {
+      final List<Integer> points = cell.getValue();
+      if (points.size() < minClusterSize) {
+        for (int point : points) {
+          clusters.add(
+              new Cluster(
+                  -1L - point, toLatitude(ys[point]), toLongitude(xs[point]), new int[] {point}));
+        }
+        continue;
+      }
+      final int[] clusterPoints = new int[points.size()];
+      double sumX = 0;
+      double sumY = 0;
+      for (int i = 0; i < clusterPoints.length; i++) {
+        clusterPoints[i] = points.get(i);
+        sumX += xs[clusterPoints[i]];
+        sumY += ys[clusterPoints[i]];
+      }
+      clusters.add(
+          new Cluster(
+              cell.getKey(),
+              toLatitude(sumY / clusterPoints.length),
+              toLongitude(sumX / clusterPoints.length),
+              clusterPoints));
+    }
+    return clusters;
+  }
+
+  private void collect(
+      double minX,
+      double maxX,
+      double minY,
+      double maxY,
+      double cellSize,
+      Map<Long, List<Integer>> cells) {
+    final long cellsPerSide = (long) Math.ceil(1 / cellSize);
+    for (int bx = bucketOf(minX); bx <= bucketOf(maxX); bx++) {
+      for (int by = bucketOf(minY); by <= bucketOf(maxY); by++) {
+        final int bucket = bx * BUCKETS + by;
+        for (int i = bucketStarts[bucket]; i < bucketStarts[bucket + 1]; i++) {
+          final int point = bucketPoints[i];
+          if (xs[point] < minX || xs[point] > maxX || ys[point] < minY || ys[point] > maxY) {
+            continue;
+          }
+          final long cell =
+              (long) (xs[point] / cellSize) * cellsPerSide + (long) (ys[point] / cellSize);
+          List<Integer> points = cells.get(cell);
+          if (points == null) {
+            points = new ArrayList<>();
+            cells.put(cell, points);
+          }
+          points.add(point);
+        }
+      }
+    }
+  }
+
+  private static int bucketOf(double coordinate) {
+    return Math.max(0, Math.min(BUCKETS - 1, (int) (coordinate * BUCKETS)));
+  }
+
+  static double toX(double longitude) {
+    return (longitude + 180) / 360;
+  }
+
+  static double toY(double latitude) {
+    final double sin = Math.sin(Math.toRadians(latitude));
+    final double y = 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    return Math.max(0, Math.min(1, y));
+  }
+
+  static double toLongitude(double x) {
+    return x * 360 - 180;
+  }
+
+  static double toLatitude(double y) {
+    return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y))));
+  }
+}
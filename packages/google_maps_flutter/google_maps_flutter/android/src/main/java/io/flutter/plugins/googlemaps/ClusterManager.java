@@ -0,0 +1,215 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.MarkerOptions;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shows a large set of points as cluster and leaf markers.
+ *
+ * <p>All points are kept in a {@link ClusterIndex}, and markers are only added for the clusters
+ * around the visible region. The clusters are recomputed when the camera becomes idle outside of
+ * the region they were computed for, and while zooming whenever the integer zoom level changes.
+ */
+class ClusterManager {
+  private static final double DEFAULT_GRID_SIZE = 60;
+  private static final int DEFAULT_MIN_CLUSTER_SIZE = 2;
+  private static final float CLUSTER_ICON_SIZE = 40;
+  private static final int CLUSTER_COLOR = 0xff1e88e5;
+
+  private final MethodChannel methodChannel;
+  private final float density;
+  private GoogleMap googleMap;
+
+  private ClusterIndex index;
+  private List<Object> pointIds;
+  private double gridSize = DEFAULT_GRID_SIZE;
+  private int minClusterSize = DEFAULT_MIN_CLUSTER_SIZE;
+  private BitmapDescriptor leafIcon;
+
+  private final Map<Long, Marker> keyToMarker = new HashMap<>();
+  private final Map<String, ClusterIndex.Cluster> googleMapsMarkerIdToCluster = new HashMap<>();
+  private final Map<String, BitmapDescriptor> clusterIcons = new HashMap<>();
+  // The region and zoom level the current clusters were computed for.
+  private PaddedRegion clusteredRegion;
+  private int clusteredZoom = -1;
+
+  ClusterManager(MethodChannel methodChannel, float density) {
+    this.methodChannel = methodChannel;
+    this.density = density;
+  }
+
+  void setGoogleMap(GoogleMap googleMap) {
+    this.googleMap = googleMap;
+  }
+
+  /**
+   * Replaces the clustered points with the points with {@code ids} at the latitude and longitude
+   * pairs packed in {@code positions}.
+   */
+  void setPoints(List<Object> ids, double[] positions, Map<?, ?> options) {
+    index = new ClusterIndex(positions);
+    pointIds = ids;
+    gridSize = DEFAULT_GRID_SIZE;
+    minClusterSize = DEFAULT_MIN_CLUSTER_SIZE;
+    leafIcon = null;
+    if (options != null) {
+      final Object gridSizeOption = options.get("gridSize");
+      if (gridSizeOption != null) {
+        gridSize = ((Number) gridSizeOption).doubleValue();
+      }
+      final Object minClusterSizeOption = options.get("minClusterSize");
+      if (minClusterSizeOption != null) {
+        minClusterSize = ((Number) minClusterSizeOption).intValue();
+      }
+      final Object leafIconOption = options.get("leafIcon");
+      if (leafIconOption != null) {
+        leafIcon = Convert.toBitmapDescriptor(leafIconOption);
+      }
+    }
+    update(true);
+  }
+
+  void clearPoints() {
+    index = null;
+    pointIds = null;
+    clusteredZoom = -1;
+    showClusters(new ArrayList<ClusterIndex.Cluster>());
+  }
+
+  void onCameraMove() {
+    if (index != null && (int) googleMap.getCameraPosition().zoom != clusteredZoom) {
+      update(true);
+    }
+  }
+
+  void onCameraIdle() {
+    update(false);
+  }
+
+  /** Returns whether {@code googleMarkerId} is a cluster or leaf marker, after reporting its tap. */
+  boolean onMarkerTap(String googleMarkerId) {
+    final ClusterIndex.Cluster cluster = googleMapsMarkerIdToCluster.get(googleMarkerId);
+    if (cluster == null) {
+      return false;
+    }
+    final List<Object> ids = new ArrayList<>(cluster.points.length);
+    final LatLngBounds.Builder bounds = LatLngBounds.builder();
+    for (int point : cluster.points) {
+      ids.add(pointIds.get(point));
+      bounds.include(
+          new LatLng(
+              ClusterIndex.toLatitude(index.getY(point)),
+              ClusterIndex.toLongitude(index.getX(point))));
+    }
+    final LatLng position = new LatLng(cluster.latitude, cluster.longitude);
+    final Map<String, Object> arguments = new HashMap<>(3);
+    arguments.put("position", Convert.latLngToJson(position));
+    arguments.put("pointIds", ids);
+    arguments.put("bounds", Convert.latlngBoundsToJson(bounds.build()));
+    methodChannel.invokeMethod("cluster#onTap", arguments);
+    return true;
+  }
+
+  private void update(boolean force) {
+    if (index == null || googleMap == null) {
+      return;
+    }
+    final int zoom = (int) googleMap.getCameraPosition().zoom;
+    final LatLngBounds visible = googleMap.getProjection().getVisibleRegion().latLngBounds;
+    if (!force && zoom == clusteredZoom && clusteredRegion.contains(visible)) {
+      return;
+    }
+
+    clusteredRegion = PaddedRegion.around(visible);
+    clusteredZoom = zoom;
+    showClusters(
+        index.cluster(
+            clusteredRegion.west,
+            clusteredRegion.south,
+            clusteredRegion.east,
+            clusteredRegion.north,
+            zoom,
+            gridSize,
+            minClusterSize));
+  }
+
+  /** Updates the markers on the map to {@code clusters}, reusing markers of unchanged keys. */
+  private void showClusters(List<ClusterIndex.Cluster> clusters) {
+    final Map<Long, Marker> previous = new HashMap<>(keyToMarker);
+    keyToMarker.clear();
+    googleMapsMarkerIdToCluster.clear();
+    for (ClusterIndex.Cluster cluster : clusters) {
+      final LatLng position = new LatLng(cluster.latitude, cluster.longitude);
+      final BitmapDescriptor icon = iconFor(cluster);
+      Marker marker = previous.remove(cluster.key);
+      if (marker == null) {
+        marker = googleMap.addMarker(new MarkerOptions().position(position).icon(icon));
+      } else {
+        marker.setPosition(position);
+        marker.setIcon(icon);
+      }
+      keyToMarker.put(cluster.key, marker);
+      googleMapsMarkerIdToCluster.put(marker.getId(), cluster);
+    }
+    for (Marker marker : previous.values()) {
+      marker.remove();
+    }
+  }
+
+  private BitmapDescriptor iconFor(ClusterIndex.Cluster cluster) {
+    if (cluster.isLeaf()) {
+      return leafIcon != null ? leafIcon : BitmapDescriptorFactory.defaultMarker();
+    }
+    final String label = labelFor(cluster.points.length);
+    BitmapDescriptor icon = clusterIcons.get(label);
+    if (icon == null) {
+      icon = BitmapDescriptorFactory.fromBitmap(drawClusterIcon(label));
+      clusterIcons.put(label, icon);
+    }
+    return icon;
+  }
+
+  /** Rounds large counts down so that only a few distinct icons are drawn. */
+  static String labelFor(int count) {
+    if (count < 10) {
+      return Integer.toString(count);
+    }
+    int step = 10;
+    while (count >= step * 10) {
+      step *= 10;
+    }
+    final int rounded = count / step * step;
+    return rounded >= 1000 ? (rounded / 1000) + "k+" : rounded + "+";
+  }
+
+  private Bitmap drawClusterIcon(String label) {
+    final int size = (int) (CLUSTER_ICON_SIZE * density);
+    final Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+    final Canvas canvas = new Canvas(bitmap);
+    final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    paint.setColor(CLUSTER_COLOR);
+    canvas.drawCircle(size / 2f, size / 2f, size / 2f, paint);
+    paint.setColor(0xffffffff);
+    paint.setTextSize(size / 3f);
+    paint.setTextAlign(Paint.Align.CENTER);
+    canvas.drawText(label, size / 2f, (size - paint.ascent() - paint.descent()) / 2f, paint);
+    return bitmap;
+  }
+}
@@ -24,6 +24,7 @@ import com.google.android.gms.maps.model.PatternItem;
 import com.google.android.gms.maps.model.RoundCap;
 import com.google.android.gms.maps.model.SquareCap;
 import io.flutter.view.FlutterMain;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -33,7 +34,7 @@ import java.util.Map;
 /** Conversions between JSON-like values and GoogleMaps data types. */
 class Convert {
 
-  private static BitmapDescriptor toBitmapDescriptor(Object o) {
+  static BitmapDescriptor toBitmapDescriptor(Object o) {
     final List<?> data = toList(o);
     switch (toString(data.get(0))) {
       case "defaultMarker":
@@ -44,32 +45,59 @@ class Convert {
         }
       case "fromAsset":
         if (data.size() == 2) {
-          return BitmapDescriptorFactory.fromAsset(
-              FlutterMain.getLookupKeyForAsset(toString(data.get(1))));
+          return assetBitmapDescriptor(FlutterMain.getLookupKeyForAsset(toString(data.get(1))));
         } else {
-          return BitmapDescriptorFactory.fromAsset(
+          return assetBitmapDescriptor(
               FlutterMain.getLookupKeyForAsset(toString(data.get(1)), toString(data.get(2))));
         }
       case "fromAssetImage":
         if (data.size() == 3) {
-          return BitmapDescriptorFactory.fromAsset(
-              FlutterMain.getLookupKeyForAsset(toString(data.get(1))));
+          return assetBitmapDescriptor(FlutterMain.getLookupKeyForAsset(toString(data.get(1))));
         } else {
           throw new IllegalArgumentException(
               "'fromAssetImage' Expected exactly 3 arguments, got: " + data.size());
         }
       case "fromBytes":
         return getBitmapFromBytes(data);
+      case "registered":
+        {
+          final BitmapDescriptor descriptor =
+              BitmapDescriptorCache.getShared().getRegistered(toString(data.get(1)));
+          if (descriptor == null) {
+            throw new IllegalArgumentException("No BitmapDescriptor registered as " + data.get(1));
+          }
+          return descriptor;
+        }
       default:
         throw new IllegalArgumentException("Cannot interpret " + o + " as BitmapDescriptor");
     }
   }
 
+  private static BitmapDescriptor assetBitmapDescriptor(String lookupKey) {
+    final BitmapDescriptorCache cache = BitmapDescriptorCache.getShared();
+    BitmapDescriptor descriptor = cache.get(lookupKey);
+    if (descriptor == null) {
+      descriptor = BitmapDescriptorFactory.fromAsset(lookupKey);
+      cache.put(lookupKey, descriptor, BitmapDescriptorCache.ASSET_BYTES);
+    }
+    return descriptor;
+  }
+
   private static BitmapDescriptor getBitmapFromBytes(List<?> data) {
     if (data.size() == 2) {
+      // Icons with the same bytes share a descriptor, whichever list of bytes they came in.
+      final byte[] bytes = (byte[]) data.get(1);
+      final ByteBuffer key = ByteBuffer.wrap(bytes);
+      final BitmapDescriptorCache cache = BitmapDescriptorCache.getShared();
+      BitmapDescriptor descriptor = cache.get(key);
+      if (descriptor != null) {
+        return descriptor;
+      }
       try {
-        Bitmap bitmap = toBitmap(data.get(1));
-        return BitmapDescriptorFactory.fromBitmap(bitmap);
+        Bitmap bitmap = toBitmap(bytes);
+        descriptor = BitmapDescriptorFactory.fromBitmap(bitmap);
+        cache.put(key, descriptor, bitmap.getByteCount() + bytes.length);
+        return descriptor;
       } catch (Exception e) {
         throw new IllegalArgumentException("Unable to interpret bytes as a valid image.", e);
       }
@@ -261,6 +289,43 @@ class Convert {
     return (String) o;
   }
 
+  private static CameraMoveThrottle toCameraMoveThrottle(Object o) {
+    final List<?> data = toList(o);
+    final Object maxUpdatesPerSecond = data.get(0);
+    return new CameraMoveThrottle(
+        maxUpdatesPerSecond != null ? toInt(maxUpdatesPerSecond) : 0,
+        toDouble(data.get(1)),
+        toDouble(data.get(2)),
+        toDouble(data.get(3)),
+        toDouble(data.get(4)));
+  }
+
+  static SnapshotEncoder toSnapshotEncoder(Object o) {
+    if (o == null) {
+      return new SnapshotEncoder(Bitmap.CompressFormat.PNG, 100, 1, null);
+    }
+    final Map<?, ?> data = toMap(o);
+    final Bitmap.CompressFormat format;
+    switch (toInt(data.get("format"))) {
+      case 0:
+        format = Bitmap.CompressFormat.PNG;
+        break;
+      case 1:
+        format = Bitmap.CompressFormat.JPEG;
+        break;
+      case 2:
+        format = Bitmap.CompressFormat.WEBP;
+        break;
+      default:
+        throw new IllegalArgumentException("Cannot interpret " + o + " as snapshot options");
+    }
+    return new SnapshotEncoder(
+        format,
+        toInt(data.get("quality")),
+        toFloat(data.get("scale")),
+        (String) data.get("filePath"));
+  }
+
   static void interpretGoogleMapOptions(Object o, GoogleMapOptionsSink sink) {
     final Map<?, ?> data = toMap(o);
     final Object cameraTargetBounds = data.get("cameraTargetBounds");
@@ -344,6 +409,14 @@ class Convert {
     if (buildingsEnabled != null) {
       sink.setBuildingsEnabled(toBoolean(buildingsEnabled));
     }
+    final Object cullOffscreenMarkers = data.get("cullOffscreenMarkers");
+    if (cullOffscreenMarkers != null) {
+      sink.setCullOffscreenMarkers(toBoolean(cullOffscreenMarkers));
+    }
+    final Object cameraMoveThrottle = data.get("cameraMoveThrottle");
+    if (cameraMoveThrottle != null) {
+      sink.setCameraMoveThrottle(toCameraMoveThrottle(cameraMoveThrottle));
+    }
   }
 
   /** Returns the dartMarkerId of the interpreted marker. */
@@ -448,6 +521,10 @@ class Convert {
     if (zIndex != null) {
       sink.setZIndex(toFloat(zIndex));
     }
+    final Object simplificationTolerance = data.get("simplificationTolerance");
+    if (simplificationTolerance != null) {
+      sink.setSimplificationTolerance(toFloat(simplificationTolerance));
+    }
     final Object points = data.get("points");
     if (points != null) {
       sink.setPoints(toPoints(points));
@@ -498,6 +575,11 @@ class Convert {
     if (zIndex != null) {
       sink.setZIndex(toFloat(zIndex));
     }
+    // The tolerance is set first, so that points are simplified with it.
+    final Object simplificationTolerance = data.get("simplificationTolerance");
+    if (simplificationTolerance != null) {
+      sink.setSimplificationTolerance(toFloat(simplificationTolerance));
+    }
     final Object points = data.get("points");
     if (points != null) {
       sink.setPoints(toPoints(points));
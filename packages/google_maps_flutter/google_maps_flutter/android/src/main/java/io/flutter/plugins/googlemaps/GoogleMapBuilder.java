@@ -23,6 +23,8 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
   private boolean indoorEnabled = true;
   private boolean trafficEnabled = false;
   private boolean buildingsEnabled = true;
+  private boolean cullOffscreenMarkers = false;
+  private CameraMoveThrottle cameraMoveThrottle;
   private Object initialMarkers;
   private Object initialPolygons;
   private Object initialPolylines;
@@ -55,6 +57,8 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
     controller.setIndoorEnabled(indoorEnabled);
     controller.setTrafficEnabled(trafficEnabled);
     controller.setBuildingsEnabled(buildingsEnabled);
+    controller.setCullOffscreenMarkers(cullOffscreenMarkers);
+    controller.setCameraMoveThrottle(cameraMoveThrottle);
     controller.setTrackCameraPosition(trackCameraPosition);
     controller.setInitialMarkers(initialMarkers);
     controller.setInitialPolygons(initialPolygons);
@@ -148,6 +152,16 @@ class GoogleMapBuilder implements GoogleMapOptionsSink {
     this.buildingsEnabled = buildingsEnabled;
   }
 
+  @Override
+  public void setCullOffscreenMarkers(boolean cullOffscreenMarkers) {
+    this.cullOffscreenMarkers = cullOffscreenMarkers;
+  }
+
+  @Override
+  public void setCameraMoveThrottle(CameraMoveThrottle cameraMoveThrottle) {
+    this.cameraMoveThrottle = cameraMoveThrottle;
+  }
+
   @Override
   public void setMyLocationEnabled(boolean myLocationEnabled) {
     this.myLocationEnabled = myLocationEnabled;
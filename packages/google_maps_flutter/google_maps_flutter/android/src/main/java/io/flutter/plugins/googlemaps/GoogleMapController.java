@@ -20,6 +20,7 @@ import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
 import android.graphics.Point;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.View;
 import androidx.annotation.NonNull;
@@ -47,7 +48,6 @@ import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.PluginRegistry;
 import io.flutter.plugin.platform.PlatformView;
-import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -94,6 +94,10 @@ final class GoogleMapController
   private final PolygonsController polygonsController;
   private final PolylinesController polylinesController;
   private final CirclesController circlesController;
+  private final ClusterManager clusterManager;
+  private final HeatmapManager heatmapManager;
+  // Null while every camera move is reported.
+  private CameraMoveThrottle cameraMoveThrottle;
   private List<Object> initialMarkers;
   private List<Object> initialPolygons;
   private List<Object> initialPolylines;
@@ -125,6 +129,8 @@ final class GoogleMapController
     this.polygonsController = new PolygonsController(methodChannel, density);
     this.polylinesController = new PolylinesController(methodChannel, density);
     this.circlesController = new CirclesController(methodChannel, density);
+    this.clusterManager = new ClusterManager(methodChannel, density);
+    this.heatmapManager = new HeatmapManager();
   }
 
   @Override
@@ -203,6 +209,8 @@ final class GoogleMapController
     polygonsController.setGoogleMap(googleMap);
     polylinesController.setGoogleMap(googleMap);
     circlesController.setGoogleMap(googleMap);
+    clusterManager.setGoogleMap(googleMap);
+    heatmapManager.setGoogleMap(googleMap);
     updateInitialMarkers();
     updateInitialPolygons();
     updateInitialPolylines();
@@ -268,15 +276,12 @@ final class GoogleMapController
         {
           if (googleMap != null) {
             final MethodChannel.Result _result = result;
+            final SnapshotEncoder encoder = Convert.toSnapshotEncoder(call.arguments);
             googleMap.snapshot(
                 new SnapshotReadyCallback() {
                   @Override
                   public void onSnapshotReady(Bitmap bitmap) {
-                    ByteArrayOutputStream stream = new ByteArrayOutputStream();
-                    bitmap.compress(Bitmap.CompressFormat.PNG, 100, stream);
-                    byte[] byteArray = stream.toByteArray();
-                    bitmap.recycle();
-                    _result.success(byteArray);
+                    encoder.encode(bitmap, _result);
                   }
                 });
           } else {
@@ -303,14 +308,85 @@ final class GoogleMapController
       case "markers#update":
         {
           Object markersToAdd = call.argument("markersToAdd");
-          markersController.addMarkers((List<Object>) markersToAdd);
           Object markersToChange = call.argument("markersToChange");
-          markersController.changeMarkers((List<Object>) markersToChange);
           Object markerIdsToRemove = call.argument("markerIdsToRemove");
-          markersController.removeMarkers((List<Object>) markerIdsToRemove);
+          markersController.updateMarkers(
+              (List<Object>) markersToAdd,
+              (List<Object>) markersToChange,
+              (List<Object>) markerIdsToRemove);
           result.success(null);
           break;
         }
+      case "markers#updatePositions":
+        {
+          markersController.updateMarkerPositions(
+              (List<Object>) call.argument("markerIds"),
+              (double[]) call.argument("positions"),
+              (double[]) call.argument("rotations"),
+              (int[]) call.argument("iconIndices"),
+              (List<Object>) call.argument("icons"),
+              result);
+          break;
+        }
+      case "clusters#setPoints":
+        {
+          clusterManager.setPoints(
+              (List<Object>) call.argument("pointIds"),
+              (double[]) call.argument("positions"),
+              (Map<?, ?>) call.argument("options"));
+          result.success(null);
+          break;
+        }
+      case "clusters#clear":
+        {
+          clusterManager.clearPoints();
+          result.success(null);
+          break;
+        }
+      case "heatmap#setPoints":
+        {
+          heatmapManager.setPoints(
+              (List<?>) call.argument("pointIds"),
+              (double[]) call.argument("points"),
+              (Map<?, ?>) call.argument("options"));
+          result.success(null);
+          break;
+        }
+      case "heatmap#updatePoints":
+        {
+          heatmapManager.updatePoints(
+              (List<?>) call.argument("pointIds"),
+              (double[]) call.argument("points"),
+              (List<?>) call.argument("pointIdsToRemove"));
+          result.success(null);
+          break;
+        }
+      case "heatmap#clear":
+        {
+          heatmapManager.clear();
+          result.success(null);
+          break;
+        }
+      case "bitmaps#register":
+        {
+          BitmapDescriptorCache.getShared()
+              .register(
+                  (String) call.argument("id"),
+                  Convert.toBitmapDescriptor(call.argument("bitmap")));
+          result.success(null);
+          break;
+        }
+      case "bitmaps#unregister":
+        {
+          BitmapDescriptorCache.getShared().unregister((String) call.argument("id"));
+          result.success(null);
+          break;
+        }
+      case "markers#getPoolStats":
+        {
+          result.success(markersController.getPoolStats());
+          break;
+        }
       case "markers#showInfoWindow":
         {
           Object markerId = call.argument("markerId");
@@ -482,21 +558,41 @@ final class GoogleMapController
 
   @Override
   public void onCameraMove() {
+    clusterManager.onCameraMove();
+    markersController.onCameraMove();
     if (!trackCameraPosition) {
       return;
     }
+    if (cameraMoveThrottle != null) {
+      cameraMoveThrottle.onCameraMove(googleMap.getCameraPosition(), SystemClock.uptimeMillis());
+    } else {
+      sendCameraMove(googleMap.getCameraPosition());
+    }
+  }
+
+  private void sendCameraMove(CameraPosition position) {
     final Map<String, Object> arguments = new HashMap<>(2);
-    arguments.put("position", Convert.cameraPositionToJson(googleMap.getCameraPosition()));
+    arguments.put("position", Convert.cameraPositionToJson(position));
     methodChannel.invokeMethod("camera#onMove", arguments);
   }
 
   @Override
   public void onCameraIdle() {
+    clusterManager.onCameraIdle();
+    markersController.onCameraIdle();
+    polylinesController.onCameraIdle();
+    polygonsController.onCameraIdle();
+    if (cameraMoveThrottle != null) {
+      cameraMoveThrottle.onCameraIdle();
+    }
     methodChannel.invokeMethod("camera#onIdle", Collections.singletonMap("map", id));
   }
 
   @Override
   public boolean onMarkerClick(Marker marker) {
+    if (clusterManager.onMarkerTap(marker.getId())) {
+      return true;
+    }
     return markersController.onMarkerTap(marker.getId());
   }
 
@@ -915,6 +1011,31 @@ final class GoogleMapController
   public void setBuildingsEnabled(boolean buildingsEnabled) {
     this.buildingsEnabled = buildingsEnabled;
   }
+
+  @Override
+  public void setCullOffscreenMarkers(boolean cullOffscreenMarkers) {
+    markersController.setCullOffscreenMarkers(cullOffscreenMarkers);
+  }
+
+  @Override
+  public void setCameraMoveThrottle(CameraMoveThrottle cameraMoveThrottle) {
+    if (this.cameraMoveThrottle != null) {
+      // Report the move the previous throttle was holding back.
+      this.cameraMoveThrottle.onCameraIdle();
+    }
+    if (cameraMoveThrottle == null || cameraMoveThrottle.isUnlimited()) {
+      this.cameraMoveThrottle = null;
+      return;
+    }
+    cameraMoveThrottle.setListener(
+        new CameraMoveThrottle.Listener() {
+          @Override
+          public void onCameraMove(CameraPosition position) {
+            sendCameraMove(position);
+          }
+        });
+    this.cameraMoveThrottle = cameraMoveThrottle;
+  }
 }
 
 interface GoogleMapListener
@@ -44,6 +44,10 @@ interface GoogleMapOptionsSink {
 
   void setBuildingsEnabled(boolean buildingsEnabled);
 
+  void setCullOffscreenMarkers(boolean cullOffscreenMarkers);
+
+  void setCameraMoveThrottle(CameraMoveThrottle cameraMoveThrottle);
+
   void setInitialMarkers(Object initialMarkers);
 
   void setInitialPolygons(Object initialPolygons);
@@ -0,0 +1,103 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.TileOverlay;
+import com.google.android.gms.maps.model.TileOverlayOptions;
+import java.util.List;
+import java.util.Map;
+
+/** Shows a set of weighted points as a heatmap tile overlay. */
+class HeatmapManager {
+  private static final int DEFAULT_RADIUS = 20;
+  private static final double DEFAULT_OPACITY = 0.7;
+  private static final int[] DEFAULT_GRADIENT = {0xff66e100, 0xffff0000};
+
+  private GoogleMap googleMap;
+  private HeatmapTileProvider tileProvider;
+  private TileOverlay tileOverlay;
+
+  void setGoogleMap(GoogleMap googleMap) {
+    this.googleMap = googleMap;
+    if (tileProvider != null) {
+      addOverlay();
+    }
+  }
+
+  /**
+   * Replaces the heatmap with the points with {@code ids} at the latitude, longitude and weight
+   * triples packed in {@code points}.
+   */
+  void setPoints(List<?> ids, double[] points, Map<?, ?> options) {
+    clear();
+    int radius = DEFAULT_RADIUS;
+    double opacity = DEFAULT_OPACITY;
+    double maxIntensity = 0;
+    int[] gradient = DEFAULT_GRADIENT;
+    if (options != null) {
+      final Object radiusOption = options.get("radius");
+      if (radiusOption != null) {
+        radius = ((Number) radiusOption).intValue();
+      }
+      final Object opacityOption = options.get("opacity");
+      if (opacityOption != null) {
+        opacity = ((Number) opacityOption).doubleValue();
+      }
+      final Object maxIntensityOption = options.get("maxIntensity");
+      if (maxIntensityOption != null) {
+        maxIntensity = ((Number) maxIntensityOption).doubleValue();
+      }
+      final Object gradientOption = options.get("gradient");
+      if (gradientOption != null) {
+        final List<?> colors = (List<?>) gradientOption;
+        gradient = new int[colors.size()];
+        for (int i = 0; i < gradient.length; i++) {
+          gradient[i] = ((Number) colors.get(i)).intValue();
+        }
+      }
+    }
+    tileProvider = new HeatmapTileProvider(radius, gradient, opacity, maxIntensity);
+    tileProvider.putPoints(ids, points);
+    if (googleMap != null) {
+      addOverlay();
+    }
+  }
+
+  /**
+   * Adds or moves the points with {@code ids}, and removes the points with {@code idsToRemove}.
+   *
+   * <p>The overlay can't drop single tiles, so its whole tile cache is cleared when any point
+   * changed. The tile provider still caches the tiles no changed point is drawn on, so only the
+   * tiles of the changed points are rendered again.
+   */
+  void updatePoints(List<?> ids, double[] points, List<?> idsToRemove) {
+    if (tileProvider == null) {
+      return;
+    }
+    boolean changed = false;
+    if (idsToRemove != null) {
+      changed = tileProvider.removePoints(idsToRemove);
+    }
+    if (ids != null) {
+      changed |= tileProvider.putPoints(ids, points);
+    }
+    if (changed && tileOverlay != null) {
+      tileOverlay.clearTileCache();
+    }
+  }
+
+  void clear() {
+    if (tileOverlay != null) {
+      tileOverlay.remove();
+      tileOverlay = null;
+    }
+    tileProvider = null;
+  }
+
+  private void addOverlay() {
+    tileOverlay = googleMap.addTileOverlay(new TileOverlayOptions().tileProvider(tileProvider));
+  }
+}
@@ -0,0 +1,500 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.graphics.Bitmap;
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders heatmap tiles from a set of weighted points.
+ *
+ * <p>The map requests tiles on its own background threads. Rendered tiles are kept in an LRU cache,
+ * and updating points only drops the cached tiles the points are drawn on.
+ */
+class HeatmapTileProvider implements TileProvider {
+  static final int TILE_SIZE = 256;
+  // Points are bucketed in the cells of a grid like the tiles of this zoom level.
+  private static final int GRID_ZOOM = 8;
+  private static final int GRID_CELLS = 1 << GRID_ZOOM;
+  private static final int MAX_ZOOM = 22;
+  private static final int MAX_CACHED_TILES = 128;
+  // Beyond this many changed points, dropping every cached tile is faster than finding them.
+  private static final int MAX_INCREMENTAL_CHANGES = 1000;
+  private static final int COLOR_MAP_SIZE = 256;
+  // The share of the color map over which the lowest intensities fade in.
+  private static final double FADE_IN = 0.2;
+
+  private final int radius;
+  private final double[] kernel;
+  private final int[] colorMap;
+  private final double maxIntensity;
+
+  // The x and y in Web Mercator units and the weight of each point.
+  private final Map<String, double[]> points = new HashMap<>();
+  private final Map<Integer, Map<String, double[]>> cells = new HashMap<>();
+  // The highest intensities the cached tiles of each zoom level were rendered with.
+  private final double[] maxIntensities = new double[MAX_ZOOM + 1];
+  // Built when a zoom level is first rendered, and then updated with the changed points.
+  private final CellSums[] cellSums = new CellSums[MAX_ZOOM + 1];
+  private final LinkedHashMap<Long, Tile> tiles =
+      new LinkedHashMap<Long, Tile>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Tile> eldest) {
+          return size() > MAX_CACHED_TILES;
+        }
+      };
+  // Counts the updates, so that tiles rendered from outdated points aren't cached.
+  private int version;
+
+  /**
+   * Creates a provider that draws each point with a blur of {@code radius} pixels, colored with
+   * {@code gradient} from the lowest to the highest intensity.
+   *
+   * <p>A {@code maxIntensity} of 0 scales each zoom level to its densest area.
+   */
+  HeatmapTileProvider(int radius, int[] gradient, double opacity, double maxIntensity) {
+    this.radius = radius;
+    this.kernel = kernel(radius);
+    this.colorMap = colorMap(gradient, opacity);
+    this.maxIntensity = maxIntensity;
+  }
+
+  /**
+   * Adds the points with {@code ids} at the latitude, longitude and weight triples packed in {@code
+   * data}, replacing the points with the same ids.
+   *
+   * @return whether any point changed.
+   */
+  synchronized boolean putPoints(List<?> ids, double[] data) {
+    final List<double[]> changed = new ArrayList<>(2 * ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      final String id = (String) ids.get(i);
+      final double[] point =
+          new double[] {
+            ClusterIndex.toX(data[3 * i + 1]), ClusterIndex.toY(data[3 * i]), data[3 * i + 2]
+          };
+      final double[] previous = removePoint(id);
+      if (previous != null) {
+        changed.add(previous);
+      }
+      points.put(id, point);
+      final int cell = cellOf(point);
+      Map<String, double[]> cellPoints = cells.get(cell);
+      if (cellPoints == null) {
+        cellPoints = new HashMap<>();
+        cells.put(cell, cellPoints);
+      }
+      cellPoints.put(id, point);
+      addToCellSums(point, point[2]);
+      changed.add(point);
+    }
+    return invalidate(changed);
+  }
+
+  /**
+   * Removes the points with {@code ids}.
+   *
+   * @return whether any point was removed.
+   */
+  synchronized boolean removePoints(List<?> ids) {
+    final List<double[]> changed = new ArrayList<>(ids.size());
+    for (Object id : ids) {
+      final double[] previous = removePoint((String) id);
+      if (previous != null) {
+        changed.add(previous);
+      }
+    }
+    return invalidate(changed);
+  }
+
+  synchronized int size() {
+    return points.size();
+  }
+
+  @Override
+  public Tile getTile(int x, int y, int zoom) {
+    final long key = tileKey(x, y, zoom);
+    final int renderedVersion;
+    synchronized (this) {
+      final Tile cached = tiles.get(key);
+      if (cached != null) {
+        return cached;
+      }
+      renderedVersion = version;
+    }
+    final int[] pixels = render(x, y, zoom);
+    final Tile tile = pixels == null ? NO_TILE : encode(pixels);
+    synchronized (this) {
+      if (renderedVersion == version) {
+        tiles.put(key, tile);
+      }
+    }
+    return tile;
+  }
+
+  /** Returns the ARGB pixels of a tile, or null if no point is drawn on it. */
+  int[] render(int x, int y, int zoom) {
+    final double scale = TILE_SIZE * Math.pow(2, zoom);
+    final double margin = radius / scale;
+    final double west = x * TILE_SIZE / scale - margin;
+    final double north = y * TILE_SIZE / scale - margin;
+    final double east = (x + 1) * TILE_SIZE / scale + margin;
+    final double south = (y + 1) * TILE_SIZE / scale + margin;
+    final List<double[]> found = new ArrayList<>();
+    final double max;
+    synchronized (this) {
+      // Points across the antimeridian are found again one world to the west or east.
+      for (int shift = -1; shift <= 1; shift++) {
+        collect(west - shift, north, east - shift, south, shift, found);
+      }
+      if (found.isEmpty()) {
+        return null;
+      }
+      max = maxIntensity > 0 ? maxIntensity : maxIntensity(Math.min(zoom, MAX_ZOOM));
+    }
+
+    final int size = TILE_SIZE + 2 * radius;
+    final double[] intensities = new double[size * size];
+    final double left = x * TILE_SIZE - radius;
+    final double top = y * TILE_SIZE - radius;
+    final int kernelSize = 2 * radius + 1;
+    for (double[] point : found) {
+      final int px = (int) Math.floor(point[0] * scale - left);
+      final int py = (int) Math.floor(point[1] * scale - top);
+      for (int ky = 0; ky < kernelSize; ky++) {
+        final int iy = py + ky - radius;
+        if (iy < 0 || iy >= size) {
+          continue;
+        }
+        for (int kx = 0; kx < kernelSize; kx++) {
+          final int ix = px + kx - radius;
+          if (ix >= 0 && ix < size) {
+            intensities[iy * size + ix] += point[2] * kernel[ky * kernelSize + kx];
+          }
+        }
+      }
+    }
+
+    final int[] pixels = new int[TILE_SIZE * TILE_SIZE];
+    boolean drawn = false;
+    for (int ty = 0; ty < TILE_SIZE; ty++) {
+      for (int tx = 0; tx < TILE_SIZE; tx++) {
+        final double intensity = intensities[(ty + radius) * size + tx + radius];
+        if (intensity <= 0) {
+          continue;
+        }
+        final int index =
+            (int) Math.min(COLOR_MAP_SIZE - 1, intensity / max * (COLOR_MAP_SIZE - 1));
+        pixels[ty * TILE_SIZE + tx] = colorMap[index];
+        drawn = true;
+      }
+    }
+    return drawn ? pixels : null;
+  }
+
+  private static Tile encode(int[] pixels) {
+    final Bitmap bitmap =
+        Bitmap.createBitmap(pixels, TILE_SIZE, TILE_SIZE, Bitmap.Config.ARGB_8888);
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    bitmap.compress(Bitmap.CompressFormat.PNG, 100, stream);
+    bitmap.recycle();
+    return new Tile(TILE_SIZE, TILE_SIZE, stream.toByteArray());
+  }
+
+  /** Adds the points in the given bounds to {@code found}, moved {@code shift} worlds east. */
+  private void collect(
+      double west, double north, double east, double south, int shift, List<double[]> found) {
+    if (east < 0 || west > 1) {
+      return;
+    }
+    final int minX = gridCell(west);
+    final int maxX = gridCell(east);
+    final int minY = gridCell(north);
+    final int maxY = gridCell(south);
+    for (int cx = minX; cx <= maxX; cx++) {
+      for (int cy = minY; cy <= maxY; cy++) {
+        final Map<String, double[]> cellPoints = cells.get(cx * GRID_CELLS + cy);
+        if (cellPoints == null) {
+          continue;
+        }
+        for (double[] point : cellPoints.values()) {
+          if (point[0] >= west && point[0] <= east && point[1] >= north && point[1] <= south) {
+            found.add(shift == 0 ? point : new double[] {point[0] + shift, point[1], point[2]});
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the largest sum of weights in a square of the radius at {@code zoom}, which is about
+   * the highest intensity drawn at that zoom level.
+   *
+   * <p>The sums of a zoom level are computed on the tile thread that first renders it.
+   */
+  private double maxIntensity(int zoom) {
+    if (cellSums[zoom] == null) {
+      final CellSums sums = new CellSums(radius / (TILE_SIZE * Math.pow(2, zoom)));
+      for (double[] point : points.values()) {
+        sums.add(point, point[2]);
+      }
+      cellSums[zoom] = sums;
+    }
+    maxIntensities[zoom] = cellSums[zoom].max();
+    return maxIntensities[zoom];
+  }
+
+  private void addToCellSums(double[] point, double weight) {
+    for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+      final CellSums sums = cellSums[zoom];
+      if (sums == null) {
+        continue;
+      }
+      sums.add(point, weight);
+      // Moved points leave empty cells behind, start over once they outnumber the points.
+      if (sums.size() > 2 * points.size() + GRID_CELLS) {
+        cellSums[zoom] = null;
+      }
+    }
+  }
+
+  private double[] removePoint(String id) {
+    final double[] point = points.remove(id);
+    if (point == null) {
+      return null;
+    }
+    addToCellSums(point, -point[2]);
+    final int cell = cellOf(point);
+    final Map<String, double[]> cellPoints = cells.get(cell);
+    cellPoints.remove(id);
+    if (cellPoints.isEmpty()) {
+      cells.remove(cell);
+    }
+    return point;
+  }
+
+  /** Drops the cached tiles {@code changed} points are drawn on, returns whether there are any. */
+  private boolean invalidate(List<double[]> changed) {
+    if (changed.isEmpty()) {
+      return false;
+    }
+    version++;
+    if (maxIntensity <= 0) {
+      updateMaxIntensities();
+    }
+    if (changed.size() > MAX_INCREMENTAL_CHANGES) {
+      tiles.clear();
+      return true;
+    }
+    final Iterator<Long> keys = tiles.keySet().iterator();
+    while (keys.hasNext()) {
+      final long key = keys.next();
+      for (double[] point : changed) {
+        if (drawnOn(point, tileX(key), tileY(key), tileZoom(key))) {
+          keys.remove();
+          break;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Drops the cached tiles of the zoom levels whose highest intensity changed.
+   *
+   * <p>The cell sums are already updated with the changed points, so this doesn't go over all the
+   * points. Zoom levels that were never rendered are left to the tile threads.
+   */
+  private void updateMaxIntensities() {
+    final boolean[] changedZooms = new boolean[MAX_ZOOM + 1];
+    for (int zoom = 0; zoom <= MAX_ZOOM; zoom++) {
+      // Dropped cell sums are computed again by the next render of the level.
+      final double max = cellSums[zoom] == null ? 0 : cellSums[zoom].max();
+      changedZooms[zoom] = max != maxIntensities[zoom];
+      maxIntensities[zoom] = max;
+    }
+    final Iterator<Long> keys = tiles.keySet().iterator();
+    while (keys.hasNext()) {
+      if (changedZooms[Math.min(tileZoom(keys.next()), MAX_ZOOM)]) {
+        keys.remove();
+      }
+    }
+  }
+
+  private static long tileKey(int x, int y, int zoom) {
+    return ((long) zoom << 50) | ((long) x << 25) | y;
+  }
+
+  private static int tileX(long key) {
+    return (int) ((key >>> 25) & ((1 << 25) - 1));
+  }
+
+  private static int tileY(long key) {
+    return (int) (key & ((1 << 25) - 1));
+  }
+
+  private static int tileZoom(long key) {
+    return (int) (key >>> 50);
+  }
+
+  private boolean drawnOn(double[] point, int x, int y, int zoom) {
+    final double scale = TILE_SIZE * Math.pow(2, zoom);
+    final double px = point[0] * scale;
+    final double py = point[1] * scale;
+    // The world is scale pixels wide, and points across the antimeridian are drawn too.
+    double dx = Math.abs(px - (x + 0.5) * TILE_SIZE) % scale;
+    dx = Math.min(dx, scale - dx);
+    final double dy = Math.abs(py - (y + 0.5) * TILE_SIZE);
+    return dx <= TILE_SIZE / 2.0 + radius && dy <= TILE_SIZE / 2.0 + radius;
+  }
+
+  private static int cellOf(double[] point) {
+    return gridCell(point[0]) * GRID_CELLS + gridCell(point[1]);
+  }
+
+  private static int gridCell(double coordinate) {
+    return Math.max(0, Math.min(GRID_CELLS - 1, (int) (coordinate * GRID_CELLS)));
+  }
+
+  /**
+   * Sums the weights of the points in the squares of a grid, keyed by the square's column and row
+   * in an open addressing hash table.
+   */
+  private static final class CellSums {
+    private static final double EMPTY = Double.NaN;
+
+    private final double cellSize;
+    private long[] keys = new long[64];
+    private double[] sums = new double[64];
+    private int size;
+    private double max;
+    // Set when the sum of the square with the highest intensity decreased.
+    private boolean maxDecreased;
+
+    CellSums(double cellSize) {
+      this.cellSize = cellSize;
+      Arrays.fill(sums, EMPTY);
+    }
+
+    int size() {
+      return size;
+    }
+
+    void add(double[] point, double weight) {
+      final long key =
+          ((long) (point[0] / cellSize) << 32) | (long) (point[1] / cellSize) & 0xffffffffL;
+      int slot = slot(key, keys.length);
+      while (!Double.isNaN(sums[slot]) && keys[slot] != key) {
+        slot = (slot + 1) & (keys.length - 1);
+      }
+      if (Double.isNaN(sums[slot])) {
+        keys[slot] = key;
+        sums[slot] = 0;
+        size++;
+      }
+      final double previous = sums[slot];
+      sums[slot] = previous + weight;
+      if (sums[slot] > max) {
+        max = sums[slot];
+      } else if (weight < 0 && previous >= max) {
+        maxDecreased = true;
+      }
+      if (2 * size > keys.length) {
+        grow();
+      }
+    }
+
+    /** Returns the largest sum, or 1 if there are no weights. */
+    double max() {
+      if (maxDecreased) {
+        max = 0;
+        for (double sum : sums) {
+          if (sum > max) {
+            max = sum;
+          }
+        }
+        maxDecreased = false;
+      }
+      return max > 0 ? max : 1;
+    }
+
+    private void grow() {
+      final long[] oldKeys = keys;
+      final double[] oldSums = sums;
+      keys = new long[2 * oldKeys.length];
+      sums = new double[2 * oldSums.length];
+      Arrays.fill(sums, EMPTY);
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (Double.isNaN(oldSums[i])) {
+          continue;
+        }
+        int slot = slot(oldKeys[i], keys.length);
+        while (!Double.isNaN(sums[slot])) {
+          slot = (slot + 1) & (keys.length - 1);
+        }
+        keys[slot] = oldKeys[i];
+        sums[slot] = oldSums[i];
+      }
+    }
+
+    private static int slot(long key, int capacity) {
+      final long hash = key * 0x9e3779b97f4a7c15L;
+      return (int) (hash >>> 32) & (capacity - 1);
+    }
+  }
+
+  /** Returns a Gaussian blur of {@code radius} pixels, peaking at 1 in its center. */
+  private static double[] kernel(int radius) {
+    final int size = 2 * radius + 1;
+    final double[] kernel = new double[size * size];
+    final double sigma = Math.max(1, radius / 3.0);
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        final double dx = x - radius;
+        final double dy = y - radius;
+        kernel[y * size + x] = Math.exp(-(dx * dx + dy * dy) / (2 * sigma * sigma));
+      }
+    }
+    return kernel;
+  }
+
+  /** Interpolates the colors of {@code gradient}, spread evenly from the lowest intensity. */
+  private static int[] colorMap(int[] gradient, double opacity) {
+    final int[] colorMap = new int[COLOR_MAP_SIZE];
+    for (int i = 0; i < COLOR_MAP_SIZE; i++) {
+      final double position = (double) i / (COLOR_MAP_SIZE - 1) * (gradient.length - 1);
+      final int index = Math.min(gradient.length - 2, (int) position);
+      final int color =
+          gradient.length == 1
+              ? gradient[0]
+              : interpolate(gradient[index], gradient[index + 1], position - index);
+      double alpha = (color >>> 24) * opacity;
+      if (i < COLOR_MAP_SIZE * FADE_IN) {
+        alpha *= i / (COLOR_MAP_SIZE * FADE_IN);
+      }
+      colorMap[i] = ((int) Math.round(alpha) << 24) | (color & 0xffffff);
+    }
+    return colorMap;
+  }
+
+  private static int interpolate(int from, int to, double fraction) {
+    int color = 0;
+    for (int shift = 0; shift < 32; shift += 8) {
+      final int a = (from >>> shift) & 0xff;
+      final int b = (to >>> shift) & 0xff;
+      color |= ((int) Math.round(a + (b - a) * fraction) & 0xff) << shift;
+    }
+    return color;
+  }
+}
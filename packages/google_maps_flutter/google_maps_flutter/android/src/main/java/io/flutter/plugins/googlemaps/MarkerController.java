@@ -4,35 +4,100 @@
 
 package io.flutter.plugins.googlemaps;
 
+import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Marker;
-
-/** Controller of a single Marker on the map. */
+import com.google.android.gms.maps.model.MarkerOptions;
+
+/**
+ * Controller of a single Marker on the map.
+ *
+ * <p>The options of the marker are kept while it isn't on the map, so that it can be added again
+ * as it was, or applied to a reused marker.
+ */
 class MarkerController implements MarkerOptionsSink {
 
-  private final Marker marker;
-  private final String googleMapsMarkerId;
+  private final MarkerOptions options;
+  private Marker marker;
+  private String googleMapsMarkerId;
   private boolean consumeTapEvents;
 
-  MarkerController(Marker marker, boolean consumeTapEvents) {
-    this.marker = marker;
+  MarkerController(MarkerOptions options, boolean consumeTapEvents) {
+    this.options = options;
     this.consumeTapEvents = consumeTapEvents;
-    this.googleMapsMarkerId = marker.getId();
+  }
+
+  /** Adds the marker to the map, reusing a hidden marker of {@code pool} if there is one. */
+  void addToMap(GoogleMap googleMap, MarkerPool pool) {
+    if (marker != null) {
+      return;
+    }
+    marker = pool.acquire();
+    if (marker == null) {
+      marker = googleMap.addMarker(options);
+    } else {
+      applyOptions(marker);
+    }
+    googleMapsMarkerId = marker.getId();
+  }
+
+  /** Hands the marker over to {@code pool} to be reused by another marker. */
+  void release(MarkerPool pool) {
+    if (marker != null) {
+      pool.release(marker);
+      marker = null;
+      googleMapsMarkerId = null;
+    }
   }
 
   void remove() {
-    marker.remove();
+    if (marker != null) {
+      marker.remove();
+      marker = null;
+      googleMapsMarkerId = null;
+    }
+  }
+
+  boolean isOnMap() {
+    return marker != null;
+  }
+
+  LatLng getPosition() {
+    return options.getPosition();
+  }
+
+  private void applyOptions(Marker marker) {
+    final BitmapDescriptor icon = options.getIcon();
+    marker.setPosition(options.getPosition());
+    marker.setIcon(icon != null ? icon : BitmapDescriptorFactory.defaultMarker());
+    marker.setAlpha(options.getAlpha());
+    marker.setAnchor(options.getAnchorU(), options.getAnchorV());
+    marker.setDraggable(options.isDraggable());
+    marker.setFlat(options.isFlat());
+    marker.setInfoWindowAnchor(options.getInfoWindowAnchorU(), options.getInfoWindowAnchorV());
+    marker.setTitle(options.getTitle());
+    marker.setSnippet(options.getSnippet());
+    marker.setRotation(options.getRotation());
+    marker.setZIndex(options.getZIndex());
+    marker.setVisible(options.isVisible());
   }
 
   @Override
   public void setAlpha(float alpha) {
-    marker.setAlpha(alpha);
+    options.alpha(alpha);
+    if (marker != null) {
+      marker.setAlpha(alpha);
+    }
   }
 
   @Override
   public void setAnchor(float u, float v) {
-    marker.setAnchor(u, v);
+    options.anchor(u, v);
+    if (marker != null) {
+      marker.setAnchor(u, v);
+    }
   }
 
   @Override
@@ -42,50 +107,79 @@ class MarkerController implements MarkerOptionsSink {
 
   @Override
   public void setDraggable(boolean draggable) {
-    marker.setDraggable(draggable);
+    options.draggable(draggable);
+    if (marker != null) {
+      marker.setDraggable(draggable);
+    }
   }
 
   @Override
   public void setFlat(boolean flat) {
-    marker.setFlat(flat);
+    options.flat(flat);
+    if (marker != null) {
+      marker.setFlat(flat);
+    }
   }
 
   @Override
   public void setIcon(BitmapDescriptor bitmapDescriptor) {
-    marker.setIcon(bitmapDescriptor);
+    options.icon(bitmapDescriptor);
+    if (marker != null) {
+      marker.setIcon(bitmapDescriptor);
+    }
   }
 
   @Override
   public void setInfoWindowAnchor(float u, float v) {
-    marker.setInfoWindowAnchor(u, v);
+    options.infoWindowAnchor(u, v);
+    if (marker != null) {
+      marker.setInfoWindowAnchor(u, v);
+    }
   }
 
   @Override
   public void setInfoWindowText(String title, String snippet) {
-    marker.setTitle(title);
-    marker.setSnippet(snippet);
+    options.title(title);
+    options.snippet(snippet);
+    if (marker != null) {
+      marker.setTitle(title);
+      marker.setSnippet(snippet);
+    }
   }
 
   @Override
   public void setPosition(LatLng position) {
-    marker.setPosition(position);
+    options.position(position);
+    if (marker != null) {
+      marker.setPosition(position);
+    }
   }
 
   @Override
   public void setRotation(float rotation) {
-    marker.setRotation(rotation);
+    options.rotation(rotation);
+    if (marker != null) {
+      marker.setRotation(rotation);
+    }
   }
 
   @Override
   public void setVisible(boolean visible) {
-    marker.setVisible(visible);
+    options.visible(visible);
+    if (marker != null) {
+      marker.setVisible(visible);
+    }
   }
 
   @Override
   public void setZIndex(float zIndex) {
-    marker.setZIndex(zIndex);
+    options.zIndex(zIndex);
+    if (marker != null) {
+      marker.setZIndex(zIndex);
+    }
   }
 
+  /** The id of the marker on the map, or null if it isn't on the map. */
   String getGoogleMapsMarkerId() {
     return googleMapsMarkerId;
   }
@@ -95,14 +189,18 @@ class MarkerController implements MarkerOptionsSink {
   }
 
   public void showInfoWindow() {
-    marker.showInfoWindow();
+    if (marker != null) {
+      marker.showInfoWindow();
+    }
   }
 
   public void hideInfoWindow() {
-    marker.hideInfoWindow();
+    if (marker != null) {
+      marker.hideInfoWindow();
+    }
   }
 
   public boolean isInfoWindowShown() {
-    return marker.isInfoWindowShown();
+    return marker != null && marker.isInfoWindowShown();
   }
 }
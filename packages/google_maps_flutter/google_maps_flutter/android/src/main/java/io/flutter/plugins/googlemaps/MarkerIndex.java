@@ -0,0 +1,106 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A grid index of marker positions, to find the markers inside a region without looking at all
+ * the markers.
+ *
+ * <p>The grid divides the world into CELLS x CELLS cells of the same size in Web Mercator
+ * coordinates, like the tiles of zoom level 10.
+ */
+class MarkerIndex {
+  private static final int CELLS = 1 << 10;
+
+  private final Map<Long, Set<String>> cellToMarkerIds = new HashMap<>();
+  private final Map<String, Long> markerIdToCell = new HashMap<>();
+
+  /** Adds the marker with {@code markerId} at {@code position}, or moves it there. */
+  void put(String markerId, LatLng position) {
+    final long cell = cellOf(position);
+    final Long previous = markerIdToCell.put(markerId, cell);
+    if (previous != null) {
+      if (previous == cell) {
+        return;
+      }
+      removeFromCell(markerId, previous);
+    }
+    Set<String> markerIds = cellToMarkerIds.get(cell);
+    if (markerIds == null) {
+      markerIds = new HashSet<>();
+      cellToMarkerIds.put(cell, markerIds);
+    }
+    markerIds.add(markerId);
+  }
+
+  void remove(String markerId) {
+    final Long cell = markerIdToCell.remove(markerId);
+    if (cell != null) {
+      removeFromCell(markerId, cell);
+    }
+  }
+
+  /**
+   * Adds the ids of the markers in the cells overlapping {@code region} to {@code markerIds}.
+   *
+   * <p>Markers in these cells may be slightly outside of {@code region}.
+   */
+  void query(PaddedRegion region, Collection<String> markerIds) {
+    final int minX = cellX(region.west);
+    final int maxX = cellX(region.east);
+    final int minY = cellY(region.north);
+    final int maxY = cellY(region.south);
+    final long width = minX <= maxX ? maxX - minX + 1 : CELLS - minX + maxX + 1;
+    final long height = maxY - minY + 1;
+    if (width * height > cellToMarkerIds.size()) {
+      // The region has more cells than there are cells with markers.
+      for (Map.Entry<Long, Set<String>> cell : cellToMarkerIds.entrySet()) {
+        final int x = (int) (cell.getKey() / CELLS);
+        final int y = (int) (cell.getKey() % CELLS);
+        final boolean inX = minX <= maxX ? x >= minX && x <= maxX : x >= minX || x <= maxX;
+        if (inX && y >= minY && y <= maxY) {
+          markerIds.addAll(cell.getValue());
+        }
+      }
+      return;
+    }
+    for (long i = 0; i < width; i++) {
+      final int x = (int) ((minX + i) % CELLS);
+      for (int y = minY; y <= maxY; y++) {
+        final Set<String> cell = cellToMarkerIds.get((long) x * CELLS + y);
+        if (cell != null) {
+          markerIds.addAll(cell);
+        }
+      }
+    }
+  }
+
+  private void removeFromCell(String markerId, long cell) {
+    final Set<String> markerIds = cellToMarkerIds.get(cell);
+    markerIds.remove(markerId);
+    if (markerIds.isEmpty()) {
+      cellToMarkerIds.remove(cell);
+    }
+  }
+
+  private static long cellOf(LatLng position) {
+    return (long) cellX(position.longitude) * CELLS + cellY(position.latitude);
+  }
+
+  private static int cellX(double longitude) {
+    return Math.min(CELLS - 1, (int) (ClusterIndex.toX(longitude) * CELLS));
+  }
+
+  private static int cellY(double latitude) {
+    return Math.min(CELLS - 1, (int) (ClusterIndex.toY(latitude) * CELLS));
+  }
+}
@@ -0,0 +1,63 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.Marker;
+import java.util.ArrayDeque;
+
+/**
+ * Hidden markers kept on the map to be reused by new markers.
+ *
+ * <p>Changing the options of an existing {@link Marker} is much cheaper than adding a new one, so
+ * removed markers are kept here, up to a bounded number, until markers are added again.
+ */
+class MarkerPool {
+  static final int DEFAULT_MAX_SIZE = 100;
+
+  private final int maxSize;
+  private final ArrayDeque<Marker> markers = new ArrayDeque<>();
+  private int hits;
+  private int misses;
+
+  MarkerPool(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /** Returns a hidden marker to reuse, or null if there is none. */
+  Marker acquire() {
+    final Marker marker = markers.poll();
+    if (marker == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return marker;
+  }
+
+  /** Hides {@code marker} to be reused, or removes it from the map if the pool is full. */
+  void release(Marker marker) {
+    if (markers.size() >= maxSize) {
+      marker.remove();
+      return;
+    }
+    marker.hideInfoWindow();
+    marker.setVisible(false);
+    markers.push(marker);
+  }
+
+  int size() {
+    return markers.size();
+  }
+
+  /** The number of markers added by reusing a hidden marker. */
+  int getHits() {
+    return hits;
+  }
+
+  /** The number of markers added to the map because there was no hidden marker to reuse. */
+  int getMisses() {
+    return misses;
+  }
+}
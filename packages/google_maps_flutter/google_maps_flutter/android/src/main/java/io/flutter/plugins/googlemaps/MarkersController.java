@@ -5,31 +5,155 @@
 package io.flutter.plugins.googlemaps;
 
 import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.BitmapDescriptor;
 import com.google.android.gms.maps.model.LatLng;
-import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.MarkerOptions;
 import io.flutter.plugin.common.MethodChannel;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 class MarkersController {
 
   private final Map<String, MarkerController> markerIdToController;
   private final Map<String, String> googleMapsMarkerIdToDartMarkerId;
   private final MethodChannel methodChannel;
+  private final MarkerPool markerPool;
   private GoogleMap googleMap;
+  // Only set while offscreen markers are culled.
+  private MarkerIndex markerIndex;
+  // The region whose markers are on the map while offscreen markers are culled.
+  private PaddedRegion shownRegion;
 
   MarkersController(MethodChannel methodChannel) {
+    this(methodChannel, new MarkerPool(MarkerPool.DEFAULT_MAX_SIZE));
+  }
+
+  MarkersController(MethodChannel methodChannel, MarkerPool markerPool) {
     this.markerIdToController = new HashMap<>();
     this.googleMapsMarkerIdToDartMarkerId = new HashMap<>();
     this.methodChannel = methodChannel;
+    this.markerPool = markerPool;
   }
 
   void setGoogleMap(GoogleMap googleMap) {
     this.googleMap = googleMap;
   }
 
+  /**
+   * Sets whether only the markers around the visible region are on the map.
+   *
+   * <p>Culled markers keep their options, and are added back to the map when the camera moves
+   * close to them.
+   */
+  void setCullOffscreenMarkers(boolean cullOffscreenMarkers) {
+    if (cullOffscreenMarkers == (markerIndex != null)) {
+      return;
+    }
+    shownRegion = null;
+    if (!cullOffscreenMarkers) {
+      markerIndex = null;
+      for (Map.Entry<String, MarkerController> entry : markerIdToController.entrySet()) {
+        show(entry.getKey(), entry.getValue());
+      }
+      return;
+    }
+    markerIndex = new MarkerIndex();
+    for (Map.Entry<String, MarkerController> entry : markerIdToController.entrySet()) {
+      markerIndex.put(entry.getKey(), entry.getValue().getPosition());
+    }
+    if (googleMap != null) {
+      cull(googleMap.getProjection().getVisibleRegion().latLngBounds);
+    }
+  }
+
+  void onCameraMove() {
+    updateCulling();
+  }
+
+  void onCameraIdle() {
+    updateCulling();
+  }
+
+  private void updateCulling() {
+    if (markerIndex == null || googleMap == null) {
+      return;
+    }
+    final LatLngBounds visible = googleMap.getProjection().getVisibleRegion().latLngBounds;
+    if (shownRegion == null || !shownRegion.contains(visible)) {
+      cull(visible);
+    }
+  }
+
+  /** Only keeps the markers within half a screen around {@code visible} on the map. */
+  private void cull(LatLngBounds visible) {
+    shownRegion = PaddedRegion.around(visible);
+    for (String markerId : new ArrayList<>(googleMapsMarkerIdToDartMarkerId.values())) {
+      final MarkerController markerController = markerIdToController.get(markerId);
+      if (!shownRegion.contains(markerController.getPosition())) {
+        hide(markerController);
+      }
+    }
+    final Set<String> candidates = new HashSet<>();
+    markerIndex.query(shownRegion, candidates);
+    for (String markerId : candidates) {
+      final MarkerController markerController = markerIdToController.get(markerId);
+      if (shownRegion.contains(markerController.getPosition())) {
+        show(markerId, markerController);
+      }
+    }
+  }
+
+  /** Adds or removes a moved marker while offscreen markers are culled. */
+  private void updateCulled(String markerId, MarkerController markerController) {
+    if (markerIndex == null) {
+      return;
+    }
+    markerIndex.put(markerId, markerController.getPosition());
+    if (googleMap == null) {
+      return;
+    }
+    if (shownRegion == null) {
+      shownRegion = PaddedRegion.around(googleMap.getProjection().getVisibleRegion().latLngBounds);
+    }
+    if (shownRegion.contains(markerController.getPosition())) {
+      show(markerId, markerController);
+    } else {
+      hide(markerController);
+    }
+  }
+
+  /** Adds the marker to the map, once there is one. */
+  private void show(String markerId, MarkerController markerController) {
+    if (googleMap != null && !markerController.isOnMap()) {
+      markerController.addToMap(googleMap, markerPool);
+      googleMapsMarkerIdToDartMarkerId.put(markerController.getGoogleMapsMarkerId(), markerId);
+    }
+  }
+
+  private void hide(MarkerController markerController) {
+    if (markerController.isOnMap()) {
+      googleMapsMarkerIdToDartMarkerId.remove(markerController.getGoogleMapsMarkerId());
+      markerController.remove();
+    }
+  }
+
+  /**
+   * Applies one update of the markers of the map.
+   *
+   * <p>Markers are removed first, so that the markers added in the same update can reuse them.
+   */
+  void updateMarkers(
+      List<Object> markersToAdd, List<Object> markersToChange, List<Object> markerIdsToRemove) {
+    removeMarkers(markerIdsToRemove);
+    addMarkers(markersToAdd);
+    changeMarkers(markersToChange);
+  }
+
   void addMarkers(List<Object> markersToAdd) {
     if (markersToAdd != null) {
       for (Object markerToAdd : markersToAdd) {
@@ -57,15 +181,114 @@ class MarkersController {
       String markerId = (String) rawMarkerId;
       final MarkerController markerController = markerIdToController.remove(markerId);
       if (markerController != null) {
-        markerController.remove();
-        googleMapsMarkerIdToDartMarkerId.remove(markerController.getGoogleMapsMarkerId());
+        if (markerController.isOnMap()) {
+          googleMapsMarkerIdToDartMarkerId.remove(markerController.getGoogleMapsMarkerId());
+          markerController.release(markerPool);
+        }
+        if (markerIndex != null) {
+          markerIndex.remove(markerId);
+        }
+      }
+    }
+  }
+
+  /** Returns the size, hits and misses of the pool of hidden markers reused by added markers. */
+  Map<String, Object> getPoolStats() {
+    final Map<String, Object> stats = new HashMap<>(3);
+    stats.put("size", markerPool.size());
+    stats.put("hits", markerPool.getHits());
+    stats.put("misses", markerPool.getMisses());
+    return stats;
+  }
+
+  /**
+   * Moves the markers with {@code markerIds} to the positions packed as latitude and longitude
+   * pairs in {@code positions}.
+   *
+   * <p>A rotation that isn't NaN in {@code rotations} and an icon index that isn't negative in
+   * {@code iconIndices} also change the rotation and the icon of the marker at the same index. Each
+   * icon is only interpreted once per batch, however many markers use it.
+   */
+  void updateMarkerPositions(
+      List<Object> markerIds,
+      double[] positions,
+      double[] rotations,
+      int[] iconIndices,
+      List<Object> icons,
+      MethodChannel.Result result) {
+    // Checked up front so that malformed arguments leave every marker as it was.
+    final String invalid =
+        checkMarkerPositions(markerIds, positions, rotations, iconIndices, icons);
+    if (invalid != null) {
+      result.error("Invalid marker positions", invalid, null);
+      return;
+    }
+    BitmapDescriptor[] bitmapDescriptors = null;
+    if (iconIndices != null) {
+      bitmapDescriptors = new BitmapDescriptor[icons.size()];
+      for (int i = 0; i < bitmapDescriptors.length; i++) {
+        bitmapDescriptors[i] = Convert.toBitmapDescriptor(icons.get(i));
+      }
+    }
+    for (int i = 0; i < markerIds.size(); i++) {
+      final MarkerController markerController = markerIdToController.get(markerIds.get(i));
+      if (markerController == null) {
+        continue;
+      }
+      markerController.setPosition(new LatLng(positions[2 * i], positions[2 * i + 1]));
+      if (rotations != null && !Double.isNaN(rotations[i])) {
+        markerController.setRotation((float) rotations[i]);
       }
+      if (bitmapDescriptors != null && iconIndices[i] >= 0) {
+        markerController.setIcon(bitmapDescriptors[iconIndices[i]]);
+      }
+      updateCulled((String) markerIds.get(i), markerController);
     }
+    result.success(null);
+  }
+
+  /** Returns what is wrong with the arguments of {@link #updateMarkerPositions}, or null. */
+  private static String checkMarkerPositions(
+      List<Object> markerIds,
+      double[] positions,
+      double[] rotations,
+      int[] iconIndices,
+      List<Object> icons) {
+    if (markerIds == null || positions == null) {
+      return "markerIds and positions are required";
+    }
+    final int count = markerIds.size();
+    if (positions.length != 2 * count) {
+      return "Expected "
+          + 2 * count
+          + " positions for "
+          + count
+          + " markers, got "
+          + positions.length;
+    }
+    if (rotations != null && rotations.length != count) {
+      return "Expected " + count + " rotations, got " + rotations.length;
+    }
+    if (iconIndices == null) {
+      return null;
+    }
+    if (iconIndices.length != count) {
+      return "Expected " + count + " iconIndices, got " + iconIndices.length;
+    }
+    final int iconCount = icons != null ? icons.size() : 0;
+    for (int i = 0; i < count; i++) {
+      if (iconIndices[i] >= iconCount) {
+        return "iconIndices[" + i + "] is " + iconIndices[i] + " of " + iconCount + " icons";
+      }
+    }
+    return null;
   }
 
   void showMarkerInfoWindow(String markerId, MethodChannel.Result result) {
     MarkerController markerController = markerIdToController.get(markerId);
     if (markerController != null) {
+      // A culled marker is added back to the map to show its info window.
+      show(markerId, markerController);
       markerController.showInfoWindow();
       result.success(null);
     } else {
@@ -110,6 +333,11 @@ class MarkersController {
     if (markerId == null) {
       return;
     }
+    final MarkerController markerController = markerIdToController.get(markerId);
+    if (markerController != null) {
+      markerController.setPosition(latLng);
+      updateCulled(markerId, markerController);
+    }
     final Map<String, Object> data = new HashMap<>();
     data.put("markerId", markerId);
     data.put("position", Convert.latLngToJson(latLng));
@@ -135,10 +363,13 @@ class MarkersController {
   }
 
   private void addMarker(String markerId, MarkerOptions markerOptions, boolean consumeTapEvents) {
-    final Marker marker = googleMap.addMarker(markerOptions);
-    MarkerController controller = new MarkerController(marker, consumeTapEvents);
+    MarkerController controller = new MarkerController(markerOptions, consumeTapEvents);
     markerIdToController.put(markerId, controller);
-    googleMapsMarkerIdToDartMarkerId.put(marker.getId(), markerId);
+    if (markerIndex == null) {
+      show(markerId, controller);
+    } else {
+      updateCulled(markerId, controller);
+    }
   }
 
   private void changeMarker(Object marker) {
@@ -149,6 +380,7 @@ class MarkersController {
     MarkerController markerController = markerIdToController.get(markerId);
     if (markerController != null) {
       Convert.interpretMarkerOptions(marker, markerController);
+      updateCulled(markerId, markerController);
     }
   }
 
@@ -0,0 +1,74 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+
+/**
+ * A visible region of the map extended by half a screen on each side, so that small camera moves
+ * stay within it.
+ *
+ * <p>The bounds are kept as degrees rather than as a {@link LatLngBounds}, which can't have an east
+ * edge at 180 degrees.
+ */
+final class PaddedRegion {
+  final double west;
+  final double south;
+  final double east;
+  final double north;
+
+  private PaddedRegion(double west, double south, double east, double north) {
+    this.west = west;
+    this.south = south;
+    this.east = east;
+    this.north = north;
+  }
+
+  static PaddedRegion around(LatLngBounds visible) {
+    final double longitudeSpan = longitudeSpan(visible);
+    final double latitudeMargin = (visible.northeast.latitude - visible.southwest.latitude) / 2;
+    final double longitudeMargin = longitudeSpan / 2;
+    final double south = Math.max(-90, visible.southwest.latitude - latitudeMargin);
+    final double north = Math.min(90, visible.northeast.latitude + latitudeMargin);
+    if (longitudeSpan + 2 * longitudeMargin >= 360) {
+      return new PaddedRegion(-180, south, 180, north);
+    }
+    return new PaddedRegion(
+        normalize(visible.southwest.longitude - longitudeMargin),
+        south,
+        normalize(visible.northeast.longitude + longitudeMargin),
+        north);
+  }
+
+  /** Returns whether all of {@code visible} is inside this region. */
+  boolean contains(LatLngBounds visible) {
+    return visible.southwest.latitude >= south
+        && visible.northeast.latitude <= north
+        && longitudeOffset(west, visible.southwest.longitude) + longitudeSpan(visible)
+            <= longitudeOffset(west, east);
+  }
+
+  boolean contains(LatLng position) {
+    return position.latitude >= south
+        && position.latitude <= north
+        && longitudeOffset(west, position.longitude) <= longitudeOffset(west, east);
+  }
+
+  private static double longitudeSpan(LatLngBounds bounds) {
+    final double span = bounds.northeast.longitude - bounds.southwest.longitude;
+    return span < 0 ? span + 360 : span;
+  }
+
+  /** Returns how many degrees east of {@code west} {@code longitude} is. */
+  private static double longitudeOffset(double west, double longitude) {
+    final double offset = longitude - west;
+    return offset < 0 ? offset + 360 : offset;
+  }
+
+  private static double normalize(double longitude) {
+    return ((longitude + 180) % 360 + 360) % 360 - 180;
+  }
+}
@@ -0,0 +1,151 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Feeds a polyline or polygon the simplification of its points for the camera's zoom level.
+ *
+ * <p>The points are ranked by a {@link SimplifiedPath} on a background thread. Until then, a
+ * polyline or polygon shows an evenly thinned out preview of its points.
+ */
+class PathSimplifier {
+  // The most points shown while the points are being ranked.
+  private static final int MAX_PREVIEW_POINTS = 1000;
+
+  private static Executor defaultBackgroundExecutor;
+
+  interface PointsSink {
+    void setPoints(List<LatLng> points);
+  }
+
+  private final PointsSink sink;
+  private final boolean closed;
+  private final Executor backgroundExecutor;
+  private final Executor mainExecutor;
+  private float tolerance;
+  private int zoom;
+  // The points not ranked yet, or null once they are in path.
+  private List<LatLng> points;
+  private SimplifiedPath path;
+  private int shownZoom = -1;
+  // Identifies the latest points, so that outdated rankings are dropped.
+  private volatile int generation;
+
+  PathSimplifier(PointsSink sink, boolean closed) {
+    this(sink, closed, getDefaultBackgroundExecutor(), mainThreadExecutor());
+  }
+
+  PathSimplifier(
+      PointsSink sink, boolean closed, Executor backgroundExecutor, Executor mainExecutor) {
+    this.sink = sink;
+    this.closed = closed;
+    this.backgroundExecutor = backgroundExecutor;
+    this.mainExecutor = mainExecutor;
+  }
+
+  /** Sets the tolerance in dp of the simplification, where 0 shows all the points. */
+  void setTolerance(float tolerance) {
+    if (tolerance == this.tolerance) {
+      return;
+    }
+    this.tolerance = tolerance;
+    shownZoom = -1;
+    if (path == null && points == null) {
+      return;
+    }
+    if (tolerance <= 0) {
+      sink.setPoints(points != null ? points : path.getPoints());
+    } else if (path != null) {
+      show();
+    } else {
+      setPoints(points);
+    }
+  }
+
+  void setPoints(final List<LatLng> points) {
+    this.points = points;
+    path = null;
+    shownZoom = -1;
+    final int generation = ++this.generation;
+    if (tolerance <= 0) {
+      sink.setPoints(points);
+      return;
+    }
+    sink.setPoints(preview(points));
+    backgroundExecutor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            if (generation != PathSimplifier.this.generation) {
+              return;
+            }
+            final SimplifiedPath path = new SimplifiedPath(points, closed);
+            mainExecutor.execute(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    if (generation == PathSimplifier.this.generation) {
+                      PathSimplifier.this.path = path;
+                      PathSimplifier.this.points = null;
+                      show();
+                    }
+                  }
+                });
+          }
+        });
+  }
+
+  /** Shows the simplification for {@code zoom} once the points are ranked. */
+  void setZoom(int zoom) {
+    this.zoom = zoom;
+    show();
+  }
+
+  private void show() {
+    if (path == null || tolerance <= 0 || zoom == shownZoom) {
+      return;
+    }
+    shownZoom = zoom;
+    sink.setPoints(path.getPoints(zoom, tolerance));
+  }
+
+  private static List<LatLng> preview(List<LatLng> points) {
+    if (points.size() <= MAX_PREVIEW_POINTS) {
+      return points;
+    }
+    final List<LatLng> preview = new ArrayList<>(MAX_PREVIEW_POINTS + 1);
+    final double step = (double) (points.size() - 1) / (MAX_PREVIEW_POINTS - 1);
+    for (int i = 0; i < MAX_PREVIEW_POINTS - 1; i++) {
+      preview.add(points.get((int) (i * step)));
+    }
+    preview.add(points.get(points.size() - 1));
+    return preview;
+  }
+
+  private static synchronized Executor getDefaultBackgroundExecutor() {
+    if (defaultBackgroundExecutor == null) {
+      defaultBackgroundExecutor = Executors.newSingleThreadExecutor();
+    }
+    return defaultBackgroundExecutor;
+  }
+
+  private static Executor mainThreadExecutor() {
+    final Handler handler = new Handler(Looper.getMainLooper());
+    return new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        handler.post(command);
+      }
+    };
+  }
+}
@@ -12,6 +12,8 @@ class PolygonBuilder implements PolygonOptionsSink {
   private final PolygonOptions polygonOptions;
   private final float density;
   private boolean consumeTapEvents;
+  private List<LatLng> points;
+  private float simplificationTolerance;
 
   PolygonBuilder(float density) {
     this.polygonOptions = new PolygonOptions();
@@ -19,9 +21,21 @@ class PolygonBuilder implements PolygonOptionsSink {
   }
 
   PolygonOptions build() {
+    // Simplified points are set by the controller once the polygon is on the map.
+    if (points != null && simplificationTolerance <= 0) {
+      polygonOptions.addAll(points);
+    }
     return polygonOptions;
   }
 
+  List<LatLng> getPoints() {
+    return points;
+  }
+
+  float getSimplificationTolerance() {
+    return simplificationTolerance;
+  }
+
   boolean consumeTapEvents() {
     return consumeTapEvents;
   }
@@ -38,7 +52,12 @@ class PolygonBuilder implements PolygonOptionsSink {
 
   @Override
   public void setPoints(List<LatLng> points) {
-    polygonOptions.addAll(points);
+    this.points = points;
+  }
+
+  @Override
+  public void setSimplificationTolerance(float tolerance) {
+    this.simplificationTolerance = tolerance;
   }
 
   @Override
@@ -14,6 +14,9 @@ class PolygonController implements PolygonOptionsSink {
   private final String googleMapsPolygonId;
   private final float density;
   private boolean consumeTapEvents;
+  // Only set once the polygon has been simplified.
+  private PathSimplifier simplifier;
+  private int zoom;
 
   PolygonController(Polygon polygon, boolean consumeTapEvents, float density) {
     this.polygon = polygon;
@@ -49,7 +52,42 @@ class PolygonController implements PolygonOptionsSink {
 
   @Override
   public void setPoints(List<LatLng> points) {
-    polygon.setPoints(points);
+    if (simplifier != null) {
+      simplifier.setPoints(points);
+    } else {
+      polygon.setPoints(points);
+    }
+  }
+
+  @Override
+  public void setSimplificationTolerance(float tolerance) {
+    if (simplifier == null) {
+      if (tolerance <= 0) {
+        return;
+      }
+      simplifier =
+          new PathSimplifier(
+              new PathSimplifier.PointsSink() {
+                @Override
+                public void setPoints(List<LatLng> points) {
+                  polygon.setPoints(points);
+                }
+              },
+              true);
+      simplifier.setZoom(zoom);
+      simplifier.setTolerance(tolerance);
+      simplifier.setPoints(polygon.getPoints());
+      return;
+    }
+    simplifier.setTolerance(tolerance);
+  }
+
+  /** Shows the simplification of the polygon for the integer {@code zoom} level. */
+  void setZoom(int zoom) {
+    this.zoom = zoom;
+    if (simplifier != null) {
+      simplifier.setZoom(zoom);
+    }
   }
 
   @Override
@@ -20,6 +20,8 @@ interface PolygonOptionsSink {
 
   void setPoints(List<LatLng> points);
 
+  void setSimplificationTolerance(float tolerance);
+
   void setVisible(boolean visible);
 
   void setStrokeWidth(float width);
@@ -64,6 +64,13 @@ class PolygonsController {
     }
   }
 
+  void onCameraIdle() {
+    final int zoom = (int) googleMap.getCameraPosition().zoom;
+    for (PolygonController polygonController : polygonIdToController.values()) {
+      polygonController.setZoom(zoom);
+    }
+  }
+
   boolean onPolygonTap(String googlePolygonId) {
     String polygonId = googleMapsPolygonIdToDartPolygonId.get(googlePolygonId);
     if (polygonId == null) {
@@ -85,6 +92,12 @@ class PolygonsController {
     String polygonId = Convert.interpretPolygonOptions(polygon, polygonBuilder);
     PolygonOptions options = polygonBuilder.build();
     addPolygon(polygonId, options, polygonBuilder.consumeTapEvents());
+    if (polygonBuilder.getSimplificationTolerance() > 0) {
+      final PolygonController controller = polygonIdToController.get(polygonId);
+      controller.setZoom((int) googleMap.getCameraPosition().zoom);
+      controller.setSimplificationTolerance(polygonBuilder.getSimplificationTolerance());
+      controller.setPoints(polygonBuilder.getPoints());
+    }
   }
 
   private void addPolygon(
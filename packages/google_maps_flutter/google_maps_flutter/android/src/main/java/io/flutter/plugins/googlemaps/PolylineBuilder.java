@@ -13,6 +13,8 @@ import java.util.List;
 class PolylineBuilder implements PolylineOptionsSink {
   private final PolylineOptions polylineOptions;
   private boolean consumeTapEvents;
+  private List<LatLng> points;
+  private float simplificationTolerance;
   private final float density;
 
   PolylineBuilder(float density) {
@@ -21,9 +23,21 @@ class PolylineBuilder implements PolylineOptionsSink {
   }
 
   PolylineOptions build() {
+    // Simplified points are set by the controller once the polyline is on the map.
+    if (points != null && simplificationTolerance <= 0) {
+      polylineOptions.addAll(points);
+    }
     return polylineOptions;
   }
 
+  List<LatLng> getPoints() {
+    return points;
+  }
+
+  float getSimplificationTolerance() {
+    return simplificationTolerance;
+  }
+
   boolean consumeTapEvents() {
     return consumeTapEvents;
   }
@@ -50,7 +64,12 @@ class PolylineBuilder implements PolylineOptionsSink {
 
   @Override
   public void setPoints(List<LatLng> points) {
-    polylineOptions.addAll(points);
+    this.points = points;
+  }
+
+  @Override
+  public void setSimplificationTolerance(float tolerance) {
+    this.simplificationTolerance = tolerance;
   }
 
   @Override
@@ -15,6 +15,9 @@ class PolylineController implements PolylineOptionsSink {
   private final Polyline polyline;
   private final String googleMapsPolylineId;
   private boolean consumeTapEvents;
+  // Only set once the polyline has been simplified.
+  private PathSimplifier simplifier;
+  private int zoom;
   private final float density;
 
   PolylineController(Polyline polyline, boolean consumeTapEvents, float density) {
@@ -61,7 +64,42 @@ class PolylineController implements PolylineOptionsSink {
 
   @Override
   public void setPoints(List<LatLng> points) {
-    polyline.setPoints(points);
+    if (simplifier != null) {
+      simplifier.setPoints(points);
+    } else {
+      polyline.setPoints(points);
+    }
+  }
+
+  @Override
+  public void setSimplificationTolerance(float tolerance) {
+    if (simplifier == null) {
+      if (tolerance <= 0) {
+        return;
+      }
+      simplifier =
+          new PathSimplifier(
+              new PathSimplifier.PointsSink() {
+                @Override
+                public void setPoints(List<LatLng> points) {
+                  polyline.setPoints(points);
+                }
+              },
+              false);
+      simplifier.setZoom(zoom);
+      simplifier.setTolerance(tolerance);
+      simplifier.setPoints(polyline.getPoints());
+      return;
+    }
+    simplifier.setTolerance(tolerance);
+  }
+
+  /** Shows the simplification of the polyline for the integer {@code zoom} level. */
+  void setZoom(int zoom) {
+    this.zoom = zoom;
+    if (simplifier != null) {
+      simplifier.setZoom(zoom);
+    }
   }
 
   @Override
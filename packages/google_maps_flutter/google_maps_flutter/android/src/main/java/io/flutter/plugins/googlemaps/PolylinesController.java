@@ -64,6 +64,13 @@ class PolylinesController {
     }
   }
 
+  void onCameraIdle() {
+    final int zoom = (int) googleMap.getCameraPosition().zoom;
+    for (PolylineController polylineController : polylineIdToController.values()) {
+      polylineController.setZoom(zoom);
+    }
+  }
+
   boolean onPolylineTap(String googlePolylineId) {
     String polylineId = googleMapsPolylineIdToDartPolylineId.get(googlePolylineId);
     if (polylineId == null) {
@@ -85,6 +92,12 @@ class PolylinesController {
     String polylineId = Convert.interpretPolylineOptions(polyline, polylineBuilder);
     PolylineOptions options = polylineBuilder.build();
     addPolyline(polylineId, options, polylineBuilder.consumeTapEvents());
+    if (polylineBuilder.getSimplificationTolerance() > 0) {
+      final PolylineController controller = polylineIdToController.get(polylineId);
+      controller.setZoom((int) googleMap.getCameraPosition().zoom);
+      controller.setSimplificationTolerance(polylineBuilder.getSimplificationTolerance());
+      controller.setPoints(polylineBuilder.getPoints());
+    }
   }
 
   private void addPolyline(
@@ -0,0 +1,137 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The points of a polyline or polygon, ranked so that Douglas-Peucker simplifications of any
+ * tolerance can be taken without running the algorithm again.
+ *
+ * <p>Each point is ranked with the largest tolerance at which Douglas-Peucker keeps it, in Web
+ * Mercator units where the world is the unit square. A simplification keeps the points ranked
+ * above its tolerance.
+ */
+final class SimplifiedPath {
+  // The size of the world in dp at zoom level 0.
+  private static final double WORLD_SIZE = 256;
+
+  private final double[] latLngs;
+  private final double[] ranks;
+
+  /**
+   * Ranks {@code points}, which takes O(n log n) time for most paths.
+   *
+   * <p>The first and last points are always kept. The ring of a polygon, which is {@code closed},
+   * also always keeps its farthest point from them so that it keeps an area.
+   */
+  SimplifiedPath(List<LatLng> points, boolean closed) {
+    final int size = points.size();
+    latLngs = new double[2 * size];
+    ranks = new double[size];
+    final double[] xs = new double[size];
+    final double[] ys = new double[size];
+    for (int i = 0; i < size; i++) {
+      final LatLng point = points.get(i);
+      latLngs[2 * i] = point.latitude;
+      latLngs[2 * i + 1] = point.longitude;
+      xs[i] = ClusterIndex.toX(point.longitude);
+      ys[i] = ClusterIndex.toY(point.latitude);
+    }
+    if (size == 0) {
+      return;
+    }
+    ranks[0] = Double.POSITIVE_INFINITY;
+    ranks[size - 1] = Double.POSITIVE_INFINITY;
+
+    // Ranges still to split, as first index, last index and the rank of the range's split point.
+    final int[] firsts = new int[size];
+    final int[] lasts = new int[size];
+    final double[] parentRanks = new double[size];
+    int pending = 0;
+    firsts[pending] = 0;
+    lasts[pending] = size - 1;
+    parentRanks[pending] = Double.POSITIVE_INFINITY;
+    pending++;
+    boolean root = true;
+    while (pending > 0) {
+      pending--;
+      final int first = firsts[pending];
+      final int last = lasts[pending];
+      final double parentRank = parentRanks[pending];
+      if (last - first < 2) {
+        continue;
+      }
+      int farthest = first + 1;
+      double maxDistance = -1;
+      for (int i = first + 1; i < last; i++) {
+        final double distance =
+            segmentDistanceSquared(xs[i], ys[i], xs[first], ys[first], xs[last], ys[last]);
+        if (distance > maxDistance) {
+          maxDistance = distance;
+          farthest = i;
+        }
+      }
+      // A point is never ranked above the point that split its range, so that every
+      // simplification is one Douglas-Peucker would make.
+      final double rank =
+          closed && root ? Double.POSITIVE_INFINITY : Math.min(Math.sqrt(maxDistance), parentRank);
+      root = false;
+      ranks[farthest] = rank;
+      firsts[pending] = first;
+      lasts[pending] = farthest;
+      parentRanks[pending] = rank;
+      pending++;
+      firsts[pending] = farthest;
+      lasts[pending] = last;
+      parentRanks[pending] = rank;
+      pending++;
+    }
+  }
+
+  int size() {
+    return ranks.length;
+  }
+
+  /**
+   * Returns the points kept by a simplification that moves the path by at most {@code tolerance} dp
+   * at {@code zoom}.
+   */
+  List<LatLng> getPoints(int zoom, double tolerance) {
+    final double worldTolerance = tolerance / (WORLD_SIZE * Math.pow(2, zoom));
+    final List<LatLng> points = new ArrayList<>();
+    for (int i = 0; i < ranks.length; i++) {
+      if (ranks[i] > worldTolerance) {
+        points.add(new LatLng(latLngs[2 * i], latLngs[2 * i + 1]));
+      }
+    }
+    return points;
+  }
+
+  /** Returns all the points of the path. */
+  List<LatLng> getPoints() {
+    final List<LatLng> points = new ArrayList<>(ranks.length);
+    for (int i = 0; i < ranks.length; i++) {
+      points.add(new LatLng(latLngs[2 * i], latLngs[2 * i + 1]));
+    }
+    return points;
+  }
+
+  private static double segmentDistanceSquared(
+      double x, double y, double x1, double y1, double x2, double y2) {
+    final double dx = x2 - x1;
+    final double dy = y2 - y1;
+    final double lengthSquared = dx * dx + dy * dy;
+    double t = 0;
+    if (lengthSquared > 0) {
+      t = Math.max(0, Math.min(1, ((x - x1) * dx + (y - y1) * dy) / lengthSquared));
+    }
+    final double px = x1 + t * dx - x;
+    final double py = y1 + t * dy - y;
+    return px * px + py * py;
+  }
+}
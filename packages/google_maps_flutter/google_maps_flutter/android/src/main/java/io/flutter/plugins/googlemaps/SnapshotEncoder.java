@@ -0,0 +1,132 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.googlemaps;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import io.flutter.plugin.common.MethodChannel;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Encodes map snapshots on a background thread, so that compressing a large bitmap doesn't block
+ * the platform thread.
+ *
+ * <p>A snapshot is either returned as bytes or written to a file, in which case the result is
+ * null once the file is written.
+ */
+class SnapshotEncoder {
+  private static Executor defaultBackgroundExecutor;
+
+  private final Bitmap.CompressFormat format;
+  private final int quality;
+  private final float scale;
+  private final String filePath;
+  private final Executor backgroundExecutor;
+  private final Executor mainExecutor;
+
+  SnapshotEncoder(Bitmap.CompressFormat format, int quality, float scale, String filePath) {
+    this(format, quality, scale, filePath, getDefaultBackgroundExecutor(), mainThreadExecutor());
+  }
+
+  SnapshotEncoder(
+      Bitmap.CompressFormat format,
+      int quality,
+      float scale,
+      String filePath,
+      Executor backgroundExecutor,
+      Executor mainExecutor) {
+    this.format = format;
+    this.quality = quality;
+    this.scale = scale;
+    this.filePath = filePath;
+    this.backgroundExecutor = backgroundExecutor;
+    this.mainExecutor = mainExecutor;
+  }
+
+  /** Encodes and recycles {@code bitmap}, then reports the outcome to {@code result}. */
+  void encode(final Bitmap bitmap, final MethodChannel.Result result) {
+    backgroundExecutor.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            byte[] bytes = null;
+            String error = null;
+            Bitmap scaled = null;
+            try {
+              scaled = scale(bitmap);
+              if (filePath != null) {
+                final OutputStream stream = new FileOutputStream(filePath);
+                try {
+                  if (!scaled.compress(format, quality, stream)) {
+                    error = "The snapshot couldn't be compressed.";
+                  }
+                } finally {
+                  stream.close();
+                }
+              } else {
+                final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+                if (scaled.compress(format, quality, stream)) {
+                  bytes = stream.toByteArray();
+                } else {
+                  error = "The snapshot couldn't be compressed.";
+                }
+              }
+            } catch (Throwable e) {
+              // Scaling a large snapshot may run out of memory, the call still has to be replied.
+              error = e.toString();
+            } finally {
+              if (scaled != null && scaled != bitmap) {
+                scaled.recycle();
+              }
+              bitmap.recycle();
+            }
+            final byte[] encoded = bytes;
+            final String failure = error;
+            mainExecutor.execute(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    if (failure != null) {
+                      result.error("Snapshot not written", failure, filePath);
+                    } else {
+                      result.success(encoded);
+                    }
+                  }
+                });
+          }
+        });
+  }
+
+  private Bitmap scale(Bitmap bitmap) {
+    if (scale == 1) {
+      return bitmap;
+    }
+    final int width = Math.max(1, Math.round(bitmap.getWidth() * scale));
+    final int height = Math.max(1, Math.round(bitmap.getHeight() * scale));
+    return Bitmap.createScaledBitmap(bitmap, width, height, true);
+  }
+
+  private static synchronized Executor getDefaultBackgroundExecutor() {
+    if (defaultBackgroundExecutor == null) {
+      defaultBackgroundExecutor = Executors.newSingleThreadExecutor();
+    }
+    return defaultBackgroundExecutor;
+  }
+
+  private static Executor mainThreadExecutor() {
+    final Handler handler = new Handler(Looper.getMainLooper());
+    return new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        handler.post(command);
+      }
+    };
+  }
+}
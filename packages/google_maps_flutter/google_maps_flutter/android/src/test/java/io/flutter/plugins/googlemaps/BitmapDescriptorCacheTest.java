@@ -0,0 +1,84 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import io.flutter.view.FlutterMain;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class BitmapDescriptorCacheTest {
+
+  @Test
+  public void put_EvictsLeastRecentlyUsedOverMaxBytes() {
+    final BitmapDescriptorCache cache = new BitmapDescriptorCache(100);
+    final BitmapDescriptor a = mock(BitmapDescriptor.class);
+    final BitmapDescriptor b = mock(BitmapDescriptor.class);
+    final BitmapDescriptor c = mock(BitmapDescriptor.class);
+
+    cache.put("a", a, 40);
+    cache.put("b", b, 40);
+    assertSame(a, cache.get("a"));
+    cache.put("c", c, 40);
+
+    assertSame(a, cache.get("a"));
+    assertNull(cache.get("b"));
+    assertSame(c, cache.get("c"));
+    assertEquals(80, cache.getTotalBytes());
+  }
+
+  @Test
+  public void put_SkipsDescriptorsLargerThanCache() {
+    final BitmapDescriptorCache cache = new BitmapDescriptorCache(100);
+    cache.put("a", mock(BitmapDescriptor.class), 40);
+    cache.put("b", mock(BitmapDescriptor.class), 101);
+
+    assertNull(cache.get("b"));
+    assertEquals(40, cache.getTotalBytes());
+  }
+
+  @Test
+  public void register_KeepsDescriptorUntilUnregistered() {
+    final BitmapDescriptorCache cache = new BitmapDescriptorCache(0);
+    final BitmapDescriptor descriptor = mock(BitmapDescriptor.class);
+
+    cache.register("pin", descriptor);
+    assertSame(descriptor, cache.getRegistered("pin"));
+    cache.unregister("pin");
+    assertNull(cache.getRegistered("pin"));
+  }
+
+  @Test
+  public void convert_LooksUpAssetDescriptorsInCache() {
+    // BitmapDescriptorFactory needs the Maps SDK to be initialized, so the cache is seeded.
+    final BitmapDescriptor descriptor = mock(BitmapDescriptor.class);
+    BitmapDescriptorCache.getShared()
+        .put(
+            FlutterMain.getLookupKeyForAsset("assets/cached.png"),
+            descriptor,
+            BitmapDescriptorCache.ASSET_BYTES);
+
+    assertSame(
+        descriptor, Convert.toBitmapDescriptor(Arrays.asList("fromAsset", "assets/cached.png")));
+    assertSame(
+        descriptor,
+        Convert.toBitmapDescriptor(Arrays.asList("fromAssetImage", "assets/cached.png", 2.0)));
+  }
+
+  @Test
+  public void convert_ResolvesRegisteredDescriptors() {
+    final BitmapDescriptor descriptor = mock(BitmapDescriptor.class);
+    BitmapDescriptorCache.getShared().register("pin", descriptor);
+
+    assertSame(descriptor, Convert.toBitmapDescriptor(Arrays.asList("registered", "pin")));
+    BitmapDescriptorCache.getShared().unregister("pin");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void convert_ThrowsForUnknownRegisteredDescriptors() {
+    Convert.toBitmapDescriptor(Arrays.asList("registered", "unknown"));
+  }
+}
@@ -0,0 +1,117 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import android.os.Handler;
+import com.google.android.gms.maps.model.CameraPosition;
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class CameraMoveThrottleTest {
+
+  private final List<CameraPosition> sent = new ArrayList<>();
+  private Handler handler;
+
+  @Before
+  public void setUp() {
+    handler = mock(Handler.class);
+  }
+
+  @Test
+  public void isUnlimited_WithoutLimits() {
+    assertTrue(new CameraMoveThrottle(0, 0, 0, 0, 0, handler).isUnlimited());
+    assertFalse(new CameraMoveThrottle(10, 0, 0, 0, 0, handler).isUnlimited());
+    assertFalse(new CameraMoveThrottle(0, 0.5, 0, 0, 0, handler).isUnlimited());
+  }
+
+  @Test
+  public void onCameraMove_SendsLatestMoveWhenDue() {
+    final CameraMoveThrottle throttle = throttle(10, 0, 0);
+    final CameraPosition first = position(0, 0, 1);
+    final CameraPosition second = position(1, 0, 1);
+    final CameraPosition third = position(2, 0, 1);
+
+    throttle.onCameraMove(first, 1000);
+    throttle.onCameraMove(second, 1020);
+    throttle.onCameraMove(third, 1050);
+
+    assertEquals(1, sent.size());
+    assertSame(first, sent.get(0));
+    final ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+    verify(handler).postDelayed(flush.capture(), eq(80L));
+    flush.getValue().run();
+    assertEquals(2, sent.size());
+    assertSame(third, sent.get(1));
+  }
+
+  @Test
+  public void onCameraMove_SkipsSmallMoves() {
+    final CameraMoveThrottle throttle = throttle(0, 0.5, 1);
+    throttle.onCameraMove(position(0, 0, 1), 0);
+    throttle.onCameraMove(position(0.5, 0, 1.2f), 10);
+    throttle.onCameraMove(position(0, 359.5, 1), 20);
+
+    assertEquals(1, sent.size());
+    final CameraPosition far = position(0, 2, 1);
+    throttle.onCameraMove(far, 30);
+    assertEquals(2, sent.size());
+    assertSame(far, sent.get(1));
+  }
+
+  @Test
+  public void onCameraIdle_SendsFinalPosition() {
+    final CameraMoveThrottle throttle = throttle(10, 0.5, 1);
+    throttle.onCameraMove(position(0, 0, 1), 1000);
+    final CameraPosition last = position(0.1, 0, 1);
+    throttle.onCameraMove(last, 1500);
+    assertEquals(1, sent.size());
+
+    throttle.onCameraIdle();
+    assertEquals(2, sent.size());
+    assertSame(last, sent.get(1));
+    throttle.onCameraIdle();
+    assertEquals(2, sent.size());
+  }
+
+  @Test
+  public void onCameraIdle_CancelsScheduledFlush() {
+    final CameraMoveThrottle throttle = throttle(10, 0, 0);
+    throttle.onCameraMove(position(0, 0, 1), 1000);
+    throttle.onCameraMove(position(1, 0, 1), 1010);
+    throttle.onCameraIdle();
+
+    final ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+    verify(handler).removeCallbacks(flush.capture());
+    verify(handler).postDelayed(eq(flush.getValue()), anyLong());
+    assertEquals(2, sent.size());
+  }
+
+  private CameraMoveThrottle throttle(
+      int maxUpdatesPerSecond, double minZoomDelta, double minTargetDelta) {
+    final CameraMoveThrottle throttle =
+        new CameraMoveThrottle(maxUpdatesPerSecond, minZoomDelta, minTargetDelta, 0, 0, handler);
+    throttle.setListener(
+        new CameraMoveThrottle.Listener() {
+          @Override
+          public void onCameraMove(CameraPosition position) {
+            sent.add(position);
+          }
+        });
+    return throttle;
+  }
+
+  private static CameraPosition position(double latitude, double longitude, float zoom) {
+    return new CameraPosition(new LatLng(latitude, longitude), zoom, 0, 0);
+  }
+}
@@ -0,0 +1,73 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.Test;
+
+public class ClusterIndexTest {
+
+  @Test
+  public void mercator_RoundTrips() {
+    assertEquals(0.5, ClusterIndex.toX(0), 1e-12);
+    assertEquals(0.5, ClusterIndex.toY(0), 1e-12);
+    assertEquals(45.0, ClusterIndex.toLatitude(ClusterIndex.toY(45)), 1e-9);
+    assertEquals(-120.0, ClusterIndex.toLongitude(ClusterIndex.toX(-120)), 1e-9);
+  }
+
+  @Test
+  public void cluster_GroupsNearbyPoints() {
+    final ClusterIndex index = new ClusterIndex(new double[] {10, 10, 10.001, 10.001, -30, 60});
+
+    final List<ClusterIndex.Cluster> clusters = index.cluster(-180, -85, 180, 85, 3, 60, 2);
+
+    sortBySize(clusters);
+    assertEquals(2, clusters.size());
+    assertTrue(clusters.get(0).isLeaf());
+    assertArrayEquals(new int[] {2}, clusters.get(0).points);
+    assertEquals(-30, clusters.get(0).latitude, 1e-9);
+    assertEquals(2, clusters.get(1).points.length);
+    assertEquals(10.0005, clusters.get(1).latitude, 1e-4);
+  }
+
+  @Test
+  public void cluster_SplitsClustersWhenZoomingIn() {
+    final ClusterIndex index = new ClusterIndex(new double[] {10, 10, 10.5, 10.5});
+
+    assertEquals(1, index.cluster(-180, -85, 180, 85, 3, 60, 2).size());
+    assertEquals(2, index.cluster(-180, -85, 180, 85, 12, 60, 2).size());
+  }
+
+  @Test
+  public void cluster_OnlyIncludesPointsInRegion() {
+    final ClusterIndex index = new ClusterIndex(new double[] {0, 0, 0, 170, 0, -170});
+
+    final List<ClusterIndex.Cluster> clusters = index.cluster(-10, -10, 10, 10, 3, 60, 2);
+    assertEquals(1, clusters.size());
+    assertArrayEquals(new int[] {0}, clusters.get(0).points);
+
+    final List<ClusterIndex.Cluster> acrossAntimeridian =
+        index.cluster(160, -10, -160, 10, 3, 60, 2);
+    sortBySize(acrossAntimeridian);
+    assertEquals(2, acrossAntimeridian.size());
+  }
+
+  private static void sortBySize(List<ClusterIndex.Cluster> clusters) {
+    Collections.sort(
+        clusters,
+        new Comparator<ClusterIndex.Cluster>() {
+          @Override
+          public int compare(ClusterIndex.Cluster a, ClusterIndex.Cluster b) {
+            return a.points.length - b.points.length;
+          }
+        });
+    for (ClusterIndex.Cluster cluster : clusters) {
+      Arrays.sort(cluster.points);
+    }
+  }
+}
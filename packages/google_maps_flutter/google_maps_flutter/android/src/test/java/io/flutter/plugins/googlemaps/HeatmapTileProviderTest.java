@@ -0,0 +1,83 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+public class HeatmapTileProviderTest {
+  private static final int[] GRADIENT = {0xff00ff00, 0xffff0000};
+
+  @Test
+  public void render_DrawsPointsOnTheirTiles() {
+    final HeatmapTileProvider provider = new HeatmapTileProvider(10, GRADIENT, 1, 0);
+    provider.putPoints(Collections.singletonList("a"), new double[] {10, 10, 1});
+
+    assertNotNull(provider.render(0, 0, 0));
+    assertNotNull(provider.render(4, 3, 3));
+    assertNull(provider.render(0, 0, 3));
+  }
+
+  @Test
+  public void render_ColorsHighestIntensityWithLastColor() {
+    final HeatmapTileProvider provider = new HeatmapTileProvider(10, GRADIENT, 1, 0);
+    provider.putPoints(Collections.singletonList("a"), new double[] {0, 0, 1});
+
+    // At zoom level 1, the point is the top left corner of tile (1, 1).
+    final int[] pixels = provider.render(1, 1, 1);
+    assertEquals(0xffff0000, pixels[0]);
+    assertEquals(0, pixels[HeatmapTileProvider.TILE_SIZE * HeatmapTileProvider.TILE_SIZE - 1]);
+  }
+
+  @Test
+  public void render_ScalesToHighestIntensityAfterRemovingPoints() {
+    final HeatmapTileProvider provider = new HeatmapTileProvider(10, GRADIENT, 1, 0);
+    provider.putPoints(
+        Arrays.asList("a", "b", "c"), new double[] {0, 0, 1, 0, 0, 1, -10, -10, 1});
+    assertEquals(0xffff0000, provider.render(1, 1, 1)[0]);
+
+    provider.removePoints(Collections.singletonList("b"));
+
+    // The remaining point at (0, 0) is again as intense as the densest area.
+    assertEquals(0xffff0000, provider.render(1, 1, 1)[0]);
+  }
+
+  @Test
+  public void removePoints_ReturnsWhetherAnyPointChanged() {
+    final HeatmapTileProvider provider = new HeatmapTileProvider(10, GRADIENT, 1, 0);
+    provider.putPoints(Collections.singletonList("a"), new double[] {10, 10, 1});
+
+    assertFalse(provider.removePoints(Collections.singletonList("b")));
+    assertTrue(provider.removePoints(Arrays.asList("a", "b")));
+    assertEquals(0, provider.size());
+  }
+
+  @Test
+  public void render_FindsPointsAcrossTheAntimeridian() {
+    final HeatmapTileProvider provider = new HeatmapTileProvider(10, GRADIENT, 1, 0);
+    provider.putPoints(Collections.singletonList("a"), new double[] {0, 179.99, 1});
+
+    // The point is at the east edge of the world, next to the west edge of tile (0, 1).
+    final int[] pixels = provider.render(0, 1, 1);
+    assertNotNull(pixels);
+    assertTrue(pixels[0] != 0);
+  }
+
+  @Test
+  public void putPoints_ReplacesPointsWithSameId() {
+    final HeatmapTileProvider provider = new HeatmapTileProvider(10, GRADIENT, 1, 0);
+    provider.putPoints(Arrays.asList("a", "b"), new double[] {10, 10, 1, -10, -10, 1});
+    provider.putPoints(Collections.singletonList("a"), new double[] {-10, -10, 2});
+
+    assertEquals(2, provider.size());
+    assertNull(provider.render(4, 3, 3));
+    provider.removePoints(Collections.singletonList("b"));
+    assertEquals(1, provider.size());
+    assertNotNull(provider.render(3, 4, 3));
+  }
+}
@@ -0,0 +1,256 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.Projection;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.MarkerOptions;
+import com.google.android.gms.maps.model.VisibleRegion;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MarkersControllerTest {
+  private static final String ICON = "markers_controller_test";
+
+  private GoogleMap googleMap;
+  private Marker marker1;
+  private Marker marker2;
+  private MarkersController controller;
+
+  @Before
+  public void setUp() {
+    // Reused markers get the default icon from BitmapDescriptorFactory unless they have one, which
+    // needs the Maps SDK to be initialized.
+    BitmapDescriptorCache.getShared().register(ICON, mock(BitmapDescriptor.class));
+    googleMap = mock(GoogleMap.class);
+    marker1 = mock(Marker.class);
+    marker2 = mock(Marker.class);
+    when(marker1.getId()).thenReturn("m1");
+    when(marker2.getId()).thenReturn("m2");
+    when(googleMap.addMarker(any(MarkerOptions.class))).thenReturn(marker1, marker2);
+
+    controller = new MarkersController(mock(MethodChannel.class));
+    controller.setGoogleMap(googleMap);
+    controller.addMarkers(Arrays.<Object>asList(markerJson("marker_1"), markerJson("marker_2")));
+  }
+
+  @After
+  public void tearDown() {
+    BitmapDescriptorCache.getShared().unregister(ICON);
+  }
+
+  @Test
+  public void updateMarkerPositions_MovesMarkers() {
+    controller.updateMarkerPositions(
+        Arrays.<Object>asList("marker_1", "marker_2", "unknown"),
+        new double[] {1, 2, 3, 4, 5, 6},
+        null,
+        null,
+        null,
+        mock(MethodChannel.Result.class));
+
+    verify(marker1).setPosition(new LatLng(1, 2));
+    verify(marker2).setPosition(new LatLng(3, 4));
+    verify(marker1, never()).setRotation(anyFloat());
+    verify(marker1, never()).setIcon(any(BitmapDescriptor.class));
+  }
+
+  @Test
+  public void updateMarkerPositions_KeepsRotationsAndIconsThatAreNotSet() {
+    // BitmapDescriptorFactory needs the Maps SDK to be initialized, registered icons don't.
+    final BitmapDescriptor icon = mock(BitmapDescriptor.class);
+    BitmapDescriptorCache.getShared().register("pin", icon);
+    try {
+      controller.updateMarkerPositions(
+          Arrays.<Object>asList("marker_1", "marker_2"),
+          new double[] {1, 2, 3, 4},
+          new double[] {Double.NaN, 90},
+          new int[] {0, -1},
+          Collections.<Object>singletonList(Arrays.asList("registered", "pin")),
+          mock(MethodChannel.Result.class));
+    } finally {
+      BitmapDescriptorCache.getShared().unregister("pin");
+    }
+
+    verify(marker1, never()).setRotation(anyFloat());
+    verify(marker2).setRotation(90);
+    verify(marker1).setIcon(icon);
+    verify(marker2, never()).setIcon(any(BitmapDescriptor.class));
+  }
+
+  @Test
+  public void updateMarkerPositions_RejectsMismatchedLengthsWithoutMovingMarkers() {
+    final MethodChannel.Result result = mock(MethodChannel.Result.class);
+
+    controller.updateMarkerPositions(
+        Arrays.<Object>asList("marker_1", "marker_2"),
+        new double[] {1, 2, 3, 4},
+        new double[] {90},
+        null,
+        null,
+        result);
+
+    verify(result).error(eq("Invalid marker positions"), any(String.class), eq(null));
+    verify(result, never()).success(any());
+    verify(marker1, never()).setPosition(any(LatLng.class));
+  }
+
+  @Test
+  public void updateMarkerPositions_RejectsIconIndicesOutOfRange() {
+    final MethodChannel.Result result = mock(MethodChannel.Result.class);
+
+    controller.updateMarkerPositions(
+        Arrays.<Object>asList("marker_1", "marker_2"),
+        new double[] {1, 2, 3, 4},
+        null,
+        new int[] {-1, 1},
+        Collections.<Object>singletonList(Arrays.asList("registered", ICON)),
+        result);
+
+    verify(result).error(eq("Invalid marker positions"), any(String.class), eq(null));
+    verify(marker1, never()).setPosition(any(LatLng.class));
+  }
+
+  @Test
+  public void addMarkers_ReusesRemovedMarkers() {
+    controller.removeMarkers(Collections.<Object>singletonList("marker_1"));
+    verify(marker1).setVisible(false);
+
+    controller.addMarkers(Collections.<Object>singletonList(markerJson("marker_3", 5.0, 6.0)));
+    verify(googleMap, times(2)).addMarker(any(MarkerOptions.class));
+    verify(marker1, never()).remove();
+    verify(marker1).setPosition(new LatLng(5, 6));
+    verify(marker1).setVisible(true);
+
+    final Map<String, Object> stats = controller.getPoolStats();
+    assertEquals(0, stats.get("size"));
+    assertEquals(1, stats.get("hits"));
+    assertEquals(2, stats.get("misses"));
+  }
+
+  @Test
+  public void updateMarkers_RemovesMarkersBeforeAddingMarkers() {
+    controller.updateMarkers(
+        Collections.<Object>singletonList(markerJson("marker_3", 5.0, 6.0)),
+        null,
+        Collections.<Object>singletonList("marker_1"));
+
+    verify(googleMap, times(2)).addMarker(any(MarkerOptions.class));
+    verify(marker1).setPosition(new LatLng(5, 6));
+    assertEquals(1, controller.getPoolStats().get("hits"));
+  }
+
+  @Test
+  public void removeMarkers_RemovesMarkersBeyondPoolSize() {
+    final GoogleMap map = mock(GoogleMap.class);
+    when(map.addMarker(any(MarkerOptions.class))).thenReturn(marker1, marker2);
+    final MarkersController pooled =
+        new MarkersController(mock(MethodChannel.class), new MarkerPool(1));
+    pooled.setGoogleMap(map);
+    pooled.addMarkers(Arrays.<Object>asList(markerJson("marker_1"), markerJson("marker_2")));
+
+    pooled.removeMarkers(Arrays.<Object>asList("marker_1", "marker_2"));
+    verify(marker1, never()).remove();
+    verify(marker2).remove();
+    assertEquals(1, pooled.getPoolStats().get("size"));
+  }
+
+  @Test
+  public void cullOffscreenMarkers_OnlyAddsMarkersAroundVisibleRegion() {
+    final GoogleMap map = mock(GoogleMap.class);
+    final Projection projection = mock(Projection.class);
+    final Marker near = mock(Marker.class);
+    final Marker far = mock(Marker.class);
+    when(map.getProjection()).thenReturn(projection);
+    when(near.getId()).thenReturn("near");
+    when(far.getId()).thenReturn("far");
+    when(map.addMarker(any(MarkerOptions.class))).thenReturn(near, far);
+    setVisibleRegion(projection, 0, 0, 10, 10);
+    final MarkersController culled = new MarkersController(mock(MethodChannel.class));
+    culled.setGoogleMap(map);
+    culled.setCullOffscreenMarkers(true);
+
+    culled.addMarkers(
+        Arrays.<Object>asList(markerJson("near", 12.0, 12.0), markerJson("far", 50.0, 50.0)));
+    verify(map, times(1)).addMarker(any(MarkerOptions.class));
+
+    setVisibleRegion(projection, 1, 1, 11, 11);
+    culled.onCameraMove();
+    verify(map, times(1)).addMarker(any(MarkerOptions.class));
+
+    setVisibleRegion(projection, 45, 45, 55, 55);
+    culled.onCameraIdle();
+    verify(near).remove();
+    verify(map, times(2)).addMarker(any(MarkerOptions.class));
+  }
+
+  @Test
+  public void cullOffscreenMarkers_AddsCulledMarkersWhenDisabled() {
+    final GoogleMap map = mock(GoogleMap.class);
+    final Projection projection = mock(Projection.class);
+    when(map.getProjection()).thenReturn(projection);
+    when(map.addMarker(any(MarkerOptions.class))).thenReturn(marker1, marker2);
+    setVisibleRegion(projection, 0, 0, 10, 10);
+    final MarkersController culled = new MarkersController(mock(MethodChannel.class));
+    culled.setGoogleMap(map);
+    culled.setCullOffscreenMarkers(true);
+    culled.addMarkers(Collections.<Object>singletonList(markerJson("far", 50.0, 50.0)));
+    verify(map, never()).addMarker(any(MarkerOptions.class));
+
+    culled.setCullOffscreenMarkers(false);
+    verify(map).addMarker(any(MarkerOptions.class));
+  }
+
+  @Test
+  public void cullOffscreenMarkers_CanBeDisabledBeforeMapIsReady() {
+    final MarkersController culled = new MarkersController(mock(MethodChannel.class));
+    culled.setCullOffscreenMarkers(true);
+    culled.addMarkers(Collections.<Object>singletonList(markerJson("far", 50.0, 50.0)));
+
+    culled.setCullOffscreenMarkers(false);
+    assertEquals(0, culled.getPoolStats().get("misses"));
+  }
+
+  private static void setVisibleRegion(
+      Projection projection, double south, double west, double north, double east) {
+    final LatLng southwest = new LatLng(south, west);
+    final LatLng northeast = new LatLng(north, east);
+    when(projection.getVisibleRegion())
+        .thenReturn(
+            new VisibleRegion(
+                southwest, southwest, northeast, northeast, new LatLngBounds(southwest, northeast)));
+  }
+
+  private static Map<String, Object> markerJson(String markerId) {
+    return markerJson(markerId, 0.0, 0.0);
+  }
+
+  private static Map<String, Object> markerJson(
+      String markerId, double latitude, double longitude) {
+    final Map<String, Object> marker = new HashMap<>();
+    marker.put("markerId", markerId);
+    final List<Double> position = Arrays.asList(latitude, longitude);
+    marker.put("position", position);
+    marker.put("icon", Arrays.asList("registered", ICON));
+    return marker;
+  }
+}
@@ -0,0 +1,116 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.android.gms.maps.model.LatLng;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.Test;
+
+public class PathSimplifierTest {
+  private static final Executor DIRECT =
+      new Executor() {
+        @Override
+        public void execute(Runnable command) {
+          command.run();
+        }
+      };
+
+  private List<LatLng> shownPoints;
+
+  private final PathSimplifier.PointsSink sink =
+      new PathSimplifier.PointsSink() {
+        @Override
+        public void setPoints(List<LatLng> points) {
+          shownPoints = points;
+        }
+      };
+
+  @Test
+  public void simplifiedPath_DropsPointsWithinTolerance() {
+    // A straight line with a small bump and a large one.
+    final SimplifiedPath path =
+        new SimplifiedPath(
+            Arrays.asList(
+                new LatLng(0, 0),
+                new LatLng(0.001, 1),
+                new LatLng(0, 2),
+                new LatLng(5, 3),
+                new LatLng(0, 4)),
+            false);
+
+    assertEquals(5, path.getPoints().size());
+    assertEquals(
+        Arrays.asList(new LatLng(0, 0), new LatLng(5, 3), new LatLng(0, 4)),
+        path.getPoints(0, 2));
+    assertEquals(5, path.getPoints(20, 2).size());
+  }
+
+  @Test
+  public void simplifiedPath_KeepsAnAreaForClosedRings() {
+    final List<LatLng> ring =
+        Arrays.asList(new LatLng(0, 0), new LatLng(0.1, 0), new LatLng(0.1, 0.1), new LatLng(0, 0));
+
+    assertEquals(2, new SimplifiedPath(ring, false).getPoints(0, 10).size());
+    assertEquals(3, new SimplifiedPath(ring, true).getPoints(0, 10).size());
+  }
+
+  @Test
+  public void simplifier_ShowsSimplificationForZoom() {
+    final List<Runnable> background = new ArrayList<>();
+    final PathSimplifier simplifier =
+        new PathSimplifier(
+            sink,
+            false,
+            new Executor() {
+              @Override
+              public void execute(Runnable command) {
+                background.add(command);
+              }
+            },
+            DIRECT);
+    final List<LatLng> points = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      points.add(new LatLng(i % 2 == 0 ? 0 : 0.0001, i * 0.001));
+    }
+    simplifier.setZoom(5);
+    simplifier.setTolerance(1);
+
+    simplifier.setPoints(points);
+    assertEquals(1000, shownPoints.size());
+
+    background.get(0).run();
+    assertEquals(2, shownPoints.size());
+
+    simplifier.setZoom(21);
+    assertEquals(5000, shownPoints.size());
+
+    simplifier.setTolerance(0);
+    assertEquals(5000, shownPoints.size());
+  }
+
+  @Test
+  public void simplifier_DropsOutdatedSimplifications() {
+    final List<Runnable> background = new ArrayList<>();
+    final PathSimplifier simplifier =
+        new PathSimplifier(
+            sink,
+            false,
+            new Executor() {
+              @Override
+              public void execute(Runnable command) {
+                background.add(command);
+              }
+            },
+            DIRECT);
+    simplifier.setTolerance(1);
+    simplifier.setPoints(Arrays.asList(new LatLng(0, 0), new LatLng(0, 1), new LatLng(0, 2)));
+    final List<LatLng> latest = Arrays.asList(new LatLng(1, 0), new LatLng(1, 1));
+    simplifier.setPoints(latest);
+
+    background.get(0).run();
+    assertEquals(latest, shownPoints);
+  }
+}
@@ -0,0 +1,128 @@
+package io.flutter.plugins.googlemaps;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import android.graphics.Bitmap;
+import io.flutter.plugin.common.MethodChannel;
+import java.io.File;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class SnapshotEncoderTest {
+
+  private final List<Runnable> background = new ArrayList<>();
+  private final List<Runnable> main = new ArrayList<>();
+
+  @Test
+  public void encode_ReturnsBytesOnMainExecutor() {
+    final Bitmap bitmap = bitmapWritingBytes(new byte[] {1, 2, 3});
+    final MethodChannel.Result result = mock(MethodChannel.Result.class);
+    final SnapshotEncoder encoder =
+        new SnapshotEncoder(
+            Bitmap.CompressFormat.JPEG, 80, 1, null, queue(background), queue(main));
+
+    encoder.encode(bitmap, result);
+    background.remove(0).run();
+    verify(result, never()).success(any());
+    main.remove(0).run();
+
+    final ArgumentCaptor<Object> bytes = ArgumentCaptor.forClass(Object.class);
+    verify(result).success(bytes.capture());
+    assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) bytes.getValue());
+    verify(bitmap).compress(eq(Bitmap.CompressFormat.JPEG), eq(80), any(OutputStream.class));
+    verify(bitmap).recycle();
+  }
+
+  @Test
+  public void encode_WritesFile() throws Exception {
+    final File file = File.createTempFile("snapshot", ".png");
+    file.deleteOnExit();
+    final Bitmap bitmap = bitmapWritingBytes(new byte[] {4, 5});
+    final MethodChannel.Result result = mock(MethodChannel.Result.class);
+    final SnapshotEncoder encoder =
+        new SnapshotEncoder(
+            Bitmap.CompressFormat.PNG, 100, 1, file.getPath(), queue(background), queue(main));
+
+    encoder.encode(bitmap, result);
+    background.remove(0).run();
+    main.remove(0).run();
+
+    verify(result).success(null);
+    assertEquals(2, file.length());
+  }
+
+  @Test
+  public void encode_ReportsErrorWhenCompressionFails() {
+    final Bitmap bitmap = mock(Bitmap.class);
+    final MethodChannel.Result result = mock(MethodChannel.Result.class);
+    final SnapshotEncoder encoder =
+        new SnapshotEncoder(
+            Bitmap.CompressFormat.JPEG, 80, 1, null, queue(background), queue(main));
+
+    encoder.encode(bitmap, result);
+    background.remove(0).run();
+    main.remove(0).run();
+
+    verify(result).error(eq("Snapshot not written"), any(String.class), eq(null));
+    verify(result, never()).success(any());
+    verify(bitmap).recycle();
+  }
+
+  @Test
+  public void encode_ReportsErrorWhenCompressionThrows() {
+    final Bitmap bitmap = mock(Bitmap.class);
+    doThrow(new IllegalStateException("recycled"))
+        .when(bitmap)
+        .compress(any(Bitmap.CompressFormat.class), anyInt(), any(OutputStream.class));
+    final MethodChannel.Result result = mock(MethodChannel.Result.class);
+    final SnapshotEncoder encoder =
+        new SnapshotEncoder(
+            Bitmap.CompressFormat.JPEG, 80, 1, null, queue(background), queue(main));
+
+    encoder.encode(bitmap, result);
+    background.remove(0).run();
+    main.remove(0).run();
+
+    verify(result).error(eq("Snapshot not written"), any(String.class), eq(null));
+    verify(bitmap).recycle();
+  }
+
+  private static Bitmap bitmapWritingBytes(final byte[] bytes) {
+    final Bitmap bitmap = mock(Bitmap.class);
+    doAnswer(
+            new Answer<Boolean>() {
+              @Override
+              public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                ((OutputStream) invocation.getArgument(2)).write(bytes);
+                return true;
+              }
+            })
+        .when(bitmap)
+        .compress(any(Bitmap.CompressFormat.class), anyInt(), any(OutputStream.class));
+    return bitmap;
+  }
+
+  private static Executor queue(final List<Runnable> runnables) {
+    return new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        runnables.add(command);
+      }
+    };
+  }
+}
@@ -22,6 +22,7 @@ export 'package:google_maps_flutter_platform_interface/google_maps_flutter_platf
         ArgumentCallbacks,
         ArgumentCallback,
         BitmapDescriptor,
+        CameraMoveThrottle,
         CameraPosition,
         CameraPositionCallback,
         CameraTargetBounds,
@@ -29,6 +30,11 @@ export 'package:google_maps_flutter_platform_interface/google_maps_flutter_platf
         Cap,
         Circle,
         CircleId,
+        Cluster,
+        ClusterOptions,
+        ClusterPoint,
+        HeatmapOptions,
+        HeatmapPoint,
         InfoWindow,
         JointType,
         LatLng,
@@ -37,13 +43,17 @@ export 'package:google_maps_flutter_platform_interface/google_maps_flutter_platf
         MapType,
         Marker,
         MarkerId,
+        MarkerPoolStats,
+        MarkerPositions,
         MinMaxZoomPreference,
         PatternItem,
         Polygon,
         PolygonId,
         Polyline,
         PolylineId,
-        ScreenCoordinate;
+        ScreenCoordinate,
+        SnapshotFormat,
+        SnapshotOptions;
 
 part 'src/controller.dart';
 part 'src/google_map.dart';
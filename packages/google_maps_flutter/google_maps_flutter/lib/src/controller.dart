@@ -90,6 +90,9 @@ class GoogleMapController {
         .listen((MapTapEvent e) => _googleMapState.onTap(e.position));
     _googleMapsFlutterPlatform.onLongPress(mapId: mapId).listen(
         (MapLongPressEvent e) => _googleMapState.onLongPress(e.position));
+    _googleMapsFlutterPlatform
+        .onClusterTap(mapId: mapId)
+        .listen((ClusterTapEvent e) => _googleMapState.onClusterTap(e.value));
   }
 
   /// Updates configuration options of the map user interface.
@@ -116,6 +119,127 @@ class GoogleMapController {
         mapId: mapId);
   }
 
+  /// Moves many markers at once.
+  ///
+  /// This is much faster than rebuilding the [GoogleMap] with moved [Marker]s
+  /// when thousands of markers move together, as only the changed positions,
+  /// rotations and icons are sent to the platform.
+  ///
+  /// Markers that aren't on the map are ignored. A moved marker goes back to
+  /// the options of its [Marker] when that marker is changed in a rebuild of
+  /// the [GoogleMap].
+  ///
+  /// This feature is only available on Android.
+  ///
+  /// The returned [Future] completes after the markers have been moved on the
+  /// platform side.
+  Future<void> updateMarkerPositions(MarkerPositions markerPositions) {
+    assert(markerPositions != null);
+    return _googleMapsFlutterPlatform.updateMarkerPositions(markerPositions,
+        mapId: mapId);
+  }
+
+  /// Registers [bitmap] with [id], so that markers can use it as their icon
+  /// through [BitmapDescriptor.registered].
+  ///
+  /// The image is decoded once and shared by all the maps of the app, and
+  /// marker updates only carry its [id]. Registering another image with the
+  /// same [id] only affects the markers updated afterwards.
+  ///
+  /// Images of other [BitmapDescriptor]s are cached too, but can be evicted
+  /// when many different images are used, while a registered image is kept
+  /// until [unregisterBitmapDescriptor] is called.
+  ///
+  /// This feature is only available on Android.
+  Future<void> registerBitmapDescriptor(String id, BitmapDescriptor bitmap) {
+    assert(id != null);
+    assert(bitmap != null);
+    return _googleMapsFlutterPlatform.registerBitmapDescriptor(id, bitmap,
+        mapId: mapId);
+  }
+
+  /// Removes the image registered with [id] by [registerBitmapDescriptor].
+  ///
+  /// Markers already showing the image keep it.
+  ///
+  /// This feature is only available on Android.
+  Future<void> unregisterBitmapDescriptor(String id) {
+    assert(id != null);
+    return _googleMapsFlutterPlatform.unregisterBitmapDescriptor(id,
+        mapId: mapId);
+  }
+
+  /// Shows [points] on the map grouped into clusters, replacing the points
+  /// shown by a previous call.
+  ///
+  /// Points that are close to each other on screen are shown as one marker
+  /// labelled with their count, and are split up again as the map zooms in.
+  /// Only the clusters around the visible region are added to the map, so
+  /// this scales to far more points than there can be [Marker]s. Taps on the
+  /// clusters are reported to [GoogleMap.onClusterTap].
+  ///
+  /// This feature is only available on Android.
+  ///
+  /// The returned [Future] completes after the clusters have been shown on the
+  /// platform side.
+  Future<void> setClusterPoints(
+    List<ClusterPoint> points, {
+    ClusterOptions options = const ClusterOptions(),
+  }) {
+    assert(points != null);
+    assert(options != null);
+    return _googleMapsFlutterPlatform.setClusterPoints(points, options,
+        mapId: mapId);
+  }
+
+  /// Removes the points shown by [setClusterPoints] from the map.
+  ///
+  /// This feature is only available on Android.
+  Future<void> clearClusterPoints() {
+    return _googleMapsFlutterPlatform.clearClusterPoints(mapId: mapId);
+  }
+
+  /// Draws a heatmap of [points] on the map, replacing the previous heatmap.
+  ///
+  /// The heatmap is rendered as tiles on the platform side, so it can show
+  /// far more points than [Circle]s could.
+  ///
+  /// This feature is only available on Android.
+  Future<void> setHeatmapPoints(
+    List<HeatmapPoint> points, {
+    HeatmapOptions options = const HeatmapOptions(),
+  }) {
+    assert(points != null);
+    assert(options != null);
+    return _googleMapsFlutterPlatform.setHeatmapPoints(points, options,
+        mapId: mapId);
+  }
+
+  /// Adds or moves [pointsToAdd] and removes the points with
+  /// [pointIdsToRemove] from the heatmap drawn by [setHeatmapPoints].
+  ///
+  /// Points are matched by [HeatmapPoint.id], and only the tiles of the
+  /// changed points are rendered again.
+  ///
+  /// This feature is only available on Android.
+  Future<void> updateHeatmapPoints({
+    List<HeatmapPoint> pointsToAdd = const <HeatmapPoint>[],
+    List<String> pointIdsToRemove = const <String>[],
+  }) {
+    assert(pointsToAdd != null);
+    assert(pointIdsToRemove != null);
+    return _googleMapsFlutterPlatform.updateHeatmapPoints(
+        pointsToAdd, pointIdsToRemove,
+        mapId: mapId);
+  }
+
+  /// Removes the heatmap drawn by [setHeatmapPoints] from the map.
+  ///
+  /// This feature is only available on Android.
+  Future<void> clearHeatmap() {
+    return _googleMapsFlutterPlatform.clearHeatmap(mapId: mapId);
+  }
+
   /// Updates polygon configuration.
   ///
   /// Change listeners are notified once the update has been made on the
@@ -254,8 +378,37 @@ class GoogleMapController {
     return _googleMapsFlutterPlatform.getZoomLevel(mapId: mapId);
   }
 
+  /// Returns how often added markers reused the native markers of removed
+  /// markers, rather than creating new ones.
+  ///
+  /// Up to 100 removed markers are kept hidden on the map to be reused.
+  ///
+  /// This feature is only available on Android.
+  Future<MarkerPoolStats> getMarkerPoolStats() {
+    return _googleMapsFlutterPlatform.getMarkerPoolStats(mapId: mapId);
+  }
+
   /// Returns the image bytes of the map
-  Future<Uint8List> takeSnapshot() {
-    return _googleMapsFlutterPlatform.takeSnapshot(mapId: mapId);
+  ///
+  /// The snapshot is a PNG unless [options] sets another format, quality or
+  /// scale. If [SnapshotOptions.filePath] is set, the snapshot is written to
+  /// that file and null is returned.
+  ///
+  /// [options] are only honored on Android, where the snapshot is also encoded
+  /// off the platform thread. iOS ignores the format, quality and scale and
+  /// always returns a PNG at the scale of the screen. It can't write the
+  /// snapshot to a file, so setting [SnapshotOptions.filePath] on iOS throws an
+  /// [UnsupportedError].
+  Future<Uint8List> takeSnapshot([SnapshotOptions options]) {
+    if (options == null) {
+      return _googleMapsFlutterPlatform.takeSnapshot(mapId: mapId);
+    }
+    if (options.filePath != null &&
+        defaultTargetPlatform == TargetPlatform.iOS) {
+      throw UnsupportedError(
+          'SnapshotOptions.filePath is only supported on Android.');
+    }
+    return _googleMapsFlutterPlatform.takeSnapshotWithOptions(options,
+        mapId: mapId);
   }
 }
@@ -23,6 +23,7 @@ class GoogleMap extends StatefulWidget {
     this.compassEnabled = true,
     this.mapToolbarEnabled = true,
     this.cameraTargetBounds = CameraTargetBounds.unbounded,
+    this.cameraMoveThrottle = CameraMoveThrottle.unlimited,
     this.mapType = MapType.normal,
     this.minMaxZoomPreference = MinMaxZoomPreference.unbounded,
     this.rotateGesturesEnabled = true,
@@ -39,6 +40,7 @@ class GoogleMap extends StatefulWidget {
     this.indoorViewEnabled = false,
     this.trafficEnabled = false,
     this.buildingsEnabled = true,
+    this.cullOffscreenMarkers = false,
     this.markers,
     this.polygons,
     this.polylines,
@@ -48,6 +50,7 @@ class GoogleMap extends StatefulWidget {
     this.onCameraIdle,
     this.onTap,
     this.onLongPress,
+    this.onClusterTap,
   })  : assert(initialCameraPosition != null),
         super(key: key);
 
@@ -131,6 +134,11 @@ class GoogleMap extends StatefulWidget {
   /// not perform expensive operations.
   final CameraPositionCallback onCameraMove;
 
+  /// Limits how often [onCameraMove] is called while the camera is moving.
+  ///
+  /// This feature is only available on Android.
+  final CameraMoveThrottle cameraMoveThrottle;
+
   /// Called when camera movement has ended, there are no pending
   /// animations and the user has stopped interacting with the map.
   final VoidCallback onCameraIdle;
@@ -141,6 +149,10 @@ class GoogleMap extends StatefulWidget {
   /// Called every time a [GoogleMap] is long pressed.
   final ArgumentCallback<LatLng> onLongPress;
 
+  /// Called every time a cluster or a single point shown by
+  /// [GoogleMapController.setClusterPoints] is tapped.
+  final ArgumentCallback<Cluster> onClusterTap;
+
   /// True if a "My Location" layer should be shown on the map.
   ///
   /// This layer includes a location indicator at the current device location,
@@ -188,6 +200,17 @@ class GoogleMap extends StatefulWidget {
   /// Enables or disables showing 3D buildings where available
   final bool buildingsEnabled;
 
+  /// True if only the [markers] near the visible region should be on the map.
+  ///
+  /// With thousands of markers spread over a large area, keeping only the
+  /// markers within half a screen of the visible region on the platform map
+  /// makes its memory use and rendering cost depend on how many markers are
+  /// visible rather than on how many there are. Markers are added and removed
+  /// as the camera moves, and an offscreen marker loses its open info window.
+  ///
+  /// This feature is only available on Android.
+  final bool cullOffscreenMarkers;
+
   /// Which gestures should be consumed by the map.
   ///
   /// It is possible for other gesture recognizers to be competing with the map on pointer
@@ -359,6 +382,13 @@ class _GoogleMapState extends State<GoogleMap> {
       widget.onLongPress(position);
     }
   }
+
+  void onClusterTap(Cluster cluster) {
+    assert(cluster != null);
+    if (widget.onClusterTap != null) {
+      widget.onClusterTap(cluster);
+    }
+  }
 }
 
 /// Configuration options for the GoogleMaps user interface.
@@ -370,6 +400,7 @@ class _GoogleMapOptions {
     this.compassEnabled,
     this.mapToolbarEnabled,
     this.cameraTargetBounds,
+    this.cameraMoveThrottle,
     this.mapType,
     this.minMaxZoomPreference,
     this.rotateGesturesEnabled,
@@ -385,6 +416,7 @@ class _GoogleMapOptions {
     this.indoorViewEnabled,
     this.trafficEnabled,
     this.buildingsEnabled,
+    this.cullOffscreenMarkers,
   }) {
     assert(liteModeEnabled == null ||
         !liteModeEnabled ||
@@ -396,6 +428,7 @@ class _GoogleMapOptions {
       compassEnabled: map.compassEnabled,
       mapToolbarEnabled: map.mapToolbarEnabled,
       cameraTargetBounds: map.cameraTargetBounds,
+      cameraMoveThrottle: map.cameraMoveThrottle,
       mapType: map.mapType,
       minMaxZoomPreference: map.minMaxZoomPreference,
       rotateGesturesEnabled: map.rotateGesturesEnabled,
@@ -411,6 +444,7 @@ class _GoogleMapOptions {
       indoorViewEnabled: map.indoorViewEnabled,
       trafficEnabled: map.trafficEnabled,
       buildingsEnabled: map.buildingsEnabled,
+      cullOffscreenMarkers: map.cullOffscreenMarkers,
     );
   }
 
@@ -420,6 +454,8 @@ class _GoogleMapOptions {
 
   final CameraTargetBounds cameraTargetBounds;
 
+  final CameraMoveThrottle cameraMoveThrottle;
+
   final MapType mapType;
 
   final MinMaxZoomPreference minMaxZoomPreference;
@@ -450,6 +486,8 @@ class _GoogleMapOptions {
 
   final bool buildingsEnabled;
 
+  final bool cullOffscreenMarkers;
+
   Map<String, dynamic> toMap() {
     final Map<String, dynamic> optionsMap = <String, dynamic>{};
 
@@ -462,6 +500,7 @@ class _GoogleMapOptions {
     addIfNonNull('compassEnabled', compassEnabled);
     addIfNonNull('mapToolbarEnabled', mapToolbarEnabled);
     addIfNonNull('cameraTargetBounds', cameraTargetBounds?.toJson());
+    addIfNonNull('cameraMoveThrottle', cameraMoveThrottle?.toJson());
     addIfNonNull('mapType', mapType?.index);
     addIfNonNull('minMaxZoomPreference', minMaxZoomPreference?.toJson());
     addIfNonNull('rotateGesturesEnabled', rotateGesturesEnabled);
@@ -482,6 +521,7 @@ class _GoogleMapOptions {
     addIfNonNull('indoorEnabled', indoorViewEnabled);
     addIfNonNull('trafficEnabled', trafficEnabled);
     addIfNonNull('buildingsEnabled', buildingsEnabled);
+    addIfNonNull('cullOffscreenMarkers', cullOffscreenMarkers);
     return optionsMap;
   }
 
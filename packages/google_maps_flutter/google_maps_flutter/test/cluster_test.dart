@@ -0,0 +1,62 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:async';
+
+import 'package:flutter/services.dart';
+import 'package:flutter/widgets.dart';
+import 'package:flutter_test/flutter_test.dart';
+import 'package:google_maps_flutter/google_maps_flutter.dart';
+
+import 'fake_maps_controllers.dart';
+
+void main() {
+  TestWidgetsFlutterBinding.ensureInitialized();
+
+  final FakePlatformViewsController fakePlatformViewsController =
+      FakePlatformViewsController();
+
+  setUpAll(() {
+    SystemChannels.platform_views.setMockMethodCallHandler(
+        fakePlatformViewsController.fakePlatformViewsMethodHandler);
+  });
+
+  setUp(() {
+    fakePlatformViewsController.reset();
+  });
+
+  testWidgets('Setting and clearing cluster points',
+      (WidgetTester tester) async {
+    final Completer<GoogleMapController> controllerCompleter =
+        Completer<GoogleMapController>();
+    await tester.pumpWidget(Directionality(
+      textDirection: TextDirection.ltr,
+      child: GoogleMap(
+        initialCameraPosition: const CameraPosition(target: LatLng(10.0, 15.0)),
+        onMapCreated: controllerCompleter.complete,
+      ),
+    ));
+    final GoogleMapController controller = await controllerCompleter.future;
+
+    await controller.setClusterPoints(
+      const <ClusterPoint>[
+        ClusterPoint("point_1", LatLng(1.0, 2.0)),
+        ClusterPoint("point_2", LatLng(3.0, 4.0)),
+      ],
+      options: const ClusterOptions(gridSize: 80.0, minClusterSize: 3),
+    );
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    final Map<dynamic, dynamic> sent = platformGoogleMap.clusterPoints;
+    expect(sent['pointIds'], <String>["point_1", "point_2"]);
+    expect(sent['positions'], <double>[1.0, 2.0, 3.0, 4.0]);
+    expect(sent['options']['gridSize'], 80.0);
+    expect(sent['options']['minClusterSize'], 3);
+    expect(sent['options'].containsKey('leafIcon'), false);
+
+    await controller.clearClusterPoints();
+    expect(platformGoogleMap.clusterPoints, isNull);
+  });
+}
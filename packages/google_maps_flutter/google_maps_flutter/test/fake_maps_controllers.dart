@@ -55,6 +55,10 @@ class FakePlatformGoogleMap {
 
   bool buildingsEnabled;
 
+  bool cullOffscreenMarkers;
+
+  CameraMoveThrottle cameraMoveThrottle;
+
   bool myLocationButtonEnabled;
 
   List<dynamic> padding;
@@ -65,6 +69,22 @@ class FakePlatformGoogleMap {
 
   Set<Marker> markersToChange;
 
+  Map<dynamic, dynamic> markerPositions;
+
+  Map<dynamic, dynamic> clusterPoints;
+
+  Map<dynamic, dynamic> heatmapPoints;
+
+  Map<dynamic, dynamic> heatmapUpdates;
+
+  Map<dynamic, dynamic> snapshotOptions;
+
+  Map<String, int> markerPoolStats = <String, int>{
+    'size': 0,
+    'hits': 0,
+    'misses': 0,
+  };
+
   Set<PolygonId> polygonIdsToRemove;
 
   Set<Polygon> polygonsToAdd;
@@ -91,6 +111,31 @@ class FakePlatformGoogleMap {
       case 'markers#update':
         updateMarkers(call.arguments);
         return Future<void>.sync(() {});
+      case 'markers#updatePositions':
+        markerPositions = call.arguments;
+        return Future<void>.sync(() {});
+      case 'clusters#setPoints':
+        clusterPoints = call.arguments;
+        return Future<void>.sync(() {});
+      case 'clusters#clear':
+        clusterPoints = null;
+        return Future<void>.sync(() {});
+      case 'heatmap#setPoints':
+        heatmapPoints = call.arguments;
+        heatmapUpdates = null;
+        return Future<void>.sync(() {});
+      case 'heatmap#updatePoints':
+        heatmapUpdates = call.arguments;
+        return Future<void>.sync(() {});
+      case 'heatmap#clear':
+        heatmapPoints = null;
+        heatmapUpdates = null;
+        return Future<void>.sync(() {});
+      case 'markers#getPoolStats':
+        return Future<Map<String, int>>.sync(() => markerPoolStats);
+      case 'map#takeSnapshot':
+        snapshotOptions = call.arguments;
+        return Future<void>.sync(() {});
       case 'polygons#update':
         updatePolygons(call.arguments);
         return Future<void>.sync(() {});
@@ -260,12 +305,15 @@ class FakePlatformGoogleMap {
       final bool visible = polylineData['visible'];
       final bool geodesic = polylineData['geodesic'];
       final List<LatLng> points = _deserializePoints(polylineData['points']);
+      final double simplificationTolerance =
+          polylineData['simplificationTolerance'];
 
       result.add(Polyline(
         polylineId: PolylineId(polylineId),
         visible: visible,
         geodesic: geodesic,
         points: points,
+        simplificationTolerance: simplificationTolerance,
       ));
     }
 
@@ -373,6 +421,19 @@ class FakePlatformGoogleMap {
     if (options.containsKey('buildingsEnabled')) {
       buildingsEnabled = options['buildingsEnabled'];
     }
+    if (options.containsKey('cullOffscreenMarkers')) {
+      cullOffscreenMarkers = options['cullOffscreenMarkers'];
+    }
+    if (options.containsKey('cameraMoveThrottle')) {
+      final List<dynamic> throttleList = options['cameraMoveThrottle'];
+      cameraMoveThrottle = CameraMoveThrottle(
+        maxUpdatesPerSecond: throttleList[0],
+        minZoomDelta: throttleList[1],
+        minTargetDelta: throttleList[2],
+        minBearingDelta: throttleList[3],
+        minTiltDelta: throttleList[4],
+      );
+    }
     if (options.containsKey('padding')) {
       padding = options['padding'];
     }
@@ -587,4 +587,69 @@ void main() {
 
     expect(platformGoogleMap.buildingsEnabled, true);
   });
+
+  testWidgets('Can update offscreen marker culling',
+      (WidgetTester tester) async {
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+          cullOffscreenMarkers: true,
+        ),
+      ),
+    );
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+
+    expect(platformGoogleMap.cullOffscreenMarkers, true);
+
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+        ),
+      ),
+    );
+
+    expect(platformGoogleMap.cullOffscreenMarkers, false);
+  });
+
+  testWidgets('Can update camera move throttle', (WidgetTester tester) async {
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+          cameraMoveThrottle: CameraMoveThrottle(
+            maxUpdatesPerSecond: 10,
+            minZoomDelta: 0.1,
+          ),
+        ),
+      ),
+    );
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+
+    expect(
+        platformGoogleMap.cameraMoveThrottle,
+        const CameraMoveThrottle(
+          maxUpdatesPerSecond: 10,
+          minZoomDelta: 0.1,
+        ));
+
+    await tester.pumpWidget(
+      const Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition: CameraPosition(target: LatLng(10.0, 15.0)),
+        ),
+      ),
+    );
+
+    expect(platformGoogleMap.cameraMoveThrottle, CameraMoveThrottle.unlimited);
+  });
 }
@@ -0,0 +1,77 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:async';
+
+import 'package:flutter/services.dart';
+import 'package:flutter/widgets.dart';
+import 'package:flutter_test/flutter_test.dart';
+import 'package:google_maps_flutter/google_maps_flutter.dart';
+
+import 'fake_maps_controllers.dart';
+
+void main() {
+  TestWidgetsFlutterBinding.ensureInitialized();
+
+  final FakePlatformViewsController fakePlatformViewsController =
+      FakePlatformViewsController();
+
+  setUpAll(() {
+    SystemChannels.platform_views.setMockMethodCallHandler(
+        fakePlatformViewsController.fakePlatformViewsMethodHandler);
+  });
+
+  setUp(() {
+    fakePlatformViewsController.reset();
+  });
+
+  testWidgets('Setting, updating and clearing heatmap points',
+      (WidgetTester tester) async {
+    final Completer<GoogleMapController> controllerCompleter =
+        Completer<GoogleMapController>();
+    await tester.pumpWidget(Directionality(
+      textDirection: TextDirection.ltr,
+      child: GoogleMap(
+        initialCameraPosition: const CameraPosition(target: LatLng(10.0, 15.0)),
+        onMapCreated: controllerCompleter.complete,
+      ),
+    ));
+    final GoogleMapController controller = await controllerCompleter.future;
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+
+    await controller.setHeatmapPoints(
+      const <HeatmapPoint>[
+        HeatmapPoint("point_1", LatLng(1.0, 2.0)),
+        HeatmapPoint("point_2", LatLng(3.0, 4.0), weight: 2.0),
+      ],
+      options: const HeatmapOptions(
+        radius: 30,
+        gradient: <Color>[Color(0xff0000ff), Color(0xffff0000)],
+      ),
+    );
+
+    final Map<dynamic, dynamic> sent = platformGoogleMap.heatmapPoints;
+    expect(sent['pointIds'], <String>["point_1", "point_2"]);
+    expect(sent['points'], <double>[1.0, 2.0, 1.0, 3.0, 4.0, 2.0]);
+    expect(sent['options']['radius'], 30);
+    expect(sent['options']['gradient'], <int>[0xff0000ff, 0xffff0000]);
+    expect(sent['options'].containsKey('maxIntensity'), false);
+
+    await controller.updateHeatmapPoints(
+      pointsToAdd: const <HeatmapPoint>[
+        HeatmapPoint("point_1", LatLng(5.0, 6.0)),
+      ],
+      pointIdsToRemove: <String>["point_2"],
+    );
+
+    final Map<dynamic, dynamic> updates = platformGoogleMap.heatmapUpdates;
+    expect(updates['pointIds'], <String>["point_1"]);
+    expect(updates['points'], <double>[5.0, 6.0, 1.0]);
+    expect(updates['pointIdsToRemove'], <String>["point_2"]);
+
+    await controller.clearHeatmap();
+    expect(platformGoogleMap.heatmapPoints, isNull);
+  });
+}
@@ -2,6 +2,9 @@
 // Use of this source code is governed by a BSD-style license that can be
 // found in the LICENSE file.
 
+import 'dart:async';
+import 'dart:typed_data';
+
 import 'package:flutter/services.dart';
 import 'package:flutter/widgets.dart';
 import 'package:flutter_test/flutter_test.dart';
@@ -213,4 +216,67 @@ void main() {
     expect(platformGoogleMap.markerIdsToRemove.isEmpty, true);
     expect(platformGoogleMap.markersToAdd.isEmpty, true);
   });
+
+  testWidgets("Moving markers in bulk", (WidgetTester tester) async {
+    final Completer<GoogleMapController> controllerCompleter =
+        Completer<GoogleMapController>();
+    final BitmapDescriptor icon = BitmapDescriptor.defaultMarker;
+    await tester.pumpWidget(Directionality(
+      textDirection: TextDirection.ltr,
+      child: GoogleMap(
+        initialCameraPosition: const CameraPosition(target: LatLng(10.0, 15.0)),
+        markers: _toSet(
+          m1: Marker(markerId: MarkerId("marker_1")),
+          m2: Marker(markerId: MarkerId("marker_2")),
+          m3: Marker(markerId: MarkerId("marker_3")),
+        ),
+        onMapCreated: controllerCompleter.complete,
+      ),
+    ));
+    final GoogleMapController controller = await controllerCompleter.future;
+
+    final MarkerPositions positions = MarkerPositions()
+      ..add(MarkerId("marker_1"), const LatLng(1.0, 2.0), icon: icon)
+      ..add(MarkerId("marker_2"), const LatLng(3.0, 4.0), rotation: 90.0)
+      ..add(MarkerId("marker_3"), const LatLng(5.0, 6.0), icon: icon);
+    await controller.updateMarkerPositions(positions);
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    final Map<dynamic, dynamic> sent = platformGoogleMap.markerPositions;
+    expect(sent['markerIds'], <String>["marker_1", "marker_2", "marker_3"]);
+    expect(sent['positions'], <double>[1.0, 2.0, 3.0, 4.0, 5.0, 6.0]);
+    expect(sent['rotations'], isA<Float64List>());
+    expect(sent['rotations'][0].isNaN, true);
+    expect(sent['rotations'][1], 90.0);
+    expect(sent['iconIndices'], <int>[0, -1, 0]);
+    expect(sent['icons'], hasLength(1));
+    expect(platformGoogleMap.markersToChange.isEmpty, true);
+  });
+
+  testWidgets('Reading marker pool stats', (WidgetTester tester) async {
+    final Completer<GoogleMapController> controllerCompleter =
+        Completer<GoogleMapController>();
+    await tester.pumpWidget(Directionality(
+      textDirection: TextDirection.ltr,
+      child: GoogleMap(
+        initialCameraPosition: const CameraPosition(target: LatLng(10.0, 15.0)),
+        onMapCreated: controllerCompleter.complete,
+      ),
+    ));
+    final GoogleMapController controller = await controllerCompleter.future;
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    platformGoogleMap.markerPoolStats = <String, int>{
+      'size': 2,
+      'hits': 3,
+      'misses': 1,
+    };
+
+    final MarkerPoolStats stats = await controller.getMarkerPoolStats();
+    expect(stats.size, 2);
+    expect(stats.hits, 3);
+    expect(stats.misses, 1);
+    expect(stats.hitRate, 0.75);
+  });
 }
@@ -130,6 +130,23 @@ void main() {
     expect(update.geodesic, true);
   });
 
+  testWidgets("Updating a polyline's simplification tolerance",
+      (WidgetTester tester) async {
+    final Polyline p1 = Polyline(polylineId: PolylineId("polyline_1"));
+    final Polyline p2 = p1.copyWith(simplificationToleranceParam: 2.0);
+
+    await tester.pumpWidget(_mapWithPolylines(_toSet(p1: p1)));
+    await tester.pumpWidget(_mapWithPolylines(_toSet(p1: p2)));
+
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+    expect(platformGoogleMap.polylinesToChange.length, 1);
+
+    final Polyline update = platformGoogleMap.polylinesToChange.first;
+    expect(update, equals(p2));
+    expect(update.simplificationTolerance, 2.0);
+  });
+
   testWidgets("Mutate a polyline", (WidgetTester tester) async {
     final Polyline p1 = Polyline(
       polylineId: PolylineId("polyline_1"),
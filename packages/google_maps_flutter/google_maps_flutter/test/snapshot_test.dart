@@ -0,0 +1,88 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:async';
+
+import 'package:flutter/foundation.dart';
+import 'package:flutter/services.dart';
+import 'package:flutter/widgets.dart';
+import 'package:flutter_test/flutter_test.dart';
+import 'package:google_maps_flutter/google_maps_flutter.dart';
+
+import 'fake_maps_controllers.dart';
+
+void main() {
+  TestWidgetsFlutterBinding.ensureInitialized();
+
+  final FakePlatformViewsController fakePlatformViewsController =
+      FakePlatformViewsController();
+
+  setUpAll(() {
+    SystemChannels.platform_views.setMockMethodCallHandler(
+        fakePlatformViewsController.fakePlatformViewsMethodHandler);
+  });
+
+  setUp(() {
+    fakePlatformViewsController.reset();
+  });
+
+  testWidgets('Taking a snapshot with options', (WidgetTester tester) async {
+    final Completer<GoogleMapController> controllerCompleter =
+        Completer<GoogleMapController>();
+    await tester.pumpWidget(Directionality(
+      textDirection: TextDirection.ltr,
+      child: GoogleMap(
+        initialCameraPosition: const CameraPosition(target: LatLng(10.0, 15.0)),
+        onMapCreated: controllerCompleter.complete,
+      ),
+    ));
+    final GoogleMapController controller = await controllerCompleter.future;
+    final FakePlatformGoogleMap platformGoogleMap =
+        fakePlatformViewsController.lastCreatedView;
+
+    await controller.takeSnapshot();
+    expect(platformGoogleMap.snapshotOptions, isNull);
+
+    await controller.takeSnapshot(const SnapshotOptions(
+      format: SnapshotFormat.jpeg,
+      quality: 80,
+      scale: 0.5,
+      filePath: '/tmp/map.jpg',
+    ));
+    expect(platformGoogleMap.snapshotOptions, <String, dynamic>{
+      'format': 1,
+      'quality': 80,
+      'scale': 0.5,
+      'filePath': '/tmp/map.jpg',
+    });
+  });
+
+  testWidgets('Writing a snapshot to a file is rejected on iOS',
+      (WidgetTester tester) async {
+    debugDefaultTargetPlatformOverride = TargetPlatform.iOS;
+    try {
+      final Completer<GoogleMapController> controllerCompleter =
+          Completer<GoogleMapController>();
+      await tester.pumpWidget(Directionality(
+        textDirection: TextDirection.ltr,
+        child: GoogleMap(
+          initialCameraPosition:
+              const CameraPosition(target: LatLng(10.0, 15.0)),
+          onMapCreated: controllerCompleter.complete,
+        ),
+      ));
+      final GoogleMapController controller = await controllerCompleter.future;
+      final FakePlatformGoogleMap platformGoogleMap =
+          fakePlatformViewsController.lastCreatedView;
+
+      expect(
+          () => controller.takeSnapshot(
+              const SnapshotOptions(filePath: '/tmp/map.png')),
+          throwsUnsupportedError);
+      expect(platformGoogleMap.snapshotOptions, isNull);
+    } finally {
+      debugDefaultTargetPlatformOverride = null;
+    }
+  });
+}
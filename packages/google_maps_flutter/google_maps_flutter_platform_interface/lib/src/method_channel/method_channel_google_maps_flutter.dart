@@ -105,6 +105,11 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
     return _events(mapId).whereType<CircleTapEvent>();
   }
 
+  @override
+  Stream<ClusterTapEvent> onClusterTap({@required int mapId}) {
+    return _events(mapId).whereType<ClusterTapEvent>();
+  }
+
   @override
   Stream<MapTapEvent> onTap({@required int mapId}) {
     return _events(mapId).whereType<MapTapEvent>();
@@ -166,6 +171,12 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
           CircleId(call.arguments['circleId']),
         ));
         break;
+      case 'cluster#onTap':
+        _mapEventStreamController.add(ClusterTapEvent(
+          mapId,
+          Cluster.fromJson(call.arguments),
+        ));
+        break;
       case 'map#onTap':
         _mapEventStreamController.add(MapTapEvent(
           mapId,
@@ -221,6 +232,113 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
     );
   }
 
+  /// Moves many markers at once, see [MarkerPositions].
+  ///
+  /// The returned [Future] completes after the markers have been moved on the
+  /// platform side.
+  @override
+  Future<void> updateMarkerPositions(
+    MarkerPositions markerPositions, {
+    @required int mapId,
+  }) {
+    assert(markerPositions != null);
+    return channel(mapId).invokeMethod<void>(
+      'markers#updatePositions',
+      markerPositions.toJson(),
+    );
+  }
+
+  /// Registers [bitmap] as the image of [BitmapDescriptor.registered] with
+  /// [id], for all the maps of the app.
+  @override
+  Future<void> registerBitmapDescriptor(
+    String id,
+    BitmapDescriptor bitmap, {
+    @required int mapId,
+  }) {
+    assert(id != null);
+    assert(bitmap != null);
+    return channel(mapId).invokeMethod<void>(
+      'bitmaps#register',
+      <String, dynamic>{'id': id, 'bitmap': bitmap.toJson()},
+    );
+  }
+
+  /// Removes the image registered with [id].
+  @override
+  Future<void> unregisterBitmapDescriptor(
+    String id, {
+    @required int mapId,
+  }) {
+    assert(id != null);
+    return channel(mapId).invokeMethod<void>(
+      'bitmaps#unregister',
+      <String, dynamic>{'id': id},
+    );
+  }
+
+  /// Replaces the points clustered on the map with [points].
+  ///
+  /// The returned [Future] completes after the clusters around the visible
+  /// region have been shown on the platform side.
+  @override
+  Future<void> setClusterPoints(
+    List<ClusterPoint> points,
+    ClusterOptions options, {
+    @required int mapId,
+  }) {
+    assert(points != null);
+    assert(options != null);
+    final Map<String, dynamic> json = clusterPointsToJson(points);
+    json['options'] = options.toJson();
+    return channel(mapId).invokeMethod<void>('clusters#setPoints', json);
+  }
+
+  /// Removes all the points clustered on the map.
+  @override
+  Future<void> clearClusterPoints({
+    @required int mapId,
+  }) {
+    return channel(mapId).invokeMethod<void>('clusters#clear');
+  }
+
+  /// Replaces the points drawn on the map's heatmap with [points].
+  @override
+  Future<void> setHeatmapPoints(
+    List<HeatmapPoint> points,
+    HeatmapOptions options, {
+    @required int mapId,
+  }) {
+    assert(points != null);
+    assert(options != null);
+    final Map<String, dynamic> json = heatmapPointsToJson(points);
+    json['options'] = options.toJson();
+    return channel(mapId).invokeMethod<void>('heatmap#setPoints', json);
+  }
+
+  /// Adds or moves [pointsToAdd] and removes the points with
+  /// [pointIdsToRemove] from the map's heatmap.
+  @override
+  Future<void> updateHeatmapPoints(
+    List<HeatmapPoint> pointsToAdd,
+    List<String> pointIdsToRemove, {
+    @required int mapId,
+  }) {
+    assert(pointsToAdd != null);
+    assert(pointIdsToRemove != null);
+    final Map<String, dynamic> json = heatmapPointsToJson(pointsToAdd);
+    json['pointIdsToRemove'] = pointIdsToRemove;
+    return channel(mapId).invokeMethod<void>('heatmap#updatePoints', json);
+  }
+
+  /// Removes the map's heatmap.
+  @override
+  Future<void> clearHeatmap({
+    @required int mapId,
+  }) {
+    return channel(mapId).invokeMethod<void>('heatmap#clear');
+  }
+
   /// Updates polygon configuration.
   ///
   /// Change listeners are notified once the update has been made on the
@@ -437,6 +555,16 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
     return channel(mapId).invokeMethod<double>('map#getZoomLevel');
   }
 
+  /// Returns how often added markers reused the markers of removed markers.
+  @override
+  Future<MarkerPoolStats> getMarkerPoolStats({
+    @required int mapId,
+  }) async {
+    final Map<String, int> stats = await channel(mapId)
+        .invokeMapMethod<String, int>('markers#getPoolStats');
+    return MarkerPoolStats.fromJson(stats);
+  }
+
   /// Returns the image bytes of the map
   @override
   Future<Uint8List> takeSnapshot({
@@ -445,6 +573,17 @@ class MethodChannelGoogleMapsFlutter extends GoogleMapsFlutterPlatform {
     return channel(mapId).invokeMethod<Uint8List>('map#takeSnapshot');
   }
 
+  /// Returns the image bytes of the map, encoded as set by [options].
+  @override
+  Future<Uint8List> takeSnapshotWithOptions(
+    SnapshotOptions options, {
+    @required int mapId,
+  }) {
+    assert(options != null);
+    return channel(mapId)
+        .invokeMethod<Uint8List>('map#takeSnapshot', options.toJson());
+  }
+
   /// This method builds the appropriate platform view where the map
   /// can be rendered.
   /// The `mapId` is passed as a parameter from the framework on the
@@ -76,6 +76,83 @@ abstract class GoogleMapsFlutterPlatform extends PlatformInterface {
     throw UnimplementedError('updateMarkers() has not been implemented.');
   }
 
+  /// Moves many markers at once, see [MarkerPositions].
+  ///
+  /// The returned [Future] completes after the markers have been moved on the
+  /// platform side.
+  Future<void> updateMarkerPositions(
+    MarkerPositions markerPositions, {
+    @required int mapId,
+  }) {
+    throw UnimplementedError(
+        'updateMarkerPositions() has not been implemented.');
+  }
+
+  /// Registers [bitmap] as the image of [BitmapDescriptor.registered] with
+  /// [id], for all the maps of the app.
+  Future<void> registerBitmapDescriptor(
+    String id,
+    BitmapDescriptor bitmap, {
+    @required int mapId,
+  }) {
+    throw UnimplementedError(
+        'registerBitmapDescriptor() has not been implemented.');
+  }
+
+  /// Removes the image registered with [id].
+  Future<void> unregisterBitmapDescriptor(
+    String id, {
+    @required int mapId,
+  }) {
+    throw UnimplementedError(
+        'unregisterBitmapDescriptor() has not been implemented.');
+  }
+
+  /// Replaces the points clustered on the map with [points].
+  ///
+  /// The returned [Future] completes after the clusters around the visible
+  /// region have been shown on the platform side.
+  Future<void> setClusterPoints(
+    List<ClusterPoint> points,
+    ClusterOptions options, {
+    @required int mapId,
+  }) {
+    throw UnimplementedError('setClusterPoints() has not been implemented.');
+  }
+
+  /// Removes all the points clustered on the map.
+  Future<void> clearClusterPoints({
+    @required int mapId,
+  }) {
+    throw UnimplementedError('clearClusterPoints() has not been implemented.');
+  }
+
+  /// Replaces the points drawn on the map's heatmap with [points].
+  Future<void> setHeatmapPoints(
+    List<HeatmapPoint> points,
+    HeatmapOptions options, {
+    @required int mapId,
+  }) {
+    throw UnimplementedError('setHeatmapPoints() has not been implemented.');
+  }
+
+  /// Adds or moves [pointsToAdd] and removes the points with
+  /// [pointIdsToRemove] from the map's heatmap.
+  Future<void> updateHeatmapPoints(
+    List<HeatmapPoint> pointsToAdd,
+    List<String> pointIdsToRemove, {
+    @required int mapId,
+  }) {
+    throw UnimplementedError('updateHeatmapPoints() has not been implemented.');
+  }
+
+  /// Removes the map's heatmap.
+  Future<void> clearHeatmap({
+    @required int mapId,
+  }) {
+    throw UnimplementedError('clearHeatmap() has not been implemented.');
+  }
+
   /// Updates polygon configuration.
   ///
   /// Change listeners are notified once the update has been made on the
@@ -239,6 +316,13 @@ abstract class GoogleMapsFlutterPlatform extends PlatformInterface {
     throw UnimplementedError('getZoomLevel() has not been implemented.');
   }
 
+  /// Returns how often added markers reused the markers of removed markers.
+  Future<MarkerPoolStats> getMarkerPoolStats({
+    @required int mapId,
+  }) {
+    throw UnimplementedError('getMarkerPoolStats() has not been implemented.');
+  }
+
   /// Returns the image bytes of the map
   Future<Uint8List> takeSnapshot({
     @required int mapId,
@@ -246,6 +330,17 @@ abstract class GoogleMapsFlutterPlatform extends PlatformInterface {
     throw UnimplementedError('takeSnapshot() has not been implemented.');
   }
 
+  /// Returns the image bytes of the map, encoded as set by [options].
+  ///
+  /// Returns null if [SnapshotOptions.filePath] is set.
+  Future<Uint8List> takeSnapshotWithOptions(
+    SnapshotOptions options, {
+    @required int mapId,
+  }) {
+    throw UnimplementedError(
+        'takeSnapshotWithOptions() has not been implemented.');
+  }
+
   // The following are the 11 possible streams of data from the native side
   // into the plugin
 
@@ -299,6 +394,11 @@ abstract class GoogleMapsFlutterPlatform extends PlatformInterface {
     throw UnimplementedError('onTap() has not been implemented.');
   }
 
+  /// A [Cluster] has been tapped.
+  Stream<ClusterTapEvent> onClusterTap({@required int mapId}) {
+    throw UnimplementedError('onClusterTap() has not been implemented.');
+  }
+
   /// A Map has been long-pressed at a certain [LatLng].
   Stream<MapLongPressEvent> onLongPress({@required int mapId}) {
     throw UnimplementedError('onLongPress() has not been implemented.');
@@ -109,6 +109,16 @@ class BitmapDescriptor {
     return BitmapDescriptor._(<dynamic>['fromBytes', byteData]);
   }
 
+  /// Creates a BitmapDescriptor that refers to the image registered with [id]
+  /// by [GoogleMapController.registerBitmapDescriptor].
+  ///
+  /// Markers using a registered image only send its [id] to the platform,
+  /// rather than the image itself.
+  static BitmapDescriptor registered(String id) {
+    assert(id != null);
+    return BitmapDescriptor._(<dynamic>['registered', id]);
+  }
+
   final dynamic _json;
 
   /// Convert the object to a Json format.
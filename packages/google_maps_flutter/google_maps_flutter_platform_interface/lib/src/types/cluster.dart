@@ -0,0 +1,112 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:typed_data';
+
+import 'package:meta/meta.dart' show immutable, required;
+
+import 'types.dart';
+
+/// A point shown on the map as part of a cluster, or as a marker of its own.
+///
+/// Unlike [Marker]s, clustered points carry no options and are never sent to
+/// the platform one by one, so hundreds of thousands of them can be shown.
+@immutable
+class ClusterPoint {
+  /// Creates a clustered point with [id] at [position].
+  const ClusterPoint(this.id, this.position)
+      : assert(id != null),
+        assert(position != null);
+
+  /// Identifies this point in the [Cluster]s it is part of.
+  final String id;
+
+  /// The geographical location of this point.
+  final LatLng position;
+}
+
+/// Configures how clustered points are grouped and shown.
+@immutable
+class ClusterOptions {
+  /// Creates cluster options.
+  const ClusterOptions({
+    this.gridSize = 60,
+    this.minClusterSize = 2,
+    this.leafIcon,
+  })  : assert(gridSize != null && gridSize > 0),
+        assert(minClusterSize != null && minClusterSize > 0);
+
+  /// The size in logical pixels of the squares in which points are grouped.
+  final double gridSize;
+
+  /// The smallest number of points in a square that are shown as a cluster.
+  ///
+  /// Each point in a square with fewer points is shown as a marker of its own.
+  final int minClusterSize;
+
+  /// The icon of the points that are not part of a cluster.
+  ///
+  /// The default marker is used when this is null.
+  final BitmapDescriptor leafIcon;
+
+  /// Converts this object to something serializable in JSON.
+  dynamic toJson() {
+    final Map<String, dynamic> json = <String, dynamic>{
+      'gridSize': gridSize,
+      'minClusterSize': minClusterSize,
+    };
+    if (leafIcon != null) {
+      json['leafIcon'] = leafIcon.toJson();
+    }
+    return json;
+  }
+}
+
+/// Packs the ids and positions of [points] for the platform side.
+Map<String, dynamic> clusterPointsToJson(List<ClusterPoint> points) {
+  final Float64List positions = Float64List(2 * points.length);
+  for (int i = 0; i < points.length; i++) {
+    positions[2 * i] = points[i].position.latitude;
+    positions[2 * i + 1] = points[i].position.longitude;
+  }
+  return <String, dynamic>{
+    'pointIds': points.map<String>((ClusterPoint point) => point.id).toList(),
+    'positions': positions,
+  };
+}
+
+/// A group of [ClusterPoint]s shown as one marker, or a single point.
+@immutable
+class Cluster {
+  /// Creates a cluster of the points with [pointIds].
+  const Cluster({
+    @required this.position,
+    @required this.pointIds,
+    @required this.bounds,
+  });
+
+  /// The position of the cluster's marker.
+  final LatLng position;
+
+  /// The ids of the points in this cluster.
+  final List<String> pointIds;
+
+  /// The smallest bounds containing all the points in this cluster.
+  final LatLngBounds bounds;
+
+  /// Initialize a Cluster from the platform's description of it.
+  static Cluster fromJson(dynamic json) {
+    if (json == null) {
+      return null;
+    }
+    return Cluster(
+      position: LatLng.fromJson(json['position']),
+      pointIds: List<String>.from(json['pointIds']),
+      bounds: LatLngBounds(
+        southwest: LatLng.fromJson(json['bounds']['southwest']),
+        northeast: LatLng.fromJson(json['bounds']['northeast']),
+      ),
+    );
+  }
+}
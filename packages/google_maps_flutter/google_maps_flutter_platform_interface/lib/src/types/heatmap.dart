@@ -0,0 +1,88 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:typed_data';
+
+import 'package:flutter/material.dart' show Color;
+import 'package:meta/meta.dart' show immutable;
+
+import 'types.dart';
+
+/// A weighted point drawn on a heatmap.
+@immutable
+class HeatmapPoint {
+  /// Creates a heatmap point with [id] at [position].
+  const HeatmapPoint(this.id, this.position, {this.weight = 1.0})
+      : assert(id != null),
+        assert(position != null),
+        assert(weight != null && weight >= 0);
+
+  /// Identifies this point, so that it can be moved or removed later.
+  final String id;
+
+  /// The geographical location of this point.
+  final LatLng position;
+
+  /// How much this point adds to the heatmap's intensity around it.
+  final double weight;
+}
+
+/// Configures how a heatmap is drawn.
+@immutable
+class HeatmapOptions {
+  /// Creates heatmap options.
+  const HeatmapOptions({
+    this.radius = 20,
+    this.opacity = 0.7,
+    this.maxIntensity,
+    this.gradient,
+  })  : assert(radius != null && radius > 0),
+        assert(opacity != null && opacity >= 0 && opacity <= 1);
+
+  /// The radius in logical pixels of the blur drawn around each point.
+  final int radius;
+
+  /// The opacity of the heatmap, from 0 (invisible) to 1.
+  final double opacity;
+
+  /// The intensity drawn with the last color of [gradient].
+  ///
+  /// When this is null, each zoom level is scaled to its densest area.
+  final double maxIntensity;
+
+  /// The colors from the lowest to the highest intensity, evenly spread.
+  ///
+  /// A green to red gradient is used when this is null.
+  final List<Color> gradient;
+
+  /// Converts this object to something serializable in JSON.
+  dynamic toJson() {
+    final Map<String, dynamic> json = <String, dynamic>{
+      'radius': radius,
+      'opacity': opacity,
+    };
+    if (maxIntensity != null) {
+      json['maxIntensity'] = maxIntensity;
+    }
+    if (gradient != null) {
+      json['gradient'] =
+          gradient.map<int>((Color color) => color.value).toList();
+    }
+    return json;
+  }
+}
+
+/// Packs the ids, positions and weights of [points] for the platform side.
+Map<String, dynamic> heatmapPointsToJson(List<HeatmapPoint> points) {
+  final Float64List data = Float64List(3 * points.length);
+  for (int i = 0; i < points.length; i++) {
+    data[3 * i] = points[i].position.latitude;
+    data[3 * i + 1] = points[i].position.longitude;
+    data[3 * i + 2] = points[i].weight;
+  }
+  return <String, dynamic>{
+    'pointIds': points.map<String>((HeatmapPoint point) => point.id).toList(),
+    'points': data,
+  };
+}
@@ -0,0 +1,44 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:meta/meta.dart' show immutable, required;
+
+/// How often added markers reused hidden markers left by removed markers.
+@immutable
+class MarkerPoolStats {
+  /// Creates marker pool stats.
+  const MarkerPoolStats({
+    @required this.size,
+    @required this.hits,
+    @required this.misses,
+  });
+
+  /// The number of hidden markers waiting to be reused.
+  final int size;
+
+  /// The number of added markers that reused a hidden marker.
+  final int hits;
+
+  /// The number of added markers that had to be created.
+  final int misses;
+
+  /// The share of added markers that reused a hidden marker, from 0 to 1.
+  double get hitRate => hits + misses == 0 ? 0 : hits / (hits + misses);
+
+  /// Initialize MarkerPoolStats from the platform's description of them.
+  static MarkerPoolStats fromJson(dynamic json) {
+    if (json == null) {
+      return null;
+    }
+    return MarkerPoolStats(
+      size: json['size'],
+      hits: json['hits'],
+      misses: json['misses'],
+    );
+  }
+
+  @override
+  String toString() =>
+      'MarkerPoolStats(size: $size, hits: $hits, misses: $misses)';
+}
@@ -0,0 +1,92 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:typed_data';
+
+import 'types.dart';
+
+/// Position changes of many [Marker]s, sent to the platform as packed arrays.
+///
+/// Moving thousands of markers through [MarkerUpdates] serializes, and
+/// interprets on the platform side, every option of every marker. A batch of
+/// [MarkerPositions] only carries the marker ids, their positions and
+/// optionally their rotations and icons, so the platform only moves the
+/// markers.
+///
+/// Each distinct [BitmapDescriptor] instance is sent once per batch, however
+/// many markers use it.
+class MarkerPositions {
+  final List<String> _markerIds = <String>[];
+  final List<double> _positions = <double>[];
+  final List<double> _rotations = <double>[];
+  final List<int> _iconIndices = <int>[];
+  final List<BitmapDescriptor> _icons = <BitmapDescriptor>[];
+  final Map<BitmapDescriptor, int> _iconToIndex =
+      Map<BitmapDescriptor, int>.identity();
+  bool _hasRotations = false;
+  bool _hasIcons = false;
+
+  /// Moves the marker with [markerId] to [position].
+  ///
+  /// The marker's rotation and icon are changed too when [rotation] and
+  /// [icon] are not null.
+  void add(
+    MarkerId markerId,
+    LatLng position, {
+    double rotation,
+    BitmapDescriptor icon,
+  }) {
+    assert(markerId != null);
+    assert(position != null);
+    _markerIds.add(markerId.value);
+    _positions..add(position.latitude)..add(position.longitude);
+    // NaN and -1 keep the marker's current rotation and icon.
+    _rotations.add(rotation ?? double.nan);
+    _hasRotations = _hasRotations || rotation != null;
+    _iconIndices.add(icon == null
+        ? -1
+        : _iconToIndex.putIfAbsent(icon, () {
+            _icons.add(icon);
+            return _icons.length - 1;
+          }));
+    _hasIcons = _hasIcons || icon != null;
+  }
+
+  /// The number of markers in this batch.
+  int get length => _markerIds.length;
+
+  /// The id of the marker at [index] in this batch.
+  MarkerId markerIdAt(int index) => MarkerId(_markerIds[index]);
+
+  /// The position the marker at [index] in this batch is moved to.
+  LatLng positionAt(int index) =>
+      LatLng(_positions[2 * index], _positions[2 * index + 1]);
+
+  /// The rotation of the marker at [index] in this batch, or null if it isn't
+  /// changed.
+  double rotationAt(int index) =>
+      _rotations[index].isNaN ? null : _rotations[index];
+
+  /// The icon of the marker at [index] in this batch, or null if it isn't
+  /// changed.
+  BitmapDescriptor iconAt(int index) =>
+      _iconIndices[index] < 0 ? null : _icons[_iconIndices[index]];
+
+  /// Converts this object to something serializable in JSON.
+  Map<String, dynamic> toJson() {
+    final Map<String, dynamic> json = <String, dynamic>{
+      'markerIds': _markerIds,
+      'positions': Float64List.fromList(_positions),
+    };
+    if (_hasRotations) {
+      json['rotations'] = Float64List.fromList(_rotations);
+    }
+    if (_hasIcons) {
+      json['iconIndices'] = Int32List.fromList(_iconIndices);
+      json['icons'] =
+          _icons.map<dynamic>((BitmapDescriptor icon) => icon.toJson()).toList();
+    }
+    return json;
+  }
+}
@@ -50,6 +50,7 @@ class Polygon {
     this.strokeWidth = 10,
     this.visible = true,
     this.zIndex = 0,
+    this.simplificationTolerance = 0,
     this.onTap,
   });
 
@@ -96,6 +97,18 @@ class Polygon {
   /// earlier, and thus appearing to be closer to the surface of the Earth.
   final int zIndex;
 
+  /// How far, in logical pixels, the drawn polygon may be from its [points].
+  ///
+  /// When this is greater than 0, the polygon is drawn through a
+  /// Douglas-Peucker simplification of its points for the current zoom level,
+  /// which keeps the map fast with hundreds of thousands of points. The full
+  /// points are kept on the platform side, and the simplification is updated
+  /// when the camera stops at another zoom level. The default value of 0 draws
+  /// all the points.
+  ///
+  /// This feature is only available on Android.
+  final double simplificationTolerance;
+
   /// Callbacks to receive tap events for polygon placed on this map.
   final VoidCallback onTap;
 
@@ -110,6 +123,7 @@ class Polygon {
     int strokeWidthParam,
     bool visibleParam,
     int zIndexParam,
+    double simplificationToleranceParam,
     VoidCallback onTapParam,
   }) {
     return Polygon(
@@ -123,6 +137,8 @@ class Polygon {
       visible: visibleParam ?? visible,
       onTap: onTapParam ?? onTap,
       zIndex: zIndexParam ?? zIndex,
+      simplificationTolerance:
+          simplificationToleranceParam ?? simplificationTolerance,
     );
   }
 
@@ -149,6 +165,7 @@ class Polygon {
     addIfPresent('strokeWidth', strokeWidth);
     addIfPresent('visible', visible);
     addIfPresent('zIndex', zIndex);
+    addIfPresent('simplificationTolerance', simplificationTolerance);
 
     if (points != null) {
       json['points'] = _pointsToJson();
@@ -170,7 +187,8 @@ class Polygon {
         visible == typedOther.visible &&
         strokeColor == typedOther.strokeColor &&
         strokeWidth == typedOther.strokeWidth &&
-        zIndex == typedOther.zIndex;
+        zIndex == typedOther.zIndex &&
+        simplificationTolerance == typedOther.simplificationTolerance;
   }
 
   @override
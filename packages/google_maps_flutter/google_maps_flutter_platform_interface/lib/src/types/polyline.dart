@@ -55,6 +55,7 @@ class Polyline {
     this.visible = true,
     this.width = 10,
     this.zIndex = 0,
+    this.simplificationTolerance = 0,
     this.onTap,
   });
 
@@ -128,6 +129,18 @@ class Polyline {
   /// earlier, and thus appearing to be closer to the surface of the Earth.
   final int zIndex;
 
+  /// How far, in logical pixels, the drawn polyline may be from its [points].
+  ///
+  /// When this is greater than 0, the polyline is drawn through a
+  /// Douglas-Peucker simplification of its points for the current zoom level,
+  /// which keeps the map fast with hundreds of thousands of points. The full
+  /// points are kept on the platform side, and the simplification is updated
+  /// when the camera stops at another zoom level. The default value of 0 draws
+  /// all the points.
+  ///
+  /// This feature is only available on Android.
+  final double simplificationTolerance;
+
   /// Callbacks to receive tap events for polyline placed on this map.
   final VoidCallback onTap;
 
@@ -145,6 +158,7 @@ class Polyline {
     bool visibleParam,
     int widthParam,
     int zIndexParam,
+    double simplificationToleranceParam,
     VoidCallback onTapParam,
   }) {
     return Polyline(
@@ -161,6 +175,8 @@ class Polyline {
       width: widthParam ?? width,
       onTap: onTapParam ?? onTap,
       zIndex: zIndexParam ?? zIndex,
+      simplificationTolerance:
+          simplificationToleranceParam ?? simplificationTolerance,
     );
   }
 
@@ -193,6 +209,7 @@ class Polyline {
     addIfPresent('visible', visible);
     addIfPresent('width', width);
     addIfPresent('zIndex', zIndex);
+    addIfPresent('simplificationTolerance', simplificationTolerance);
 
     if (points != null) {
       json['points'] = _pointsToJson();
@@ -221,7 +238,8 @@ class Polyline {
         endCap == typedOther.endCap &&
         visible == typedOther.visible &&
         width == typedOther.width &&
-        zIndex == typedOther.zIndex;
+        zIndex == typedOther.zIndex &&
+        simplificationTolerance == typedOther.simplificationTolerance;
   }
 
   @override
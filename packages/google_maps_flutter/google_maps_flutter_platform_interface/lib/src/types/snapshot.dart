@@ -0,0 +1,61 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:meta/meta.dart' show immutable;
+
+/// Image format of a map snapshot.
+enum SnapshotFormat {
+  /// Lossless PNG, which ignores [SnapshotOptions.quality].
+  png,
+
+  /// Lossy JPEG.
+  jpeg,
+
+  /// WebP, which is lossless at [SnapshotOptions.quality] 100.
+  webp,
+}
+
+/// Configures how a map snapshot is encoded, and where it goes.
+@immutable
+class SnapshotOptions {
+  /// Creates snapshot options.
+  const SnapshotOptions({
+    this.format = SnapshotFormat.png,
+    this.quality = 100,
+    this.scale = 1.0,
+    this.filePath,
+  })  : assert(format != null),
+        assert(quality != null && quality >= 0 && quality <= 100),
+        assert(scale != null && scale > 0);
+
+  /// The image format of the snapshot.
+  final SnapshotFormat format;
+
+  /// The quality of lossy formats, from 0 (smallest) to 100 (best).
+  final int quality;
+
+  /// The size of the snapshot relative to the size of the map on screen.
+  ///
+  /// Smaller snapshots are faster to encode and to send.
+  final double scale;
+
+  /// The path of a file the snapshot is written to.
+  ///
+  /// When this is set, the snapshot is not returned, so that its bytes don't
+  /// have to be copied over the platform channel. Only supported on Android.
+  final String filePath;
+
+  /// Converts this object to something serializable in JSON.
+  dynamic toJson() {
+    final Map<String, dynamic> json = <String, dynamic>{
+      'format': format.index,
+      'quality': quality,
+      'scale': scale,
+    };
+    if (filePath != null) {
+      json['filePath'] = filePath;
+    }
+    return json;
+  }
+}
@@ -9,8 +9,12 @@ export 'camera.dart';
 export 'cap.dart';
 export 'circle_updates.dart';
 export 'circle.dart';
+export 'cluster.dart';
+export 'heatmap.dart';
 export 'joint_type.dart';
 export 'location.dart';
+export 'marker_pool_stats.dart';
+export 'marker_positions.dart';
 export 'marker_updates.dart';
 export 'marker.dart';
 export 'pattern_item.dart';
@@ -19,6 +23,7 @@ export 'polygon.dart';
 export 'polyline_updates.dart';
 export 'polyline.dart';
 export 'screen_coordinate.dart';
+export 'snapshot.dart';
 export 'ui.dart';
 
 // Export the utils, they're used by the Widget
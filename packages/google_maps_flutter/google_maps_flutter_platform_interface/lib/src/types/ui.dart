@@ -105,6 +105,76 @@ class MinMaxZoomPreference {
   }
 }
 
+/// Limits how often the map reports camera moves while the camera is moving.
+///
+/// Moves that come too soon, or move the camera too little, are held back
+/// and only the latest of them is reported once it is due. The camera's final
+/// position is always reported before the camera becomes idle.
+class CameraMoveThrottle {
+  /// Creates a camera move throttle.
+  ///
+  /// A null [maxUpdatesPerSecond] doesn't limit the rate of the reported
+  /// moves.
+  const CameraMoveThrottle({
+    this.maxUpdatesPerSecond,
+    this.minZoomDelta = 0,
+    this.minTargetDelta = 0,
+    this.minBearingDelta = 0,
+    this.minTiltDelta = 0,
+  }) : assert(maxUpdatesPerSecond == null || maxUpdatesPerSecond > 0);
+
+  /// The most camera moves reported per second, or null if unlimited.
+  final int maxUpdatesPerSecond;
+
+  /// The smallest change of zoom level reported as a move.
+  final double minZoomDelta;
+
+  /// The smallest change of latitude or longitude of the camera target, in
+  /// degrees, reported as a move.
+  final double minTargetDelta;
+
+  /// The smallest change of bearing, in degrees, reported as a move.
+  final double minBearingDelta;
+
+  /// The smallest change of tilt, in degrees, reported as a move.
+  final double minTiltDelta;
+
+  /// Reports every camera move.
+  static const CameraMoveThrottle unlimited = CameraMoveThrottle();
+
+  /// Converts this object to something serializable in JSON.
+  dynamic toJson() => <dynamic>[
+        maxUpdatesPerSecond,
+        minZoomDelta,
+        minTargetDelta,
+        minBearingDelta,
+        minTiltDelta,
+      ];
+
+  @override
+  bool operator ==(dynamic other) {
+    if (identical(this, other)) return true;
+    if (runtimeType != other.runtimeType) return false;
+    final CameraMoveThrottle typedOther = other;
+    return maxUpdatesPerSecond == typedOther.maxUpdatesPerSecond &&
+        minZoomDelta == typedOther.minZoomDelta &&
+        minTargetDelta == typedOther.minTargetDelta &&
+        minBearingDelta == typedOther.minBearingDelta &&
+        minTiltDelta == typedOther.minTiltDelta;
+  }
+
+  @override
+  int get hashCode => hashValues(maxUpdatesPerSecond, minZoomDelta,
+      minTargetDelta, minBearingDelta, minTiltDelta);
+
+  @override
+  String toString() {
+    return 'CameraMoveThrottle(maxUpdatesPerSecond: $maxUpdatesPerSecond, '
+        'minZoomDelta: $minZoomDelta, minTargetDelta: $minTargetDelta, '
+        'minBearingDelta: $minBearingDelta, minTiltDelta: $minTiltDelta)';
+  }
+}
+
 /// Exception when a map style is invalid or was unable to be set.
 ///
 /// See also: `setStyle` on [GoogleMapController] for why this exception